@@ -11,11 +11,13 @@ import java.time.Instant;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.tracker.EventTracker;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -31,14 +33,17 @@ public class ConcurrentEventTrackerBenchmark {
 
         private static final int CAPACITY = 8_192;
 
-        private InspectableEventTracker tracker;
+        @Param({ "sliding", "concurrent" })
+        public String implementation;
+
+        private EventTracker tracker;
         private SignedNostrEvent newestEvent;
         private AtomicLong sequence;
         private long baseTimestamp;
 
         @Setup(Level.Trial)
         public void setUp() {
-            tracker = new InspectableEventTracker(CAPACITY);
+            tracker = BenchmarkEventTrackers.create(implementation, CAPACITY);
             baseTimestamp = Instant.now().getEpochSecond() - CAPACITY;
             for (int i = 0; i < CAPACITY; i++) {
                 newestEvent = BenchmarkEventFactory.event(baseTimestamp + i, 30, i);
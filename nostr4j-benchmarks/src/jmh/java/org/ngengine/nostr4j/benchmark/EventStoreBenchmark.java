@@ -0,0 +1,119 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * See the LICENSE file in the project root for the full license text.
+ */
+package org.ngengine.nostr4j.benchmark;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.ngengine.nostr4j.NostrFilter;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.store.EventStore;
+import org.ngengine.nostr4j.store.InMemoryEventStore;
+import org.ngengine.nostr4j.store.WeakInMemoryEventStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Mixed read/write throughput of the in-memory event stores.
+ * <p>
+ * The {@code mixed} group runs three readers per writer; the standalone benchmarks can be swept across
+ * thread counts with {@code -t 1,2,4,8,16,32}.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EventStoreBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class SharedState {
+
+        private static final int PRELOADED_EVENTS = 8_192;
+
+        @Param({ "strong", "weak" })
+        public String store;
+
+        private EventStore eventStore;
+        private List<SignedNostrEvent> retained;
+        private AtomicLong sequence;
+        private long baseTimestamp;
+        private List<NostrFilter> latestPage;
+        private List<NostrFilter> timeRange;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            eventStore = "weak".equals(store) ? new WeakInMemoryEventStore() : new InMemoryEventStore();
+            retained = Collections.synchronizedList(new ArrayList<>());
+            baseTimestamp = Instant.now().getEpochSecond() - PRELOADED_EVENTS;
+            for (int i = 0; i < PRELOADED_EVENTS; i++) {
+                SignedNostrEvent event = BenchmarkEventFactory.event(baseTimestamp + i, 40, i);
+                retained.add(event);
+                eventStore.addEvent(event);
+            }
+            sequence = new AtomicLong(PRELOADED_EVENTS);
+            latestPage = Collections.singletonList(new NostrFilter().limit(50));
+            timeRange = Collections.singletonList(
+                new NostrFilter()
+                    .since(Instant.ofEpochSecond(baseTimestamp + PRELOADED_EVENTS / 2))
+                    .until(Instant.ofEpochSecond(baseTimestamp + PRELOADED_EVENTS / 2 + 100))
+            );
+        }
+
+        private SignedNostrEvent nextEvent() {
+            long next = sequence.getAndIncrement();
+            SignedNostrEvent event = BenchmarkEventFactory.event(baseTimestamp + next, 40, next);
+            // keep the weak store comparable to the strong one
+            retained.add(event);
+            return event;
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedWrite(SharedState state) {
+        state.eventStore.addEvent(state.nextEvent());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public List<SignedNostrEvent> mixedRead(SharedState state) {
+        return state.eventStore.getEvents(state.latestPage);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void write(SharedState state) {
+        state.eventStore.addEvent(state.nextEvent());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<SignedNostrEvent> readLatestPage(SharedState state) {
+        return state.eventStore.getEvents(state.latestPage);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<SignedNostrEvent> readTimeRange(SharedState state) {
+        return state.eventStore.getEvents(state.timeRange);
+    }
+}
@@ -10,6 +10,7 @@ package org.ngengine.nostr4j.benchmark;
 import java.time.Instant;
 import java.util.concurrent.TimeUnit;
 import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.tracker.EventTracker;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Level;
@@ -30,7 +31,10 @@ public class EventTrackerBenchmark {
         @Param({ "1024", "8192", "65536" })
         public int capacity;
 
-        private InspectableEventTracker tracker;
+        @Param({ "sliding", "ring", "bloom", "concurrent" })
+        public String implementation;
+
+        private EventTracker tracker;
         private SignedNostrEvent newestEvent;
         private SignedNostrEvent oldestEvent;
         private long sequence;
@@ -38,7 +42,7 @@ public class EventTrackerBenchmark {
 
         @Setup(Level.Trial)
         public void setUp() {
-            tracker = new InspectableEventTracker(capacity);
+            tracker = BenchmarkEventTrackers.create(implementation, capacity);
             baseTimestamp = Instant.now().getEpochSecond() - capacity;
             for (int i = 0; i < capacity; i++) {
                 SignedNostrEvent event = BenchmarkEventFactory.event(baseTimestamp + i, 1, i);
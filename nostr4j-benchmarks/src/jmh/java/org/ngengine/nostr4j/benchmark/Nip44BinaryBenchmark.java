@@ -9,6 +9,7 @@ package org.ngengine.nostr4j.benchmark;
 
 import java.util.concurrent.TimeUnit;
 import org.ngengine.nostr4j.nip44.Nip44;
+import org.ngengine.nostr4j.nip44.Nip44Codec;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Level;
@@ -19,6 +20,14 @@ import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 
+/**
+ * NIP-44 binary encrypt/decrypt through the static helpers and through a reused {@link Nip44Codec}
+ * writing into preallocated outputs.
+ * <p>
+ * Allocation per operation is tracked by the gc profiler that the jmh and jmhQuick tasks enable:
+ * look at {@code gc.alloc.rate.norm} (bytes/op), the codec benchmarks are expected to stay at ~0.
+ * </p>
+ */
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.MICROSECONDS)
 public class Nip44BinaryBenchmark {
@@ -33,6 +42,9 @@ public class Nip44BinaryBenchmark {
         private byte[] conversationKey;
         private byte[] nonce;
         private byte[] encrypted;
+        private Nip44Codec codec;
+        private byte[] encryptOutput;
+        private byte[] decryptOutput;
 
         @Setup(Level.Trial)
         public void setUp() {
@@ -47,6 +59,9 @@ public class Nip44BinaryBenchmark {
                 nonce[i] = (byte) (32 - i);
             }
             encrypted = Nip44.encryptSyncBinary(plaintext, conversationKey, nonce);
+            codec = new Nip44Codec();
+            encryptOutput = new byte[Nip44Codec.encryptedLength(payloadBytes)];
+            decryptOutput = new byte[Nip44Codec.maxDecryptedLength(encrypted.length)];
         }
     }
 
@@ -59,4 +74,22 @@ public class Nip44BinaryBenchmark {
     public byte[] decrypt(CryptoState state) {
         return Nip44.decryptSyncBinary(state.encrypted, state.conversationKey);
     }
+
+    @Benchmark
+    public int encryptCodec(CryptoState state) {
+        return state.codec.encrypt(
+            state.plaintext,
+            0,
+            state.plaintext.length,
+            state.conversationKey,
+            state.nonce,
+            state.encryptOutput,
+            0
+        );
+    }
+
+    @Benchmark
+    public int decryptCodec(CryptoState state) {
+        return state.codec.decrypt(state.encrypted, 0, state.encrypted.length, state.conversationKey, state.decryptOutput, 0);
+    }
 }
@@ -0,0 +1,115 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * See the LICENSE file in the project root for the full license text.
+ */
+package org.ngengine.nostr4j.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.ngengine.nostr4j.NostrFilter;
+import org.ngengine.nostr4j.NostrPool;
+import org.ngengine.nostr4j.proto.NostrMessage;
+import org.ngengine.nostr4j.proto.impl.NostrClosedMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures map heavy code keyed by messages (pending sends, dedup sets).
+ * {@code serialHash} is what every lookup used to cost before hashes were cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NostrMessageHashingBenchmark {
+
+    @State(Scope.Thread)
+    public static class MessageState {
+
+        @Param({ "subscription", "event", "closed" })
+        public String type;
+
+        // power of two
+        @Param({ "1024" })
+        public int size;
+
+        private NostrPool pool;
+        private List<NostrMessage> messages;
+        private Set<NostrMessage> set;
+        private Map<NostrMessage, Integer> map;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            pool = new NostrPool();
+            messages = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                messages.add(create(i));
+            }
+            set = new HashSet<>(messages);
+            map = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                map.put(messages.get(i), i);
+            }
+        }
+
+        private NostrMessage create(int i) {
+            switch (type) {
+                case "subscription":
+                    return pool.subscribe(
+                        Arrays.asList(
+                            new NostrFilter().withKind(1).withKind(7).limit(100),
+                            new NostrFilter().withKind(30023).withTag("t", "nostr-" + i)
+                        )
+                    );
+                case "event":
+                    return BenchmarkEventFactory.event(1_700_000_000L + i, 1, i);
+                case "closed":
+                    return new NostrClosedMessage("sub-" + i, "closed by benchmark " + i);
+                default:
+                    throw new IllegalArgumentException("Unknown message type: " + type);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            pool.close();
+        }
+
+        NostrMessage next() {
+            NostrMessage message = messages.get(cursor);
+            cursor = (cursor + 1) & (size - 1);
+            return message;
+        }
+    }
+
+    @Benchmark
+    public boolean setContains(MessageState state) {
+        return state.set.contains(state.next());
+    }
+
+    @Benchmark
+    public Integer mapGet(MessageState state) {
+        return state.map.get(state.next());
+    }
+
+    @Benchmark
+    public int serialHash(MessageState state) {
+        return NostrMessage.toSerial(state.next()).hashCode();
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * See the LICENSE file in the project root for the full license text.
+ */
+package org.ngengine.nostr4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.ngengine.nostr4j.event.tracker.BloomEventTracker;
+import org.ngengine.nostr4j.event.tracker.EventTracker;
+
+public final class BenchmarkEventTrackers {
+
+    private BenchmarkEventTrackers() {}
+
+    public static EventTracker create(String implementation, int capacity) {
+        switch (implementation) {
+            case "sliding":
+                return new InspectableEventTracker(capacity);
+            case "ring":
+                return new InspectableRingBufferEventTracker(capacity);
+            case "concurrent":
+                return new InspectableConcurrentEventTracker(capacity);
+            case "bloom":
+                return new BloomEventTracker(capacity, 0.000001, 365, TimeUnit.DAYS, Math.min(capacity, 4096));
+            default:
+                throw new IllegalArgumentException("Unknown event tracker implementation: " + implementation);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * See the LICENSE file in the project root for the full license text.
+ */
+package org.ngengine.nostr4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.ngengine.nostr4j.event.tracker.ConcurrentEventTracker;
+
+public final class InspectableConcurrentEventTracker extends ConcurrentEventTracker {
+
+    public InspectableConcurrentEventTracker(int maximumRetainedEvents) {
+        super(maximumRetainedEvents, 0, 365, TimeUnit.DAYS, 0, TimeUnit.DAYS);
+    }
+
+    public int retainedEventCount() {
+        return count();
+    }
+
+    public int indexedEventCount() {
+        return indexedCount();
+    }
+}
@@ -54,4 +54,55 @@ public class EventTrackerScalabilityTest {
         assertEquals(MAXIMUM_RETAINED_EVENTS, tracker.retainedEventCount());
         assertEquals(MAXIMUM_RETAINED_EVENTS, tracker.indexedEventCount());
     }
+
+    @Test
+    public void ringBufferRetainedStateRemainsBoundedAcrossMillionEventStream() {
+        InspectableRingBufferEventTracker tracker = new InspectableRingBufferEventTracker(MAXIMUM_RETAINED_EVENTS);
+        long baseTimestamp = Instant.now().getEpochSecond() - STREAM_EVENTS;
+
+        for (int i = 0; i < STREAM_EVENTS; i++) {
+            assertFalse(tracker.seen(BenchmarkEventFactory.event(baseTimestamp + i, 10, i)));
+            if (i + 1 >= MAXIMUM_RETAINED_EVENTS && (i + 1) % 10_000 == 0) {
+                assertEquals(MAXIMUM_RETAINED_EVENTS, tracker.retainedEventCount());
+            }
+        }
+
+        assertEquals(MAXIMUM_RETAINED_EVENTS, tracker.retainedEventCount());
+        assertEquals(MAXIMUM_RETAINED_EVENTS, tracker.indexedEventCount());
+    }
+
+    @Test
+    public void ringBufferRecurringEventStormDoesNotGrowRetainedState() {
+        InspectableRingBufferEventTracker tracker = new InspectableRingBufferEventTracker(MAXIMUM_RETAINED_EVENTS);
+        long baseTimestamp = Instant.now().getEpochSecond() - MAXIMUM_RETAINED_EVENTS;
+        SignedNostrEvent mostRecent = null;
+
+        for (int i = 0; i < MAXIMUM_RETAINED_EVENTS; i++) {
+            mostRecent = BenchmarkEventFactory.event(baseTimestamp + i, 20, i);
+            assertFalse(tracker.seen(mostRecent));
+        }
+
+        for (int i = 0; i < STREAM_EVENTS; i++) {
+            assertTrue(tracker.seen(mostRecent));
+        }
+
+        assertEquals(MAXIMUM_RETAINED_EVENTS, tracker.retainedEventCount());
+        assertEquals(MAXIMUM_RETAINED_EVENTS, tracker.indexedEventCount());
+    }
+
+    @Test
+    public void concurrentRetainedStateRemainsBoundedAcrossMillionEventStream() {
+        InspectableConcurrentEventTracker tracker = new InspectableConcurrentEventTracker(MAXIMUM_RETAINED_EVENTS);
+        long baseTimestamp = Instant.now().getEpochSecond() - STREAM_EVENTS;
+
+        for (int i = 0; i < STREAM_EVENTS; i++) {
+            assertFalse(tracker.seen(BenchmarkEventFactory.event(baseTimestamp + i, 10, i)));
+            if (i + 1 >= MAXIMUM_RETAINED_EVENTS && (i + 1) % 10_000 == 0) {
+                assertEquals(MAXIMUM_RETAINED_EVENTS, tracker.retainedEventCount());
+            }
+        }
+
+        assertEquals(MAXIMUM_RETAINED_EVENTS, tracker.retainedEventCount());
+        assertEquals(MAXIMUM_RETAINED_EVENTS, tracker.indexedEventCount());
+    }
 }
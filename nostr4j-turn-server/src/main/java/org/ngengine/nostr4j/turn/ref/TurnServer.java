@@ -57,6 +57,7 @@ import org.ngengine.nostr4j.keypair.NostrPublicKey;
 import org.ngengine.nostr4j.rtc.turn.NostrTURNCodec;
 import org.ngengine.nostr4j.signer.NostrKeyPairSigner;
 import org.ngengine.nostr4j.utils.NostrRoomProof;
+import org.ngengine.nostr4j.utils.SchnorrVerifier;
 import org.ngengine.platform.AsyncExecutor;
 import org.ngengine.platform.AsyncTask;
 import org.ngengine.platform.NGEUtils;
@@ -110,6 +111,8 @@ public final class TurnServer {
     private final long queueItemTtlMs;
     private final TurnVirtualSocket.QueueBudget queueBudget;
     private final AsyncExecutor loopExecutor;
+    // Room members sign most headers, keep their verification contexts apart from the global verifier.
+    private final SchnorrVerifier headerVerifier = new SchnorrVerifier();
     private volatile boolean running = false;
 
     private static final class SocketRef {
@@ -404,7 +407,7 @@ public final class TurnServer {
             throw new IllegalArgumentException("Invalid TURN kind " + header.getKind());
         }
         try {
-            if (!header.verify()) {
+            if (!header.verify(headerVerifier)) {
                 throw new IllegalArgumentException("Invalid TURN signature");
             }
         } catch (Exception ex) {
@@ -41,6 +41,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -50,12 +51,15 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.ngengine.nostr4j.event.SignedNostrEvent;
 import org.ngengine.nostr4j.event.SignedNostrEvent.ReceivedSignedNostrEvent;
+import org.ngengine.nostr4j.event.tracker.ConcurrentEventTracker;
 import org.ngengine.nostr4j.event.tracker.EventTracker;
-import org.ngengine.nostr4j.event.tracker.ForwardSlidingWindowEventTracker;
 import org.ngengine.nostr4j.event.tracker.NaiveEventTracker;
 import org.ngengine.nostr4j.event.tracker.PassthroughEventTracker;
+import org.ngengine.nostr4j.listeners.sub.NostrSubAllListener;
 import org.ngengine.nostr4j.listeners.NostrNoticeListener;
 import org.ngengine.nostr4j.listeners.NostrRelayComponent;
+import org.ngengine.nostr4j.pool.NostrEventStream;
+import org.ngengine.nostr4j.pool.NostrPaginator;
 import org.ngengine.nostr4j.pool.ackpolicy.NostrPoolAckPolicy;
 import org.ngengine.nostr4j.pool.ackpolicy.NostrPoolAnyAckPolicy;
 import org.ngengine.nostr4j.pool.fetchpolicy.NostrPoolFetchPolicy;
@@ -65,6 +69,7 @@ import org.ngengine.nostr4j.proto.NostrMessageAck;
 import org.ngengine.nostr4j.proto.impl.NostrClosedMessage;
 import org.ngengine.nostr4j.proto.impl.NostrEOSEMessage;
 import org.ngengine.nostr4j.proto.impl.NostrNoticeMessage;
+import org.ngengine.nostr4j.store.EventStore;
 import org.ngengine.nostr4j.utils.UniqueId;
 import org.ngengine.platform.AsyncTask;
 import org.ngengine.platform.NGEPlatform;
@@ -78,6 +83,9 @@ public class NostrPool {
     private final CopyOnWriteArrayList<NostrRelay> relays = new CopyOnWriteArrayList<>();
     private final List<NostrRelay> relaysRO = Collections.unmodifiableList(relays);
     private final Supplier<EventTracker> defaultEventTracker;
+    private volatile EventStore eventStore;
+    // time ranges, per filter without its time bounds, for which the store is known to hold every matching event
+    private final Map<String, StoreCoverage> storeCoverage = new ConcurrentHashMap<>();
 
     private NostrRelayComponent listener = new NostrRelayComponent() {
         @Override
@@ -127,13 +135,48 @@ public class NostrPool {
     };
 
     public NostrPool() {
-        this(() -> new ForwardSlidingWindowEventTracker());
+        this(() -> new ConcurrentEventTracker());
     }
 
     public NostrPool(Supplier<EventTracker> defaultEventTracker) {
         this.defaultEventTracker = defaultEventTracker;
     }
 
+    /**
+     * Attaches a local event store to this pool.
+     * <p>
+     * Every verified event received from the relays and every event published through this pool is written
+     * through into the store. Fetches are answered from the store first: if the cached events satisfy the
+     * fetch policy the relays are not queried at all, otherwise the relays are queried and the two results are
+     * merged.
+     * </p>
+     * <p>
+     * A store can be filled by other filters, limited fetches or publishes, so holding some matches doesn't
+     * mean it holds all of them. The filters sent to the relays are only narrowed when this pool can prove the
+     * store covers the range: a previous fetch of the same filter, without a limit, reached EOSE on every relay
+     * and every relay verifies its events. Then only events newer than that fetch are asked to the relays.
+     * This assumes the store doesn't drop events it was given.
+     * </p>
+     *
+     * @param eventStore the store to use, or null to disable caching
+     * @return this pool
+     */
+    public NostrPool setEventStore(@Nullable EventStore eventStore) {
+        this.eventStore = eventStore;
+        this.storeCoverage.clear();
+        return this;
+    }
+
+    /**
+     * Gets the event store attached to this pool.
+     *
+     * @return the attached event store, or null if none is attached
+     */
+    @Nullable
+    public EventStore getEventStore() {
+        return eventStore;
+    }
+
     public NostrPool addNoticeListener(NostrNoticeListener listener) {
         this.noticeListener.add(listener);
         return this;
@@ -145,10 +188,14 @@ public class NostrPool {
     }
 
     public List<AsyncTask<NostrMessageAck>> publish(SignedNostrEvent ev) {
-        return sendMessage(ev, NostrPoolAnyAckPolicy.get());
+        return publish(ev, NostrPoolAnyAckPolicy.get());
     }
 
     public List<AsyncTask<NostrMessageAck>> publish(SignedNostrEvent ev, NostrPoolAckPolicy ackPolicy) {
+        EventStore store = this.eventStore;
+        if (store != null) {
+            store.addEvent(ev);
+        }
         return sendMessage(ev, ackPolicy);
     }
 
@@ -166,6 +213,8 @@ public class NostrPool {
 
     protected List<AsyncTask<NostrMessageAck>> sendMessage(NostrMessage message, NostrPoolAckPolicy ackPolicy) {
         List<AsyncTask<NostrMessageAck>> promises = new ArrayList<>();
+        // serialize once here, before the relays pick the message up concurrently from their executors
+        NostrMessage.toFrame(message);
         for (NostrRelay relay : relays) {
             relay.beforeSendMessage(message);
         }
@@ -374,9 +423,13 @@ public class NostrPool {
         NostrPoolFetchPolicy fetchPolicy
     ) {
         NGEPlatform platform = NGEUtils.getPlatform();
-        NostrSubscription sub = subscribe(filters, eventTracker);
+        EventStore store = this.eventStore;
+        Instant fetchStart = Instant.ofEpochSecond(Instant.now().getEpochSecond());
+        List<SignedNostrEvent> cached = store != null ? new ArrayList<>() : null;
+        Collection<NostrFilter> relayFilters = store != null ? getGapFilters(store, filters, cached) : filters;
+        NostrSubscription sub = subscribe(relayFilters, eventTracker);
         return platform.wrapPromise((res, rej) -> {
-            List<SignedNostrEvent> events = new CopyOnWriteArrayList<>();
+            List<SignedNostrEvent> events = Collections.synchronizedList(new ArrayList<>());
 
             assert dbg(() -> {
                 logger.fine("Initialize fetch of " + filters + " for subscription " + sub.getId());
@@ -405,20 +458,215 @@ public class NostrPool {
                 }
             };
 
-            sub
-                .addListener(
-                    fetchPolicy.getListener(
-                        sub,
-                        events,
-                        () -> {
-                            done.accept(events);
-                        }
-                    )
-                )
-                .open();
+            NostrSubAllListener listener = fetchPolicy.getListener(
+                sub,
+                events,
+                () -> {
+                    done.accept(events);
+                }
+            );
+            if (store != null) {
+                listener = new CoverageListener(listener, store, filters, fetchStart);
+            }
+            sub.addListener(listener);
+
+            if (cached != null) {
+                // answer from the local store first
+                for (SignedNostrEvent e : cached) {
+                    if (ended.get()) break;
+                    if (!sub.eventTracker.seen(e)) {
+                        listener.onSubEvent(sub, e, true);
+                    }
+                }
+                if (ended.get()) {
+                    // the fetch policy was satisfied by the cache, no need to hit the relays
+                    assert dbg(() -> {
+                        logger.fine("fetch " + sub.getId() + " served from local store");
+                    });
+                    subscriptions.remove(sub.getId());
+                    return;
+                }
+            }
+
+            sub.open();
         });
     }
 
+    /**
+     * Loads the cached events matching the filters into cached and returns the filters that should be sent to
+     * the relays to fill the gap.
+     * <p>
+     * A filter is narrowed to start from the end of the range the store is known to cover, see
+     * {@link #setEventStore(EventStore)}; the other filters are sent as they are.
+     * </p>
+     */
+    private Collection<NostrFilter> getGapFilters(
+        EventStore store,
+        Collection<NostrFilter> filters,
+        List<SignedNostrEvent> cached
+    ) {
+        List<NostrFilter> relayFilters = new ArrayList<>(filters.size());
+        for (NostrFilter filter : filters) {
+            cached.addAll(store.getEvents(Arrays.asList(filter)));
+            StoreCoverage coverage = storeCoverage.get(getCoverageKey(filter));
+            Instant since = filter.getSince() != null ? filter.getSince() : Instant.EPOCH;
+            if (coverage != null && coverage.store == store && coverage.covers(since)) {
+                relayFilters.add(filter.clone().since(coverage.until));
+            } else {
+                relayFilters.add(filter);
+            }
+        }
+        return relayFilters;
+    }
+
+    /**
+     * Records that the store holds every event matching the filters, from their since up to until.
+     */
+    private void addStoreCoverage(EventStore store, Collection<NostrFilter> filters, Instant until) {
+        for (NostrRelay relay : relays) {
+            // events from relays that don't verify them are not written through
+            if (!relay.isVerifyEvents()) return;
+        }
+        for (NostrFilter filter : filters) {
+            // a limited fetch might have stopped before the oldest match
+            if (filter.getLimit() != null) continue;
+            Instant since = filter.getSince() != null ? filter.getSince() : Instant.EPOCH;
+            Instant end = filter.getUntil() != null && filter.getUntil().isBefore(until) ? filter.getUntil() : until;
+            StoreCoverage added = new StoreCoverage(store, since, end);
+            storeCoverage.merge(getCoverageKey(filter), added, StoreCoverage::merge);
+        }
+    }
+
+    private static String getCoverageKey(NostrFilter filter) {
+        return (
+            filter.getIds() +
+            "|" +
+            filter.getAuthors() +
+            "|" +
+            filter.getKinds() +
+            "|" +
+            (filter.getTags() != null ? new TreeMap<>(filter.getTags()) : null)
+        );
+    }
+
+    private static final class StoreCoverage {
+
+        final EventStore store;
+        final Instant since;
+        final Instant until;
+
+        StoreCoverage(EventStore store, Instant since, Instant until) {
+            this.store = store;
+            this.since = since;
+            this.until = until;
+        }
+
+        boolean covers(Instant from) {
+            return !from.isBefore(since) && from.isBefore(until);
+        }
+
+        StoreCoverage merge(StoreCoverage other) {
+            if (other.store != store) return other;
+            // disjoint ranges can't be joined, keep the newest one
+            if (other.since.isAfter(until) || since.isAfter(other.until)) {
+                return other.until.isAfter(until) ? other : this;
+            }
+            Instant mergedSince = since.isBefore(other.since) ? since : other.since;
+            Instant mergedUntil = until.isAfter(other.until) ? until : other.until;
+            return new StoreCoverage(store, mergedSince, mergedUntil);
+        }
+    }
+
+    /**
+     * Records the store coverage of a fetch when every relay sent EOSE, before the fetch policy can end it.
+     */
+    private final class CoverageListener implements NostrSubAllListener {
+
+        private final NostrSubAllListener delegate;
+        private final EventStore store;
+        private final Collection<NostrFilter> filters;
+        private final Instant fetchStart;
+
+        CoverageListener(
+            NostrSubAllListener delegate,
+            EventStore store,
+            Collection<NostrFilter> filters,
+            Instant fetchStart
+        ) {
+            this.delegate = delegate;
+            this.store = store;
+            this.filters = filters;
+            this.fetchStart = fetchStart;
+        }
+
+        @Override
+        public void onSubEvent(NostrSubscription sub, SignedNostrEvent event, boolean stored) {
+            delegate.onSubEvent(sub, event, stored);
+        }
+
+        @Override
+        public void onSubEose(NostrSubscription sub, NostrRelay relay, boolean all) {
+            if (all && store == eventStore) {
+                addStoreCoverage(store, filters, fetchStart);
+            }
+            delegate.onSubEose(sub, relay, all);
+        }
+
+        @Override
+        public void onSubClose(NostrSubscription sub, List<String> reason) {
+            delegate.onSubClose(sub, reason);
+        }
+
+        @Override
+        public void onSubOpen(NostrSubscription sub) {
+            delegate.onSubOpen(sub);
+        }
+    }
+
+    /**
+     * Streams the stored events matching the given filters.
+     * <p>
+     * Events are delivered as they are received from the relays, with backpressure: the relay subscriptions
+     * are paused while the consumer is behind by more than 256 events, and every relay is resumed from the
+     * oldest event it delivered.
+     * </p>
+     *
+     * @param filters The filters to match events against
+     * @return A stream of matching events that ends when all relays have sent EOSE
+     * @see NostrEventStream
+     */
+    public NostrEventStream stream(Collection<NostrFilter> filters) {
+        return stream(filters, 256, false);
+    }
+
+    /**
+     * Streams the stored events matching the given filters.
+     *
+     * @param filters The filters to match events against
+     * @param bufferSize The number of buffered events that pauses the relay subscription
+     * @param sorted If true events are delivered newest first, once all relays have sent EOSE
+     * @return A stream of matching events that ends when all relays have sent EOSE
+     * @see NostrEventStream
+     */
+    public NostrEventStream stream(Collection<NostrFilter> filters, int bufferSize, boolean sorted) {
+        return new NostrEventStream(this, filters, new NaiveEventTracker(), bufferSize, sorted);
+    }
+
+    /**
+     * Creates a paginator that walks backwards in time through the history matching the given filters,
+     * across all the relays currently attached to this pool.
+     *
+     * @param filters The filters to match events against
+     * @param pageSize The limit requested to each relay for each page
+     * @param timeout The maximum duration to wait for a relay to answer a page, null means
+     *                wait for EOSE
+     * @return A new paginator
+     * @see NostrPaginator
+     */
+    public NostrPaginator paginate(Collection<NostrFilter> filters, int pageSize, @Nullable Duration timeout) {
+        return new NostrPaginator(this, filters, pageSize, timeout);
+    }
+
     protected boolean onRelayMessage(NostrRelay relay, NostrMessage rcv) {
         assert dbg(() -> {
             logger.finer("received message from relay " + relay.getUrl() + " : " + rcv);
@@ -505,6 +753,11 @@ public class NostrPool {
                 }
             } else if (rcv instanceof ReceivedSignedNostrEvent) {
                 ReceivedSignedNostrEvent e = (ReceivedSignedNostrEvent) rcv;
+                EventStore store = this.eventStore;
+                if (store != null && relay.isVerifyEvents()) {
+                    // only write through events whose signature was checked by the relay
+                    store.addEvent(e);
+                }
                 String subId = e.getSubId();
                 NostrSubscription sub = subscriptions.get(subId);
                 if (sub != null) {
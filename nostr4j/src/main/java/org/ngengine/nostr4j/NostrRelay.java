@@ -33,8 +33,10 @@ package org.ngengine.nostr4j;
 import static org.ngengine.platform.NGEUtils.dbg;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -49,13 +51,16 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.ngengine.nostr4j.event.SignedNostrEvent;
 import org.ngengine.nostr4j.listeners.NostrRelayComponent;
+import org.ngengine.nostr4j.proto.NostrBinaryCodec;
 import org.ngengine.nostr4j.proto.NostrMessage;
 import org.ngengine.nostr4j.proto.NostrMessageAck;
+import org.ngengine.nostr4j.proto.NostrMessageFrame;
 import org.ngengine.nostr4j.proto.impl.NostrClosedMessage;
 import org.ngengine.nostr4j.proto.impl.NostrEOSEMessage;
 import org.ngengine.nostr4j.proto.impl.NostrNoticeMessage;
 import org.ngengine.nostr4j.proto.impl.NostrOKMessage;
 import org.ngengine.nostr4j.utils.ExponentialBackoff;
+import org.ngengine.nostr4j.utils.Utf8;
 import org.ngengine.platform.AsyncExecutor;
 import org.ngengine.platform.AsyncTask;
 import org.ngengine.platform.ExecutionQueue;
@@ -108,6 +113,11 @@ public final class NostrRelay {
             NostrRelay.this.onConnectionMessage(msg);
         }
 
+        @Override
+        public void onConnectionBinaryMessage(ByteBuffer msg) {
+            NostrRelay.this.onConnectionBinaryMessage(msg);
+        }
+
         @Override
         public void onConnectionClosedByClient(String reason) {
             NostrRelay.this.onConnectionClosedByClient(reason);
@@ -137,10 +147,18 @@ public final class NostrRelay {
     protected volatile int maxSendFailures = 5;
     protected volatile boolean verifyEvents = true;
     protected volatile boolean parallelEvents = true;
+    protected volatile boolean binaryFrames = false;
+    protected volatile boolean binaryNegotiated = false;
     protected final AtomicLong connectAttemptGeneration = new AtomicLong();
     protected final AtomicLong statusTimeoutGeneration = new AtomicLong();
     protected final AtomicLong ackCleanupGeneration = new AtomicLong();
 
+    // application level traffic, in bytes of serialized messages
+    protected final AtomicLong bytesSent = new AtomicLong();
+    protected final AtomicLong bytesReceived = new AtomicLong();
+    protected final AtomicLong messagesSent = new AtomicLong();
+    protected final AtomicLong messagesReceived = new AtomicLong();
+
     protected Status currentStatus = Status.NEW;
     protected Instant statusSince = Instant.now();
     protected Duration statusTimeout = Duration.ofSeconds(120);
@@ -381,6 +399,67 @@ public final class NostrRelay {
         return this.verifyEvents;
     }
 
+    /**
+     * Enable the binary event frames, see {@link NostrBinaryCodec}.
+     * <p>
+     * When enabled the relay is asked to switch to binary frames for events every time the
+     * connection is opened, JSON is used until (and unless) the relay agrees.
+     * Standard relays keep using JSON.
+     * </p>
+     * <p>
+     * Disabling them on an open connection switches outgoing events back to JSON right away, but
+     * binary frames the relay keeps sending are still accepted until the next reconnect, since the
+     * relay is not told about the change.
+     * </p>
+     *
+     * @param enabled true to negotiate binary frames on the next connection
+     */
+    public void setBinaryFrames(boolean enabled) {
+        this.binaryFrames = enabled;
+    }
+
+    public boolean isBinaryFrames() {
+        return this.binaryFrames;
+    }
+
+    /**
+     * Returns true if the relay agreed to exchange events as binary frames on the current connection.
+     */
+    public boolean isBinaryNegotiated() {
+        return this.binaryNegotiated;
+    }
+
+    /**
+     * Returns the number of bytes of all the messages sent to this relay, as handed to the transport
+     * (ie. before any transport level compression).
+     */
+    public long getBytesSent() {
+        return this.bytesSent.get();
+    }
+
+    /**
+     * Returns the number of bytes of all the messages received from this relay, as delivered by the
+     * transport (ie. after any transport level decompression).
+     */
+    public long getBytesReceived() {
+        return this.bytesReceived.get();
+    }
+
+    public long getMessagesSent() {
+        return this.messagesSent.get();
+    }
+
+    public long getMessagesReceived() {
+        return this.messagesReceived.get();
+    }
+
+    public void resetTrafficCounters() {
+        this.bytesSent.set(0);
+        this.bytesReceived.set(0);
+        this.messagesSent.set(0);
+        this.messagesReceived.set(0);
+    }
+
     public void setAsyncEventsVerification(boolean v) {
         this.parallelEvents = v;
     }
@@ -567,8 +646,18 @@ public final class NostrRelay {
                         }
 
                         try {
-                            String json = NostrMessage.toJSON(message);
-                            this.connector.send(json)
+                            AsyncTask<Void> sent;
+                            if (binaryFrames && binaryNegotiated && message instanceof SignedNostrEvent) {
+                                ByteBuffer binary = NostrBinaryCodec.encodeEvent((SignedNostrEvent) message);
+                                this.bytesSent.addAndGet(binary.remaining());
+                                sent = this.connector.sendBinary(binary);
+                            } else {
+                                NostrMessageFrame frame = NostrMessage.toFrame(message);
+                                this.bytesSent.addAndGet(frame.getByteLength());
+                                sent = this.connector.send(frame.getText());
+                            }
+                            this.messagesSent.incrementAndGet();
+                            sent
                                 .catchException(e -> {
                                     if (failures + 1 >= maxSendFailures) {
                                         logger.log(Level.WARNING, "Error sending message", e);
@@ -586,7 +675,7 @@ public final class NostrRelay {
                                 })
                                 .then(vo -> {
                                     assert dbg(() -> {
-                                        logger.finest("Message sent: " + json);
+                                        logger.finest("Message sent: " + message);
                                     });
                                     if (eventId == null) {
                                         result.callSuccessCallback("ok");
@@ -704,6 +793,14 @@ public final class NostrRelay {
 
                     updateStatus(Status.CONNECTED);
                     reconnectionBackoff.registerSuccess();
+
+                    binaryNegotiated = false;
+                    if (binaryFrames) {
+                        String hello = NGEUtils
+                            .getPlatform()
+                            .toJSON(Arrays.asList(NostrBinaryCodec.NEGOTIATION_PREFIX, NostrBinaryCodec.PROTOCOL));
+                        this.connector.send(hello);
+                    }
                 } catch (Throwable e) {
                     assert dbg(() -> {
                         logger.log(Level.WARNING, "Error in connect callback", e);
@@ -719,6 +816,8 @@ public final class NostrRelay {
 
     private void onConnectionMessage(String msg) {
         try {
+            this.bytesReceived.addAndGet(Utf8.length(msg));
+            this.messagesReceived.incrementAndGet();
             NGEPlatform platform = NGEUtils.getPlatform();
             assert dbg(() -> {
                 logger.finest("Received message: " + msg);
@@ -726,6 +825,14 @@ public final class NostrRelay {
             List<Object> data = platform.fromJSON(msg, List.class);
             String prefix = NGEUtils.safeString(data.get(0));
 
+            if (NostrBinaryCodec.NEGOTIATION_PREFIX.equals(prefix)) {
+                if (binaryFrames && data.size() > 1 && NostrBinaryCodec.PROTOCOL.equals(data.get(1))) {
+                    logger.fine("Binary event frames enabled for relay: " + this.url);
+                    binaryNegotiated = true;
+                }
+                return;
+            }
+
             NostrMessage rcv = null;
             if (rcv == null) rcv = SignedNostrEvent.parse(data);
             if (rcv == null) rcv = NostrClosedMessage.parse(data);
@@ -733,86 +840,104 @@ public final class NostrRelay {
             if (rcv == null) rcv = NostrOKMessage.parse(data);
             if (rcv == null) rcv = NostrNoticeMessage.parse(data);
             if (rcv == null) throw new Exception("Unknown message type: " + prefix);
-            final NostrMessage message = rcv;
+            onMessageReceived(rcv);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error in onConnectionMessage", e);
+        }
+    }
 
-            final AsyncTask<Boolean> asyncVerifyPromise = (rcv instanceof SignedNostrEvent && verifyEvents && parallelEvents)
-                ? (AsyncTask<Boolean>) ((SignedNostrEvent) rcv).verifyAsync()
-                : null;
+    private void onConnectionBinaryMessage(ByteBuffer msg) {
+        try {
+            this.bytesReceived.addAndGet(msg.remaining());
+            this.messagesReceived.incrementAndGet();
+            if (!binaryNegotiated || !NostrBinaryCodec.isEventFrame(msg)) {
+                logger.finer("Ignoring unexpected binary message from relay: " + this.url);
+                return;
+            }
+            onMessageReceived(NostrBinaryCodec.decodeEvent(msg));
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Error in onConnectionBinaryMessage", e);
+        }
+    }
 
-            runInRelayExecutor(
-                (r0, rj0) -> {
-                    try {
-                        // handle acks
-                        if (message instanceof NostrOKMessage) {
-                            NostrOKMessage ok = (NostrOKMessage) message;
-                            String eventId = ok.getEventId();
-                            boolean success = ok.isSuccess();
-                            String eventMessage = ok.getMessage();
-                            NostrMessageAck ack = this.waitingEventsAck.get(eventId);
-                            if (ack != null) {
-                                assert dbg(() -> {
-                                    logger.finest(
-                                        "Received ack for event: " +
-                                        eventId +
-                                        " success: " +
-                                        success +
-                                        " message: " +
-                                        eventMessage
-                                    );
-                                });
+    private void onMessageReceived(NostrMessage rcv) {
+        final NostrMessage message = rcv;
 
-                                if (success) {
-                                    ack.callSuccessCallback(eventMessage);
-                                } else {
-                                    ack.callFailureCallback(eventMessage);
-                                }
-                                scheduleAckCleanupIfNeeded();
+        final AsyncTask<Boolean> asyncVerifyPromise = (rcv instanceof SignedNostrEvent && verifyEvents && parallelEvents)
+            ? (AsyncTask<Boolean>) ((SignedNostrEvent) rcv).verifyAsync()
+            : null;
+
+        runInRelayExecutor(
+            (r0, rj0) -> {
+                try {
+                    // handle acks
+                    if (message instanceof NostrOKMessage) {
+                        NostrOKMessage ok = (NostrOKMessage) message;
+                        String eventId = ok.getEventId();
+                        boolean success = ok.isSuccess();
+                        String eventMessage = ok.getMessage();
+                        NostrMessageAck ack = this.waitingEventsAck.get(eventId);
+                        if (ack != null) {
+                            assert dbg(() -> {
+                                logger.finest(
+                                    "Received ack for event: " +
+                                    eventId +
+                                    " success: " +
+                                    success +
+                                    " message: " +
+                                    eventMessage
+                                );
+                            });
+
+                            if (success) {
+                                ack.callSuccessCallback(eventMessage);
                             } else {
-                                assert dbg(() -> {
-                                    logger.warning("Received ack for unknown event: " + eventId);
-                                });
+                                ack.callFailureCallback(eventMessage);
                             }
+                            scheduleAckCleanupIfNeeded();
+                        } else {
+                            assert dbg(() -> {
+                                logger.warning("Received ack for unknown event: " + eventId);
+                            });
                         }
+                    }
 
-                        if (asyncVerifyPromise != null) {
-                            if (!asyncVerifyPromise.await()) {
-                                throw new Exception("Event verification failed");
-                            }
-                        } else if (verifyEvents && message instanceof SignedNostrEvent) {
-                            SignedNostrEvent event = (SignedNostrEvent) message;
-                            if (!event.verify()) {
-                                throw new Exception("Event verification failed");
-                            }
+                    if (asyncVerifyPromise != null) {
+                        if (!asyncVerifyPromise.await()) {
+                            throw new Exception("Event verification failed");
                         }
+                    } else if (verifyEvents && message instanceof SignedNostrEvent) {
+                        SignedNostrEvent event = (SignedNostrEvent) message;
+                        if (!event.verify()) {
+                            throw new Exception("Event verification failed");
+                        }
+                    }
 
-                        // propagate event to listeners
-                        for (NostrRelayComponent listener : this.listeners) {
-                            try {
-                                if (!listener.onRelayMessage(this, message)) {
-                                    assert dbg(() -> {
-                                        logger.finest("Message ignored by component: " + this.url);
-                                    });
-                                    return;
-                                }
-                            } catch (Throwable e) {
-                                logger.log(Level.WARNING, "Message cancelled by component: " + e.getMessage(), e);
+                    // propagate event to listeners
+                    for (NostrRelayComponent listener : this.listeners) {
+                        try {
+                            if (!listener.onRelayMessage(this, message)) {
+                                assert dbg(() -> {
+                                    logger.finest("Message ignored by component: " + this.url);
+                                });
                                 return;
                             }
+                        } catch (Throwable e) {
+                            logger.log(Level.WARNING, "Message cancelled by component: " + e.getMessage(), e);
+                            return;
                         }
-                    } catch (Exception e) {
-                        assert dbg(() -> {
-                            logger.log(Level.WARNING, "Error processing message", e);
-                        });
-                    } finally {
-                        r0.accept(this);
                     }
-                },
-                true
-            );
-            loop();
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error in onConnectionMessage", e);
-        }
+                } catch (Exception e) {
+                    assert dbg(() -> {
+                        logger.log(Level.WARNING, "Error processing message", e);
+                    });
+                } finally {
+                    r0.accept(this);
+                }
+            },
+            true
+        );
+        loop();
     }
 
     private void onConnectionClosedByServer(String reason) {
@@ -445,6 +445,22 @@ public class NostrSubscription extends NostrMessage {
         return fragments;
     }
 
+    // subscription ids are unique within a pool, so they are used as a cheap hash and
+    // the filters are compared only when two ids match
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        NostrSubscription that = (NostrSubscription) obj;
+        if (!subId.equals(that.subId)) return false;
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return subId.hashCode();
+    }
+
     static final class NostrSubCloseMessage extends NostrMessage {
 
         private final String id;
@@ -475,6 +491,18 @@ public class NostrSubscription extends NostrMessage {
             fragments.add(id);
             return fragments;
         }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            return id.equals(((NostrSubCloseMessage) obj).id);
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
     }
 
     private NostrSubCloseMessage getCloseMessage() {
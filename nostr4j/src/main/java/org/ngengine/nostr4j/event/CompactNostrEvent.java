@@ -0,0 +1,289 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.event;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.platform.NGEUtils;
+
+/**
+ * A memory efficient, immutable form of {@link SignedNostrEvent} for keeping large amounts of events
+ * resident.
+ * <p>
+ * Id, pubkey and signature are held as raw bytes instead of hex strings, and all the tags are kept in a
+ * single flat array with row offsets. The tag map used by {@link #getTag(String)} is only built the first
+ * time it is needed, and {@link #getTagRows()} is a view over the flat array.
+ * </p>
+ * <p>
+ * Use {@link #toSignedEvent()} to get back a full event, eg. to send it or verify it.
+ * </p>
+ */
+public final class CompactNostrEvent implements NostrEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] id;
+    private final byte[] pubkey;
+    private final byte[] signature;
+    private final long createdAt;
+    private final int kind;
+    private final String content;
+    private final String[] tagData;
+    private final int[] tagOffsets;
+
+    private transient volatile Map<String, List<TagValue>> tags;
+    private transient volatile List<List<String>> tagRows;
+
+    private CompactNostrEvent(
+        byte[] id,
+        byte[] pubkey,
+        byte[] signature,
+        long createdAt,
+        int kind,
+        String content,
+        String[] tagData,
+        int[] tagOffsets
+    ) {
+        this.id = id;
+        this.pubkey = pubkey;
+        this.signature = signature;
+        this.createdAt = createdAt;
+        this.kind = kind;
+        this.content = content;
+        this.tagData = tagData;
+        this.tagOffsets = tagOffsets;
+    }
+
+    /**
+     * Creates the compact form of an event.
+     *
+     * @param event the event to compact
+     * @return the compact event
+     * @throws IllegalArgumentException if id, pubkey or signature are not valid hex strings of the expected size
+     */
+    public static CompactNostrEvent from(SignedNostrEvent event) {
+        byte[] id = parseHex(event.getId(), 32, "id");
+        byte[] pubkey = parseHex(event.getPubkey().asHex(), 32, "pubkey");
+        byte[] sig = parseHex(event.getSignature(), 64, "signature");
+
+        List<List<String>> rows = event.getTagRows();
+        int size = 0;
+        for (List<String> row : rows) {
+            size += row.size();
+        }
+        String[] tagData = new String[size];
+        int[] tagOffsets = new int[rows.size() + 1];
+        int i = 0;
+        int r = 0;
+        for (List<String> row : rows) {
+            tagOffsets[r++] = i;
+            for (String v : row) {
+                tagData[i++] = v;
+            }
+        }
+        tagOffsets[r] = i;
+
+        return new CompactNostrEvent(
+            id,
+            pubkey,
+            sig,
+            event.getCreatedAt().getEpochSecond(),
+            event.getKind(),
+            event.getContent(),
+            tagData,
+            tagOffsets
+        );
+    }
+
+    private static byte[] parseHex(String hex, int size, String field) {
+        if (hex == null || hex.length() != size * 2) {
+            throw new IllegalArgumentException("Invalid " + field + ": expected " + size + " bytes");
+        }
+        for (int i = 0; i < hex.length(); i++) {
+            if (Character.digit(hex.charAt(i), 16) < 0) {
+                throw new IllegalArgumentException("Invalid " + field + ": not hex");
+            }
+        }
+        return NGEUtils.hexToByteArray(hex);
+    }
+
+    /**
+     * Inflates this event back to a full {@link SignedNostrEvent}.
+     */
+    public SignedNostrEvent toSignedEvent() {
+        return new SignedNostrEvent(
+            getId(),
+            getPubkey(),
+            kind,
+            content,
+            getCreatedAt(),
+            getSignature(),
+            getTagRows()
+        );
+    }
+
+    public String getId() {
+        return NGEUtils.bytesToHex(id);
+    }
+
+    /**
+     * @return a copy of the raw 32 bytes id
+     */
+    public byte[] getIdBytes() {
+        return id.clone();
+    }
+
+    public NostrPublicKey getPubkey() {
+        return NostrPublicKey.fromBytes(pubkey);
+    }
+
+    public String getSignature() {
+        return NGEUtils.bytesToHex(signature);
+    }
+
+    @Override
+    public Instant getCreatedAt() {
+        return Instant.ofEpochSecond(createdAt);
+    }
+
+    @Override
+    public int getKind() {
+        return kind;
+    }
+
+    @Override
+    public String getContent() {
+        return content;
+    }
+
+    private Map<String, List<TagValue>> getTagMap() {
+        Map<String, List<TagValue>> map = this.tags;
+        if (map != null) return map;
+        Map<String, List<TagValue>> tagsMap = new LinkedHashMap<>();
+        for (int r = 0; r + 1 < tagOffsets.length; r++) {
+            int start = tagOffsets[r];
+            int end = tagOffsets[r + 1];
+            if (start == end) continue;
+            List<String> values = Arrays.asList(tagData).subList(start + 1, end);
+            tagsMap.computeIfAbsent(tagData[start], k -> new ArrayList<>()).add(new TagValue(values));
+        }
+        for (Map.Entry<String, List<TagValue>> entry : tagsMap.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        map = Collections.unmodifiableMap(tagsMap);
+        this.tags = map;
+        return map;
+    }
+
+    @Override
+    public List<TagValue> getTag(String key) {
+        List<TagValue> values = getTagMap().get(key);
+        if (values != null && values.isEmpty()) {
+            return null;
+        }
+        return values;
+    }
+
+    @Override
+    public TagValue getFirstTag(String key) {
+        List<TagValue> values = getTagMap().get(key);
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        return values.get(0);
+    }
+
+    @Override
+    public Set<String> listTagKeys() {
+        return getTagMap().keySet();
+    }
+
+    @Override
+    public boolean hasTag(String tag) {
+        if (tag == null) return false;
+        // cheap scan, doesn't need the map
+        for (int r = 0; r + 1 < tagOffsets.length; r++) {
+            int start = tagOffsets[r];
+            if (start != tagOffsets[r + 1] && tag.equals(tagData[start])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public List<List<String>> getTagRows() {
+        List<List<String>> rows = this.tagRows;
+        if (rows != null) return rows;
+        rows =
+            new AbstractList<List<String>>() {
+                @Override
+                public List<String> get(int index) {
+                    if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("Index: " + index);
+                    return Collections.unmodifiableList(
+                        Arrays.asList(tagData).subList(tagOffsets[index], tagOffsets[index + 1])
+                    );
+                }
+
+                @Override
+                public int size() {
+                    return tagOffsets.length - 1;
+                }
+            };
+        this.tagRows = rows;
+        return rows;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof CompactNostrEvent)) return false;
+        return Arrays.equals(id, ((CompactNostrEvent) obj).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactNostrEvent[id=" + getId() + ", kind=" + kind + ", created_at=" + createdAt + "]";
+    }
+}
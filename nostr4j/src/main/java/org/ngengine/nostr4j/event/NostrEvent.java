@@ -43,10 +43,7 @@ import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.ngengine.nostr4j.keypair.NostrPublicKey;
-import org.ngengine.nostr4j.utils.ZeroCounter;
-import org.ngengine.platform.AsyncExecutor;
 import org.ngengine.platform.AsyncTask;
-import org.ngengine.platform.NGEPlatform;
 import org.ngengine.platform.NGEUtils;
 
 public interface NostrEvent extends Cloneable, Serializable {
@@ -170,57 +167,16 @@ public interface NostrEvent extends Cloneable, Serializable {
     boolean hasTag(String tag);
 
     static AsyncTask<UnsignedNostrEvent> minePow(NostrPublicKey pubkey, UnsignedNostrEvent event, int difficulty) {
-        return NGEPlatform
-            .get()
-            .wrapPromise((res, rej) -> {
-                AsyncExecutor executor = NGEPlatform.get().newAsyncExecutor("long-blocking");
-                executor.run(() -> {
-                    try {
-                        int nonce = 0;
-
-                        do {
-                            event.createdAt(Instant.now());
-                            event.replaceTag("nonce", "" + nonce, "" + difficulty);
-                            String id = NostrEvent.computeEventId(pubkey.asHex(), event);
-                            int leadingZeroes = ZeroCounter.countLeadingZeroes(id);
-                            if (leadingZeroes >= difficulty) {
-                                res.accept(event);
-                                break;
-                            } else {
-                                nonce++;
-                            }
-                        } while (true);
-                    } catch (Exception e) {
-                        rej.accept(e);
-                    } finally {
-                        executor.close();
-                    }
-                    return null;
-                });
-            });
+        return new NostrPowMiner().mine(pubkey, event, difficulty);
     }
 
     static String computeEventId(String pubkey, NostrEvent event) {
         try {
-            Collection<Object> serial = Arrays.asList(
-                0,
-                pubkey,
-                event.getCreatedAt().getEpochSecond(),
-                event.getKind(),
-                event.getTagRows(),
-                event.getContent()
-            );
-            assert dbg(() -> {
-                Logger logger = Logger.getLogger(NostrEvent.class.getName());
-                logger.finest("Serializing event: " + serial);
-            });
-            String json = NGEUtils.getPlatform().toJSON(serial);
             assert dbg(() -> {
                 Logger logger = Logger.getLogger(NostrEvent.class.getName());
-                logger.finest("Serialized event: " + json);
+                logger.finest("Serialized event: " + NostrEventSerializer.toCanonicalJSON(pubkey, event));
             });
-            String id = NGEUtils.getPlatform().sha256(json);
-            return id;
+            return NostrEventSerializer.computeEventId(pubkey, event);
         } catch (Exception e) {
             Logger.getLogger(NostrEvent.class.getName()).log(Level.WARNING, "Failed to compute event id", e);
             return null;
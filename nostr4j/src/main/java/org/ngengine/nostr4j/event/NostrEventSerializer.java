@@ -0,0 +1,280 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.event;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.ngengine.platform.NGEPlatform;
+import org.ngengine.platform.NGEUtils;
+
+/**
+ * Canonical NIP-01 serializer used to compute event ids.
+ *
+ * <p>
+ * The event is written as {@code [0,<pubkey>,<created_at>,<kind>,<tags>,<content>]} straight into a
+ * reusable per-thread byte buffer, escaping strings as required by NIP-01 and encoding them to UTF-8 on
+ * the fly. The buffer is then hashed in a single call, so no intermediate collection, JSON string or
+ * UTF-8 byte array is created per event.
+ * </p>
+ */
+public final class NostrEventSerializer {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // buffers that grew past this size are not retained by the thread
+    private static final int MAX_RETAINED_CAPACITY = 256 * 1024;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<NostrEventSerializer> LOCAL = ThreadLocal.withInitial(NostrEventSerializer::new);
+
+    private byte[] buf = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    private NostrEventSerializer() {}
+
+    /**
+     * Computes the NIP-01 id of the given event as if it was signed by the given public key.
+     *
+     * @param pubkey the hex encoded public key of the author
+     * @param event the event
+     * @return the hex encoded sha256 of the canonical serialization
+     */
+    public static String computeEventId(String pubkey, NostrEvent event) {
+        NostrEventSerializer s = LOCAL.get();
+        try {
+            s.write(pubkey, event);
+            ByteBuffer data = ByteBuffer.wrap(s.buf, 0, s.size).slice().asReadOnlyBuffer();
+            ByteBuffer hash = NGEPlatform.get().sha256(data);
+            return NGEUtils.bytesToHex(hash);
+        } finally {
+            s.release();
+        }
+    }
+
+    /**
+     * Returns the canonical NIP-01 serialization of the given event as a string.
+     * <p>
+     * This is mostly useful for debugging and testing, {@link #computeEventId(String, NostrEvent)} never
+     * builds this string.
+     * </p>
+     *
+     * @param pubkey the hex encoded public key of the author
+     * @param event the event
+     * @return the canonical json array
+     */
+    public static String toCanonicalJSON(String pubkey, NostrEvent event) {
+        NostrEventSerializer s = LOCAL.get();
+        try {
+            s.write(pubkey, event);
+            return new String(s.buf, 0, s.size, StandardCharsets.UTF_8);
+        } finally {
+            s.release();
+        }
+    }
+
+    /**
+     * Returns a copy of the canonical NIP-01 serialization of the given event as UTF-8 bytes.
+     */
+    static byte[] toCanonicalBytes(String pubkey, NostrEvent event) {
+        NostrEventSerializer s = LOCAL.get();
+        try {
+            s.write(pubkey, event);
+            return Arrays.copyOf(s.buf, s.size);
+        } finally {
+            s.release();
+        }
+    }
+
+    private void release() {
+        if (buf.length > MAX_RETAINED_CAPACITY) {
+            buf = new byte[INITIAL_CAPACITY];
+        }
+        size = 0;
+    }
+
+    private void write(String pubkey, NostrEvent event) {
+        size = 0;
+        writeAscii("[0,");
+        writeString(pubkey);
+        writeByte(',');
+        writeLong(event.getCreatedAt().getEpochSecond());
+        writeByte(',');
+        writeLong(event.getKind());
+        writeByte(',');
+        writeByte('[');
+        Collection<List<String>> rows = event.getTagRows();
+        boolean firstRow = true;
+        for (List<String> row : rows) {
+            if (!firstRow) writeByte(',');
+            firstRow = false;
+            writeByte('[');
+            for (int i = 0; i < row.size(); i++) {
+                if (i > 0) writeByte(',');
+                writeString(row.get(i));
+            }
+            writeByte(']');
+        }
+        writeByte(']');
+        writeByte(',');
+        writeString(event.getContent());
+        writeByte(']');
+    }
+
+    private void ensure(int extra) {
+        int required = size + extra;
+        if (required > buf.length) {
+            int newCapacity = Math.max(required, buf.length * 2);
+            byte[] n = new byte[newCapacity];
+            System.arraycopy(buf, 0, n, 0, size);
+            buf = n;
+        }
+    }
+
+    private void writeByte(int b) {
+        ensure(1);
+        buf[size++] = (byte) b;
+    }
+
+    private void writeAscii(String s) {
+        int len = s.length();
+        ensure(len);
+        for (int i = 0; i < len; i++) {
+            buf[size++] = (byte) s.charAt(i);
+        }
+    }
+
+    private void writeLong(long v) {
+        // at most 20 chars including the sign
+        ensure(20);
+        if (v == 0) {
+            buf[size++] = '0';
+            return;
+        }
+        if (v < 0) {
+            buf[size++] = '-';
+            if (v == Long.MIN_VALUE) {
+                writeAscii("9223372036854775808");
+                return;
+            }
+            v = -v;
+        }
+        int start = size;
+        while (v > 0) {
+            buf[size++] = (byte) ('0' + (v % 10));
+            v /= 10;
+        }
+        for (int i = start, j = size - 1; i < j; i++, j--) {
+            byte t = buf[i];
+            buf[i] = buf[j];
+            buf[j] = t;
+        }
+    }
+
+    private void writeString(String s) {
+        if (s == null) {
+            writeAscii("null");
+            return;
+        }
+        int len = s.length();
+        // worst case: every char takes 3 bytes in UTF-8, escapes take at most 6 bytes for 1 char
+        ensure(len * 6 + 2);
+        byte[] b = buf;
+        int p = size;
+        b[p++] = '"';
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                switch (c) {
+                    case '"':
+                        b[p++] = '\\';
+                        b[p++] = '"';
+                        break;
+                    case '\\':
+                        b[p++] = '\\';
+                        b[p++] = '\\';
+                        break;
+                    case '\n':
+                        b[p++] = '\\';
+                        b[p++] = 'n';
+                        break;
+                    case '\r':
+                        b[p++] = '\\';
+                        b[p++] = 'r';
+                        break;
+                    case '\t':
+                        b[p++] = '\\';
+                        b[p++] = 't';
+                        break;
+                    case '\b':
+                        b[p++] = '\\';
+                        b[p++] = 'b';
+                        break;
+                    case '\f':
+                        b[p++] = '\\';
+                        b[p++] = 'f';
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            b[p++] = '\\';
+                            b[p++] = 'u';
+                            b[p++] = '0';
+                            b[p++] = '0';
+                            b[p++] = HEX[c >> 4];
+                            b[p++] = HEX[c & 0xF];
+                        } else {
+                            b[p++] = (byte) c;
+                        }
+                        break;
+                }
+            } else if (c < 0x800) {
+                b[p++] = (byte) (0xC0 | (c >> 6));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                b[p++] = (byte) (0xF0 | (cp >> 18));
+                b[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                b[p++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate, replaced like String.getBytes(UTF_8) does
+                b[p++] = '?';
+            } else {
+                b[p++] = (byte) (0xE0 | (c >> 12));
+                b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                b[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        b[p++] = '"';
+        size = p;
+    }
+}
@@ -0,0 +1,312 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.event;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.utils.Sha256;
+import org.ngengine.nostr4j.utils.ZeroCounter;
+import org.ngengine.platform.AsyncExecutor;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEPlatform;
+
+/**
+ * NIP-13 proof of work miner.
+ * <p>
+ * The event is serialized once with a fixed width nonce slot, the SHA-256 state of every block before
+ * the slot is computed once and then each worker only hashes the remaining blocks while it rewrites
+ * the nonce digits in place. Nonces are spread across the workers by striding, so no coordination is
+ * needed until one of them finds a match.
+ * </p>
+ * <p>
+ * A miner can run several jobs at once, {@link #cancel()} stops all of them.
+ * </p>
+ */
+public final class NostrPowMiner {
+
+    private static final Logger logger = Logger.getLogger(NostrPowMiner.class.getName());
+
+    private static final int NONCE_WIDTH = 16;
+    private static final String NONCE_PLACEHOLDER = "0000000000000000";
+    private static final int PROGRESS_INTERVAL = 1 << 16;
+
+    /**
+     * Receives mining progress, called from the worker threads.
+     */
+    public interface ProgressListener {
+        /**
+         * @param hashes total number of hashes computed so far by the job
+         * @param bestDifficulty highest difficulty reached so far by the job
+         */
+        void onProgress(long hashes, int bestDifficulty);
+    }
+
+    private final int workers;
+    private final Set<Job> jobs = ConcurrentHashMap.newKeySet();
+    private volatile ProgressListener progressListener;
+
+    /**
+     * Create a miner that uses one worker per available processor.
+     */
+    public NostrPowMiner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a miner that uses the given number of workers per job.
+     *
+     * @param workers number of workers, must be at least 1
+     */
+    public NostrPowMiner(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+        this.workers = workers;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public NostrPowMiner setProgressListener(ProgressListener listener) {
+        this.progressListener = listener;
+        return this;
+    }
+
+    public ProgressListener getProgressListener() {
+        return progressListener;
+    }
+
+    /**
+     * Cancel all the running jobs, their tasks fail with a {@link CancellationException}.
+     */
+    public void cancel() {
+        for (Job job : jobs) {
+            job.fail(new CancellationException("Proof of work cancelled"));
+        }
+    }
+
+    /**
+     * Mine a nonce for the given event.
+     * <p>
+     * The event created_at is set to the current time and a {@code nonce} tag is added (or replaced).
+     * The task completes with the same event instance once its id has at least {@code difficulty}
+     * leading zero bits when signed by {@code pubkey}.
+     * </p>
+     *
+     * @param pubkey the public key that will sign the event
+     * @param event the event to mine
+     * @param difficulty the target difficulty
+     * @return an async task that completes with the mined event
+     */
+    public AsyncTask<UnsignedNostrEvent> mine(NostrPublicKey pubkey, UnsignedNostrEvent event, int difficulty) {
+        return NGEPlatform
+            .get()
+            .wrapPromise((res, rej) -> {
+                try {
+                    Job job = new Job(pubkey.asHex(), event, difficulty, res, rej);
+                    jobs.add(job);
+                    job.start();
+                } catch (Exception e) {
+                    rej.accept(e);
+                }
+            });
+    }
+
+    private final class Job {
+
+        private final String pubkey;
+        private final UnsignedNostrEvent event;
+        private final int difficulty;
+        private final Consumer<UnsignedNostrEvent> res;
+        private final Consumer<Throwable> rej;
+
+        private final AtomicBoolean done = new AtomicBoolean(false);
+        private final AtomicLong hashes = new AtomicLong();
+        private final AtomicInteger bestDifficulty = new AtomicInteger();
+        private final AtomicInteger runningWorkers = new AtomicInteger();
+
+        private int[] midstate;
+        private byte[] tailTemplate;
+        private int tailBlocks;
+        private int nonceOffset;
+
+        Job(
+            String pubkey,
+            UnsignedNostrEvent event,
+            int difficulty,
+            Consumer<UnsignedNostrEvent> res,
+            Consumer<Throwable> rej
+        ) {
+            this.pubkey = pubkey;
+            this.event = event;
+            this.difficulty = difficulty;
+            this.res = res;
+            this.rej = rej;
+        }
+
+        void start() {
+            event.createdAt(Instant.now());
+            event.replaceTag("nonce", NONCE_PLACEHOLDER, String.valueOf(difficulty));
+            byte[] serial = NostrEventSerializer.toCanonicalBytes(pubkey, event);
+            int slot = indexOf(serial, ("[\"nonce\",\"" + NONCE_PLACEHOLDER + "\"").getBytes(StandardCharsets.UTF_8));
+            if (slot < 0) {
+                throw new IllegalStateException("Nonce tag not found in serialized event");
+            }
+            slot += "[\"nonce\",\"".length();
+
+            int prefixBlocks = slot / Sha256.BLOCK_SIZE;
+            int aligned = prefixBlocks * Sha256.BLOCK_SIZE;
+            midstate = Sha256.newState();
+            Sha256.compress(midstate, serial, 0, prefixBlocks, new int[64]);
+
+            tailTemplate = new byte[Sha256.paddedLength(serial.length) - aligned];
+            System.arraycopy(serial, aligned, tailTemplate, 0, serial.length - aligned);
+            Sha256.pad(tailTemplate, serial.length - aligned, serial.length);
+            tailBlocks = tailTemplate.length / Sha256.BLOCK_SIZE;
+            nonceOffset = slot - aligned;
+
+            runningWorkers.set(workers);
+            for (int i = 0; i < workers; i++) {
+                int workerId = i;
+                AsyncExecutor executor = NGEPlatform.get().newAsyncExecutor("long-blocking");
+                executor.run(() -> {
+                    try {
+                        work(workerId);
+                    } catch (Throwable e) {
+                        fail(e);
+                    } finally {
+                        executor.close();
+                        if (runningWorkers.decrementAndGet() == 0) {
+                            fail(new IllegalStateException("Nonce space exhausted"));
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        private void work(int workerId) {
+            byte[] tail = tailTemplate.clone();
+            int[] state = new int[8];
+            int[] w = new int[64];
+            if (!addDecimal(tail, nonceOffset, workerId)) {
+                return;
+            }
+            int best = 0;
+            int sinceReport = 0;
+            while (!done.get()) {
+                System.arraycopy(midstate, 0, state, 0, 8);
+                Sha256.compress(state, tail, 0, tailBlocks, w);
+                int zeroes = Sha256.countLeadingZeroBits(state);
+                if (zeroes >= difficulty) {
+                    found(new String(tail, nonceOffset, NONCE_WIDTH, StandardCharsets.US_ASCII));
+                    return;
+                }
+                if (zeroes > best) {
+                    best = zeroes;
+                }
+                if (++sinceReport == PROGRESS_INTERVAL) {
+                    report(sinceReport, best);
+                    sinceReport = 0;
+                }
+                if (!addDecimal(tail, nonceOffset, workers)) {
+                    return;
+                }
+            }
+        }
+
+        private void report(int newHashes, int best) {
+            long total = hashes.addAndGet(newHashes);
+            int bestSoFar = bestDifficulty.accumulateAndGet(best, Math::max);
+            ProgressListener listener = progressListener;
+            if (listener != null) {
+                try {
+                    listener.onProgress(total, bestSoFar);
+                } catch (Exception e) {
+                    logger.log(Level.WARNING, "Error in pow progress listener", e);
+                }
+            }
+        }
+
+        private void found(String nonce) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            jobs.remove(this);
+            event.replaceTag("nonce", nonce, String.valueOf(difficulty));
+            assert ZeroCounter.countLeadingZeroes(NostrEvent.computeEventId(pubkey, event)) >= difficulty;
+            res.accept(event);
+        }
+
+        void fail(Throwable e) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            jobs.remove(this);
+            rej.accept(e);
+        }
+    }
+
+    // adds n to the fixed width decimal number at buf[off..off+NONCE_WIDTH], returns false on overflow
+    private static boolean addDecimal(byte[] buf, int off, int n) {
+        int carry = n;
+        for (int i = off + NONCE_WIDTH - 1; i >= off && carry > 0; i--) {
+            int d = (buf[i] - '0') + carry;
+            buf[i] = (byte) ('0' + (d % 10));
+            carry = d / 10;
+        }
+        return carry == 0;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        for (int i = 0; i <= data.length - pattern.length; i++) {
+            int j = 0;
+            while (j < pattern.length && data[i + j] == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
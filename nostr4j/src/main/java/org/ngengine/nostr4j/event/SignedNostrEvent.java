@@ -48,6 +48,9 @@ import org.ngengine.bech32.Bech32;
 import org.ngengine.bech32.Bech32Exception;
 import org.ngengine.nostr4j.keypair.NostrPublicKey;
 import org.ngengine.nostr4j.proto.NostrMessage;
+import org.ngengine.nostr4j.utils.CryptoExecutor;
+import org.ngengine.nostr4j.utils.CryptoExecutor.Priority;
+import org.ngengine.nostr4j.utils.SchnorrVerifier;
 import org.ngengine.nostr4j.utils.ImmutableSnapshot;
 import org.ngengine.nostr4j.utils.ZeroCounter;
 import org.ngengine.platform.AsyncTask;
@@ -110,6 +113,7 @@ public class SignedNostrEvent extends NostrMessage implements NostrEvent {
         this.content = content;
         this.signature = signature;
         this.pubkey = pubkey.asHex();
+        this.parsedPublicKey = pubkey;
         this.identifier = new Identifier(id, created_at);
 
         Map<String, List<TagValue>> tagsMap = new LinkedHashMap<>();
@@ -249,14 +253,20 @@ public class SignedNostrEvent extends NostrMessage implements NostrEvent {
     }
 
     public boolean verify() throws Exception {
+        return verify(SchnorrVerifier.getDefault());
+    }
+
+    /**
+     * Verify the event id and signature using the given verifier.
+     * @param verifier the verifier, it caches the verification context of the signer key
+     */
+    public boolean verify(SchnorrVerifier verifier) throws Exception {
         Boolean cached = this.verified;
         if (cached != null) {
             return cached.booleanValue();
         }
         String computedId = NostrEvent.computeEventId(this.pubkey, this);
-        boolean result =
-            this.identifier.id.equals(computedId) &&
-            NGEUtils.getPlatform().schnorrVerify(computedId, this.signature, this.getPubkey().asReadOnlyBuffer());
+        boolean result = this.identifier.id.equals(computedId) && verifier.verify(computedId, this.signature, this.getPubkey());
         this.verified = Boolean.valueOf(result);
         return result;
     }
@@ -271,10 +281,10 @@ public class SignedNostrEvent extends NostrMessage implements NostrEvent {
             this.verified = false;
             return AsyncTask.completed(false);
         }
-        return NGEUtils
-            .getPlatform()
-            .schnorrVerifyAsync(computedId, this.signature, this.getPubkey().asReadOnlyBuffer())
-            .then(result -> {
+        return CryptoExecutor
+            .getDefault()
+            .run(Priority.NORMAL, () -> {
+                boolean result = SchnorrVerifier.getDefault().verify(computedId, this.signature, this.getPubkey());
                 this.verified = result;
                 return result;
             });
@@ -298,6 +308,16 @@ public class SignedNostrEvent extends NostrMessage implements NostrEvent {
         return identifier;
     }
 
+    /**
+     * Returns a memory efficient copy of this event, for keeping large amounts of events resident.
+     *
+     * @return the compact form of this event
+     * @throws IllegalArgumentException if id, pubkey or signature are not valid hex
+     */
+    public CompactNostrEvent toCompact() {
+        return CompactNostrEvent.from(this);
+    }
+
     @Override
     protected String getPrefix() {
         return "EVENT";
@@ -319,6 +339,20 @@ public class SignedNostrEvent extends NostrMessage implements NostrEvent {
             this.subId = subId;
         }
 
+        public ReceivedSignedNostrEvent(
+            String subId,
+            String id,
+            NostrPublicKey pubkey,
+            int kind,
+            String content,
+            Instant created_at,
+            String signature,
+            List<List<String>> tags
+        ) {
+            super(id, pubkey, kind, content, created_at, signature, tags);
+            this.subId = subId;
+        }
+
         public String getSubId() {
             return subId;
         }
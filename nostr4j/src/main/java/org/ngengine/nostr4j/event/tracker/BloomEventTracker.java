@@ -0,0 +1,225 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.event.tracker;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.ngengine.nostr4j.NostrFilter;
+import org.ngengine.nostr4j.NostrSubscription;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+
+/**
+ * A probabilistic event tracker with constant memory, for very long lived and high throughput
+ * subscriptions where a small rate of false duplicates is acceptable.
+ * <p>
+ * Ids are remembered by two rotating Bloom filter generations, each one sized to hold the expected
+ * number of events per window at the target false positive rate. The current generation is rotated when
+ * it is full or when the window elapses, so as long as the event rate stays within the expected events per
+ * window every id is remembered for at least one window.
+ * </p>
+ * <p>
+ * The newest ids are also tracked exactly in a {@link RingBufferEventTracker}: events newer than
+ * anything ever evicted from it are answered exactly, so the false positive rate only applies to late events.
+ * Older events, including out of order ones, always go through the filters, so there are no false negatives.
+ * </p>
+ */
+public class BloomEventTracker implements EventTracker {
+
+    private static final double LN2 = Math.log(2);
+
+    private final RingBufferEventTracker recent;
+    private final int bitsPerGeneration;
+    private final int hashes;
+    private final int eventsPerGeneration;
+    private long[] current;
+    private long[] previous;
+    private int currentCount = 0;
+    private long generationStartS = -1;
+
+    protected final long trackingWindowS;
+    protected long cutOffS = 0;
+
+    public BloomEventTracker() {
+        this(100_000, 0.000001, 60, TimeUnit.MINUTES, 4096);
+    }
+
+    /**
+     * @param expectedEventsPerWindow how many distinct events are expected in a window, used to size the filters
+     * @param falsePositiveRate the target probability of an unseen event being reported as seen
+     * @param trackingWindow how long ids should be remembered at least
+     * @param trackingWindowTimeUnit the time unit of trackingWindow
+     * @param exactRecentEvents how many of the newest ids are tracked exactly
+     */
+    public BloomEventTracker(
+        int expectedEventsPerWindow,
+        double falsePositiveRate,
+        long trackingWindow,
+        TimeUnit trackingWindowTimeUnit,
+        int exactRecentEvents
+    ) {
+        if (expectedEventsPerWindow < 1) throw new IllegalArgumentException("Invalid expected events");
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) throw new IllegalArgumentException(
+            "Invalid false positive rate " + falsePositiveRate
+        );
+        this.trackingWindowS = trackingWindowTimeUnit.toSeconds(trackingWindow);
+        this.eventsPerGeneration = expectedEventsPerWindow;
+
+        // lookups check both generations, so each one gets half of the error budget
+        double p = falsePositiveRate / 2;
+        long bits = (long) Math.ceil(-expectedEventsPerWindow * Math.log(p) / (LN2 * LN2));
+        bits = Math.max(64, (bits + 63) & ~63L);
+        if (bits > Integer.MAX_VALUE) throw new IllegalArgumentException("Filter too large");
+        this.bitsPerGeneration = (int) bits;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedEventsPerWindow * LN2));
+        this.current = new long[bitsPerGeneration / 64];
+        this.previous = new long[bitsPerGeneration / 64];
+
+        // the exact set is only used for lookups, the window is handled here
+        this.recent = new RingBufferEventTracker(
+            Math.max(1, exactRecentEvents),
+            Long.MAX_VALUE / 4,
+            TimeUnit.SECONDS,
+            0,
+            TimeUnit.SECONDS
+        );
+    }
+
+    @Override
+    public synchronized boolean seen(SignedNostrEvent event) {
+        long createdAt = event.getCreatedAt().getEpochSecond();
+        if (createdAt < cutOffS) {
+            return true;
+        }
+        if (recent.lookup(event.getId())) {
+            return true;
+        }
+
+        long[] key = recent.lastKey();
+        long h1 = mix(key[0] ^ mix(key[1] ^ mix(key[2] ^ mix(key[3]))));
+        long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+
+        // the exact set covers everything newer than its newest evicted event. Its cut off can't be used here:
+        // it stays at the oldest retained event, so out of order events newer than it might have been evicted
+        boolean exact = createdAt > recent.maxEvictedS;
+        if (!exact && (mightContain(current, h1, h2) || mightContain(previous, h1, h2))) {
+            return true;
+        }
+
+        update();
+        recent.insertLast(createdAt);
+        add(current, h1, h2);
+        currentCount++;
+        return false;
+    }
+
+    /**
+     * Rotates the generations when the current one is full or the window elapsed.
+     */
+    protected void update() {
+        long t = currentTimeSeconds();
+        if (generationStartS < 0) {
+            generationStartS = t;
+        }
+        if (currentCount >= eventsPerGeneration || t - generationStartS >= trackingWindowS) {
+            long[] recycled = previous;
+            Arrays.fill(recycled, 0L);
+            previous = current;
+            current = recycled;
+            currentCount = 0;
+            generationStartS = t;
+            // the dropped generation might have held anything older than one window
+            cutOffS = Math.max(cutOffS, t - trackingWindowS);
+        }
+    }
+
+    protected long currentTimeSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * Number of bits used by each generation.
+     */
+    protected int getBitsPerGeneration() {
+        return bitsPerGeneration;
+    }
+
+    /**
+     * Number of hash functions used by the filters.
+     */
+    protected int getHashCount() {
+        return hashes;
+    }
+
+    private boolean mightContain(long[] bits, long h1, long h2) {
+        long h = h1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) Long.remainderUnsigned(h, bitsPerGeneration);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) return false;
+            h += h2;
+        }
+        return true;
+    }
+
+    private void add(long[] bits, long h1, long h2) {
+        long h = h1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) Long.remainderUnsigned(h, bitsPerGeneration);
+            bits[bit >>> 6] |= 1L << bit;
+            h += h2;
+        }
+    }
+
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    @Override
+    public synchronized void tuneFor(NostrSubscription sub) {
+        long earlistSinceS = Long.MAX_VALUE;
+        for (NostrFilter filter : sub.getFilters()) {
+            if (filter.getSince() != null) {
+                long since = filter.getSince().getEpochSecond();
+                if (since < earlistSinceS) {
+                    earlistSinceS = since;
+                }
+            }
+        }
+
+        if (earlistSinceS != Long.MAX_VALUE) {
+            cutOffS = Math.max(cutOffS, earlistSinceS);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.event.tracker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.ngengine.nostr4j.NostrFilter;
+import org.ngengine.nostr4j.NostrSubscription;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+
+/**
+ * A thread safe version of {@link ForwardSlidingWindowEventTracker} that doesn't serialize callers on a
+ * single monitor, so the events of a subscription can be processed in parallel by all its relays.
+ * <p>
+ * Duplicate lookups go through a {@link ConcurrentHashMap}, the window is kept ordered by a
+ * {@link ConcurrentSkipListSet}. Expiration is done by whichever thread first notices that the window
+ * needs to slide, while the other threads keep going without waiting for it.
+ * </p>
+ * <p>
+ * The cut off is checked again after an id is inserted, so an event that races with a sweep that moves the
+ * cut off past it is reported as seen, even if its id was never tracked before.
+ * </p>
+ */
+public class ConcurrentEventTracker implements EventTracker {
+
+    private static final class Entry implements Comparable<Entry> {
+
+        final long createdAt;
+        final String id;
+
+        Entry(long createdAt, String id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            int c = Long.compare(createdAt, o.createdAt);
+            if (c != 0) return c;
+            return id.compareTo(o.id);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (!(obj instanceof Entry)) return false;
+            Entry e = (Entry) obj;
+            return e.createdAt == createdAt && e.id.equals(id);
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> seenEventIds = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> seenEvents = new ConcurrentSkipListSet<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean sweeping = new AtomicBoolean(false);
+
+    protected volatile int maxTrackedEvents;
+    protected final int minTrackedEvents;
+    protected final long trackingWindowS;
+    protected final long trackingWindowsMarginS;
+    protected volatile long cutOffS = 0;
+
+    public ConcurrentEventTracker() {
+        this(Integer.MAX_VALUE, 21, 60, TimeUnit.MINUTES, 30, TimeUnit.MINUTES);
+    }
+
+    public ConcurrentEventTracker(
+        int maxTrackedEvents,
+        int minTrackedEvents,
+        long trackingWindow,
+        TimeUnit trackingWindowTimeUnit,
+        long trackingWindowMargin,
+        TimeUnit trackingWindowMarginTimeUnit
+    ) {
+        this.maxTrackedEvents = maxTrackedEvents;
+        this.minTrackedEvents = minTrackedEvents < 0 ? 0 : minTrackedEvents;
+        this.trackingWindowS = trackingWindowTimeUnit.toSeconds(trackingWindow);
+        this.trackingWindowsMarginS = trackingWindowMarginTimeUnit.toSeconds(trackingWindowMargin);
+    }
+
+    @Override
+    public boolean seen(SignedNostrEvent event) {
+        long createdAt = event.getCreatedAt().getEpochSecond();
+        if (createdAt < cutOffS) {
+            return true;
+        }
+        String id = event.getId();
+        Entry entry = new Entry(createdAt, id);
+        if (seenEventIds.putIfAbsent(id, entry) != null) {
+            return true;
+        }
+        if (createdAt < cutOffS) {
+            // a concurrent sweep moved the cut off past this event after the first check, and might have
+            // already forgotten an earlier copy of it: treat it as seen, like any other event below the cut off
+            seenEventIds.remove(id, entry);
+            return true;
+        }
+        seenEvents.add(entry);
+        int n = size.incrementAndGet();
+        if (n > maxTrackedEvents || currentTimeSeconds() - cutOffS > trackingWindowS) {
+            update();
+        }
+        return false;
+    }
+
+    protected int count() {
+        return size.get();
+    }
+
+    protected int indexedCount() {
+        return seenEventIds.size();
+    }
+
+    protected long currentTimeSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * Slides the window and evicts the events that fall out of it. Only one thread sweeps at a time, if a
+     * sweep is already in progress this returns immediately.
+     */
+    protected void update() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long t = currentTimeSeconds();
+            long cutOff = cutOffS;
+            boolean expire = false;
+            if (t - cutOff > trackingWindowS) {
+                cutOff = t - (trackingWindowS - trackingWindowsMarginS);
+                expire = true;
+            }
+
+            while (size.get() > minTrackedEvents) {
+                Entry oldest = seenEvents.isEmpty() ? null : seenEvents.first();
+                if (oldest == null) break;
+                boolean expired = expire && oldest.createdAt < cutOff;
+                if (!expired && size.get() <= maxTrackedEvents) break;
+                // raise the cut off past the evicted event before forgetting the id: a concurrent duplicate that
+                // passed the first cut off check before this is caught by the second one in seen().
+                // Like ForwardSlidingWindowEventTracker, the cut off stays on the evicted second if newer
+                // events share it.
+                if (!expired) {
+                    Entry next = seenEvents.higher(oldest);
+                    long c = next != null && next.createdAt == oldest.createdAt ? oldest.createdAt : oldest.createdAt + 1;
+                    if (c > cutOff) cutOff = c;
+                }
+                cutOffS = Math.max(cutOffS, cutOff);
+                if (seenEvents.remove(oldest)) {
+                    seenEventIds.remove(oldest.id, oldest);
+                    size.decrementAndGet();
+                }
+            }
+            cutOffS = Math.max(cutOffS, cutOff);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    @Override
+    public void tuneFor(NostrSubscription sub) {
+        int maxLimit = -1;
+        for (NostrFilter filter : sub.getFilters()) {
+            Number limit = filter.getLimit();
+            if (limit != null && limit.intValue() > maxLimit) {
+                maxLimit = limit.intValue();
+            }
+        }
+        if (maxLimit > 0) {
+            maxTrackedEvents = maxLimit * 2;
+        }
+
+        long earlistSinceS = Long.MAX_VALUE;
+        for (NostrFilter filter : sub.getFilters()) {
+            if (filter.getSince() != null) {
+                long since = filter.getSince().getEpochSecond();
+                if (since < earlistSinceS) {
+                    earlistSinceS = since;
+                }
+            }
+        }
+
+        if (earlistSinceS != Long.MAX_VALUE) {
+            cutOffS = Math.max(cutOffS, earlistSinceS);
+        }
+    }
+}
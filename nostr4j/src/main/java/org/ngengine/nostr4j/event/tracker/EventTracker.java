@@ -33,7 +33,14 @@ package org.ngengine.nostr4j.event.tracker;
 import org.ngengine.nostr4j.NostrSubscription;
 import org.ngengine.nostr4j.event.SignedNostrEvent;
 
-// not thread safe
+/**
+ * Tracks the events delivered to a subscription to drop duplicates.
+ * <p>
+ * NostrPool calls {@link #seen(SignedNostrEvent)} from the threads of every relay of the subscription,
+ * implementations must be thread safe. {@link ConcurrentEventTracker} lets the relays proceed in parallel,
+ * the other implementations synchronize internally.
+ * </p>
+ */
 public interface EventTracker {
     boolean seen(SignedNostrEvent event);
     void tuneFor(NostrSubscription sub);
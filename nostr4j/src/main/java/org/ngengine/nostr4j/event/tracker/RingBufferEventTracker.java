@@ -0,0 +1,397 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.event.tracker;
+
+import java.util.concurrent.TimeUnit;
+import org.ngengine.nostr4j.NostrFilter;
+import org.ngengine.nostr4j.NostrSubscription;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+
+/**
+ * A fixed capacity event tracker that doesn't allocate per event.
+ * <p>
+ * Event ids are parsed from hex into 4 longs and stored in a ring buffer together with their timestamps,
+ * the ring is indexed by an open addressing (linear probing) table of slot indices. When the ring is full
+ * the oldest inserted event is evicted and the cut off is moved up to the oldest timestamp that is still
+ * tracked, so events older than everything in the ring are considered already seen.
+ * </p>
+ * <p>
+ * Events can arrive out of order, so the cut off never goes past the oldest retained timestamp (kept in a
+ * small indexed min-heap): an unseen event is never dropped because a newer one was evicted before it. The
+ * trade-off is that an evicted event newer than that timestamp can be reported as unseen again, only events
+ * newer than everything ever evicted ({@link #getMaxEvicted()}) are answered exactly.
+ * </p>
+ * <p>
+ * Ids that are not 64 hex chars are supported through a slower fallback that keeps a reference to the
+ * id string.
+ * </p>
+ */
+public class RingBufferEventTracker implements EventTracker {
+
+    private static final int ID_LONGS = 4;
+
+    private final int ringMask;
+    private final long[] ringIds;
+    private final long[] ringCreatedAt;
+    private final int[] ringHashes;
+    private final String[] ringFallbackIds;
+    private final int[] table;
+    private final int tableMask;
+    // indexed min-heap of ring slots by created_at
+    private final int[] heap;
+    private final int[] heapIndex;
+    private final long[] scratch = new long[ID_LONGS];
+    private int lastHash;
+    private boolean lastHex;
+    private String lastId;
+    private int head = 0;
+    private int size = 0;
+
+    protected final int capacity;
+    protected final long trackingWindowS;
+    protected final long trackingWindowsMarginS;
+    protected long cutOffS = 0;
+    // the newest created_at ever evicted, only moves forward
+    protected long maxEvictedS = Long.MIN_VALUE;
+
+    public RingBufferEventTracker() {
+        this(16_384, 60, TimeUnit.MINUTES, 30, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @param capacity the maximum number of tracked events, rounded up to a power of two
+     * @param trackingWindow the time window after which events are expired
+     * @param trackingWindowTimeUnit the time unit of trackingWindow
+     * @param trackingWindowMargin how much of the window is kept when it slides
+     * @param trackingWindowMarginTimeUnit the time unit of trackingWindowMargin
+     */
+    public RingBufferEventTracker(
+        int capacity,
+        long trackingWindow,
+        TimeUnit trackingWindowTimeUnit,
+        long trackingWindowMargin,
+        TimeUnit trackingWindowMarginTimeUnit
+    ) {
+        if (capacity < 1 || capacity > (1 << 29)) {
+            throw new IllegalArgumentException("Invalid capacity " + capacity);
+        }
+        int ringSize = Integer.highestOneBit(capacity);
+        if (ringSize < capacity) ringSize <<= 1;
+        this.capacity = ringSize;
+        this.ringMask = ringSize - 1;
+        this.ringIds = new long[ringSize * ID_LONGS];
+        this.ringCreatedAt = new long[ringSize];
+        this.ringHashes = new int[ringSize];
+        this.ringFallbackIds = new String[ringSize];
+        // keep the load factor <= 0.5
+        this.table = new int[ringSize * 2];
+        this.tableMask = table.length - 1;
+        this.heap = new int[ringSize];
+        this.heapIndex = new int[ringSize];
+        this.trackingWindowS = trackingWindowTimeUnit.toSeconds(trackingWindow);
+        this.trackingWindowsMarginS = trackingWindowMarginTimeUnit.toSeconds(trackingWindowMargin);
+    }
+
+    @Override
+    public synchronized boolean seen(SignedNostrEvent event) {
+        long createdAt = event.getCreatedAt().getEpochSecond();
+        if (createdAt < cutOffS) {
+            return true;
+        }
+        if (lookup(event.getId())) {
+            return true;
+        }
+        update();
+        insertLast(createdAt);
+        return false;
+    }
+
+    /**
+     * Parses the id into the scratch key and checks if it is tracked.
+     * The parsed key stays available through {@link #lastKey()} until the next lookup.
+     */
+    boolean lookup(String id) {
+        lastHex = parseHexId(id, scratch);
+        if (!lastHex) {
+            scratch[0] = id.hashCode();
+            scratch[1] = id.length();
+            scratch[2] = 0;
+            scratch[3] = 0;
+        }
+        lastId = id;
+        lastHash = hash(scratch);
+
+        for (int i = lastHash & tableMask;; i = (i + 1) & tableMask) {
+            int entry = table[i];
+            if (entry == 0) return false;
+            int slot = entry - 1;
+            if (ringHashes[slot] == lastHash && matches(slot, id, lastHex)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The key parsed by the last {@link #lookup(String)}.
+     */
+    long[] lastKey() {
+        return scratch;
+    }
+
+    /**
+     * Tracks the id passed to the last {@link #lookup(String)}, evicting the oldest event if the ring is full.
+     */
+    void insertLast(long createdAt) {
+        if (size == capacity) {
+            evictOldest();
+        }
+
+        int slot = head;
+        head = (head + 1) & ringMask;
+        size++;
+        System.arraycopy(scratch, 0, ringIds, slot * ID_LONGS, ID_LONGS);
+        ringCreatedAt[slot] = createdAt;
+        ringHashes[slot] = lastHash;
+        ringFallbackIds[slot] = lastHex ? null : lastId;
+
+        int i = lastHash & tableMask;
+        while (table[i] != 0) {
+            i = (i + 1) & tableMask;
+        }
+        table[i] = slot + 1;
+        lastId = null;
+
+        int h = size - 1;
+        heap[h] = slot;
+        heapIndex[slot] = h;
+        siftUp(h);
+    }
+
+    /**
+     * The newest timestamp, in seconds, of all the events evicted so far.
+     * Unlike the cut off this never moves backwards, so every event newer than it is still tracked.
+     *
+     * @return the timestamp, or {@link Long#MIN_VALUE} if nothing was evicted yet
+     */
+    public synchronized long getMaxEvicted() {
+        return maxEvictedS;
+    }
+
+    protected int count() {
+        return size;
+    }
+
+    protected int indexedCount() {
+        int n = 0;
+        for (int entry : table) {
+            if (entry != 0) n++;
+        }
+        return n;
+    }
+
+    protected long currentTimeSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * Slides the time window and expires the events that fall out of it.
+     */
+    protected void update() {
+        long t = currentTimeSeconds();
+        if (t - cutOffS > trackingWindowS) {
+            cutOffS = t - (trackingWindowS - trackingWindowsMarginS);
+            // the ring is in insertion order, so this only expires up to the first event still in the window
+            while (size > 0 && ringCreatedAt[tail()] < cutOffS) {
+                evictOldest();
+            }
+        }
+    }
+
+    private int tail() {
+        return (head - size) & ringMask;
+    }
+
+    private void evictOldest() {
+        int slot = tail();
+        long createdAt = ringCreatedAt[slot];
+        int hash = ringHashes[slot];
+        for (int i = hash & tableMask;; i = (i + 1) & tableMask) {
+            int entry = table[i];
+            assert entry != 0 : "Evicted event was missing from the index";
+            if (entry == slot + 1) {
+                removeFromTable(i);
+                break;
+            }
+        }
+        ringFallbackIds[slot] = null;
+        heapRemove(slot);
+        size--;
+        if (createdAt > maxEvictedS) {
+            maxEvictedS = createdAt;
+        }
+
+        // never move past the oldest event still in the ring, or unseen events older than it would be dropped
+        long newCutOff = size > 0 ? Math.min(createdAt, ringCreatedAt[heap[0]]) : createdAt;
+        if (newCutOff > cutOffS) {
+            cutOffS = newCutOff;
+        }
+    }
+
+    /**
+     * Removes a slot from the heap, must be called before size is decremented.
+     */
+    private void heapRemove(int slot) {
+        int h = heapIndex[slot];
+        int last = size - 1;
+        if (h != last) {
+            heapSwap(h, last);
+            siftDown(h, last);
+            siftUp(h);
+        }
+    }
+
+    private void siftUp(int h) {
+        while (h > 0) {
+            int parent = (h - 1) >>> 1;
+            if (ringCreatedAt[heap[parent]] <= ringCreatedAt[heap[h]]) break;
+            heapSwap(h, parent);
+            h = parent;
+        }
+    }
+
+    private void siftDown(int h, int heapSize) {
+        while (true) {
+            int l = 2 * h + 1;
+            if (l >= heapSize) break;
+            int min = l;
+            int r = l + 1;
+            if (r < heapSize && ringCreatedAt[heap[r]] < ringCreatedAt[heap[l]]) min = r;
+            if (ringCreatedAt[heap[h]] <= ringCreatedAt[heap[min]]) break;
+            heapSwap(h, min);
+            h = min;
+        }
+    }
+
+    private void heapSwap(int a, int b) {
+        int sa = heap[a];
+        int sb = heap[b];
+        heap[a] = sb;
+        heap[b] = sa;
+        heapIndex[sb] = a;
+        heapIndex[sa] = b;
+    }
+
+    /**
+     * Backward shift deletion, keeps the probe sequences intact without tombstones.
+     */
+    private void removeFromTable(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & tableMask;
+            int entry = table[j];
+            if (entry == 0) break;
+            int k = ringHashes[entry - 1] & tableMask;
+            boolean stays = i <= j ? (i < k && k <= j) : (i < k || k <= j);
+            if (!stays) {
+                table[i] = entry;
+                i = j;
+            }
+        }
+        table[i] = 0;
+    }
+
+    private boolean matches(int slot, String id, boolean hex) {
+        String fallback = ringFallbackIds[slot];
+        if (!hex) {
+            return fallback != null && fallback.equals(id);
+        }
+        if (fallback != null) return false;
+        int off = slot * ID_LONGS;
+        return (
+            ringIds[off] == scratch[0] &&
+            ringIds[off + 1] == scratch[1] &&
+            ringIds[off + 2] == scratch[2] &&
+            ringIds[off + 3] == scratch[3]
+        );
+    }
+
+    private static int hash(long[] key) {
+        long x = key[0] ^ (key[1] * 0x9e3779b97f4a7c15L) ^ Long.rotateLeft(key[2], 21) ^ Long.rotateLeft(key[3], 42);
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        return (int) x;
+    }
+
+    /**
+     * Parses a 64 chars hex id into 4 longs without allocating.
+     *
+     * @return false if the id is not a 64 chars hex string
+     */
+    static boolean parseHexId(String id, long[] out) {
+        if (id.length() != 64) return false;
+        for (int l = 0; l < ID_LONGS; l++) {
+            long v = 0;
+            int off = l * 16;
+            for (int c = 0; c < 16; c++) {
+                int d = hexDigit(id.charAt(off + c));
+                if (d < 0) return false;
+                v = (v << 4) | d;
+            }
+            out[l] = v;
+        }
+        return true;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+
+    @Override
+    public synchronized void tuneFor(NostrSubscription sub) {
+        long earlistSinceS = Long.MAX_VALUE;
+        for (NostrFilter filter : sub.getFilters()) {
+            if (filter.getSince() != null) {
+                long since = filter.getSince().getEpochSecond();
+                if (since < earlistSinceS) {
+                    earlistSinceS = since;
+                }
+            }
+        }
+
+        if (earlistSinceS != Long.MAX_VALUE) {
+            cutOffS = Math.max(cutOffS, earlistSinceS);
+        }
+    }
+}
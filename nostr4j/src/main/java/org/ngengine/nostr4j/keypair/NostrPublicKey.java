@@ -32,11 +32,12 @@ package org.ngengine.nostr4j.keypair;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
-import org.ngengine.bech32.Bech32;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.ngengine.nostr4j.utils.Bech32Codec;
 import org.ngengine.nostr4j.utils.ByteBufferList;
+import org.ngengine.nostr4j.utils.HexCodec;
 import org.ngengine.platform.NGEUtils;
 
 /**
@@ -52,7 +53,12 @@ public final class NostrPublicKey implements NostrKey {
 
     private static final long serialVersionUID = 1L;
 
-    private static final byte[] BECH32_PREFIX = "npub".getBytes(StandardCharsets.UTF_8);
+    private static final String BECH32_HRP = "npub";
+    private static final int KEY_SIZE = 32;
+
+    private static final int INTERN_CACHE_SIZE = 1 << 14;
+    private static final AtomicReferenceArray<NostrPublicKey> INTERN_CACHE = new AtomicReferenceArray<>(INTERN_CACHE_SIZE);
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[KEY_SIZE]);
 
     private String bech32;
     private String hex;
@@ -64,11 +70,17 @@ public final class NostrPublicKey implements NostrKey {
 
     /**
      * Creates a new NostrPublicKey from the given byte array.
+     * <p>
+     * 32 bytes keys are interned in a small bounded cache, so the returned instance might be shared.
+     * </p>
      *
      * @param data the byte array containing the public key data
      * @return a new NostrPublicKey instance
      */
     public static NostrPublicKey fromBytes(byte[] data) {
+        if (data.length == KEY_SIZE) {
+            return intern(data);
+        }
         ByteBuffer bbf = NGEUtils.getPlatform().getNativeAllocator().malloc(data.length);
         bbf.put(data);
         bbf.rewind();
@@ -80,6 +92,7 @@ public final class NostrPublicKey implements NostrKey {
      * <p>
      * This method copies the content of the provided ByteBuffer, use the constructor
      * if you want to directly use the provided ByteBuffer as an internal reference.
+     * 32 bytes keys are interned in a small bounded cache, so the returned instance might be shared.
      * </p>
      *
      * @param bbf the ByteBuffer containing the public key data
@@ -87,6 +100,14 @@ public final class NostrPublicKey implements NostrKey {
      */
     public static NostrPublicKey fromBytes(ByteBuffer bbf) {
         assert bbf.remaining() > 0 : "ByteBuffer should not be empty";
+        if (bbf.remaining() == KEY_SIZE) {
+            byte[] raw = SCRATCH.get();
+            int pos = bbf.position();
+            for (int i = 0; i < KEY_SIZE; i++) {
+                raw[i] = bbf.get(pos + i);
+            }
+            return intern(raw);
+        }
         ByteBuffer copy = NGEUtils.getPlatform().getNativeAllocator().malloc(bbf.remaining());
         copy.put(bbf.slice());
         copy.rewind();
@@ -96,11 +117,18 @@ public final class NostrPublicKey implements NostrKey {
 
     /**
      * Creates a new NostrPublicKey from the given hex string.
+     * <p>
+     * The returned instance might be shared, see {@link #fromBytes(byte[])}.
+     * </p>
      *
      * @param hex the hex string containing the public key data
      * @return a new NostrPublicKey instance
      */
     public static NostrPublicKey fromHex(String hex) {
+        byte[] raw = SCRATCH.get();
+        if (hex.length() == KEY_SIZE * 2 && HexCodec.decode(hex, raw, 0)) {
+            return intern(raw);
+        }
         return fromBytes(NGEUtils.hexToBytes(hex));
     }
 
@@ -118,6 +146,9 @@ public final class NostrPublicKey implements NostrKey {
 
     /**
      * Creates a new NostrPublicKey from the given Bech32 string.
+     * <p>
+     * The returned instance might be shared, see {@link #fromBytes(byte[])}.
+     * </p>
      *
      * @param bech32 the Bech32 string containing the public key data
      * @return a new NostrPublicKey instance
@@ -127,13 +158,46 @@ public final class NostrPublicKey implements NostrKey {
             if (!bech32.startsWith("npub")) {
                 throw new IllegalArgumentException("Invalid npub key");
             }
-            ByteBuffer data = Bech32.bech32Decode(bech32);
-            return fromBytes(data);
+            byte[] raw = SCRATCH.get();
+            Bech32Codec.decode(BECH32_HRP, bech32, raw, 0, KEY_SIZE);
+            NostrPublicKey key = intern(raw);
+            if (key.bech32 == null && bech32.equals(bech32.toLowerCase())) {
+                key.bech32 = bech32;
+            }
+            return key;
         } catch (Exception e) {
             throw new IllegalArgumentException("Invalid npub key", e);
         }
     }
 
+    // direct mapped cache: a colliding key simply replaces the previous one
+    private static NostrPublicKey intern(byte[] raw) {
+        int h = ((raw[0] & 0xff) << 24) | ((raw[1] & 0xff) << 16) | ((raw[2] & 0xff) << 8) | (raw[3] & 0xff);
+        h ^= ((raw[28] & 0xff) << 24) | ((raw[29] & 0xff) << 16) | ((raw[30] & 0xff) << 8) | (raw[31] & 0xff);
+        h ^= h >>> 16;
+        int slot = h & (INTERN_CACHE_SIZE - 1);
+
+        NostrPublicKey cached = INTERN_CACHE.get(slot);
+        if (cached != null && cached.contentEquals(raw)) {
+            return cached;
+        }
+        ByteBuffer bbf = NGEUtils.getPlatform().getNativeAllocator().malloc(KEY_SIZE);
+        bbf.put(raw, 0, KEY_SIZE);
+        bbf.rewind();
+        NostrPublicKey key = new NostrPublicKey(bbf);
+        INTERN_CACHE.set(slot, key);
+        return key;
+    }
+
+    private boolean contentEquals(byte[] raw) {
+        byte[] a = _array();
+        if (a.length != raw.length) return false;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != raw[i]) return false;
+        }
+        return true;
+    }
+
     /**
      * Creates a new NostrPublicKey from the given data.
      * <p>
@@ -175,7 +239,7 @@ public final class NostrPublicKey implements NostrKey {
     @Override
     public String asHex() {
         if (hex != null) return hex;
-        hex = NGEUtils.bytesToHex(data);
+        hex = HexCodec.encode(data);
         assert data.position() == 0 : "Data position must be 0";
         return hex;
     }
@@ -195,7 +259,7 @@ public final class NostrPublicKey implements NostrKey {
     public String asBech32() {
         try {
             if (bech32 != null) return bech32;
-            bech32 = Bech32.bech32Encode(BECH32_PREFIX, this.data);
+            bech32 = Bech32Codec.encode(BECH32_HRP, _array(), 0, data.limit());
             assert data.position() == 0 : "Data position must be 0";
             return bech32;
         } catch (Exception e) {
@@ -254,7 +318,10 @@ public final class NostrPublicKey implements NostrKey {
 
     @Override
     public NostrPublicKey clone() {
-        return fromBytes(data);
+        ByteBuffer copy = NGEUtils.getPlatform().getNativeAllocator().malloc(data.limit());
+        copy.put(data.slice());
+        copy.rewind();
+        return new NostrPublicKey(copy);
     }
 
     @Override
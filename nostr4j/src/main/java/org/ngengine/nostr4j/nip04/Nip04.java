@@ -35,15 +35,14 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import org.ngengine.nostr4j.keypair.NostrPrivateKey;
 import org.ngengine.nostr4j.keypair.NostrPublicKey;
-import org.ngengine.platform.AsyncExecutor;
+import org.ngengine.nostr4j.utils.CryptoExecutor;
+import org.ngengine.nostr4j.utils.CryptoExecutor.Priority;
 import org.ngengine.platform.AsyncTask;
 import org.ngengine.platform.NGEPlatform;
 import org.ngengine.platform.NGEUtils;
 
 public class Nip04 {
 
-    private static final AsyncExecutor executor = NGEUtils.getPlatform().newAsyncExecutor(Nip04.class);
-
     public static String encryptSync(String plaintext, NostrPrivateKey ourPrivateKey, NostrPublicKey theirPublicKey) {
         ByteBuffer pub = prefixedPublicKey(theirPublicKey);
         ByteBuffer shared = NGEPlatform.get().secp256k1SharedSecret(ourPrivateKey.asReadOnlyBuffer(), pub);
@@ -62,7 +61,7 @@ public class Nip04 {
     }
 
     public static AsyncTask<String> encrypt(String plaintext, NostrPrivateKey ourPrivateKey, NostrPublicKey theirPublicKey) {
-        return executor.run(() -> {
+        return CryptoExecutor.getDefault().run(Priority.INTERACTIVE, () -> {
             return encryptSync(plaintext, ourPrivateKey, theirPublicKey);
         });
     }
@@ -76,24 +75,36 @@ public class Nip04 {
         return result;
     }
 
+    /**
+     * Returns the x coordinate of the ECDH shared point, that is the AES key used by NIP-04.
+     * Callers decrypting many messages from the same peer can compute it once and use
+     * {@link #decryptSync(String, ByteBuffer)}.
+     */
+    public static ByteBuffer getSharedSecretSync(NostrPrivateKey ourPrivateKey, NostrPublicKey theirPublicKey) {
+        ByteBuffer pub = prefixedPublicKey(theirPublicKey);
+        ByteBuffer shared = NGEPlatform.get().secp256k1SharedSecret(ourPrivateKey.asReadOnlyBuffer(), pub);
+        shared.position(1);
+        shared.limit(33);
+        return shared.slice();
+    }
+
     public static String decryptSync(String ciphertext, NostrPrivateKey ourPrivateKey, NostrPublicKey theirPublicKey) {
+        return decryptSync(ciphertext, getSharedSecretSync(ourPrivateKey, theirPublicKey));
+    }
+
+    public static String decryptSync(String ciphertext, ByteBuffer sharedSecret) {
         String[] parts = ciphertext.split("\\?iv=");
         if (parts.length != 2) {
             throw new IllegalArgumentException("Invalid ciphertext format");
         }
         ByteBuffer iv = NGEPlatform.get().base64decodeBuffer(parts[1]);
         ByteBuffer data = NGEPlatform.get().base64decodeBuffer(parts[0]);
-        ByteBuffer pub = prefixedPublicKey(theirPublicKey);
-        ByteBuffer shared = NGEPlatform.get().secp256k1SharedSecret(ourPrivateKey.asReadOnlyBuffer(), pub);
-        shared.position(1);
-        shared.limit(33);
-        ByteBuffer sharedX = shared.slice();
-        ByteBuffer plaintext = NGEPlatform.get().aes256cbc(sharedX, iv, data, false);
+        ByteBuffer plaintext = NGEPlatform.get().aes256cbc(sharedSecret.slice(), iv, data, false);
         return new String(NGEUtils.safeByteArray(plaintext), StandardCharsets.UTF_8);
     }
 
     public static AsyncTask<String> decrypt(String ciphertext, NostrPrivateKey ourPrivateKey, NostrPublicKey theirPublicKey) {
-        return executor.run(() -> {
+        return CryptoExecutor.getDefault().run(Priority.INTERACTIVE, () -> {
             return decryptSync(ciphertext, ourPrivateKey, theirPublicKey);
         });
     }
@@ -35,12 +35,17 @@ import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import org.ngengine.nostr4j.keypair.NostrPrivateKey;
 import org.ngengine.nostr4j.keypair.NostrPublicKey;
-import org.ngengine.platform.AsyncExecutor;
+import org.ngengine.nostr4j.utils.CryptoExecutor;
+import org.ngengine.nostr4j.utils.CryptoExecutor.Priority;
 import org.ngengine.platform.AsyncTask;
 import org.ngengine.platform.NGEUtils;
 
 /**
  * NIP-44 encrypt/decrypt
+ * <p>
+ * The helpers use the platform crypto primitives. Allocation sensitive callers that can provide their
+ * own output buffers can opt into a {@link Nip44Codec} instead.
+ * </p>
  * thread-safe
  */
 public class Nip44 {
@@ -53,13 +58,33 @@ public class Nip44 {
     private static final int CONVERSATION_KEY_SIZE = 32;
     private static final int VERSION_SIZE = 1;
     private static final byte[] NIP44_V2_BYTES = "nip44-v2".getBytes(StandardCharsets.UTF_8);
-    private static final AsyncExecutor executor = NGEUtils.getPlatform().newAsyncExecutor(Nip44.class);
+
+    private static final Nip44ConversationKeyCache conversationKeyCache = new Nip44ConversationKeyCache();
+
+    /**
+     * Returns the shared conversation key cache used by all the conversation key lookups.
+     */
+    public static Nip44ConversationKeyCache getConversationKeyCache() {
+        return conversationKeyCache;
+    }
 
     public static byte[] getConversationKeySync(NostrPrivateKey privateKey, NostrPublicKey publicKey) {
-        return NGEUtils.safeByteArray(getConversationKeyBufferSync(privateKey, publicKey));
+        return conversationKeyCache.get(privateKey, publicKey);
     }
 
     public static ByteBuffer getConversationKeyBufferSync(NostrPrivateKey privateKey, NostrPublicKey publicKey) {
+        return ByteBuffer.wrap(getConversationKeySync(privateKey, publicKey));
+    }
+
+    /**
+     * Computes the conversation key without going through the cache.
+     * Meant for one-off keys, such as the ephemeral keys of gift wraps, that would only evict useful entries.
+     */
+    public static byte[] getConversationKeyUncachedSync(NostrPrivateKey privateKey, NostrPublicKey publicKey) {
+        return computeConversationKey(privateKey, publicKey);
+    }
+
+    static byte[] computeConversationKey(NostrPrivateKey privateKey, NostrPublicKey publicKey) {
         ByteBuffer xOnlyPublicKey = publicKey.asReadOnlyBuffer();
         ByteBuffer publicKey33 = NGEUtils.getPlatform().getNativeAllocator().malloc(xOnlyPublicKey.remaining() + 1);
         publicKey33.put((byte) 0x02);
@@ -68,7 +93,7 @@ public class Nip44 {
 
         ByteBuffer shared = NGEUtils.getPlatform().secp256k1SharedSecret(privateKey.asReadOnlyBuffer(), publicKey33);
         ByteBuffer sharedX = range(shared, 1, CONVERSATION_KEY_SIZE);
-        return NGEUtils.getPlatform().hkdf_extract(ByteBuffer.wrap(NIP44_V2_BYTES), sharedX);
+        return NGEUtils.safeByteArray(NGEUtils.getPlatform().hkdf_extract(ByteBuffer.wrap(NIP44_V2_BYTES), sharedX));
     }
 
     private static ByteBuffer safeNonce(ByteBuffer nonce) {
@@ -87,7 +112,7 @@ public class Nip44 {
         return new MessageKeys(range(keys, 0, 32), range(keys, 32, 12), range(keys, 44, 32));
     }
 
-    private static int calcPaddedLength(int length) {
+    static int calcPaddedLength(int length) {
         if (length < 1) throw new IllegalArgumentException("Expected positive integer");
 
         if (length <= 32) return 32;
@@ -303,49 +328,58 @@ public class Nip44 {
     }
 
     public static AsyncTask<String> encrypt(String plaintext, byte[] conversationKey, byte[] nonce) {
-        return executor.run(() -> {
+        return CryptoExecutor.getDefault().run(Priority.INTERACTIVE, () -> {
             return encryptSync(plaintext, conversationKey, nonce);
         });
     }
 
     public static AsyncTask<String> encrypt(String plaintext, byte[] conversationKey) {
-        return executor.run(() -> {
+        return CryptoExecutor.getDefault().run(Priority.INTERACTIVE, () -> {
             return encryptSync(plaintext, conversationKey);
         });
     }
 
     public static AsyncTask<String> decrypt(String payload, byte[] conversationKey) {
-        return executor.run(() -> {
+        return CryptoExecutor.getDefault().run(Priority.INTERACTIVE, () -> {
             return decryptSync(payload, conversationKey);
         });
     }
 
     public static AsyncTask<byte[]> getConversationKey(NostrPrivateKey privateKey, NostrPublicKey publicKey) {
-        return executor.run(() -> {
+        // cache hits are cheap enough to skip the crypto executor
+        byte[] cached = conversationKeyCache.getIfPresent(privateKey, publicKey);
+        if (cached != null) {
+            return AsyncTask.completed(cached);
+        }
+        return CryptoExecutor.getDefault().run(Priority.INTERACTIVE, () -> {
             return getConversationKeySync(privateKey, publicKey);
         });
     }
 
     public static AsyncTask<ByteBuffer> getConversationKeyBuffer(NostrPrivateKey privateKey, NostrPublicKey publicKey) {
-        return executor.run(() -> {
+        byte[] cached = conversationKeyCache.getIfPresent(privateKey, publicKey);
+        if (cached != null) {
+            return AsyncTask.completed(ByteBuffer.wrap(cached));
+        }
+        return CryptoExecutor.getDefault().run(Priority.INTERACTIVE, () -> {
             return getConversationKeyBufferSync(privateKey, publicKey);
         });
     }
 
     public static AsyncTask<byte[]> encryptBinary(byte[] data, byte[] conversationKey, byte[] nonce) {
-        return executor.run(() -> {
+        return CryptoExecutor.getDefault().run(Priority.INTERACTIVE, () -> {
             return encryptSyncBinary(data, conversationKey, nonce);
         });
     }
 
     public static AsyncTask<byte[]> encryptBinary(byte[] data, byte[] conversationKey) {
-        return executor.run(() -> {
+        return CryptoExecutor.getDefault().run(Priority.INTERACTIVE, () -> {
             return encryptSyncBinary(data, conversationKey);
         });
     }
 
     public static AsyncTask<byte[]> decryptBinary(byte[] payloadData, byte[] conversationKey) {
-        return executor.run(() -> {
+        return CryptoExecutor.getDefault().run(Priority.INTERACTIVE, () -> {
             return decryptSyncBinary(payloadData, conversationKey);
         });
     }
@@ -354,7 +388,7 @@ public class Nip44 {
         ByteBuffer dataView = Objects.requireNonNull(data, "data").slice().asReadOnlyBuffer();
         ByteBuffer keyView = Objects.requireNonNull(conversationKey, "conversationKey").slice().asReadOnlyBuffer();
         ByteBuffer nonceView = nonce == null ? null : nonce.slice().asReadOnlyBuffer();
-        return executor.run(() -> {
+        return CryptoExecutor.getDefault().run(Priority.INTERACTIVE, () -> {
             return encryptSyncBinary(dataView, keyView, nonceView);
         });
     }
@@ -366,7 +400,7 @@ public class Nip44 {
     public static AsyncTask<ByteBuffer> decryptBinary(ByteBuffer payloadData, ByteBuffer conversationKey) {
         ByteBuffer payloadView = Objects.requireNonNull(payloadData, "payloadData").slice().asReadOnlyBuffer();
         ByteBuffer keyView = Objects.requireNonNull(conversationKey, "conversationKey").slice().asReadOnlyBuffer();
-        return executor.run(() -> {
+        return CryptoExecutor.getDefault().run(Priority.INTERACTIVE, () -> {
             return decryptSyncBinary(payloadView, keyView);
         });
     }
@@ -0,0 +1,747 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.nip44;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.ngengine.nostr4j.utils.Sha256;
+import org.ngengine.nostr4j.utils.Utf8;
+import org.ngengine.platform.NGEUtils;
+
+/**
+ * Reusable NIP-44 v2 codec, opt-in for allocation sensitive callers.
+ * <p>
+ * The static {@link Nip44} helpers, used everywhere else, run on the platform crypto primitives. This
+ * codec instead implements ChaCha20, HMAC-SHA256 and the HKDF expansion in plain Java, and is tested to
+ * produce the same payloads byte for byte.
+ * </p>
+ * <p>
+ * Unlike the static helpers, a codec owns all the scratch state it needs (HMAC
+ * midstates, derived message keys, ChaCha20 state, working buffers) and writes into caller provided
+ * outputs, so that encrypting or decrypting a message doesn't allocate once the codec is warmed up.
+ * The base64 variants encode and decode straight from/into the working buffers, without an
+ * intermediate binary payload. The HMAC midstates of the last used conversation key are kept, so
+ * consecutive messages in the same conversation skip the key schedule.
+ * </p>
+ * <p>
+ * The only allocation left is the random nonce, when the caller doesn't provide one.
+ * </p>
+ * NOT thread-safe: use one codec per thread.
+ */
+public final class Nip44Codec {
+
+    private static final byte VERSION_V2 = 0x02;
+    private static final int KEY_SIZE = 32;
+    private static final int NONCE_SIZE = 32;
+    private static final int MAC_SIZE = 32;
+    private static final int HEADER_SIZE = 1 + NONCE_SIZE;
+    private static final int OVERHEAD = HEADER_SIZE + 2 + MAC_SIZE;
+    private static final int MIN_PAYLOAD_SIZE = HEADER_SIZE + 1 + MAC_SIZE;
+    private static final int MAX_PAYLOAD_SIZE = 65603;
+    private static final int MIN_BASE64_PAYLOAD_SIZE = 132;
+    private static final int MAX_BASE64_PAYLOAD_SIZE = 87472;
+    private static final int[] SHA256_IV = Sha256.newState();
+
+    private static final char[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final byte[] BASE64_DECODE = new byte[128];
+
+    static {
+        Arrays.fill(BASE64_DECODE, (byte) -1);
+        for (int i = 0; i < BASE64.length; i++) {
+            BASE64_DECODE[BASE64[i]] = (byte) i;
+        }
+    }
+
+    // sha256
+    private final int[] w = new int[64];
+    private final int[] shaState = new int[8];
+    private final byte[] shaBlock = new byte[Sha256.BLOCK_SIZE * 2];
+    private int shaBlockLength;
+    private long shaTotalLength;
+
+    // hmac midstates of the last conversation key, used for hkdf expand
+    private final byte[] conversationKey = new byte[KEY_SIZE];
+    private final int[] conversationInner = new int[8];
+    private final int[] conversationOuter = new int[8];
+    private boolean hasConversationKey;
+
+    // per message keys: chacha key (0-32), chacha nonce (32-44), hmac key (44-76)
+    private final byte[] messageKeys = new byte[96];
+    private final int[] macInner = new int[8];
+    private final int[] macOuter = new int[8];
+
+    private final int[] chachaState = new int[16];
+    private final int[] chachaBlock = new int[16];
+
+    private final byte[] keyScratch = new byte[KEY_SIZE];
+    private final byte[] digest = new byte[32];
+    private final byte[] mac = new byte[MAC_SIZE];
+    private final StringBuilder stringScratch = new StringBuilder();
+    private byte[] work = new byte[1024];
+    private byte[] input = new byte[1024];
+    // how much of work and input was written since the last wipe
+    private int workDirty;
+    private int inputDirty;
+
+    /**
+     * Returns the size of the binary payload produced for a plaintext of the given length.
+     */
+    public static int encryptedLength(int plaintextLength) {
+        checkPlaintextLength(plaintextLength);
+        return Nip44.calcPaddedLength(plaintextLength) + OVERHEAD;
+    }
+
+    /**
+     * Returns the size of the base64 payload produced for a plaintext of the given length.
+     */
+    public static int encryptedBase64Length(int plaintextLength) {
+        return (encryptedLength(plaintextLength) + 2) / 3 * 4;
+    }
+
+    /**
+     * Returns an upper bound of the plaintext size contained in a binary payload of the given length.
+     */
+    public static int maxDecryptedLength(int payloadLength) {
+        return Math.max(0, payloadLength - OVERHEAD);
+    }
+
+    /**
+     * Encrypts {@code plaintextLength} bytes of {@code plaintext} into {@code out}, starting at
+     * {@code outOffset}. Input and output must not overlap.
+     *
+     * @param nonce the 32 bytes nonce, or null to generate a random one
+     * @return the number of bytes written, see {@link #encryptedLength(int)}
+     */
+    public int encrypt(
+        byte[] plaintext,
+        int plaintextOffset,
+        int plaintextLength,
+        byte[] conversationKey,
+        byte[] nonce,
+        byte[] out,
+        int outOffset
+    ) {
+        int length = encryptedLength(plaintextLength);
+        requireKey(conversationKey);
+        if (out.length - outOffset < length || outOffset < 0) {
+            throw new IllegalArgumentException("Output buffer too small: " + length + " bytes needed");
+        }
+        writeNonce(nonce, out, outOffset + 1);
+        System.arraycopy(plaintext, plaintextOffset, out, outOffset + HEADER_SIZE + 2, plaintextLength);
+        return seal(out, outOffset, plaintextLength, conversationKey);
+    }
+
+    /**
+     * Encrypts the remaining bytes of {@code plaintext} into {@code out}, at its current position.
+     * The position of the output is advanced, the positions of the other buffers are left untouched.
+     *
+     * @param nonce the 32 bytes nonce, or null to generate a random one
+     * @return the number of bytes written
+     */
+    public int encrypt(ByteBuffer plaintext, ByteBuffer conversationKey, ByteBuffer nonce, ByteBuffer out) {
+        int plaintextLength = plaintext.remaining();
+        int length = encryptedLength(plaintextLength);
+        byte[] key = loadKey(conversationKey);
+        if (out.remaining() < length) {
+            throw new IllegalArgumentException("Output buffer too small: " + length + " bytes needed");
+        }
+        byte[] buf;
+        int off;
+        if (out.hasArray()) {
+            buf = out.array();
+            off = out.arrayOffset() + out.position();
+        } else {
+            buf = useWork(length);
+            off = 0;
+        }
+        if (nonce == null) {
+            writeNonce(null, buf, off + 1);
+        } else {
+            if (nonce.remaining() != NONCE_SIZE) {
+                throw new IllegalArgumentException("Nonce must be 32 bytes");
+            }
+            copy(nonce, buf, off + 1);
+        }
+        copy(plaintext, buf, off + HEADER_SIZE + 2);
+        seal(buf, off, plaintextLength, key);
+        if (buf == work) {
+            out.put(work, 0, length);
+        } else {
+            out.position(out.position() + length);
+        }
+        return length;
+    }
+
+    /**
+     * Encrypts a plaintext, allocating only the returned payload.
+     */
+    public byte[] encrypt(byte[] plaintext, byte[] conversationKey, byte[] nonce) {
+        if (plaintext == null) {
+            throw new IllegalArgumentException("NIP44 plaintext must be between 1 and 65535 bytes");
+        }
+        byte[] out = new byte[encryptedLength(plaintext.length)];
+        encrypt(plaintext, 0, plaintext.length, conversationKey, nonce, out, 0);
+        return out;
+    }
+
+    /**
+     * Encrypts the UTF-8 encoding of {@code plaintext} and appends the base64 payload to {@code out}.
+     *
+     * @param nonce the 32 bytes nonce, or null to generate a random one
+     */
+    public void encryptBase64(CharSequence plaintext, byte[] conversationKey, byte[] nonce, StringBuilder out) {
+        int plaintextLength = Utf8.length(plaintext);
+        int length = encryptedLength(plaintextLength);
+        requireKey(conversationKey);
+        useWork(length);
+        writeNonce(nonce, work, 1);
+        Utf8.encode(plaintext, work, HEADER_SIZE + 2);
+        seal(work, 0, plaintextLength, conversationKey);
+        appendBase64(work, length, out);
+    }
+
+    /**
+     * Encrypts the UTF-8 encoding of {@code plaintext}, allocating only the returned string.
+     */
+    public String encryptBase64(CharSequence plaintext, byte[] conversationKey, byte[] nonce) {
+        stringScratch.setLength(0);
+        encryptBase64(plaintext, conversationKey, nonce, stringScratch);
+        String out = stringScratch.toString();
+        stringScratch.setLength(0);
+        return out;
+    }
+
+    /**
+     * Decrypts {@code payloadLength} bytes of {@code payload} into {@code out}, starting at
+     * {@code outOffset}. The output must have room for {@link #maxDecryptedLength(int)} bytes, or at
+     * least for the actual plaintext.
+     *
+     * @return the plaintext length
+     * @throws SecurityException if the payload fails authentication
+     * @throws IllegalArgumentException if the payload is malformed or the output is too small
+     */
+    public int decrypt(
+        byte[] payload,
+        int payloadOffset,
+        int payloadLength,
+        byte[] conversationKey,
+        byte[] out,
+        int outOffset
+    ) {
+        requireKey(conversationKey);
+        int length = open(payload, payloadOffset, payloadLength, conversationKey);
+        if (out.length - outOffset < length || outOffset < 0) {
+            throw new IllegalArgumentException("Output buffer too small: " + length + " bytes needed");
+        }
+        System.arraycopy(work, 2, out, outOffset, length);
+        return length;
+    }
+
+    /**
+     * Decrypts the remaining bytes of {@code payload} into {@code out}, at its current position.
+     * The position of the output is advanced, the positions of the other buffers are left untouched.
+     *
+     * @return the plaintext length
+     * @throws SecurityException if the payload fails authentication
+     * @throws IllegalArgumentException if the payload is malformed or the output is too small
+     */
+    public int decrypt(ByteBuffer payload, ByteBuffer conversationKey, ByteBuffer out) {
+        byte[] key = loadKey(conversationKey);
+        int payloadLength = payload.remaining();
+        int length;
+        if (payload.hasArray()) {
+            length = open(payload.array(), payload.arrayOffset() + payload.position(), payloadLength, key);
+        } else {
+            if (payloadLength < MIN_PAYLOAD_SIZE || payloadLength > MAX_PAYLOAD_SIZE) {
+                throw new IllegalArgumentException("invalid data length: " + payloadLength);
+            }
+            useInput(payloadLength);
+            copy(payload, input, 0);
+            length = open(input, 0, payloadLength, key);
+        }
+        if (out.remaining() < length) {
+            throw new IllegalArgumentException("Output buffer too small: " + length + " bytes needed");
+        }
+        out.put(work, 2, length);
+        return length;
+    }
+
+    /**
+     * Decrypts a payload, allocating only the returned plaintext.
+     */
+    public byte[] decrypt(byte[] payload, byte[] conversationKey) {
+        requireKey(conversationKey);
+        int length = open(payload, 0, payload.length, conversationKey);
+        return Arrays.copyOfRange(work, 2, 2 + length);
+    }
+
+    /**
+     * Decrypts a base64 payload into {@code out}, starting at {@code outOffset}.
+     *
+     * @return the plaintext length
+     */
+    public int decryptBase64(CharSequence payload, byte[] conversationKey, byte[] out, int outOffset) {
+        requireKey(conversationKey);
+        // decode first, it might grow the input buffer
+        int payloadLength = decodeBase64(payload);
+        int length = open(input, 0, payloadLength, conversationKey);
+        if (out.length - outOffset < length || outOffset < 0) {
+            throw new IllegalArgumentException("Output buffer too small: " + length + " bytes needed");
+        }
+        System.arraycopy(work, 2, out, outOffset, length);
+        return length;
+    }
+
+    /**
+     * Decrypts a base64 payload, allocating only the returned string.
+     */
+    public String decryptBase64(CharSequence payload, byte[] conversationKey) {
+        requireKey(conversationKey);
+        // decode first, it might grow the input buffer
+        int payloadLength = decodeBase64(payload);
+        int length = open(input, 0, payloadLength, conversationKey);
+        return new String(work, 2, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Zeroes all the key material and plaintext held by this codec.
+     * Only the part of the working buffers that was used since the last wipe is cleared.
+     */
+    public void wipe() {
+        Arrays.fill(w, 0);
+        Arrays.fill(shaState, 0);
+        Arrays.fill(conversationKey, (byte) 0);
+        Arrays.fill(conversationInner, 0);
+        Arrays.fill(conversationOuter, 0);
+        Arrays.fill(messageKeys, (byte) 0);
+        Arrays.fill(macInner, 0);
+        Arrays.fill(macOuter, 0);
+        Arrays.fill(chachaState, 0);
+        Arrays.fill(chachaBlock, 0);
+        Arrays.fill(keyScratch, (byte) 0);
+        Arrays.fill(digest, (byte) 0);
+        Arrays.fill(mac, (byte) 0);
+        Arrays.fill(shaBlock, (byte) 0);
+        Arrays.fill(work, 0, workDirty, (byte) 0);
+        Arrays.fill(input, 0, inputDirty, (byte) 0);
+        workDirty = 0;
+        inputDirty = 0;
+        hasConversationKey = false;
+    }
+
+    /**
+     * Returns true if this codec holds no key material or plaintext.
+     */
+    boolean isWiped() {
+        return (
+            !hasConversationKey &&
+            isZero(w) &&
+            isZero(shaState) &&
+            isZero(conversationInner) &&
+            isZero(conversationOuter) &&
+            isZero(macInner) &&
+            isZero(macOuter) &&
+            isZero(chachaState) &&
+            isZero(chachaBlock) &&
+            isZero(conversationKey) &&
+            isZero(messageKeys) &&
+            isZero(keyScratch) &&
+            isZero(digest) &&
+            isZero(mac) &&
+            isZero(shaBlock) &&
+            isZero(work) &&
+            isZero(input)
+        );
+    }
+
+    private static boolean isZero(int[] a) {
+        for (int v : a) {
+            if (v != 0) return false;
+        }
+        return true;
+    }
+
+    private static boolean isZero(byte[] a) {
+        for (byte v : a) {
+            if (v != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Pads, encrypts and authenticates in place the plaintext stored at
+     * {@code buf[off + 35 .. off + 35 + plaintextLength]}, the nonce must already be at
+     * {@code buf[off + 1 .. off + 33]}.
+     */
+    private int seal(byte[] buf, int off, int plaintextLength, byte[] key) {
+        int paddedLength = Nip44.calcPaddedLength(plaintextLength) + 2;
+        buf[off] = VERSION_V2;
+        int p = off + HEADER_SIZE;
+        buf[p] = (byte) (plaintextLength >> 8);
+        buf[p + 1] = (byte) plaintextLength;
+        Arrays.fill(buf, p + 2 + plaintextLength, p + paddedLength, (byte) 0);
+
+        deriveMessageKeys(key, buf, off + 1);
+        chacha20(buf, p, paddedLength);
+
+        shaInit(macInner);
+        shaUpdate(buf, off + 1, NONCE_SIZE + paddedLength);
+        hmacFinish(macOuter, buf, p + paddedLength);
+        return HEADER_SIZE + paddedLength + MAC_SIZE;
+    }
+
+    /**
+     * Authenticates and decrypts the payload into {@code work}, the plaintext starts at offset 2.
+     *
+     * @return the plaintext length
+     */
+    private int open(byte[] payload, int off, int length, byte[] key) {
+        if (length < MIN_PAYLOAD_SIZE || length > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("invalid data length: " + length);
+        }
+        if (payload[off] != VERSION_V2) {
+            throw new IllegalArgumentException("unknown encryption version " + payload[off]);
+        }
+        int ciphertextLength = length - HEADER_SIZE - MAC_SIZE;
+
+        deriveMessageKeys(key, payload, off + 1);
+        shaInit(macInner);
+        shaUpdate(payload, off + 1, NONCE_SIZE + ciphertextLength);
+        hmacFinish(macOuter, mac, 0);
+        int diff = 0;
+        int macOffset = off + HEADER_SIZE + ciphertextLength;
+        for (int i = 0; i < MAC_SIZE; i++) {
+            diff |= mac[i] ^ payload[macOffset + i];
+        }
+        if (diff != 0) {
+            throw new SecurityException("invalid MAC - message authentication failed");
+        }
+
+        useWork(ciphertextLength);
+        System.arraycopy(payload, off + HEADER_SIZE, work, 0, ciphertextLength);
+        chacha20(work, 0, ciphertextLength);
+        if (ciphertextLength < 3) {
+            throw new IllegalArgumentException("invalid padding");
+        }
+        int plaintextLength = (work[0] & 0xff) << 8 | (work[1] & 0xff);
+        if (plaintextLength < 1 || plaintextLength + 2 > ciphertextLength) {
+            throw new IllegalArgumentException("invalid padding");
+        }
+        if (ciphertextLength != 2 + Nip44.calcPaddedLength(plaintextLength)) {
+            throw new IllegalArgumentException("invalid padding");
+        }
+        return plaintextLength;
+    }
+
+    private void deriveMessageKeys(byte[] key, byte[] nonce, int nonceOffset) {
+        if (!hasConversationKey || !Arrays.equals(conversationKey, key)) {
+            System.arraycopy(key, 0, conversationKey, 0, KEY_SIZE);
+            hmacKey(key, 0, conversationInner, conversationOuter);
+            hasConversationKey = true;
+        }
+        // hkdf expand, info = nonce, 76 bytes
+        for (int i = 0; i < 3; i++) {
+            shaInit(conversationInner);
+            if (i > 0) {
+                shaUpdate(messageKeys, (i - 1) * 32, 32);
+            }
+            shaUpdate(nonce, nonceOffset, NONCE_SIZE);
+            shaUpdate((byte) (i + 1));
+            hmacFinish(conversationOuter, messageKeys, i * 32);
+        }
+        hmacKey(messageKeys, 44, macInner, macOuter);
+    }
+
+    private void hmacKey(byte[] key, int off, int[] inner, int[] outer) {
+        for (int i = 0; i < Sha256.BLOCK_SIZE; i++) {
+            shaBlock[i] = (byte) ((i < KEY_SIZE ? key[off + i] : 0) ^ 0x36);
+        }
+        System.arraycopy(SHA256_IV, 0, inner, 0, 8);
+        Sha256.compress(inner, shaBlock, 0, 1, w);
+        for (int i = 0; i < Sha256.BLOCK_SIZE; i++) {
+            shaBlock[i] = (byte) ((i < KEY_SIZE ? key[off + i] : 0) ^ 0x5c);
+        }
+        System.arraycopy(SHA256_IV, 0, outer, 0, 8);
+        Sha256.compress(outer, shaBlock, 0, 1, w);
+    }
+
+    private void hmacFinish(int[] outer, byte[] out, int off) {
+        shaFinish(digest, 0);
+        shaInit(outer);
+        shaUpdate(digest, 0, digest.length);
+        shaFinish(out, off);
+    }
+
+    private void shaInit(int[] midstate) {
+        System.arraycopy(midstate, 0, shaState, 0, 8);
+        shaBlockLength = 0;
+        shaTotalLength = Sha256.BLOCK_SIZE;
+    }
+
+    private void shaUpdate(byte[] data, int off, int len) {
+        shaTotalLength += len;
+        if (shaBlockLength > 0) {
+            int n = Math.min(Sha256.BLOCK_SIZE - shaBlockLength, len);
+            System.arraycopy(data, off, shaBlock, shaBlockLength, n);
+            shaBlockLength += n;
+            off += n;
+            len -= n;
+            if (shaBlockLength < Sha256.BLOCK_SIZE) {
+                return;
+            }
+            Sha256.compress(shaState, shaBlock, 0, 1, w);
+            shaBlockLength = 0;
+        }
+        int blocks = len / Sha256.BLOCK_SIZE;
+        if (blocks > 0) {
+            Sha256.compress(shaState, data, off, blocks, w);
+            off += blocks * Sha256.BLOCK_SIZE;
+            len -= blocks * Sha256.BLOCK_SIZE;
+        }
+        System.arraycopy(data, off, shaBlock, 0, len);
+        shaBlockLength = len;
+    }
+
+    private void shaUpdate(byte b) {
+        shaTotalLength++;
+        shaBlock[shaBlockLength++] = b;
+        if (shaBlockLength == Sha256.BLOCK_SIZE) {
+            Sha256.compress(shaState, shaBlock, 0, 1, w);
+            shaBlockLength = 0;
+        }
+    }
+
+    private void shaFinish(byte[] out, int off) {
+        int end = Sha256.pad(shaBlock, shaBlockLength, shaTotalLength);
+        Sha256.compress(shaState, shaBlock, 0, end / Sha256.BLOCK_SIZE, w);
+        Sha256.toBytes(shaState, out, off);
+    }
+
+    /**
+     * ChaCha20 (RFC 8439) with the derived key and nonce and a zero initial counter, in place.
+     */
+    private void chacha20(byte[] buf, int off, int len) {
+        int[] s = chachaState;
+        s[0] = 0x61707865;
+        s[1] = 0x3320646e;
+        s[2] = 0x79622d32;
+        s[3] = 0x6b206574;
+        for (int i = 0; i < 8; i++) {
+            s[4 + i] = readIntLE(messageKeys, i * 4);
+        }
+        s[12] = 0;
+        for (int i = 0; i < 3; i++) {
+            s[13 + i] = readIntLE(messageKeys, 32 + i * 4);
+        }
+        int[] x = chachaBlock;
+        while (len > 0) {
+            System.arraycopy(s, 0, x, 0, 16);
+            for (int i = 0; i < 10; i++) {
+                quarterRound(x, 0, 4, 8, 12);
+                quarterRound(x, 1, 5, 9, 13);
+                quarterRound(x, 2, 6, 10, 14);
+                quarterRound(x, 3, 7, 11, 15);
+                quarterRound(x, 0, 5, 10, 15);
+                quarterRound(x, 1, 6, 11, 12);
+                quarterRound(x, 2, 7, 8, 13);
+                quarterRound(x, 3, 4, 9, 14);
+            }
+            int n = Math.min(64, len);
+            int words = n >> 2;
+            for (int i = 0; i < words; i++) {
+                int k = x[i] + s[i];
+                int p = off + i * 4;
+                buf[p] ^= (byte) k;
+                buf[p + 1] ^= (byte) (k >>> 8);
+                buf[p + 2] ^= (byte) (k >>> 16);
+                buf[p + 3] ^= (byte) (k >>> 24);
+            }
+            for (int i = words * 4; i < n; i++) {
+                buf[off + i] ^= (byte) ((x[i >> 2] + s[i >> 2]) >>> ((i & 3) * 8));
+            }
+            s[12]++;
+            off += n;
+            len -= n;
+        }
+    }
+
+    private static void quarterRound(int[] x, int a, int b, int c, int d) {
+        x[a] += x[b];
+        x[d] = Integer.rotateLeft(x[d] ^ x[a], 16);
+        x[c] += x[d];
+        x[b] = Integer.rotateLeft(x[b] ^ x[c], 12);
+        x[a] += x[b];
+        x[d] = Integer.rotateLeft(x[d] ^ x[a], 8);
+        x[c] += x[d];
+        x[b] = Integer.rotateLeft(x[b] ^ x[c], 7);
+    }
+
+    private static int readIntLE(byte[] b, int off) {
+        return (b[off] & 0xff) | ((b[off + 1] & 0xff) << 8) | ((b[off + 2] & 0xff) << 16) | (b[off + 3] << 24);
+    }
+
+    private void appendBase64(byte[] data, int length, StringBuilder out) {
+        out.ensureCapacity(out.length() + (length + 2) / 3 * 4);
+        int i = 0;
+        for (; i + 3 <= length; i += 3) {
+            int v = ((data[i] & 0xff) << 16) | ((data[i + 1] & 0xff) << 8) | (data[i + 2] & 0xff);
+            out.append(BASE64[v >>> 18]);
+            out.append(BASE64[(v >>> 12) & 0x3f]);
+            out.append(BASE64[(v >>> 6) & 0x3f]);
+            out.append(BASE64[v & 0x3f]);
+        }
+        int rem = length - i;
+        if (rem == 1) {
+            int v = (data[i] & 0xff) << 16;
+            out.append(BASE64[v >>> 18]);
+            out.append(BASE64[(v >>> 12) & 0x3f]);
+            out.append("==");
+        } else if (rem == 2) {
+            int v = ((data[i] & 0xff) << 16) | ((data[i + 1] & 0xff) << 8);
+            out.append(BASE64[v >>> 18]);
+            out.append(BASE64[(v >>> 12) & 0x3f]);
+            out.append(BASE64[(v >>> 6) & 0x3f]);
+            out.append('=');
+        }
+    }
+
+    /**
+     * Decodes a padded base64 payload into {@code input}.
+     *
+     * @return the decoded length
+     */
+    private int decodeBase64(CharSequence payload) {
+        int len = payload.length();
+        if (len < MIN_BASE64_PAYLOAD_SIZE || len > MAX_BASE64_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("invalid payload length: " + len);
+        }
+        if (payload.charAt(0) == '#') {
+            throw new IllegalArgumentException("unknown encryption version");
+        }
+        if ((len & 3) != 0) {
+            throw new IllegalArgumentException("invalid base64 payload");
+        }
+        int padding = payload.charAt(len - 1) == '=' ? (payload.charAt(len - 2) == '=' ? 2 : 1) : 0;
+        int out = len / 4 * 3 - padding;
+        byte[] dst = useInput(len / 4 * 3);
+        int o = 0;
+        for (int i = 0; i < len; i += 4) {
+            int a = base64Value(payload.charAt(i));
+            int b = base64Value(payload.charAt(i + 1));
+            int c = i + 4 == len && padding == 2 ? 0 : base64Value(payload.charAt(i + 2));
+            int d = i + 4 == len && padding >= 1 ? 0 : base64Value(payload.charAt(i + 3));
+            int v = (a << 18) | (b << 12) | (c << 6) | d;
+            dst[o++] = (byte) (v >>> 16);
+            dst[o++] = (byte) (v >>> 8);
+            dst[o++] = (byte) v;
+        }
+        return out;
+    }
+
+    private static int base64Value(char c) {
+        int v = c < 128 ? BASE64_DECODE[c] : -1;
+        if (v < 0) {
+            throw new IllegalArgumentException("invalid base64 payload");
+        }
+        return v;
+    }
+
+    private byte[] loadKey(ByteBuffer key) {
+        if (key == null || key.remaining() != KEY_SIZE) {
+            throw new IllegalArgumentException("Conversation key must be 32 bytes");
+        }
+        copy(key, keyScratch, 0);
+        return keyScratch;
+    }
+
+    private static void requireKey(byte[] key) {
+        if (key == null || key.length != KEY_SIZE) {
+            throw new IllegalArgumentException("Conversation key must be 32 bytes");
+        }
+    }
+
+    private static void checkPlaintextLength(int length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("NIP44 plaintext must be between 1 and 65535 bytes");
+        }
+        if (length > 0xFFFF) {
+            throw new IllegalArgumentException("NIP44 plaintext too large: " + length + " bytes, maximum supported is 65535");
+        }
+    }
+
+    private static void writeNonce(byte[] nonce, byte[] dst, int off) {
+        if (nonce == null) {
+            nonce = NGEUtils.getPlatform().randomBytes(NONCE_SIZE);
+        } else if (nonce.length != NONCE_SIZE) {
+            throw new IllegalArgumentException("Nonce must be 32 bytes");
+        }
+        System.arraycopy(nonce, 0, dst, off, NONCE_SIZE);
+    }
+
+    private static void copy(ByteBuffer src, byte[] dst, int off) {
+        int len = src.remaining();
+        if (src.hasArray()) {
+            System.arraycopy(src.array(), src.arrayOffset() + src.position(), dst, off, len);
+        } else {
+            int pos = src.position();
+            for (int i = 0; i < len; i++) {
+                dst[off + i] = src.get(pos + i);
+            }
+        }
+    }
+
+    private byte[] useWork(int size) {
+        if (work.length < size) {
+            // don't leave the old contents behind for the gc
+            Arrays.fill(work, 0, workDirty, (byte) 0);
+            work = ensureCapacity(work, size);
+        }
+        workDirty = Math.max(workDirty, size);
+        return work;
+    }
+
+    private byte[] useInput(int size) {
+        if (input.length < size) {
+            Arrays.fill(input, 0, inputDirty, (byte) 0);
+            input = ensureCapacity(input, size);
+        }
+        inputDirty = Math.max(inputDirty, size);
+        return input;
+    }
+
+    private static byte[] ensureCapacity(byte[] buf, int size) {
+        if (buf.length >= size) {
+            return buf;
+        }
+        return new byte[Math.max(size, buf.length * 2)];
+    }
+}
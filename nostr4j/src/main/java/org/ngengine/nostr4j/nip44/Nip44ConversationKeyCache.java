@@ -0,0 +1,216 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.nip44;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+
+/**
+ * Bounded LRU cache of NIP-44 conversation keys, keyed by (local private key, peer public key).
+ * <p>
+ * Computing a conversation key costs a secp256k1 ECDH plus an HKDF extract, chatty peers (wallets,
+ * remote signers) would pay it on every message otherwise. Cached keys are zeroed when they are
+ * evicted, invalidated or cleared, callers always receive a copy.
+ * </p>
+ * thread-safe
+ */
+public final class Nip44ConversationKeyCache {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private static final class CacheKey {
+
+        private final NostrPrivateKey privateKey;
+        private final NostrPublicKey publicKey;
+        private final int hash;
+
+        CacheKey(NostrPrivateKey privateKey, NostrPublicKey publicKey) {
+            this.privateKey = privateKey;
+            this.publicKey = publicKey;
+            this.hash = 31 * privateKey.hashCode() + publicKey.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof CacheKey)) return false;
+            CacheKey that = (CacheKey) obj;
+            return hash == that.hash && publicKey.equals(that.publicKey) && privateKey.equals(that.privateKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final LinkedHashMap<CacheKey, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private int capacity;
+
+    public Nip44ConversationKeyCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public Nip44ConversationKeyCache(int capacity) {
+        setCapacity(capacity);
+    }
+
+    /**
+     * Set the maximum number of cached keys, 0 disables the cache.
+     * Shrinking the capacity evicts the least recently used keys.
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be >= 0");
+        }
+        synchronized (entries) {
+            this.capacity = capacity;
+            trim();
+        }
+    }
+
+    public int getCapacity() {
+        synchronized (entries) {
+            return capacity;
+        }
+    }
+
+    /**
+     * Returns a copy of the conversation key for the given pair, computing and caching it if needed.
+     */
+    public byte[] get(NostrPrivateKey privateKey, NostrPublicKey publicKey) {
+        Objects.requireNonNull(privateKey, "privateKey");
+        Objects.requireNonNull(publicKey, "publicKey");
+        byte[] cached = getIfPresent(privateKey, publicKey);
+        if (cached != null) {
+            return cached;
+        }
+        misses.incrementAndGet();
+        // computed outside of the lock, two threads might compute the same key concurrently, that's fine
+        byte[] key = Nip44.computeConversationKey(privateKey, publicKey);
+        synchronized (entries) {
+            if (capacity > 0) {
+                byte[] previous = entries.put(new CacheKey(privateKey, publicKey), key.clone());
+                if (previous != null) {
+                    Arrays.fill(previous, (byte) 0);
+                }
+                trim();
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Returns a copy of the cached conversation key for the given pair, or null if it is not cached.
+     * A null result is not counted as a miss.
+     */
+    public byte[] getIfPresent(NostrPrivateKey privateKey, NostrPublicKey publicKey) {
+        synchronized (entries) {
+            byte[] key = entries.get(new CacheKey(privateKey, publicKey));
+            if (key == null) {
+                return null;
+            }
+            hits.incrementAndGet();
+            return key.clone();
+        }
+    }
+
+    /**
+     * Remove and zero all the keys derived from the given private key.
+     */
+    public void invalidate(NostrPrivateKey privateKey) {
+        synchronized (entries) {
+            Iterator<Map.Entry<CacheKey, byte[]>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<CacheKey, byte[]> e = it.next();
+                if (e.getKey().privateKey.equals(privateKey)) {
+                    Arrays.fill(e.getValue(), (byte) 0);
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove and zero all the cached keys.
+     */
+    public void clear() {
+        synchronized (entries) {
+            for (byte[] key : entries.values()) {
+                Arrays.fill(key, (byte) 0);
+            }
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public void resetMetrics() {
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+    }
+
+    private void trim() {
+        Iterator<byte[]> it = entries.values().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            byte[] eldest = it.next();
+            Arrays.fill(eldest, (byte) 0);
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.nip46;
+
+import static org.ngengine.platform.NGEUtils.dbg;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.ngengine.nostr4j.NostrFilter;
+import org.ngengine.nostr4j.NostrPool;
+import org.ngengine.nostr4j.NostrRelay;
+import org.ngengine.nostr4j.NostrSubscription;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.listeners.sub.NostrSubEventListener;
+import org.ngengine.platform.AsyncExecutor;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEPlatform;
+import org.ngengine.platform.NGEUtils;
+
+/**
+ * A NIP-46 transport shared by every remote signer session that talks over the same set of relays.
+ * <p>
+ * A transport owns one {@link NostrPool} and a single kind 24133 subscription whose {@code #p} filter
+ * lists the transport keys of all the registered sessions. Incoming events are routed to the session
+ * they are addressed to by their {@code p} tag, the session then matches the response to its pending
+ * request by id.
+ * </p>
+ * <p>
+ * Transports are reference counted: {@link #acquire(Collection)} returns the transport for a relay set
+ * (creating it if needed) and {@link #release()} closes it once the last user is gone.
+ * Registrations are coalesced, so registering many sessions at once costs a single resubscription.
+ * </p>
+ */
+public final class Nip46Transport implements NostrSubEventListener {
+
+    private static final Logger logger = Logger.getLogger(Nip46Transport.class.getName());
+    private static final int SEEN_EVENTS_CAPACITY = 1024;
+    private static final Map<Set<String>, Nip46Transport> transports = new HashMap<>();
+    private static volatile AsyncExecutor sharedExecutor;
+
+    private final Set<String> relays;
+    private final NostrPool pool = new NostrPool();
+    private final Map<String, NostrSubEventListener> routes = new ConcurrentHashMap<>();
+    private final Queue<Waiter> waiters;
+    private final AtomicBoolean resubscribeScheduled = new AtomicBoolean();
+    private final Map<String, Boolean> seenEvents = new LinkedHashMap<String, Boolean>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > SEEN_EVENTS_CAPACITY;
+        }
+    };
+
+    private int references = 0;
+    private volatile boolean closed = false;
+    private volatile boolean relaysAdded = false;
+    private volatile NostrSubscription subscription;
+    private volatile Set<String> subscribedKeys = Collections.emptySet();
+
+    private static final class Waiter {
+
+        final Consumer<Void> onSuccess;
+        final Consumer<Throwable> onError;
+
+        Waiter(Consumer<Void> onSuccess, Consumer<Throwable> onError) {
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+    }
+
+    private Nip46Transport(Set<String> relays) {
+        this.relays = Collections.unmodifiableSet(relays);
+        this.waiters = NGEUtils.getPlatform().newConcurrentQueue(Waiter.class);
+    }
+
+    /**
+     * Get the transport for the given relays, creating it if needed.
+     * Every call must be balanced by a call to {@link #release()}.
+     * @param relays the relay urls, order and duplicates are ignored
+     * @return the shared transport
+     */
+    public static Nip46Transport acquire(Collection<String> relays) {
+        Set<String> key = new TreeSet<>(relays);
+        synchronized (transports) {
+            Nip46Transport transport = transports.get(key);
+            if (transport == null) {
+                logger.fine("Creating NIP-46 transport for relays: " + key);
+                transport = new Nip46Transport(key);
+                transports.put(key, transport);
+            }
+            transport.references++;
+            return transport;
+        }
+    }
+
+    /**
+     * Release a reference obtained with {@link #acquire(Collection)}.
+     * The pool and subscription are closed when the last reference is released.
+     */
+    public void release() {
+        synchronized (transports) {
+            if (references == 0) return;
+            if (--references > 0) return;
+            transports.remove(relays);
+        }
+        close();
+    }
+
+    /**
+     * The executor used by the transport and by the signers attached to it.
+     * It is shared by all the transports and never closed.
+     */
+    public static AsyncExecutor getSharedExecutor() {
+        if (sharedExecutor == null) {
+            synchronized (transports) {
+                if (sharedExecutor == null) {
+                    sharedExecutor = NGEUtils.getPlatform().newSignerExecutor();
+                }
+            }
+        }
+        return sharedExecutor;
+    }
+
+    public Set<String> getRelays() {
+        return relays;
+    }
+
+    public NostrPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Number of transport keys currently routed by this transport.
+     */
+    public int getRegisteredKeys() {
+        return routes.size();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Route the events addressed to a transport key to the given listener.
+     * @param transportPubkey the client transport key
+     * @param listener the listener that will receive the events tagged with the key
+     * @return an async task that completes once the subscription covers the key
+     */
+    public AsyncTask<Void> register(NostrPublicKey transportPubkey, NostrSubEventListener listener) {
+        NGEPlatform platform = NGEUtils.getPlatform();
+        String key = transportPubkey.asHex();
+        return platform.wrapPromise((res, rej) -> {
+            if (closed) {
+                rej.accept(new IllegalStateException("Transport closed"));
+                return;
+            }
+            routes.put(key, listener);
+            NostrSubscription sub = this.subscription;
+            if (sub != null && sub.isOpened() && subscribedKeys.contains(key)) {
+                res.accept(null);
+                return;
+            }
+            waiters.add(new Waiter(res, rej));
+            scheduleResubscribe();
+        });
+    }
+
+    /**
+     * Stop routing events for a transport key.
+     * @param transportPubkey the client transport key
+     * @param listener the listener that was registered, the route is left untouched if it was replaced
+     */
+    public void unregister(NostrPublicKey transportPubkey, NostrSubEventListener listener) {
+        if (routes.remove(transportPubkey.asHex(), listener) && !closed) {
+            scheduleResubscribe();
+        }
+    }
+
+    private void scheduleResubscribe() {
+        if (!resubscribeScheduled.compareAndSet(false, true)) return;
+        getSharedExecutor()
+            .run(() -> {
+                resubscribe();
+                return null;
+            });
+    }
+
+    // runs in the shared executor
+    private void resubscribe() {
+        resubscribeScheduled.set(false);
+        List<Waiter> ready = new ArrayList<>();
+        Waiter w;
+        while ((w = waiters.poll()) != null) {
+            ready.add(w);
+        }
+        try {
+            if (closed) {
+                throw new IllegalStateException("Transport closed");
+            }
+            Set<String> keys = new TreeSet<>(routes.keySet());
+            NostrSubscription old = this.subscription;
+            if (keys.equals(subscribedKeys) && old != null && old.isOpened()) {
+                notifyReady(ready, null);
+                return;
+            }
+
+            if (!relaysAdded) {
+                relaysAdded = true;
+                for (String relay : relays) {
+                    pool.addRelay(new NostrRelay(relay));
+                }
+            }
+
+            if (keys.isEmpty()) {
+                this.subscription = null;
+                this.subscribedKeys = Collections.emptySet();
+                if (old != null) old.close();
+                notifyReady(ready, null);
+                return;
+            }
+
+            NostrFilter filter = new NostrFilter()
+                .withKind(24133)
+                .withTag("p", keys.toArray(new String[0]))
+                .since(Instant.now().minusSeconds(60));
+            assert dbg(() -> logger.finest("Resubscribing NIP-46 transport " + relays + " for " + keys.size() + " keys"));
+            NostrSubscription sub = pool.subscribe(filter);
+            sub.addListener(this);
+            this.subscription = sub;
+            this.subscribedKeys = Collections.unmodifiableSet(keys);
+
+            // open the new subscription before closing the old one, so no response is lost in between;
+            // events received by both are deduplicated in onSubEvent
+            NGEUtils
+                .getPlatform()
+                .awaitAll(sub.open())
+                .catchException(exc -> {
+                    notifyReady(ready, exc);
+                })
+                .then(acks -> {
+                    if (old != null) old.close();
+                    notifyReady(ready, null);
+                    return null;
+                });
+        } catch (Throwable e) {
+            notifyReady(ready, e);
+        }
+    }
+
+    private static void notifyReady(List<Waiter> ready, Throwable error) {
+        for (Waiter w : ready) {
+            try {
+                if (error != null) {
+                    w.onError.accept(error);
+                } else {
+                    w.onSuccess.accept(null);
+                }
+            } catch (Throwable e) {
+                logger.log(Level.WARNING, "Error in transport registration callback", e);
+            }
+        }
+    }
+
+    @Override
+    public void onSubEvent(NostrSubscription sub, SignedNostrEvent event, boolean stored) {
+        synchronized (seenEvents) {
+            if (seenEvents.put(event.getId(), Boolean.TRUE) != null) {
+                return;
+            }
+        }
+        String p = event.getFirstTagFirstValue("p");
+        NostrSubEventListener listener = p != null ? routes.get(p) : null;
+        if (listener == null) {
+            assert dbg(() -> logger.finer("No NIP-46 session for p tag: " + p));
+            return;
+        }
+        try {
+            listener.onSubEvent(sub, event, stored);
+        } catch (Throwable e) {
+            logger.log(Level.WARNING, "Error routing NIP-46 event", e);
+        }
+    }
+
+    private void close() {
+        logger.fine("Closing NIP-46 transport for relays: " + relays);
+        closed = true;
+        routes.clear();
+        NostrSubscription sub = this.subscription;
+        this.subscription = null;
+        this.subscribedKeys = Collections.emptySet();
+        if (sub != null) sub.close();
+        // the relays were created by this transport, so they are disconnected along with it
+        for (NostrRelay relay : pool.clean()) {
+            relay.disconnect("transport closed");
+        }
+        List<Waiter> pending = new ArrayList<>();
+        Waiter w;
+        while ((w = waiters.poll()) != null) {
+            pending.add(w);
+        }
+        notifyReady(pending, new IllegalStateException("Transport closed"));
+    }
+
+    @Override
+    public String toString() {
+        return "Nip46Transport{relays=" + relays + ", keys=" + routes.size() + "}";
+    }
+}
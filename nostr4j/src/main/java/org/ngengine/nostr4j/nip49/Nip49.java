@@ -32,9 +32,9 @@ package org.ngengine.nostr4j.nip49;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import org.ngengine.bech32.Bech32;
 import org.ngengine.nostr4j.keypair.NostrPrivateKey;
-import org.ngengine.platform.AsyncExecutor;
 import org.ngengine.platform.AsyncTask;
 import org.ngengine.platform.NGEPlatform;
 
@@ -45,13 +45,36 @@ public class Nip49 {
     private static final int DEFAULT_LOGN = 16;
     private static final int MIN_LOGN = 16;
     private static final int MAX_LOGN = 20;
-    private static final AsyncExecutor executor = NGEPlatform.get().newAsyncExecutor(Nip49.class);
 
     public static long getApproximatedMemoryRequirement(int logn) {
         long n = validateAndGetN(logn);
         return Math.multiplyExact(Math.multiplyExact(128L, n), 8L);
     }
 
+    /**
+     * Read the scrypt work factor of an ncryptsec without decrypting it.
+     * Use with {@link #getApproximatedMemoryRequirement(int)} to know how much memory decryption needs.
+     */
+    public static int getLogN(String ncryptsec) throws Nip49FailedException {
+        try {
+            if (!ncryptsec.startsWith("ncryptsec")) {
+                throw new IllegalArgumentException("Invalid ncryptsec prefix");
+            }
+            ByteBuffer decoded = Bech32.bech32Decode(ncryptsec);
+            if (decoded.remaining() < 2) {
+                throw new IllegalArgumentException("Invalid ncryptsec");
+            }
+            if (decoded.get() != 0x02) {
+                throw new IllegalArgumentException("Unsupported version number");
+            }
+            int logn = Byte.toUnsignedInt(decoded.get());
+            validateAndGetN(logn);
+            return logn;
+        } catch (Exception e) {
+            throw new Nip49FailedException("Failed to decode", e);
+        }
+    }
+
     private static long validateAndGetN(int logn) {
         if (logn < MIN_LOGN || logn > MAX_LOGN) {
             throw new IllegalArgumentException("Unsupported NIP-49 logn: " + logn);
@@ -163,6 +186,10 @@ public class Nip49 {
             }
             NostrPrivateKey priv = NostrPrivateKey.fromBytes(privateKey);
             priv.setKeySecurity(keySecurity);
+            // the key has been copied to native memory, don't leave the secrets around on the heap
+            Arrays.fill(privateKey, (byte) 0);
+            Arrays.fill(symmetricKey, (byte) 0);
+            Arrays.fill(normalizedPassword, (byte) 0);
             return priv;
         } catch (Exception e) {
             throw new Nip49FailedException("Failed to decrypt", e);
@@ -177,15 +204,18 @@ public class Nip49 {
         return decrypt(ncryptsec, password, DEFAULT_MEMORY_LIMIT);
     }
 
+    /**
+     * Decrypt in the default {@link Nip49Service}, within its global memory budget.
+     * The key is not stored in the service vault.
+     */
     public static AsyncTask<NostrPrivateKey> decrypt(String ncryptsec, String password, int memoryLimitBytes) {
-        return executor.run(() -> {
-            return decryptSync(ncryptsec, password, memoryLimitBytes);
-        });
+        return Nip49Service.getDefault().decrypt(ncryptsec, password, memoryLimitBytes, false).getResult();
     }
 
+    /**
+     * Encrypt in the default {@link Nip49Service}, within its global memory budget.
+     */
     public static AsyncTask<String> encrypt(NostrPrivateKey priv, String password, int logn, int memoryLimitBytes) {
-        return executor.run(() -> {
-            return encryptSync(priv, password, logn, memoryLimitBytes);
-        });
+        return Nip49Service.getDefault().encrypt(priv, password, logn, memoryLimitBytes).getResult();
     }
 }
@@ -0,0 +1,76 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.nip49;
+
+import org.ngengine.platform.AsyncTask;
+
+/**
+ * A NIP-49 operation scheduled by {@link Nip49Service}.
+ */
+public final class Nip49Job<T> {
+
+    private final AsyncTask<T> result;
+    private final Runnable canceller;
+    private final long memoryRequirement;
+
+    Nip49Job(AsyncTask<T> result, Runnable canceller, long memoryRequirement) {
+        this.result = result;
+        this.canceller = canceller;
+        this.memoryRequirement = memoryRequirement;
+    }
+
+    /**
+     * The result of the operation.
+     * Fails with a {@link java.util.concurrent.CancellationException} if the job is cancelled.
+     */
+    public AsyncTask<T> getResult() {
+        return result;
+    }
+
+    /**
+     * Approximated peak memory used by scrypt while running this job.
+     */
+    public long getMemoryRequirement() {
+        return memoryRequirement;
+    }
+
+    /**
+     * Cancel the job.
+     * Queued work is dropped, work that is already running completes but its result is discarded.
+     */
+    public void cancel() {
+        canceller.run();
+    }
+
+    public T await() throws Exception {
+        return result.await();
+    }
+}
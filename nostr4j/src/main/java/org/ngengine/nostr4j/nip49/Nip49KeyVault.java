@@ -0,0 +1,154 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.nip49;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.platform.NGEUtils;
+import org.ngengine.platform.NativeAllocator;
+
+/**
+ * Off-heap storage for decrypted private keys.
+ * <p>
+ * Each key is copied to a native buffer that is zeroed and freed when the key is removed,
+ * so decrypted keys can be reused without running scrypt again and without leaving copies
+ * around the java heap. Keys returned by {@link #get(String)} are backed by a fresh native copy.
+ * </p>
+ * <p>
+ * The vault doesn't check passwords: anything able to verify a password without scrypt would be a
+ * cheaper target than the ncryptsec itself, so callers that need to check a password must decrypt again.
+ * </p>
+ * This class is thread-safe.
+ */
+public final class Nip49KeyVault {
+
+    private static final int KEY_SIZE = 32;
+    // key, key security
+    private static final int SECURITY_OFFSET = KEY_SIZE;
+    private static final int SLOT_SIZE = SECURITY_OFFSET + 1;
+
+    private final Map<String, ByteBuffer> slots = new HashMap<>();
+
+    /**
+     * Store a key, replacing and wiping any key stored with the same id.
+     * @param id the id of the key, eg. the ncryptsec it was decrypted from
+     * @param key the key to store
+     */
+    public void put(String id, NostrPrivateKey key) {
+        ByteBuffer data = key.asReadOnlyBuffer();
+        if (data.remaining() != KEY_SIZE) {
+            throw new IllegalArgumentException("Invalid private key length");
+        }
+        NativeAllocator allocator = NGEUtils.getPlatform().getNativeAllocator();
+        ByteBuffer slot = allocator.malloc(SLOT_SIZE);
+        slot.put(data.slice());
+        slot.put((byte) key.getKeySecurity().ordinal());
+        slot.rewind();
+        ByteBuffer old;
+        synchronized (slots) {
+            old = slots.put(id, slot);
+        }
+        if (old != null) {
+            wipe(old);
+        }
+    }
+
+    /**
+     * Get a stored key.
+     * @param id the id of the key
+     * @return the key or null if no key is stored with this id
+     */
+    public NostrPrivateKey get(String id) {
+        synchronized (slots) {
+            ByteBuffer slot = slots.get(id);
+            if (slot == null) return null;
+            return toKey(slot);
+        }
+    }
+
+    public boolean contains(String id) {
+        synchronized (slots) {
+            return slots.containsKey(id);
+        }
+    }
+
+    public int size() {
+        synchronized (slots) {
+            return slots.size();
+        }
+    }
+
+    /**
+     * Wipe and remove a key.
+     * @param id the id of the key
+     * @return true if a key was removed
+     */
+    public boolean remove(String id) {
+        ByteBuffer slot;
+        synchronized (slots) {
+            slot = slots.remove(id);
+        }
+        if (slot == null) return false;
+        wipe(slot);
+        return true;
+    }
+
+    /**
+     * Wipe and remove all the keys.
+     */
+    public void clear() {
+        ByteBuffer[] all;
+        synchronized (slots) {
+            all = slots.values().toArray(new ByteBuffer[0]);
+            slots.clear();
+        }
+        for (ByteBuffer slot : all) {
+            wipe(slot);
+        }
+    }
+
+    private static NostrPrivateKey toKey(ByteBuffer slot) {
+        ByteBuffer data = slot.duplicate();
+        data.position(0).limit(KEY_SIZE);
+        NostrPrivateKey key = NostrPrivateKey.fromBytes(data);
+        key.setKeySecurity(NostrPrivateKey.KeySecurity.values()[slot.get(SECURITY_OFFSET)]);
+        return key;
+    }
+
+    private static void wipe(ByteBuffer slot) {
+        for (int i = 0; i < slot.capacity(); i++) {
+            slot.put(i, (byte) 0);
+        }
+        NGEUtils.getPlatform().getNativeAllocator().free(slot);
+    }
+}
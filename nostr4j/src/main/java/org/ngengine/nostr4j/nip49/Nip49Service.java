@@ -0,0 +1,414 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.nip49;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.nostr4j.utils.CryptoExecutor;
+import org.ngengine.nostr4j.utils.CryptoExecutor.Priority;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEUtils;
+
+/**
+ * Runs NIP-49 encryption and decryption within a global scrypt memory budget.
+ * <p>
+ * Every job reserves the memory scrypt needs for its work factor before it starts, jobs that don't fit
+ * in the remaining budget wait in a FIFO queue. This bounds the memory used by bulk imports no matter
+ * how many keys are submitted at once. A job that needs more than the whole budget is not rejected, it
+ * waits until nothing else is running and then runs alone. Jobs can be cancelled and batches report
+ * their progress.
+ * </p>
+ * <p>
+ * Decrypted keys can be stored in a {@link Nip49KeyVault}, keyed by their ncryptsec. This is disabled by
+ * default, so that a shared service doesn't keep every key it ever decrypted, see {@link #setStoreKeys(boolean)}.
+ * </p>
+ * This class is thread-safe.
+ */
+public final class Nip49Service {
+
+    private static final Logger logger = Logger.getLogger(Nip49Service.class.getName());
+    private static final int DEFAULT_LOGN = 16;
+    private static volatile Nip49Service defaultService;
+
+    private final long memoryBudget;
+    private final CryptoExecutor executor;
+    private final Priority priority;
+    private final Nip49KeyVault vault = new Nip49KeyVault();
+    private final ArrayDeque<Job> queue = new ArrayDeque<>();
+    private volatile boolean storeKeys = false;
+    private long reservedMemory = 0;
+
+    private final class Job {
+
+        final long memory;
+        final Callable<Object> work;
+        final Consumer<Object> onSuccess;
+        final Consumer<Throwable> onError;
+        final AtomicBoolean done = new AtomicBoolean();
+
+        Job(long memory, Callable<Object> work, Consumer<Object> onSuccess, Consumer<Throwable> onError) {
+            this.memory = memory;
+            this.work = work;
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+
+        void cancel() {
+            boolean queued;
+            synchronized (Nip49Service.this) {
+                queued = queue.remove(this);
+            }
+            if (queued) {
+                logger.finer("Cancelled queued NIP-49 job");
+            }
+            fail(new CancellationException("NIP-49 job cancelled"));
+        }
+
+        void complete(Object result) {
+            if (done.compareAndSet(false, true)) {
+                onSuccess.accept(result);
+            }
+        }
+
+        void fail(Throwable error) {
+            if (done.compareAndSet(false, true)) {
+                onError.accept(error);
+            }
+        }
+    }
+
+    /**
+     * The default service, with a memory budget of a quarter of the maximum heap size.
+     */
+    public static Nip49Service getDefault() {
+        if (defaultService == null) {
+            synchronized (Nip49Service.class) {
+                if (defaultService == null) {
+                    defaultService = new Nip49Service(defaultMemoryBudget());
+                }
+            }
+        }
+        return defaultService;
+    }
+
+    /**
+     * A quarter of the maximum heap size, but always enough for one job with the default work factor.
+     * Jobs with a higher work factor that don't fit run alone.
+     */
+    public static long defaultMemoryBudget() {
+        long budget = Runtime.getRuntime().maxMemory() / 4;
+        return Math.max(budget, Nip49.getApproximatedMemoryRequirement(DEFAULT_LOGN));
+    }
+
+    /**
+     * Create a service running on the default {@link CryptoExecutor}, at {@link Priority#BULK} priority
+     * so that long scrypt computations don't hold back event verification.
+     * @param memoryBudgetBytes maximum memory used by all the running scrypt computations
+     */
+    public Nip49Service(long memoryBudgetBytes) {
+        this(memoryBudgetBytes, CryptoExecutor.getDefault(), Priority.BULK);
+    }
+
+    /**
+     * Create a service.
+     * @param memoryBudgetBytes maximum memory used by all the running scrypt computations
+     * @param executor the executor that runs scrypt
+     * @param priority the priority of the scrypt tasks
+     */
+    public Nip49Service(long memoryBudgetBytes, CryptoExecutor executor, Priority priority) {
+        if (memoryBudgetBytes <= 0) {
+            throw new IllegalArgumentException("memoryBudgetBytes must be > 0");
+        }
+        this.memoryBudget = memoryBudgetBytes;
+        this.executor = executor;
+        this.priority = priority;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Memory currently reserved by running jobs.
+     */
+    public synchronized long getReservedMemory() {
+        return reservedMemory;
+    }
+
+    /**
+     * Number of jobs waiting for memory.
+     */
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * The vault that holds the keys decrypted by this service.
+     */
+    public Nip49KeyVault getVault() {
+        return vault;
+    }
+
+    /**
+     * Store the decrypted keys in the vault.
+     * The vault is never checked on decryption, the password is always verified by running scrypt.
+     * @param storeKeys true to store the keys, false (default) to only return them
+     */
+    public void setStoreKeys(boolean storeKeys) {
+        this.storeKeys = storeKeys;
+    }
+
+    public boolean isStoreKeys() {
+        return storeKeys;
+    }
+
+    /**
+     * Decrypt an ncryptsec, and store the key in the vault if {@link #isStoreKeys()}.
+     * @param ncryptsec the encrypted key
+     * @param password the password
+     * @return the scheduled job
+     */
+    public Nip49Job<NostrPrivateKey> decrypt(String ncryptsec, String password) {
+        return decrypt(ncryptsec, password, Integer.MAX_VALUE, storeKeys);
+    }
+
+    Nip49Job<NostrPrivateKey> decrypt(String ncryptsec, String password, int memoryLimitBytes, boolean store) {
+        long memory;
+        try {
+            memory = Nip49.getApproximatedMemoryRequirement(Nip49.getLogN(ncryptsec));
+        } catch (Exception e) {
+            return failed(e);
+        }
+        return submit(
+            memory,
+            () -> {
+                NostrPrivateKey key = Nip49.decryptSync(ncryptsec, password, memoryLimitBytes);
+                if (store) {
+                    vault.put(ncryptsec, key);
+                }
+                return key;
+            }
+        );
+    }
+
+    /**
+     * Decrypt many ncryptsecs encrypted with the same password.
+     * The batch fails with the first error and cancelling it cancels every pending item.
+     * @param ncryptsecs the encrypted keys
+     * @param password the password
+     * @param progress called after every decrypted key, can be null
+     * @return the scheduled job, its result has the keys in the same order as the input
+     */
+    public Nip49Job<List<NostrPrivateKey>> decryptAll(List<String> ncryptsecs, String password, Nip49Progress progress) {
+        List<Nip49Job<NostrPrivateKey>> jobs = new ArrayList<>(ncryptsecs.size());
+        long memory = 0;
+        for (String ncryptsec : ncryptsecs) {
+            Nip49Job<NostrPrivateKey> job = decrypt(ncryptsec, password);
+            memory = Math.max(memory, job.getMemoryRequirement());
+            jobs.add(job);
+        }
+        Runnable cancelAll = () -> {
+            for (Nip49Job<NostrPrivateKey> job : jobs) {
+                job.cancel();
+            }
+        };
+        AsyncTask<List<NostrPrivateKey>> result = NGEUtils
+            .getPlatform()
+            .wrapPromise((res, rej) -> {
+                int total = jobs.size();
+                if (total == 0) {
+                    res.accept(new ArrayList<>());
+                    return;
+                }
+                NostrPrivateKey[] keys = new NostrPrivateKey[total];
+                AtomicInteger completed = new AtomicInteger();
+                AtomicBoolean failed = new AtomicBoolean();
+                for (int i = 0; i < total; i++) {
+                    int index = i;
+                    jobs
+                        .get(i)
+                        .getResult()
+                        .then(key -> {
+                            keys[index] = key;
+                            int count = completed.incrementAndGet();
+                            notifyProgress(progress, count, total);
+                            if (count == total) {
+                                res.accept(new ArrayList<>(Arrays.asList(keys)));
+                            }
+                            return null;
+                        })
+                        .catchException(err -> {
+                            if (failed.compareAndSet(false, true)) {
+                                cancelAll.run();
+                                rej.accept(err);
+                            }
+                        });
+                }
+            });
+        return new Nip49Job<>(result, cancelAll, memory);
+    }
+
+    /**
+     * Encrypt a key with the default work factor.
+     */
+    public Nip49Job<String> encrypt(NostrPrivateKey key, String password) {
+        return encrypt(key, password, DEFAULT_LOGN);
+    }
+
+    /**
+     * Encrypt a key.
+     * @param key the key to encrypt
+     * @param password the password
+     * @param logn the scrypt work factor
+     * @return the scheduled job
+     */
+    public Nip49Job<String> encrypt(NostrPrivateKey key, String password, int logn) {
+        return encrypt(key, password, logn, Integer.MAX_VALUE);
+    }
+
+    Nip49Job<String> encrypt(NostrPrivateKey key, String password, int logn, int memoryLimitBytes) {
+        long memory;
+        try {
+            memory = Nip49.getApproximatedMemoryRequirement(logn);
+        } catch (Exception e) {
+            return failed(new Nip49FailedException("Failed to encrypt", e));
+        }
+        return submit(memory, () -> Nip49.encryptSync(key, password, logn, memoryLimitBytes));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Nip49Job<T> submit(long memory, Callable<T> work) {
+        if (memory > memoryBudget) {
+            logger.fine(
+                "NIP-49 job needs " + memory + " bytes, more than the budget of " + memoryBudget + " bytes, it will run alone"
+            );
+        }
+        Job[] holder = new Job[1];
+        AsyncTask<T> result = NGEUtils
+            .getPlatform()
+            .wrapPromise((res, rej) -> {
+                Job job = new Job(memory, (Callable<Object>) work, r -> res.accept((T) r), rej);
+                holder[0] = job;
+                synchronized (this) {
+                    queue.add(job);
+                }
+                drain();
+            });
+        return new Nip49Job<>(
+            result,
+            () -> {
+                Job job = holder[0];
+                if (job != null) job.cancel();
+            },
+            memory
+        );
+    }
+
+    // start the jobs at the head of the queue as long as they fit in the budget
+    private void drain() {
+        while (true) {
+            Job job;
+            synchronized (this) {
+                job = queue.peek();
+                if (job == null) return;
+                if (job.done.get()) {
+                    queue.poll();
+                    continue;
+                }
+                // first in first out: a large job at the head is not overtaken by smaller ones.
+                // A job larger than the whole budget starts once nothing else is running
+                if (reservedMemory > 0 && reservedMemory + job.memory > memoryBudget) return;
+                queue.poll();
+                reservedMemory += job.memory;
+            }
+            start(job);
+        }
+    }
+
+    private void start(Job job) {
+        executor
+            .run(
+                priority,
+                () -> {
+                    Object result = null;
+                    Throwable error = null;
+                    try {
+                        if (!job.done.get()) result = job.work.call();
+                    } catch (Throwable e) {
+                        error = e;
+                    } finally {
+                        // release the memory before completing, so callers never observe a finished job still reserved
+                        synchronized (this) {
+                            reservedMemory -= job.memory;
+                        }
+                    }
+                    if (error != null) {
+                        job.fail(error);
+                    } else {
+                        job.complete(result);
+                    }
+                    drain();
+                    return null;
+                }
+            )
+            .catchException(e -> {
+                logger.log(Level.WARNING, "Error running NIP-49 job", e);
+            });
+    }
+
+    private static void notifyProgress(Nip49Progress progress, int completed, int total) {
+        if (progress == null) return;
+        try {
+            progress.onProgress(completed, total);
+        } catch (Throwable e) {
+            logger.log(Level.WARNING, "Error in NIP-49 progress callback", e);
+        }
+    }
+
+    private static <T> Nip49Job<T> failed(Throwable error) {
+        AsyncTask<T> result = NGEUtils
+            .getPlatform()
+            .wrapPromise((res, rej) -> {
+                rej.accept(error);
+            });
+        return new Nip49Job<>(result, () -> {}, 0);
+    }
+}
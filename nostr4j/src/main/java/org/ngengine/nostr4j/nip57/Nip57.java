@@ -410,6 +410,7 @@ public final class Nip57 {
                             .ensureRelay(relayUrl)
                             .compose(r -> {
                                 NostrPool subPool = new NostrPool();
+                                subPool.setEventStore(pool.getEventStore());
                                 subPool.addRelay(r);
                                 return Nip01
                                     .fetch(subPool, recipientPubkey)
@@ -0,0 +1,149 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.nip59;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.UnsignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrKeyPair;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.nip44.Nip44;
+import org.ngengine.nostr4j.signer.NostrKeyPairSigner;
+import org.ngengine.nostr4j.signer.NostrSigner;
+import org.ngengine.nostr4j.utils.CryptoExecutor;
+import org.ngengine.nostr4j.utils.CryptoExecutor.Priority;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEPlatform;
+import org.ngengine.platform.NGEUtils;
+
+/**
+ * NIP-59 gift wraps.
+ * <p>
+ * A rumor (unsigned event) is encrypted to the recipient in a seal (kind 13) signed by the author,
+ * the seal is then encrypted again in a gift wrap (kind 1059) signed by a random one-off key.
+ * Use {@link Nip59Unwrapper} to open gift wraps, it unwraps batches in parallel.
+ * </p>
+ */
+public class Nip59 {
+
+    public static final int KIND_SEAL = 13;
+    public static final int KIND_GIFT_WRAP = 1059;
+
+    // NIP-59: timestamps are tweaked up to two days in the past to hide the real time of the message
+    private static final int MAX_TIMESTAMP_TWEAK_SECONDS = 2 * 24 * 60 * 60;
+
+    /**
+     * Seal and gift wrap an event for a recipient.
+     * @param event the event to send, it is sent unsigned as a rumor
+     * @param author the signer of the author
+     * @param recipient the recipient
+     * @return an async task that completes with the gift wrap, ready to be published
+     */
+    public static AsyncTask<SignedNostrEvent> wrap(UnsignedNostrEvent event, NostrSigner author, NostrPublicKey recipient) {
+        return author
+            .getPublicKey()
+            .compose(pubkey -> {
+                return seal(Nip59Rumor.create(event, pubkey), author, recipient);
+            })
+            .compose(seal -> {
+                return giftWrap(seal, recipient);
+            });
+    }
+
+    /**
+     * Encrypt a rumor to the recipient in a seal signed by the author.
+     */
+    public static AsyncTask<SignedNostrEvent> seal(Nip59Rumor rumor, NostrSigner author, NostrPublicKey recipient) {
+        NGEPlatform platform = NGEUtils.getPlatform();
+        return author
+            .encrypt(platform.toJSON(rumor.toMap()), recipient, NostrSigner.EncryptAlgo.NIP44)
+            .compose(content -> {
+                UnsignedNostrEvent seal = new UnsignedNostrEvent()
+                    .withKind(KIND_SEAL)
+                    .createdAt(randomPastInstant())
+                    .withContent(content);
+                return author.sign(seal);
+            });
+    }
+
+    /**
+     * Encrypt a seal in a gift wrap signed by a new random key.
+     */
+    public static AsyncTask<SignedNostrEvent> giftWrap(SignedNostrEvent seal, NostrPublicKey recipient) {
+        NGEPlatform platform = NGEUtils.getPlatform();
+        NostrKeyPair ephemeral = new NostrKeyPair();
+        String sealJson = platform.toJSON(seal.toMap());
+        return CryptoExecutor
+            .getDefault()
+            .run(Priority.INTERACTIVE, () -> {
+                // the ephemeral key is never used again, keep it out of the conversation key cache
+                byte[] conversationKey = Nip44.getConversationKeyUncachedSync(ephemeral.getPrivateKey(), recipient);
+                try {
+                    return Nip44.encryptSync(sealJson, conversationKey);
+                } finally {
+                    Arrays.fill(conversationKey, (byte) 0);
+                }
+            })
+            .compose(content -> {
+                UnsignedNostrEvent wrap = new UnsignedNostrEvent()
+                    .withKind(KIND_GIFT_WRAP)
+                    .createdAt(randomPastInstant())
+                    .withTag("p", recipient.asHex())
+                    .withContent(content);
+                return new NostrKeyPairSigner(ephemeral).sign(wrap);
+            });
+    }
+
+    /**
+     * Open a single gift wrap, see {@link Nip59Unwrapper} to open many of them and to deduplicate rumors.
+     * @param giftWrap the gift wrap
+     * @param recipient the signer of the recipient
+     * @return an async task that completes with the rumor
+     */
+    public static AsyncTask<Nip59Rumor> unwrap(SignedNostrEvent giftWrap, NostrSigner recipient) {
+        return new Nip59Unwrapper(recipient, 0)
+            .unwrap(giftWrap)
+            .then(result -> {
+                if (!result.isSuccess()) {
+                    throw result.getError();
+                }
+                return result.getRumor();
+            });
+    }
+
+    static Instant randomPastInstant() {
+        ByteBuffer random = ByteBuffer.wrap(NGEUtils.getPlatform().randomBytes(4));
+        int tweak = Math.floorMod(random.getInt(), MAX_TIMESTAMP_TWEAK_SECONDS);
+        return Instant.now().minusSeconds(tweak);
+    }
+}
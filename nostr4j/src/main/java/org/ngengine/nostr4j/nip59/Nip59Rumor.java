@@ -0,0 +1,175 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.nip59;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.ngengine.nostr4j.event.NostrEvent;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.UnsignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.platform.NGEUtils;
+
+/**
+ * A NIP-59 rumor: an event with an id and an author, but without signature, so it can't be
+ * used as a proof of authorship if leaked.
+ */
+public final class Nip59Rumor implements NostrEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private final NostrPublicKey author;
+    private final NostrEvent event;
+
+    private Nip59Rumor(String id, NostrPublicKey author, NostrEvent event) {
+        this.id = id;
+        this.author = author;
+        this.event = event;
+    }
+
+    /**
+     * Create a rumor from an event.
+     * @param event the event, it is copied
+     * @param author the author of the event
+     * @return the rumor
+     */
+    public static Nip59Rumor create(UnsignedNostrEvent event, NostrPublicKey author) {
+        UnsignedNostrEvent copy = event.clone();
+        String id = NostrEvent.computeEventId(author.asHex(), copy);
+        if (id == null) {
+            throw new IllegalArgumentException("Failed to compute rumor id");
+        }
+        return new Nip59Rumor(id, author, copy);
+    }
+
+    static Nip59Rumor fromMap(Map<String, Object> map) {
+        NostrPublicKey author = NostrPublicKey.fromHex(NGEUtils.safeString(map.get("pubkey")));
+        // parsed as a signed event without signature, since it keeps the tags in their original order
+        NostrEvent event = new SignedNostrEvent(map);
+        String id = NostrEvent.computeEventId(author.asHex(), event);
+        if (id == null) {
+            throw new IllegalArgumentException("Failed to compute rumor id");
+        }
+        Object declaredId = map.get("id");
+        if (declaredId != null && !id.equals(declaredId)) {
+            throw new IllegalArgumentException("Invalid rumor id");
+        }
+        return new Nip59Rumor(id, author, event);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public NostrPublicKey getAuthor() {
+        return author;
+    }
+
+    /**
+     * Returns a copy of the rumor as an unsigned event, eg. to sign and publish it.
+     */
+    public UnsignedNostrEvent toUnsignedEvent() {
+        return new UnsignedNostrEvent(toMap());
+    }
+
+    @Override
+    public Instant getCreatedAt() {
+        return event.getCreatedAt();
+    }
+
+    @Override
+    public int getKind() {
+        return event.getKind();
+    }
+
+    @Override
+    public String getContent() {
+        return event.getContent();
+    }
+
+    @Override
+    public Collection<TagValue> getTag(String key) {
+        return event.getTag(key);
+    }
+
+    @Override
+    public TagValue getFirstTag(String key) {
+        return event.getFirstTag(key);
+    }
+
+    @Override
+    public Set<String> listTagKeys() {
+        return event.listTagKeys();
+    }
+
+    @Override
+    public List<List<String>> getTagRows() {
+        return event.getTagRows();
+    }
+
+    @Override
+    public boolean hasTag(String tag) {
+        return event.hasTag(tag);
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", id);
+        map.put("pubkey", author.asHex());
+        map.put("created_at", getCreatedAt().getEpochSecond());
+        map.put("kind", getKind());
+        map.put("tags", getTagRows());
+        map.put("content", getContent());
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Nip59Rumor)) return false;
+        return id.equals(((Nip59Rumor) obj).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Nip59Rumor{" + "id=" + id + ", author=" + author.asHex() + ", kind=" + getKind() + '}';
+    }
+}
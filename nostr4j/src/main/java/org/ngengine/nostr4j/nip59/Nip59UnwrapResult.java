@@ -0,0 +1,121 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.nip59;
+
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+
+/**
+ * The outcome of unwrapping a single gift wrap: the rumor and its seal, or the error that
+ * prevented the unwrapping.
+ */
+public final class Nip59UnwrapResult {
+
+    private final SignedNostrEvent giftWrap;
+    private final SignedNostrEvent seal;
+    private final Nip59Rumor rumor;
+    private final Throwable error;
+    private final boolean duplicate;
+
+    private Nip59UnwrapResult(
+        SignedNostrEvent giftWrap,
+        SignedNostrEvent seal,
+        Nip59Rumor rumor,
+        Throwable error,
+        boolean duplicate
+    ) {
+        this.giftWrap = giftWrap;
+        this.seal = seal;
+        this.rumor = rumor;
+        this.error = error;
+        this.duplicate = duplicate;
+    }
+
+    static Nip59UnwrapResult success(SignedNostrEvent giftWrap, SignedNostrEvent seal, Nip59Rumor rumor, boolean duplicate) {
+        return new Nip59UnwrapResult(giftWrap, seal, rumor, null, duplicate);
+    }
+
+    static Nip59UnwrapResult failure(SignedNostrEvent giftWrap, Throwable error) {
+        return new Nip59UnwrapResult(giftWrap, null, null, error, false);
+    }
+
+    public SignedNostrEvent getGiftWrap() {
+        return giftWrap;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * True if a rumor with the same id was already unwrapped, eg. because the same message was
+     * wrapped again or received from another relay.
+     */
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+
+    /**
+     * Returns the seal, or null if the unwrapping failed.
+     */
+    public SignedNostrEvent getSeal() {
+        return seal;
+    }
+
+    /**
+     * Returns the rumor, or null if the unwrapping failed.
+     */
+    public Nip59Rumor getRumor() {
+        return rumor;
+    }
+
+    /**
+     * Returns the error, or null if the unwrapping succeeded.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "Nip59UnwrapResult{" +
+            "giftWrap=" +
+            giftWrap.getId() +
+            ", success=" +
+            isSuccess() +
+            ", duplicate=" +
+            duplicate +
+            ", error=" +
+            error +
+            '}'
+        );
+    }
+}
@@ -0,0 +1,300 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.nip59;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.nostr4j.nip44.Nip44;
+import org.ngengine.nostr4j.signer.NostrDecryptRequest;
+import org.ngengine.nostr4j.signer.NostrDecryptResult;
+import org.ngengine.nostr4j.signer.NostrKeyPairSigner;
+import org.ngengine.nostr4j.signer.NostrSigner;
+import org.ngengine.nostr4j.utils.CryptoExecutor;
+import org.ngengine.nostr4j.utils.CryptoExecutor.Priority;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEPlatform;
+import org.ngengine.platform.NGEUtils;
+
+/**
+ * Opens NIP-59 gift wraps for a recipient.
+ * <p>
+ * Batches go through a staged pipeline, every stage split in chunks and run as bulk work on the
+ * {@link CryptoExecutor}:
+ * </p>
+ * <ol>
+ * <li>open the gift wraps: one ECDH per wrap, since every wrap has its own one-off key, these keys
+ * are kept out of the conversation key cache;</li>
+ * <li>parse and verify the seals: the authors repeat, so their verification contexts are reused;</li>
+ * <li>open the seals with {@link NostrSigner#decryptAll(List)}: grouped by author, so the conversation
+ * key of every author is derived once and cached;</li>
+ * <li>parse the rumors and check that they are authored by the seal signer.</li>
+ * </ol>
+ * <p>
+ * Rumors are deduplicated by id: the ids of the latest unwrapped rumors are remembered and results for
+ * rumors that were already seen are flagged as duplicates.
+ * Results are returned in input order, failures are reported per item.
+ * </p>
+ * This class is thread-safe.
+ */
+public final class Nip59Unwrapper {
+
+    public static final int DEFAULT_DEDUP_CAPACITY = 4096;
+
+    // opening a wrap costs an ECDH, a few of them are enough to amortize a chunk
+    private static final int MIN_WRAPS_PER_CHUNK = 4;
+    // below this, the cost of queuing another chunk outweighs the verification work it carries
+    private static final int MIN_SEALS_PER_CHUNK = 16;
+
+    private final NostrSigner recipient;
+    private final int dedupCapacity;
+    private final LinkedHashMap<String, Boolean> seenRumors;
+
+    public Nip59Unwrapper(NostrSigner recipient) {
+        this(recipient, DEFAULT_DEDUP_CAPACITY);
+    }
+
+    /**
+     * @param recipient the signer of the recipient
+     * @param dedupCapacity how many rumor ids are remembered for deduplication, 0 disables it
+     */
+    public Nip59Unwrapper(NostrSigner recipient, int dedupCapacity) {
+        if (dedupCapacity < 0) {
+            throw new IllegalArgumentException("dedupCapacity must be >= 0");
+        }
+        this.recipient = recipient;
+        this.dedupCapacity = dedupCapacity;
+        this.seenRumors =
+            new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > Nip59Unwrapper.this.dedupCapacity;
+                }
+            };
+    }
+
+    public AsyncTask<Nip59UnwrapResult> unwrap(SignedNostrEvent giftWrap) {
+        List<SignedNostrEvent> giftWraps = new ArrayList<>(1);
+        giftWraps.add(giftWrap);
+        return unwrapAll(giftWraps)
+            .then(results -> {
+                return results.get(0);
+            });
+    }
+
+    public AsyncTask<List<Nip59UnwrapResult>> unwrapAll(List<SignedNostrEvent> giftWraps) {
+        Batch batch = new Batch(giftWraps);
+        return batch
+            .openWraps()
+            .compose(r -> batch.verifySeals())
+            .compose(r -> batch.openSeals())
+            .then(r -> batch.results());
+    }
+
+    /**
+     * Forget the ids of the rumors unwrapped so far.
+     */
+    public void clearSeen() {
+        synchronized (seenRumors) {
+            seenRumors.clear();
+        }
+    }
+
+    private final class Batch {
+
+        final List<SignedNostrEvent> wraps;
+        final int count;
+        final String[] sealJson;
+        final SignedNostrEvent[] seals;
+        final Nip59Rumor[] rumors;
+        final Throwable[] errors;
+
+        Batch(List<SignedNostrEvent> wraps) {
+            this.wraps = wraps;
+            this.count = wraps.size();
+            this.sealJson = new String[count];
+            this.seals = new SignedNostrEvent[count];
+            this.rumors = new Nip59Rumor[count];
+            this.errors = new Throwable[count];
+        }
+
+        AsyncTask<?> openWraps() {
+            for (int i = 0; i < count; i++) {
+                if (wraps.get(i).getKind() != Nip59.KIND_GIFT_WRAP) {
+                    errors[i] = new IllegalArgumentException("Not a gift wrap: kind " + wraps.get(i).getKind());
+                }
+            }
+            if (recipient instanceof NostrKeyPairSigner) {
+                NostrPrivateKey privateKey = ((NostrKeyPairSigner) recipient).getKeyPair().getPrivateKey();
+                return CryptoExecutor
+                    .getDefault()
+                    .runChunked(
+                        Priority.BULK,
+                        count,
+                        MIN_WRAPS_PER_CHUNK,
+                        (from, to) -> {
+                            for (int i = from; i < to; i++) {
+                                if (errors[i] == null) {
+                                    openWrap(i, privateKey);
+                                }
+                            }
+                        }
+                    );
+            }
+            return decryptAll(
+                i -> new NostrDecryptRequest(wraps.get(i).getContent(), wraps.get(i).getPubkey()),
+                (i, plaintext) -> sealJson[i] = plaintext
+            );
+        }
+
+        private void openWrap(int i, NostrPrivateKey privateKey) {
+            byte[] conversationKey = null;
+            try {
+                SignedNostrEvent wrap = wraps.get(i);
+                conversationKey = Nip44.getConversationKeyUncachedSync(privateKey, wrap.getPubkey());
+                sealJson[i] = Nip44.decryptSync(wrap.getContent(), conversationKey);
+            } catch (Throwable e) {
+                errors[i] = e;
+            } finally {
+                if (conversationKey != null) {
+                    Arrays.fill(conversationKey, (byte) 0);
+                }
+            }
+        }
+
+        AsyncTask<?> verifySeals() {
+            return CryptoExecutor
+                .getDefault()
+                .runChunked(
+                    Priority.BULK,
+                    count,
+                    MIN_SEALS_PER_CHUNK,
+                    (from, to) -> {
+                        NGEPlatform platform = NGEUtils.getPlatform();
+                        for (int i = from; i < to; i++) {
+                            if (errors[i] != null) continue;
+                            try {
+                                @SuppressWarnings("unchecked")
+                                Map<String, Object> map = platform.fromJSON(sealJson[i], Map.class);
+                                SignedNostrEvent seal = new SignedNostrEvent(map);
+                                if (seal.getKind() != Nip59.KIND_SEAL) {
+                                    throw new IllegalArgumentException("Not a seal: kind " + seal.getKind());
+                                }
+                                if (!seal.verify()) {
+                                    throw new IllegalArgumentException("Invalid seal signature");
+                                }
+                                seals[i] = seal;
+                            } catch (Throwable e) {
+                                errors[i] = e;
+                            }
+                            sealJson[i] = null;
+                        }
+                    }
+                );
+        }
+
+        AsyncTask<?> openSeals() {
+            NGEPlatform platform = NGEUtils.getPlatform();
+            return decryptAll(
+                i -> new NostrDecryptRequest(seals[i].getContent(), seals[i].getPubkey()),
+                (i, plaintext) -> {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> map = platform.fromJSON(plaintext, Map.class);
+                    Nip59Rumor rumor = Nip59Rumor.fromMap(map);
+                    // NIP-59: the rumor must be authored by the seal signer, or anyone could impersonate anyone
+                    if (!rumor.getAuthor().equals(seals[i].getPubkey())) {
+                        throw new IllegalArgumentException("Rumor author does not match the seal signer");
+                    }
+                    rumors[i] = rumor;
+                }
+            );
+        }
+
+        // decrypt the items that didn't fail yet with the recipient signer
+        private AsyncTask<?> decryptAll(RequestFactory requestFactory, PlaintextConsumer consumer) {
+            List<NostrDecryptRequest> requests = new ArrayList<>();
+            List<Integer> indexes = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                if (errors[i] != null) continue;
+                requests.add(requestFactory.create(i));
+                indexes.add(i);
+            }
+            return recipient
+                .decryptAll(requests)
+                .then(decrypted -> {
+                    for (int j = 0; j < decrypted.size(); j++) {
+                        int i = indexes.get(j);
+                        NostrDecryptResult result = decrypted.get(j);
+                        try {
+                            if (!result.isSuccess()) {
+                                throw result.getError();
+                            }
+                            consumer.accept(i, result.getPlaintext());
+                        } catch (Throwable e) {
+                            errors[i] = e;
+                        }
+                    }
+                    return null;
+                });
+        }
+
+        List<Nip59UnwrapResult> results() {
+            List<Nip59UnwrapResult> out = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                SignedNostrEvent wrap = wraps.get(i);
+                if (errors[i] != null) {
+                    out.add(Nip59UnwrapResult.failure(wrap, errors[i]));
+                    continue;
+                }
+                boolean duplicate = false;
+                if (dedupCapacity > 0) {
+                    synchronized (seenRumors) {
+                        duplicate = seenRumors.put(rumors[i].getId(), Boolean.TRUE) != null;
+                    }
+                }
+                out.add(Nip59UnwrapResult.success(wrap, seals[i], rumors[i], duplicate));
+            }
+            return out;
+        }
+    }
+
+    private interface RequestFactory {
+        NostrDecryptRequest create(int index);
+    }
+
+    private interface PlaintextConsumer {
+        void accept(int index, String plaintext) throws Exception;
+    }
+}
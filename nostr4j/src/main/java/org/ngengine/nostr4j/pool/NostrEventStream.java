@@ -0,0 +1,385 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.pool;
+
+import static org.ngengine.platform.NGEUtils.dbg;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.logging.Logger;
+import org.ngengine.nostr4j.NostrFilter;
+import org.ngengine.nostr4j.NostrPool;
+import org.ngengine.nostr4j.NostrRelay;
+import org.ngengine.nostr4j.NostrSubscription;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.tracker.EventTracker;
+import org.ngengine.nostr4j.listeners.sub.NostrSubAllListener;
+
+/**
+ * A pull based stream of the stored events matching a set of filters.
+ * <p>
+ * Events are delivered as soon as they are received from the relays, without waiting for the whole fetch
+ * to complete. The stream ends when every relay has sent EOSE or when it is closed.
+ * </p>
+ * <p>
+ * Backpressure: when the consumer falls behind and the buffer reaches its capacity, the relay subscriptions
+ * are closed (nostr has no way to pause a subscription). When the consumer has drained half of the buffer
+ * the subscriptions are reopened. Every relay is tracked independently, like {@link NostrPaginator} does:
+ * the stream remembers the oldest created_at received from each relay and resumes it with {@code until}
+ * set to that timestamp, so a relay that was behind the others doesn't skip the events in between. The
+ * same event tracker is shared across relays and reopenings, so events at the boundary are not delivered
+ * twice.
+ * </p>
+ * <p>
+ * If the stream is sorted, events are held until every relay has sent EOSE and are then delivered newest
+ * first. Sorted streams cannot be paused and buffer every event.
+ * </p>
+ * <p>
+ * {@link #hasNext()} and {@link #next()} block until an event is available; use {@link #poll()} for non
+ * blocking consumption.
+ * </p>
+ */
+public class NostrEventStream implements Iterator<SignedNostrEvent>, Closeable {
+
+    private static final Logger logger = Logger.getLogger(NostrEventStream.class.getName());
+
+    private final class RelayCursor {
+
+        final NostrPool pool;
+        final String url;
+        final Map<NostrFilter, Integer> matchedPerFilter = new HashMap<>();
+        NostrSubscription sub;
+        Instant oldest;
+        boolean ended;
+
+        RelayCursor(NostrRelay relay) {
+            this.pool = new NostrPool();
+            this.pool.addRelay(relay);
+            this.url = relay.getUrl();
+        }
+
+        /**
+         * Moves the cursor past an event received from this relay.
+         */
+        void update(SignedNostrEvent event) {
+            if (oldest == null || event.getCreatedAt().isBefore(oldest)) {
+                oldest = event.getCreatedAt();
+            }
+            for (NostrFilter filter : filters) {
+                if (filter.getLimit() != null && filter.matches(event)) {
+                    matchedPerFilter.merge(filter, 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * The tracker of a single relay subscription: drops the events of subscriptions that were paused and
+     * moves the relay cursor also on the events already delivered by other relays.
+     */
+    private final class CursorTracker implements EventTracker {
+
+        final RelayCursor cursor;
+        NostrSubscription sub;
+
+        CursorTracker(RelayCursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean seen(SignedNostrEvent event) {
+            synchronized (NostrEventStream.this) {
+                if (closed || sub == null || cursor.sub != sub) return true;
+                if (tracker.seen(event)) {
+                    cursor.update(event);
+                    return true;
+                }
+                return false;
+            }
+        }
+
+        @Override
+        public void tuneFor(NostrSubscription sub) {
+            tracker.tuneFor(sub);
+        }
+    }
+
+    private final List<NostrFilter> filters;
+    private final EventTracker tracker;
+    private final int capacity;
+    private final int resumeThreshold;
+    private final boolean sorted;
+
+    private final ArrayDeque<SignedNostrEvent> buffer = new ArrayDeque<>();
+    private final List<RelayCursor> cursors = new ArrayList<>();
+    private boolean paused;
+    private boolean sourceEnded;
+    private boolean closed;
+
+    /**
+     * Creates a new stream over the relays currently attached to the pool. The stream starts fetching
+     * immediately.
+     *
+     * @param pool the pool whose relays should be queried
+     * @param filters the filters to match
+     * @param tracker the event tracker used to drop duplicates across relays and reopenings
+     * @param capacity the maximum number of buffered events before the subscriptions are paused
+     * @param sorted if true, events are delivered newest first after every relay has sent EOSE
+     */
+    public NostrEventStream(
+        NostrPool pool,
+        Collection<NostrFilter> filters,
+        EventTracker tracker,
+        int capacity,
+        boolean sorted
+    ) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be at least 1");
+        this.filters = new ArrayList<>(filters);
+        this.tracker = tracker;
+        this.capacity = capacity;
+        this.resumeThreshold = capacity / 2;
+        this.sorted = sorted;
+        synchronized (this) {
+            for (NostrRelay relay : pool.getRelays()) {
+                cursors.add(new RelayCursor(relay));
+            }
+            for (RelayCursor c : cursors) {
+                openSubscription(c, this.filters);
+            }
+            checkSourceEnd();
+        }
+    }
+
+    private void openSubscription(RelayCursor c, List<NostrFilter> subFilters) {
+        CursorTracker subTracker = new CursorTracker(c);
+        NostrSubscription s = c.pool.subscribe(subFilters, () -> subTracker);
+        subTracker.sub = s;
+        c.sub = s;
+        s.addListener(
+            new NostrSubAllListener() {
+                @Override
+                public void onSubOpen(NostrSubscription sub) {}
+
+                @Override
+                public void onSubEvent(NostrSubscription sub, SignedNostrEvent event, boolean stored) {
+                    onEvent(c, event);
+                }
+
+                @Override
+                public void onSubEose(NostrSubscription sub, NostrRelay relay, boolean all) {
+                    if (all) {
+                        onSourceEnd(c, sub);
+                    }
+                }
+
+                @Override
+                public void onSubClose(NostrSubscription sub, List<String> reason) {
+                    onSourceEnd(c, sub);
+                }
+            }
+        );
+        s.open();
+    }
+
+    private synchronized void onEvent(RelayCursor c, SignedNostrEvent event) {
+        // the event passed the tracker of this stream, keep it even if the subscription was paused since
+        if (closed) return;
+        buffer.add(event);
+        c.update(event);
+        if (!sorted && !paused && buffer.size() >= capacity) {
+            pause();
+        }
+        notifyAll();
+    }
+
+    private synchronized void onSourceEnd(RelayCursor c, NostrSubscription from) {
+        if (from != c.sub) return;
+        c.sub = null;
+        c.ended = true;
+        from.close();
+        checkSourceEnd();
+        notifyAll();
+    }
+
+    private void checkSourceEnd() {
+        if (sourceEnded) return;
+        for (RelayCursor c : cursors) {
+            if (!c.ended) return;
+        }
+        sourceEnded = true;
+        for (RelayCursor c : cursors) {
+            // detach without disconnecting, the relays are shared with the parent pool
+            c.pool.clean();
+        }
+        if (sorted) {
+            List<SignedNostrEvent> evs = new ArrayList<>(buffer);
+            evs.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
+            buffer.clear();
+            buffer.addAll(evs);
+        }
+    }
+
+    private void pause() {
+        assert dbg(() -> {
+            logger.fine("pausing stream with " + buffer.size() + " buffered events");
+        });
+        paused = true;
+        for (RelayCursor c : cursors) {
+            NostrSubscription s = c.sub;
+            if (s == null) continue;
+            c.sub = null;
+            s.close();
+        }
+    }
+
+    private void resume() {
+        paused = false;
+        for (RelayCursor c : cursors) {
+            if (c.ended) continue;
+            List<NostrFilter> next = getFiltersFor(c);
+            if (next.isEmpty()) {
+                c.ended = true;
+                continue;
+            }
+            assert dbg(() -> {
+                logger.fine("resuming stream on " + c.url + " until " + c.oldest);
+            });
+            openSubscription(c, next);
+        }
+        checkSourceEnd();
+    }
+
+    /**
+     * The filters that resume a relay from its own oldest received event, without the filters whose limit
+     * was already reached on that relay.
+     */
+    private List<NostrFilter> getFiltersFor(RelayCursor c) {
+        List<NostrFilter> out = new ArrayList<>(filters.size());
+        for (NostrFilter filter : filters) {
+            NostrFilter f = filter.clone();
+            if (c.oldest != null && (f.getUntil() == null || c.oldest.isBefore(f.getUntil()))) {
+                f.until(c.oldest);
+            }
+            Integer limit = filter.getLimit();
+            if (limit != null) {
+                int remaining = limit - c.matchedPerFilter.getOrDefault(filter, 0);
+                if (remaining <= 0) continue;
+                f.limit(remaining);
+            }
+            out.add(f);
+        }
+        return out;
+    }
+
+    /**
+     * Returns true if more events are available, blocking until an event is received or the stream ends.
+     */
+    @Override
+    public synchronized boolean hasNext() {
+        while (!closed && (buffer.isEmpty() || (sorted && !sourceEnded))) {
+            if (buffer.isEmpty() && paused) {
+                resume();
+                continue;
+            }
+            if (sourceEnded) break;
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return !closed && !buffer.isEmpty();
+    }
+
+    /**
+     * Returns the next event, blocking until an event is received.
+     *
+     * @throws NoSuchElementException if the stream ended
+     */
+    @Override
+    public synchronized SignedNostrEvent next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return take();
+    }
+
+    /**
+     * Returns the next event if one is available, without blocking.
+     *
+     * @return the next event or null if none is available yet
+     */
+    public synchronized SignedNostrEvent poll() {
+        if (closed || buffer.isEmpty() || (sorted && !sourceEnded)) {
+            if (paused && buffer.isEmpty()) resume();
+            return null;
+        }
+        return take();
+    }
+
+    private SignedNostrEvent take() {
+        SignedNostrEvent e = buffer.poll();
+        if (paused && buffer.size() <= resumeThreshold) {
+            resume();
+        }
+        return e;
+    }
+
+    /**
+     * Returns true if the relays have no more events for this stream and every buffered event was consumed.
+     */
+    public synchronized boolean isEnded() {
+        return closed || (sourceEnded && buffer.isEmpty());
+    }
+
+    /**
+     * Closes the stream and the underlying subscription. Buffered events are discarded.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        buffer.clear();
+        for (RelayCursor c : cursors) {
+            c.sub = null;
+            // detach without disconnecting, the relays are shared with the parent pool
+            c.pool.clean();
+        }
+        notifyAll();
+    }
+}
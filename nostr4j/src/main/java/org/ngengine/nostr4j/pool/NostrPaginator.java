@@ -0,0 +1,346 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.pool;
+
+import static org.ngengine.platform.NGEUtils.dbg;
+
+import jakarta.annotation.Nullable;
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.ngengine.nostr4j.NostrFilter;
+import org.ngengine.nostr4j.NostrPool;
+import org.ngengine.nostr4j.NostrRelay;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.pool.fetchpolicy.NostrWaitForEventFetchPolicy;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEUtils;
+
+/**
+ * Walks backwards in time through the history matching a set of filters, across all the relays of a pool.
+ * <p>
+ * Every relay is tracked independently: the paginator remembers the oldest created_at received from each
+ * relay and asks for the next page (until = that timestamp) only to the relays that are not exhausted and
+ * that are needed to move the merged timeline forward. Events are merged and deduplicated across relays,
+ * and a page only contains events that are guaranteed to be older than everything already returned and
+ * newer than anything still to come.
+ * </p>
+ * <p>
+ * Since {@code until} is inclusive, events sharing the timestamp of a page boundary are requested again
+ * and deduplicated. If a relay returns only already seen events at the boundary (ie. it has more events
+ * in the same second than the page size), the paginator steps one second back for that relay.
+ * Only the ids of events that a relay could still return are remembered, so memory does not grow with
+ * the length of the walk.
+ * </p>
+ * <p>
+ * The next page is prefetched while the consumer processes the current one.
+ * </p>
+ *
+ * <pre>{@code
+ * NostrPaginator paginator = pool.paginate(List.of(new NostrFilter().withKind(1)), 100, Duration.ofSeconds(21));
+ * while (paginator.hasMore()) {
+ *     List<SignedNostrEvent> page = paginator.next().await();
+ *     ...
+ * }
+ * paginator.close();
+ * }</pre>
+ */
+public class NostrPaginator implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(NostrPaginator.class.getName());
+
+    private static final class RelayCursor {
+
+        final NostrPool pool;
+        final String url;
+        Instant oldest;
+        boolean exhausted;
+
+        RelayCursor(NostrRelay relay) {
+            this.pool = new NostrPool();
+            this.pool.addRelay(relay);
+            this.url = relay.getUrl();
+        }
+    }
+
+    private final List<NostrFilter> filters;
+    private final int pageSize;
+    private final Duration timeout;
+    private final List<RelayCursor> cursors = new ArrayList<>();
+    // ids of the merged events by created_at, pruned once no relay can send them again
+    private final TreeMap<Instant, Set<String>> seen = new TreeMap<>();
+    private final TreeSet<SignedNostrEvent> pending = new TreeSet<>((a, b) -> {
+        int c = b.getCreatedAt().compareTo(a.getCreatedAt());
+        if (c != 0) return c;
+        return a.getId().compareTo(b.getId());
+    });
+    private final ArrayDeque<AsyncTask<List<SignedNostrEvent>>> prefetched = new ArrayDeque<>();
+    private AsyncTask<List<SignedNostrEvent>> last;
+    private boolean closed;
+
+    /**
+     * Creates a paginator over the relays currently attached to the pool.
+     *
+     * @param pool the pool whose relays should be queried
+     * @param filters the filters to match
+     * @param pageSize the limit requested to each relay for each page
+     * @param timeout the maximum time to wait for a relay to answer a page, null to wait for EOSE
+     */
+    public NostrPaginator(NostrPool pool, Collection<NostrFilter> filters, int pageSize, @Nullable Duration timeout) {
+        if (pageSize < 1) throw new IllegalArgumentException("pageSize must be at least 1");
+        this.filters = new ArrayList<>(filters);
+        this.pageSize = pageSize;
+        this.timeout = timeout;
+        for (NostrRelay relay : pool.getRelays()) {
+            cursors.add(new RelayCursor(relay));
+        }
+    }
+
+    /**
+     * Returns true if there might be more events to fetch.
+     */
+    public synchronized boolean hasMore() {
+        if (hasMoreRelayData()) return true;
+        for (AsyncTask<List<SignedNostrEvent>> t : prefetched) {
+            // a prefetched page might hold the last events
+            if (!t.isDone()) return true;
+            try {
+                if (!t.await().isEmpty()) return true;
+            } catch (Exception e) {
+                // the error is reported by next()
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fetches the next page, sorted from newest to oldest.
+     * <p>
+     * Pages are returned in order even if this method is called again before the previous page is
+     * resolved. The size of a page depends on how the relays timelines interleave and might differ from
+     * the requested page size.
+     * </p>
+     *
+     * @return a promise that resolves to the next page, or to an empty list if there are no more events
+     */
+    public synchronized AsyncTask<List<SignedNostrEvent>> next() {
+        if (closed) return AsyncTask.completed(Collections.emptyList());
+        AsyncTask<List<SignedNostrEvent>> page = prefetched.isEmpty() ? schedule() : prefetched.poll();
+        if (prefetched.isEmpty() && hasMoreRelayData()) {
+            prefetched.add(schedule());
+        }
+        return page;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        for (AsyncTask<List<SignedNostrEvent>> t : prefetched) {
+            t.cancel();
+        }
+        prefetched.clear();
+        pending.clear();
+        for (RelayCursor c : cursors) {
+            // detach without disconnecting, the relays are shared with the parent pool
+            c.pool.clean();
+        }
+    }
+
+    private AsyncTask<List<SignedNostrEvent>> schedule() {
+        AsyncTask<List<SignedNostrEvent>> prev = last;
+        AsyncTask<List<SignedNostrEvent>> task = prev == null ? loadPage() : prev.compose(p -> loadPage());
+        last = task;
+        return task;
+    }
+
+    private AsyncTask<List<SignedNostrEvent>> loadPage() {
+        List<RelayCursor> targets;
+        synchronized (this) {
+            if (closed) return AsyncTask.completed(Collections.emptyList());
+            targets = selectTargets();
+            if (targets.isEmpty()) {
+                pruneSeen(null);
+                return AsyncTask.completed(drain(null));
+            }
+        }
+
+        List<AsyncTask<List<SignedNostrEvent>>> tasks = new ArrayList<>(targets.size());
+        for (RelayCursor c : targets) {
+            assert dbg(() -> {
+                logger.fine("paginating " + c.url + " until " + c.oldest);
+            });
+            tasks.add(c.pool.fetch(getFiltersFor(c), NostrWaitForEventFetchPolicy.get(e -> true, -1, true, timeout)));
+        }
+
+        return NGEUtils
+            .getPlatform()
+            .awaitAllSettled(tasks)
+            .compose(results -> {
+                List<SignedNostrEvent> page;
+                synchronized (this) {
+                    if (closed) return AsyncTask.completed(Collections.<SignedNostrEvent>emptyList());
+                    for (int i = 0; i < results.size(); i++) {
+                        RelayCursor c = targets.get(i);
+                        try {
+                            update(c, results.get(i).await());
+                        } catch (Exception e) {
+                            logger.log(Level.WARNING, "Error paginating " + c.url + ", skipping relay", e);
+                            c.exhausted = true;
+                        }
+                    }
+                    Instant watermark = getWatermark();
+                    page = drain(watermark);
+                    pruneSeen(watermark);
+                }
+                if (page.isEmpty() && hasMoreRelayData()) {
+                    // the merged timeline did not move yet, keep going
+                    return loadPage();
+                }
+                return AsyncTask.completed(page);
+            });
+    }
+
+    private synchronized boolean hasMoreRelayData() {
+        if (closed) return false;
+        for (RelayCursor c : cursors) {
+            if (!c.exhausted) return true;
+        }
+        return !pending.isEmpty();
+    }
+
+    private List<NostrFilter> getFiltersFor(RelayCursor c) {
+        List<NostrFilter> out = new ArrayList<>(filters.size());
+        for (NostrFilter filter : filters) {
+            NostrFilter f = filter.clone();
+            if (c.oldest != null && (f.getUntil() == null || c.oldest.isBefore(f.getUntil()))) {
+                f.until(c.oldest);
+            }
+            f.limit(pageSize);
+            out.add(f);
+        }
+        return out;
+    }
+
+    private void update(RelayCursor c, List<SignedNostrEvent> events) {
+        if (events.isEmpty()) {
+            c.exhausted = true;
+            return;
+        }
+        Instant oldestInPage = null;
+        boolean anyNew = false;
+        for (SignedNostrEvent e : events) {
+            if (oldestInPage == null || e.getCreatedAt().isBefore(oldestInPage)) {
+                oldestInPage = e.getCreatedAt();
+            }
+            if (seen.computeIfAbsent(e.getCreatedAt(), k -> new HashSet<>()).add(e.getId())) {
+                pending.add(e);
+                anyNew = true;
+            }
+        }
+        if (!anyNew) {
+            // the relay only has already seen events at the boundary, step past it
+            c.oldest = oldestInPage.minusSeconds(1);
+        } else {
+            c.oldest = oldestInPage;
+        }
+    }
+
+    /**
+     * The newest timestamp that a not exhausted relay might still return, or null if every relay is exhausted.
+     */
+    private Instant getWatermark() {
+        Instant watermark = null;
+        for (RelayCursor c : cursors) {
+            if (c.exhausted) continue;
+            if (c.oldest == null) return Instant.MAX;
+            if (watermark == null || c.oldest.isAfter(watermark)) {
+                watermark = c.oldest;
+            }
+        }
+        return watermark;
+    }
+
+    /**
+     * Forgets the ids newer than the watermark, every relay is only asked for events at or before it.
+     */
+    private void pruneSeen(Instant watermark) {
+        if (watermark == null) {
+            seen.clear();
+        } else {
+            seen.tailMap(watermark, false).clear();
+        }
+    }
+
+    /**
+     * Relays that bound the watermark and must be queried to move it.
+     */
+    private List<RelayCursor> selectTargets() {
+        Instant watermark = getWatermark();
+        List<RelayCursor> out = new ArrayList<>();
+        if (watermark == null) return out;
+        for (RelayCursor c : cursors) {
+            if (c.exhausted) continue;
+            if (c.oldest == null || !c.oldest.isBefore(watermark)) {
+                out.add(c);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Removes and returns the pending events strictly newer than the watermark (all of them if null).
+     */
+    private List<SignedNostrEvent> drain(Instant watermark) {
+        List<SignedNostrEvent> out = new ArrayList<>();
+        Iterator<SignedNostrEvent> it = pending.iterator();
+        while (it.hasNext()) {
+            SignedNostrEvent e = it.next();
+            if (watermark != null && !e.getCreatedAt().isAfter(watermark)) break;
+            out.add(e);
+            it.remove();
+        }
+        return Collections.unmodifiableList(out);
+    }
+}
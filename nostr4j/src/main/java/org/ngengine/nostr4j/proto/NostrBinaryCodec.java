@@ -0,0 +1,243 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.proto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.SignedNostrEvent.ReceivedSignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.utils.HexCodec;
+
+/**
+ * Fixed layout binary encoding of NIP-01 events, used on websocket binary frames by relays that
+ * negotiated it.
+ * <p>
+ * Negotiation happens in band: the client sends {@code ["BINARY","nostr4j-event-v1"]} as a text
+ * message and the relay echoes it back if it supports the layout. Relays that don't know the
+ * message ignore it (or reply with a notice) and keep speaking JSON.
+ * </p>
+ * <p>
+ * Layout (big endian):
+ * </p>
+ *
+ * <pre>
+ * u8  magic ('N')
+ * u8  version (1)
+ * u8  type (1 = EVENT, 2 = EVENT with subscription id)
+ * [u8 subscription id length, subscription id utf-8]   only for type 2
+ * u8[32] id
+ * u8[32] pubkey
+ * u8[64] sig
+ * i64 created_at
+ * i32 kind
+ * i32 tag count, for each tag: i32 value count, for each value: i32 length, utf-8
+ * i32 content length, content utf-8
+ * </pre>
+ */
+public final class NostrBinaryCodec {
+
+    public static final String NEGOTIATION_PREFIX = "BINARY";
+    public static final String PROTOCOL = "nostr4j-event-v1";
+
+    private static final byte MAGIC = 'N';
+    private static final byte VERSION = 1;
+    private static final byte TYPE_EVENT = 1;
+    private static final byte TYPE_SUB_EVENT = 2;
+
+    private NostrBinaryCodec() {}
+
+    /**
+     * Returns true if the frame starts with the binary event header.
+     */
+    public static boolean isEventFrame(ByteBuffer frame) {
+        int p = frame.position();
+        if (frame.remaining() < 3) return false;
+        byte type = frame.get(p + 2);
+        return frame.get(p) == MAGIC && frame.get(p + 1) == VERSION && (type == TYPE_EVENT || type == TYPE_SUB_EVENT);
+    }
+
+    /**
+     * Encodes an EVENT message, as sent by clients.
+     */
+    public static ByteBuffer encodeEvent(SignedNostrEvent event) {
+        return encodeEvent(null, event);
+    }
+
+    /**
+     * Encodes an EVENT message.
+     *
+     * @param subId the subscription id, as sent by relays, or null
+     * @param event the event
+     * @return the encoded frame, ready to be read
+     */
+    public static ByteBuffer encodeEvent(String subId, SignedNostrEvent event) {
+        byte[] subIdBytes = subId != null ? subId.getBytes(StandardCharsets.UTF_8) : null;
+        if (subIdBytes != null && subIdBytes.length > 255) {
+            throw new IllegalArgumentException("Subscription id too long");
+        }
+        byte[] content = event.getContent().getBytes(StandardCharsets.UTF_8);
+        List<List<String>> rows = event.getTagRows();
+        List<byte[]> values = new ArrayList<>();
+        int size = 3 + (subIdBytes != null ? 1 + subIdBytes.length : 0) + 32 + 32 + 64 + 8 + 4 + 4 + 4 + content.length;
+        for (List<String> row : rows) {
+            size += 4;
+            for (String value : row) {
+                byte[] v = value.getBytes(StandardCharsets.UTF_8);
+                values.add(v);
+                size += 4 + v.length;
+            }
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.put(MAGIC);
+        out.put(VERSION);
+        if (subIdBytes != null) {
+            out.put(TYPE_SUB_EVENT);
+            out.put((byte) subIdBytes.length);
+            out.put(subIdBytes);
+        } else {
+            out.put(TYPE_EVENT);
+        }
+        putHex(out, event.getId(), 32);
+        out.put(event.getPubkey().asReadOnlyBuffer());
+        putHex(out, event.getSignature(), 64);
+        out.putLong(event.getCreatedAt().getEpochSecond());
+        out.putInt(event.getKind());
+        out.putInt(rows.size());
+        int v = 0;
+        for (List<String> row : rows) {
+            out.putInt(row.size());
+            for (int i = 0; i < row.size(); i++) {
+                byte[] value = values.get(v++);
+                out.putInt(value.length);
+                out.put(value);
+            }
+        }
+        out.putInt(content.length);
+        out.put(content);
+        out.flip();
+        return out;
+    }
+
+    /**
+     * Decodes an EVENT message.
+     *
+     * @param frame the frame, its position is not changed
+     * @return a {@link ReceivedSignedNostrEvent} if the frame carries a subscription id, a
+     *     {@link SignedNostrEvent} otherwise
+     * @throws IllegalArgumentException if the frame is not a valid binary event
+     */
+    public static SignedNostrEvent decodeEvent(ByteBuffer frame) {
+        if (!isEventFrame(frame)) {
+            throw new IllegalArgumentException("Not a binary event frame");
+        }
+        ByteBuffer in = frame.duplicate();
+        try {
+            in.position(in.position() + 2);
+            byte type = in.get();
+            String subId = null;
+            if (type == TYPE_SUB_EVENT) {
+                subId = readString(in, in.get() & 0xff);
+            }
+            String id = readHex(in, 32);
+            ByteBuffer pubkeyBytes = in.slice();
+            pubkeyBytes.limit(32);
+            NostrPublicKey pubkey = NostrPublicKey.fromBytes(pubkeyBytes);
+            in.position(in.position() + 32);
+            String sig = readHex(in, 64);
+            Instant createdAt = Instant.ofEpochSecond(in.getLong());
+            int kind = in.getInt();
+            int tagCount = readLength(in, 4);
+            List<List<String>> tags = new ArrayList<>(tagCount);
+            for (int t = 0; t < tagCount; t++) {
+                int valueCount = readLength(in, 4);
+                String[] row = new String[valueCount];
+                for (int i = 0; i < valueCount; i++) {
+                    row[i] = readString(in, readLength(in, 1));
+                }
+                tags.add(Arrays.asList(row));
+            }
+            String content = readString(in, readLength(in, 1));
+            if (subId != null) {
+                return new ReceivedSignedNostrEvent(subId, id, pubkey, kind, content, createdAt, sig, tags);
+            }
+            return new SignedNostrEvent(id, pubkey, kind, content, createdAt, sig, tags);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed binary event frame", e);
+        }
+    }
+
+    // reads a length and checks that at least length * minItemSize bytes are left
+    private static int readLength(ByteBuffer in, int minItemSize) {
+        int len = in.getInt();
+        if (len < 0 || (long) len * minItemSize > in.remaining()) {
+            throw new IllegalArgumentException("Truncated binary event frame");
+        }
+        return len;
+    }
+
+    private static String readString(ByteBuffer in, int len) {
+        if (len > in.remaining()) {
+            throw new IllegalArgumentException("Truncated binary event frame");
+        }
+        String s;
+        if (in.hasArray()) {
+            s = new String(in.array(), in.arrayOffset() + in.position(), len, StandardCharsets.UTF_8);
+            in.position(in.position() + len);
+        } else {
+            byte[] tmp = new byte[len];
+            in.get(tmp);
+            s = new String(tmp, StandardCharsets.UTF_8);
+        }
+        return s;
+    }
+
+    private static String readHex(ByteBuffer in, int len) {
+        ByteBuffer slice = in.slice();
+        slice.limit(len);
+        in.position(in.position() + len);
+        return HexCodec.encode(slice);
+    }
+
+    private static void putHex(ByteBuffer out, String hex, int len) {
+        if (hex == null || hex.length() != len * 2 || !HexCodec.decode(hex, out.array(), out.arrayOffset() + out.position())) {
+            throw new IllegalArgumentException("Invalid hex field, expected " + len + " bytes");
+        }
+        out.position(out.position() + len);
+    }
+}
@@ -51,6 +51,7 @@ public abstract class NostrMessage extends NostrMessageFragment {
     }
 
     private transient volatile String jsonCache = null;
+    private transient volatile NostrMessageFrame frameCache = null;
 
     protected List<Object> toSerial() {
         Collection<Object> fragments = getFragments();
@@ -75,6 +76,15 @@ public abstract class NostrMessage extends NostrMessageFragment {
         return jsonCache;
     }
 
+    protected NostrMessageFrame toFrame() {
+        NostrMessageFrame frame = frameCache;
+        if (frame == null) {
+            frame = new NostrMessageFrame(toJSON());
+            frameCache = frame;
+        }
+        return frame;
+    }
+
     @Override
     public final String toString() {
         try {
@@ -88,21 +98,42 @@ public abstract class NostrMessage extends NostrMessageFragment {
         return message.toJSON();
     }
 
+    /**
+     * Returns the serialized frame of the message, built once and shared by all the relays
+     * the message is sent to.
+     */
+    public static NostrMessageFrame toFrame(NostrMessage message) {
+        return message.toFrame();
+    }
+
     public static List<Object> toSerial(NostrMessage message) {
         return message.toSerial();
     }
 
+    // structural hash, computed once: messages are not expected to change after they are created
+    private transient volatile int hashCache = 0;
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         NostrMessage that = (NostrMessage) obj;
+        if (hashCode() != that.hashCode()) return false;
+        String json1 = jsonCache;
+        String json2 = that.jsonCache;
+        if (json1 != null && json2 != null && json1.equals(json2)) return true;
         return toSerial().equals(that.toSerial());
     }
 
     @Override
     public int hashCode() {
-        return toSerial().hashCode();
+        int h = hashCache;
+        if (h == 0) {
+            h = toSerial().hashCode();
+            if (h == 0) h = 1;
+            hashCache = h;
+        }
+        return h;
     }
 
     public static NostrMessageAck ack(
@@ -0,0 +1,75 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.proto;
+
+import java.util.Objects;
+import org.ngengine.nostr4j.utils.Utf8;
+
+/**
+ * A serialized message, ready to be written to the wire.
+ * <p>
+ * A frame is built once per message instance and shared by every relay the message is sent to,
+ * together with its size in bytes, that is computed once for the traffic counters.
+ * </p>
+ */
+public final class NostrMessageFrame {
+
+    private final String text;
+    private volatile int byteLength = -1;
+
+    public NostrMessageFrame(String text) {
+        this.text = Objects.requireNonNull(text, "text");
+    }
+
+    /**
+     * The serialized message, as sent in a websocket text frame.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * The size of the UTF-8 encoding of the serialized message, in bytes.
+     */
+    public int getByteLength() {
+        int len = byteLength;
+        if (len < 0) {
+            len = Utf8.length(text);
+            byteLength = len;
+        }
+        return len;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
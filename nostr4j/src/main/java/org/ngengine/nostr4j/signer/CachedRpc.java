@@ -0,0 +1,140 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.signer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEUtils;
+
+/**
+ * A remote value cached for a limited time, or until invalidated when the time to live is null.
+ * Concurrent lookups while the value is being loaded share the same request.
+ */
+final class CachedRpc<T> {
+
+    private static final Logger logger = Logger.getLogger(CachedRpc.class.getName());
+
+    private final Supplier<AsyncTask<T>> loader;
+    private T value;
+    private long expiresAt;
+    private List<Consumer<T>> waitingSuccess;
+    private List<Consumer<Throwable>> waitingError;
+
+    CachedRpc(Supplier<AsyncTask<T>> loader) {
+        this.loader = loader;
+    }
+
+    AsyncTask<T> get(Duration ttl) {
+        return NGEUtils
+            .getPlatform()
+            .wrapPromise((res, rej) -> {
+                T cached;
+                synchronized (this) {
+                    cached = value;
+                    if (cached == null || System.currentTimeMillis() >= expiresAt) {
+                        cached = null;
+                        if (waitingSuccess != null) {
+                            waitingSuccess.add(res);
+                            waitingError.add(rej);
+                            return;
+                        }
+                        waitingSuccess = new ArrayList<>();
+                        waitingError = new ArrayList<>();
+                        waitingSuccess.add(res);
+                        waitingError.add(rej);
+                    }
+                }
+                if (cached != null) {
+                    res.accept(cached);
+                    return;
+                }
+                load(ttl);
+            });
+    }
+
+    private void load(Duration ttl) {
+        AsyncTask<T> task;
+        try {
+            task = loader.get();
+        } catch (Throwable e) {
+            fail(e);
+            return;
+        }
+        task
+            .then(v -> {
+                List<Consumer<T>> waiting;
+                synchronized (this) {
+                    value = v;
+                    expiresAt = ttl == null ? Long.MAX_VALUE : System.currentTimeMillis() + ttl.toMillis();
+                    waiting = waitingSuccess;
+                    waitingSuccess = null;
+                    waitingError = null;
+                }
+                for (Consumer<T> w : waiting) {
+                    try {
+                        w.accept(v);
+                    } catch (Throwable e) {
+                        logger.log(Level.WARNING, "Error in cached rpc callback", e);
+                    }
+                }
+                return null;
+            })
+            .catchException(this::fail);
+    }
+
+    private void fail(Throwable error) {
+        List<Consumer<Throwable>> waiting;
+        synchronized (this) {
+            waiting = waitingError;
+            waitingSuccess = null;
+            waitingError = null;
+        }
+        if (waiting == null) return;
+        for (Consumer<Throwable> w : waiting) {
+            try {
+                w.accept(error);
+            } catch (Throwable e) {
+                logger.log(Level.WARNING, "Error in cached rpc callback", e);
+            }
+        }
+    }
+
+    synchronized void invalidate() {
+        value = null;
+        expiresAt = 0;
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.signer;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.nip04.Nip04;
+import org.ngengine.nostr4j.nip44.Nip44;
+import org.ngengine.nostr4j.utils.CryptoExecutor;
+import org.ngengine.nostr4j.utils.CryptoExecutor.Priority;
+import org.ngengine.platform.AsyncTask;
+
+/**
+ * Decrypts batches of payloads with a local private key.
+ * <p>
+ * Payloads are grouped by (peer, algorithm) so that every shared key is derived only once, then
+ * the key derivation and the decryption are split in chunks and run as bulk work on the
+ * {@link CryptoExecutor}, so they use all its workers without delaying interactive crypto.
+ * Results are returned in input order, failures are reported per item.
+ * </p>
+ */
+final class NostrBulkDecryptor {
+
+    // below this, the cost of queuing another chunk outweighs the decryption work it carries
+    private static final int MIN_ITEMS_PER_CHUNK = 16;
+
+    private NostrBulkDecryptor() {}
+
+    static AsyncTask<List<NostrDecryptResult>> decryptAll(NostrPrivateKey privateKey, List<NostrDecryptRequest> requests) {
+        int count = requests.size();
+        if (count == 0) {
+            return AsyncTask.completed(new ArrayList<>());
+        }
+
+        Map<Peer, Peer> peers = new LinkedHashMap<>();
+        Peer[] itemPeers = new Peer[count];
+        for (int i = 0; i < count; i++) {
+            NostrDecryptRequest request = requests.get(i);
+            Peer peer = new Peer(request.getPublicKey(), request.getAlgo());
+            Peer existing = peers.putIfAbsent(peer, peer);
+            itemPeers[i] = existing != null ? existing : peer;
+        }
+        List<Peer> distinctPeers = new ArrayList<>(peers.values());
+
+        CryptoExecutor executor = CryptoExecutor.getDefault();
+        NostrDecryptResult[] results = new NostrDecryptResult[count];
+
+        // every key derivation is an ECDH, worth a chunk of its own
+        return executor
+            .runChunked(
+                Priority.BULK,
+                distinctPeers.size(),
+                1,
+                (from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        distinctPeers.get(i).deriveKey(privateKey);
+                    }
+                }
+            )
+            .compose(derived -> {
+                return executor.runChunked(
+                    Priority.BULK,
+                    count,
+                    MIN_ITEMS_PER_CHUNK,
+                    (from, to) -> {
+                        for (int i = from; i < to; i++) {
+                            results[i] = itemPeers[i].decrypt(requests.get(i));
+                        }
+                    }
+                );
+            })
+            .then(decrypted -> {
+                for (Peer peer : distinctPeers) {
+                    peer.wipe();
+                }
+                return new ArrayList<>(Arrays.asList(results));
+            });
+    }
+
+    private static final class Peer {
+
+        private final NostrPublicKey publicKey;
+        private final NostrSigner.EncryptAlgo algo;
+        // written by the derivation workers, read by the decryption workers
+        private volatile byte[] nip44Key;
+        private volatile ByteBuffer nip04Key;
+        private volatile Throwable error;
+
+        Peer(NostrPublicKey publicKey, NostrSigner.EncryptAlgo algo) {
+            this.publicKey = publicKey;
+            this.algo = algo;
+        }
+
+        void deriveKey(NostrPrivateKey privateKey) {
+            try {
+                if (algo == NostrSigner.EncryptAlgo.NIP04) {
+                    nip04Key = Nip04.getSharedSecretSync(privateKey, publicKey);
+                } else {
+                    // a backfill touches many peers once, it would only evict useful entries from the shared cache
+                    nip44Key = Nip44.getConversationKeyUncachedSync(privateKey, publicKey);
+                }
+            } catch (Throwable e) {
+                error = e;
+            }
+        }
+
+        NostrDecryptResult decrypt(NostrDecryptRequest request) {
+            if (error != null) {
+                return NostrDecryptResult.failure(request, error);
+            }
+            try {
+                String plaintext = algo == NostrSigner.EncryptAlgo.NIP04
+                    ? Nip04.decryptSync(request.getPayload(), nip04Key)
+                    : Nip44.decryptSync(request.getPayload(), nip44Key);
+                return NostrDecryptResult.success(request, plaintext);
+            } catch (Throwable e) {
+                return NostrDecryptResult.failure(request, e);
+            }
+        }
+
+        void wipe() {
+            byte[] key = nip44Key;
+            if (key != null) {
+                Arrays.fill(key, (byte) 0);
+            }
+            ByteBuffer secret = nip04Key;
+            if (secret != null && !secret.isReadOnly()) {
+                for (int i = 0; i < secret.capacity(); i++) {
+                    secret.put(i, (byte) 0);
+                }
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Peer)) return false;
+            Peer that = (Peer) obj;
+            return algo == that.algo && publicKey.equals(that.publicKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * publicKey.hashCode() + algo.hashCode();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.signer;
+
+import java.util.Objects;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+
+/**
+ * A payload to decrypt with {@link NostrSigner#decryptAll(java.util.List)}.
+ */
+public final class NostrDecryptRequest {
+
+    private final String payload;
+    private final NostrPublicKey publicKey;
+    private final NostrSigner.EncryptAlgo algo;
+
+    /**
+     * @param payload the encrypted payload
+     * @param publicKey the public key of the sender
+     * @param algo the algorithm used to encrypt the payload
+     */
+    public NostrDecryptRequest(String payload, NostrPublicKey publicKey, NostrSigner.EncryptAlgo algo) {
+        this.payload = Objects.requireNonNull(payload, "payload");
+        this.publicKey = Objects.requireNonNull(publicKey, "publicKey");
+        this.algo = Objects.requireNonNull(algo, "algo");
+    }
+
+    /**
+     * A NIP-44 payload.
+     */
+    public NostrDecryptRequest(String payload, NostrPublicKey publicKey) {
+        this(payload, publicKey, NostrSigner.EncryptAlgo.NIP44);
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public NostrPublicKey getPublicKey() {
+        return publicKey;
+    }
+
+    public NostrSigner.EncryptAlgo getAlgo() {
+        return algo;
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "NostrDecryptRequest{" + "publicKey=" + publicKey + ", algo=" + algo + ", payloadLength=" + payload.length() + '}'
+        );
+    }
+}
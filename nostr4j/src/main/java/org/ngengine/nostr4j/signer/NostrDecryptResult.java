@@ -0,0 +1,83 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.signer;
+
+/**
+ * The outcome of a single {@link NostrDecryptRequest}: either the plaintext or the error that
+ * prevented the decryption.
+ */
+public final class NostrDecryptResult {
+
+    private final NostrDecryptRequest request;
+    private final String plaintext;
+    private final Throwable error;
+
+    private NostrDecryptResult(NostrDecryptRequest request, String plaintext, Throwable error) {
+        this.request = request;
+        this.plaintext = plaintext;
+        this.error = error;
+    }
+
+    public static NostrDecryptResult success(NostrDecryptRequest request, String plaintext) {
+        return new NostrDecryptResult(request, plaintext, null);
+    }
+
+    public static NostrDecryptResult failure(NostrDecryptRequest request, Throwable error) {
+        return new NostrDecryptResult(request, null, error);
+    }
+
+    public NostrDecryptRequest getRequest() {
+        return request;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Returns the plaintext, or null if the decryption failed.
+     */
+    public String getPlaintext() {
+        return plaintext;
+    }
+
+    /**
+     * Returns the error, or null if the decryption succeeded.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "NostrDecryptResult{" + "request=" + request + ", success=" + isSuccess() + ", error=" + error + '}';
+    }
+}
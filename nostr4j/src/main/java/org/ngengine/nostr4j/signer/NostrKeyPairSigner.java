@@ -31,6 +31,9 @@
 package org.ngengine.nostr4j.signer;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Logger;
 import org.ngengine.nostr4j.event.NostrEvent;
 import org.ngengine.nostr4j.event.SignedNostrEvent;
@@ -39,6 +42,8 @@ import org.ngengine.nostr4j.keypair.NostrKeyPair;
 import org.ngengine.nostr4j.keypair.NostrPublicKey;
 import org.ngengine.nostr4j.nip04.Nip04;
 import org.ngengine.nostr4j.nip44.Nip44;
+import org.ngengine.nostr4j.utils.CryptoExecutor;
+import org.ngengine.nostr4j.utils.CryptoExecutor.Priority;
 import org.ngengine.platform.AsyncTask;
 import org.ngengine.platform.NGEPlatform;
 import org.ngengine.platform.NGEUtils;
@@ -46,6 +51,8 @@ import org.ngengine.platform.NGEUtils;
 public class NostrKeyPairSigner implements NostrSigner {
 
     private static final Logger logger = Logger.getLogger(NostrKeyPairSigner.class.getName());
+    // schnorr signatures are cheap, smaller chunks are not worth the queuing
+    private static final int MIN_EVENTS_PER_SIGN_CHUNK = 8;
     private final NostrKeyPair keyPair;
 
     public NostrKeyPairSigner(NostrKeyPair keyPair) {
@@ -60,18 +67,7 @@ public class NostrKeyPairSigner implements NostrSigner {
     public AsyncTask<SignedNostrEvent> sign(UnsignedNostrEvent event) {
         String id = NostrEvent.computeEventId(keyPair.getPublicKey().asHex(), event);
         if (id == null || id.isBlank()) {
-            Instant createdAt = event.getCreatedAt();
-            String createdAtInfo = createdAt == null ? "null" : String.valueOf(createdAt.getEpochSecond());
-            String err =
-                "Failed to compute event id for signing (kind=" +
-                event.getKind() +
-                ", created_at=" +
-                createdAtInfo +
-                ", tags=" +
-                event.getTagRows().size() +
-                ", content_length=" +
-                event.getContent().length() +
-                ")";
+            String err = eventIdError(event);
             logger.warning(err);
             return NGEUtils
                 .getPlatform()
@@ -83,18 +79,70 @@ public class NostrKeyPairSigner implements NostrSigner {
             .getPlatform()
             .schnorrSignAsync(id, keyPair.getPrivateKey().asReadOnlyBuffer())
             .then(sig -> {
-                return new SignedNostrEvent(
-                    id,
-                    keyPair.getPublicKey(),
-                    event.getKind(),
-                    event.getContent(),
-                    event.getCreatedAt(),
-                    sig,
-                    event.getTagRows()
-                );
+                return toSignedEvent(id, event, sig);
             });
     }
 
+    /**
+     * Sign the events in parallel, as bulk work on the {@link CryptoExecutor}.
+     */
+    @Override
+    public AsyncTask<List<SignedNostrEvent>> signAll(List<UnsignedNostrEvent> events) {
+        int count = events.size();
+        SignedNostrEvent[] signed = new SignedNostrEvent[count];
+        String pubkey = keyPair.getPublicKey().asHex();
+        return CryptoExecutor
+            .getDefault()
+            .runChunked(
+                Priority.BULK,
+                count,
+                MIN_EVENTS_PER_SIGN_CHUNK,
+                (from, to) -> {
+                    NGEPlatform platform = NGEUtils.getPlatform();
+                    for (int i = from; i < to; i++) {
+                        UnsignedNostrEvent event = events.get(i);
+                        String id = NostrEvent.computeEventId(pubkey, event);
+                        if (id == null || id.isBlank()) {
+                            throw new IllegalStateException(eventIdError(event));
+                        }
+                        String sig = platform.schnorrSign(id, keyPair.getPrivateKey().asReadOnlyBuffer());
+                        signed[i] = toSignedEvent(id, event, sig);
+                    }
+                }
+            )
+            .then(done -> {
+                return new ArrayList<>(Arrays.asList(signed));
+            });
+    }
+
+    private SignedNostrEvent toSignedEvent(String id, UnsignedNostrEvent event, String sig) {
+        return new SignedNostrEvent(
+            id,
+            keyPair.getPublicKey(),
+            event.getKind(),
+            event.getContent(),
+            event.getCreatedAt(),
+            sig,
+            event.getTagRows()
+        );
+    }
+
+    private static String eventIdError(UnsignedNostrEvent event) {
+        Instant createdAt = event.getCreatedAt();
+        String createdAtInfo = createdAt == null ? "null" : String.valueOf(createdAt.getEpochSecond());
+        return (
+            "Failed to compute event id for signing (kind=" +
+            event.getKind() +
+            ", created_at=" +
+            createdAtInfo +
+            ", tags=" +
+            event.getTagRows().size() +
+            ", content_length=" +
+            event.getContent().length() +
+            ")"
+        );
+    }
+
     @Override
     public AsyncTask<String> encrypt(String message, NostrPublicKey publicKey, NostrSigner.EncryptAlgo algo) {
         if (algo == EncryptAlgo.NIP04) {
@@ -124,6 +172,11 @@ public class NostrKeyPairSigner implements NostrSigner {
         }
     }
 
+    @Override
+    public AsyncTask<List<NostrDecryptResult>> decryptAll(List<NostrDecryptRequest> requests) {
+        return NostrBulkDecryptor.decryptAll(keyPair.getPrivateKey(), requests);
+    }
+
     @Override
     public AsyncTask<NostrPublicKey> getPublicKey() {
         NGEPlatform platform = NGEUtils.getPlatform();
@@ -181,6 +234,7 @@ public class NostrKeyPairSigner implements NostrSigner {
         return NGEUtils
             .getPlatform()
             .wrapPromise((res, rej) -> {
+                Nip44.getConversationKeyCache().invalidate(keyPair.getPrivateKey());
                 res.accept(this);
             });
     }
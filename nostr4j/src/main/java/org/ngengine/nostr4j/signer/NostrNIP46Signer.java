@@ -36,7 +36,9 @@ import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -46,8 +48,11 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -63,6 +68,7 @@ import org.ngengine.nostr4j.listeners.sub.NostrSubEventListener;
 import org.ngengine.nostr4j.nip44.Nip44;
 import org.ngengine.nostr4j.nip46.BunkerUrl;
 import org.ngengine.nostr4j.nip46.Nip46AppMetadata;
+import org.ngengine.nostr4j.nip46.Nip46Transport;
 import org.ngengine.nostr4j.nip46.NostrconnectUrl;
 import org.ngengine.nostr4j.proto.NostrMessageAck;
 import org.ngengine.nostr4j.utils.UniqueId;
@@ -146,11 +152,19 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
     private transient volatile Map<String, PendingChallenge> pendingChallenges;
     private transient volatile AsyncExecutor executor;
     private transient volatile boolean closed = false;
-    private transient volatile NostrPublicKey cachedPublicKey = null;
+    private transient volatile Map<String, CachedRpc<?>> rpcCache;
+    private transient volatile CachedRpc<NostrPublicKey> publicKeyCache;
+    private transient volatile long lastSeen = 0;
+    private transient volatile boolean heartbeatInFlight = false;
+    private transient volatile Nip46Transport transport;
 
     private Set<String> relays = new HashSet<>();
     private Duration requestsTimeout = Duration.ofSeconds(30);
     private Duration challengesTimeout = Duration.ofSeconds(30);
+    private int maxConcurrentRequests = 16;
+    private boolean sharedTransport = false;
+    private Duration metadataCacheTtl = Duration.ofMinutes(10);
+    private Duration heartbeatInterval = Duration.ofSeconds(30);
 
     private volatile NostrPublicKey signerPubkey;
     private volatile NostrconnectUrl connectUrl;
@@ -189,6 +203,61 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
         this.requestsTimeout = timeout;
     }
 
+    /**
+     * Set how many requests {@link #signAll(List)} keeps in flight at once.
+     * @param maxConcurrentRequests the window size (default 16)
+     */
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        if (maxConcurrentRequests < 1) {
+            throw new IllegalArgumentException("maxConcurrentRequests must be >= 1");
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * Set for how long the relays and supported methods returned by the remote signer are cached.
+     * The public key never changes and is cached for the lifetime of the signer.
+     * @param ttl time to live (default 10 minutes)
+     */
+    public void setMetadataCacheTtl(Duration ttl) {
+        this.metadataCacheTtl = ttl;
+    }
+
+    /**
+     * Set how often the remote signer is pinged while idle.
+     * {@link #isAvailable()} is answered from the last time the signer was heard of,
+     * and reports the signer as unavailable after two missed heartbeats.
+     * @param interval heartbeat interval (default 30 seconds)
+     */
+    public void setHeartbeatInterval(Duration interval) {
+        this.heartbeatInterval = interval;
+    }
+
+    /**
+     * Drop the cached relays and supported methods, the next call will query the remote signer.
+     */
+    public void invalidateCache() {
+        Map<String, CachedRpc<?>> cache = this.rpcCache;
+        if (cache != null) {
+            for (CachedRpc<?> c : cache.values()) {
+                c.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Use a {@link Nip46Transport} shared with every other signer talking to the same relays,
+     * instead of a dedicated pool, subscription and executor.
+     * Must be set before the signer is used.
+     * @param sharedTransport true to use the shared transport (default false)
+     */
+    public void setSharedTransport(boolean sharedTransport) {
+        if (this.executor != null) {
+            throw new IllegalStateException("The signer is already started");
+        }
+        this.sharedTransport = sharedTransport;
+    }
+
     // internal loop (runs in signer executor)
     private void loop() {
         try {
@@ -218,6 +287,8 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
                     }
                 }
             }
+
+            heartbeat(now);
         } catch (Throwable e) {
             logger.warning("Error in loop: " + e.getMessage());
         }
@@ -233,6 +304,23 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
             );
     }
 
+    // ping the remote signer if nothing was received from it for a whole interval
+    private void heartbeat(Instant now) {
+        if (!connected || closed || heartbeatInFlight) return;
+        Duration interval = this.heartbeatInterval;
+        if (now.toEpochMilli() - lastSeen < interval.toMillis()) return;
+        heartbeatInFlight = true;
+        sendRPC("ping", new ArrayList<>(), interval)
+            .then(r -> {
+                heartbeatInFlight = false;
+                return null;
+            })
+            .catchException(err -> {
+                heartbeatInFlight = false;
+                logger.fine("Heartbeat failed: " + err.getMessage());
+            });
+    }
+
     /**
      * Close this signer and all its resources.
      */
@@ -247,7 +335,12 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
                 }
                 logger.fine("Closing signer: " + this);
                 closed = true;
-                if (this.pool != null) {
+                Nip46Transport transport = this.transport;
+                if (transport != null) {
+                    this.transport = null;
+                    transport.unregister(this.transportPubkey, this);
+                    transport.release();
+                } else if (this.pool != null) {
                     this.pool.close();
                 }
                 if (this.subscription != null) {
@@ -264,8 +357,9 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
                         c.close(new Exception("Closed"));
                     }
                 }
+                invalidateCache();
                 res.accept(this);
-                if (this.executor != null) {
+                if (this.executor != null && !sharedTransport) {
                     this.executor.close();
                 }
             } catch (Throwable e) {
@@ -301,6 +395,7 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
         return sendRPC("connect", params, requestsTimeout)
             .then(r -> {
                 logger.fine("Connected to bunker: " + bunker + " relays: " + this.relays);
+                lastSeen = System.currentTimeMillis();
                 connected = true;
                 // cancel every other remaining connect attempt
                 Iterator<Entry<String, ResponseListener>> it = listeners.entrySet().iterator();
@@ -356,6 +451,7 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
                 )
                     .then(s -> {
                         logger.fine("Received nostrconnect payload: " + s + " relays: " + this.relays);
+                        lastSeen = System.currentTimeMillis();
                         connected = true;
                         // cancel every other remaining connect attempt
                         Iterator<Entry<String, ResponseListener>> it = listeners.entrySet().iterator();
@@ -404,7 +500,7 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
             synchronized (this) {
                 if (this.executor == null) {
                     logger.fine("Creating executor");
-                    this.executor = p.newSignerExecutor();
+                    this.executor = sharedTransport ? Nip46Transport.getSharedExecutor() : p.newSignerExecutor();
                     this.loop();
                 }
             }
@@ -431,6 +527,19 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
                         }
                     }
 
+                    if (sharedTransport) {
+                        attachTransport()
+                            .register(this.transportPubkey, this)
+                            .catchException(exc -> {
+                                rej.accept(exc);
+                            })
+                            .then(r -> {
+                                res.accept(new ArrayList<>());
+                                return null;
+                            });
+                        return;
+                    }
+
                     if (this.pool == null) {
                         synchronized (this) {
                             if (this.pool == null) {
@@ -495,6 +604,29 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
         );
     }
 
+    /*
+     * Get the shared transport for the current relays, moving to a new one
+     * if relays were added since the last call.
+     */
+    private synchronized Nip46Transport attachTransport() {
+        Nip46Transport current = this.transport;
+        if (current != null && current.getRelays().containsAll(relays)) {
+            return current;
+        }
+        Set<String> all = new HashSet<>(relays);
+        if (current != null) {
+            all.addAll(current.getRelays());
+        }
+        Nip46Transport next = Nip46Transport.acquire(all);
+        if (current != null) {
+            current.unregister(this.transportPubkey, this);
+            current.release();
+        }
+        this.transport = next;
+        this.pool = next.getPool();
+        return next;
+    }
+
     @Override
     public void onSubEvent(NostrSubscription sub, SignedNostrEvent event, boolean stored) {
         try {
@@ -543,6 +675,10 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
                 pubkey
             );
             String decryptedContent = Nip44.decryptSync(content, conversationKey);
+            if (!isSpontaneousConnection) {
+                // any authenticated message from the signer proves it is alive
+                this.lastSeen = System.currentTimeMillis();
+            }
 
             assert dbg(() -> logger.finer("Received response: " + decryptedContent));
             // parse content
@@ -758,6 +894,68 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
             });
     }
 
+    /**
+     * Sign the events pipelining the requests: up to {@link #setMaxConcurrentRequests(int)} sign
+     * requests are kept in flight, responses are matched to their request by id, and every response
+     * immediately frees a slot for the next event.
+     */
+    @Override
+    public AsyncTask<List<SignedNostrEvent>> signAll(List<UnsignedNostrEvent> events) {
+        return NGEUtils
+            .getPlatform()
+            .wrapPromise((res, rej) -> {
+                if (events.isEmpty()) {
+                    res.accept(new ArrayList<>());
+                    return;
+                }
+                SignBatch batch = new SignBatch(events, res, rej);
+                int window = Math.min(events.size(), Math.max(1, maxConcurrentRequests));
+                for (int i = 0; i < window; i++) {
+                    batch.signNext();
+                }
+            });
+    }
+
+    private final class SignBatch {
+
+        private final List<UnsignedNostrEvent> events;
+        private final SignedNostrEvent[] results;
+        private final Consumer<List<SignedNostrEvent>> onSuccess;
+        private final Consumer<Throwable> onError;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        SignBatch(List<UnsignedNostrEvent> events, Consumer<List<SignedNostrEvent>> onSuccess, Consumer<Throwable> onError) {
+            this.events = events;
+            this.results = new SignedNostrEvent[events.size()];
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+
+        void signNext() {
+            int index = next.getAndIncrement();
+            if (index >= results.length || failed.get()) {
+                return;
+            }
+            sign(events.get(index))
+                .then(signed -> {
+                    results[index] = signed;
+                    if (completed.incrementAndGet() == results.length) {
+                        onSuccess.accept(new ArrayList<>(Arrays.asList(results)));
+                    } else {
+                        signNext();
+                    }
+                    return null;
+                })
+                .catchException(err -> {
+                    if (failed.compareAndSet(false, true)) {
+                        onError.accept(err);
+                    }
+                });
+        }
+    }
+
     @Override
     public AsyncTask<String> encrypt(String message, NostrPublicKey publicKey, NostrSigner.EncryptAlgo algo) {
         String method;
@@ -796,19 +994,82 @@ public class NostrNIP46Signer implements NostrSigner, NostrSubEventListener {
 
     @Override
     public AsyncTask<NostrPublicKey> getPublicKey() {
-        if (cachedPublicKey != null) {
-            return NGEPlatform
-                .get()
-                .wrapPromise((res, rej) -> {
-                    res.accept(cachedPublicKey);
-                });
+        if (this.publicKeyCache == null) {
+            synchronized (this) {
+                if (this.publicKeyCache == null) {
+                    this.publicKeyCache =
+                        new CachedRpc<>(() ->
+                            sendRPC("get_public_key", new ArrayList<>(), requestsTimeout).then(NostrPublicKey::fromHex)
+                        );
+                }
+            }
         }
-        String method = "get_public_key";
-        Collection<Object> params = new ArrayList<>();
-        return sendRPC(method, params, requestsTimeout)
-            .then(publicKey -> {
-                cachedPublicKey = NostrPublicKey.fromHex(publicKey);
-                return cachedPublicKey;
+        return publicKeyCache.get(null);
+    }
+
+    /**
+     * Get the relays the remote signer is listening on.
+     * The result is cached, see {@link #setMetadataCacheTtl(Duration)}.
+     * @return an async task that will complete with the relay urls
+     */
+    public AsyncTask<List<String>> getRelays() {
+        NGEPlatform platform = NGEUtils.getPlatform();
+        return sendCachedRPC(
+            "get_relays",
+            result -> {
+                Map<String, Object> relays = platform.fromJSON(result, Map.class);
+                return Collections.unmodifiableList(new ArrayList<>(relays.keySet()));
+            }
+        );
+    }
+
+    /**
+     * Get the methods supported by the remote signer, as returned by the describe call.
+     * The result is cached, see {@link #setMetadataCacheTtl(Duration)}.
+     * @return an async task that will complete with the method names
+     */
+    public AsyncTask<List<String>> getSupportedMethods() {
+        NGEPlatform platform = NGEUtils.getPlatform();
+        return sendCachedRPC(
+            "describe",
+            result -> {
+                List<String> methods = new ArrayList<>();
+                for (Object m : platform.fromJSON(result, List.class)) {
+                    methods.add(NGEUtils.safeString(m));
+                }
+                return Collections.unmodifiableList(methods);
+            }
+        );
+    }
+
+    /**
+     * Answered from the heartbeat: the signer is available if it is connected and was heard of
+     * within the last two heartbeat intervals. This never sends a request.
+     */
+    @Override
+    public AsyncTask<Boolean> isAvailable() {
+        boolean available =
+            connected && !closed && System.currentTimeMillis() - lastSeen <= heartbeatInterval.toMillis() * 2;
+        return NGEUtils
+            .getPlatform()
+            .wrapPromise((res, rej) -> {
+                res.accept(available);
             });
     }
+
+    @SuppressWarnings("unchecked")
+    private <T> AsyncTask<T> sendCachedRPC(String method, Function<String, T> parse) {
+        if (this.rpcCache == null) {
+            synchronized (this) {
+                if (this.rpcCache == null) {
+                    this.rpcCache = new ConcurrentHashMap<>();
+                }
+            }
+        }
+        CachedRpc<T> cached = (CachedRpc<T>) rpcCache.computeIfAbsent(
+            method,
+            m -> new CachedRpc<T>(() -> sendRPC(m, new ArrayList<>(), requestsTimeout).then(parse::apply))
+        );
+        return cached.get(metadataCacheTtl);
+    }
 }
@@ -31,7 +31,10 @@
 package org.ngengine.nostr4j.signer;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import org.ngengine.nostr4j.event.NostrEvent;
+import org.ngengine.nostr4j.event.NostrPowMiner;
 import org.ngengine.nostr4j.event.SignedNostrEvent;
 import org.ngengine.nostr4j.event.UnsignedNostrEvent;
 import org.ngengine.nostr4j.keypair.NostrPublicKey;
@@ -51,6 +54,25 @@ public interface NostrSigner extends Cloneable, Serializable {
      */
     AsyncTask<SignedNostrEvent> sign(UnsignedNostrEvent event);
 
+    /**
+     * Sign many events at once, eg. for a bulk import.
+     * <p>
+     * The default implementation issues one {@link #sign(UnsignedNostrEvent)} per event, signers
+     * override it to sign in parallel or to pipeline their requests.
+     * </p>
+     *
+     * @param events the events to sign
+     * @return an async task that will be completed with the signed events, in the same order, or
+     *         failed with the first error
+     */
+    default AsyncTask<List<SignedNostrEvent>> signAll(List<UnsignedNostrEvent> events) {
+        List<AsyncTask<SignedNostrEvent>> tasks = new ArrayList<>(events.size());
+        for (UnsignedNostrEvent event : events) {
+            tasks.add(this.sign(event));
+        }
+        return AsyncTask.all(tasks);
+    }
+
     /**
      * Encrypt a message
      * @param message  the message to encrypt
@@ -90,6 +112,38 @@ public interface NostrSigner extends Cloneable, Serializable {
         return this.decrypt(message, publicKey, EncryptAlgo.NIP44);
     }
 
+    /**
+     * Decrypt many messages at once, eg. when loading an inbox.
+     * <p>
+     * The default implementation issues one {@link #decrypt(String, NostrPublicKey, EncryptAlgo)}
+     * per request, signers that hold the private key override it to derive every shared key once
+     * and decrypt in parallel.
+     * </p>
+     *
+     * @param requests the payloads to decrypt
+     * @return an async task that will be completed with one result per request, in the same order.
+     *         Failures are reported in the results and never fail the task
+     */
+    default AsyncTask<List<NostrDecryptResult>> decryptAll(List<NostrDecryptRequest> requests) {
+        NGEPlatform platform = NGEPlatform.get();
+        List<AsyncTask<NostrDecryptResult>> tasks = new ArrayList<>(requests.size());
+        for (NostrDecryptRequest request : requests) {
+            tasks.add(
+                platform.wrapPromise((res, rej) -> {
+                    this.decrypt(request.getPayload(), request.getPublicKey(), request.getAlgo())
+                        .then(plaintext -> {
+                            res.accept(NostrDecryptResult.success(request, plaintext));
+                            return null;
+                        })
+                        .catchException(err -> {
+                            res.accept(NostrDecryptResult.failure(request, err));
+                        });
+                })
+            );
+        }
+        return AsyncTask.all(tasks);
+    }
+
     /**
      * Get the public key of the signer
      * @return an async task that will be completed with the public key
@@ -122,6 +176,25 @@ public interface NostrSigner extends Cloneable, Serializable {
             });
     }
 
+    /**
+     * Sign an event and attach a proof of computational work to it, using the given miner.
+     * The miner can be used to track progress or to cancel the work.
+     *
+     * @param event the event to sign
+     * @param difficulty the target difficulty for the proof of work
+     * @param miner the miner to use
+     * @return an async task that will be completed with the signed event containing the proof of work
+     */
+    default AsyncTask<SignedNostrEvent> powSign(UnsignedNostrEvent event, int difficulty, NostrPowMiner miner) {
+        return this.getPublicKey()
+            .compose(pubkey -> {
+                return miner.mine(pubkey, event, difficulty);
+            })
+            .compose(mined -> {
+                return this.sign(mined);
+            });
+    }
+
     default AsyncTask<Boolean> isAvailable() {
         return NGEPlatform
             .get()
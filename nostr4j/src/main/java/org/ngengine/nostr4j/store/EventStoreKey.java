@@ -0,0 +1,96 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package org.ngengine.nostr4j.store;
+
+import java.time.Instant;
+import org.ngengine.nostr4j.NostrFilter;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+
+/**
+ * Ordering key used by the in-memory stores: newest events first, ties broken by id so that distinct
+ * events sharing the same created_at are all retained.
+ */
+final class EventStoreKey implements Comparable<EventStoreKey> {
+
+    private static final String MIN_ID = "";
+    private static final String MAX_ID = "\uffff";
+
+    final long createdAt;
+    final String id;
+
+    EventStoreKey(long createdAt, String id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    static EventStoreKey of(SignedNostrEvent event) {
+        return new EventStoreKey(event.getCreatedAt().getEpochSecond(), event.getId());
+    }
+
+    /**
+     * The first key that can match the filter, or null if the filter is not bounded by until.
+     */
+    static EventStoreKey lowerBound(NostrFilter filter) {
+        Instant until = filter.getUntil();
+        if (until == null) return null;
+        return new EventStoreKey(until.getEpochSecond(), MIN_ID);
+    }
+
+    /**
+     * The last key that can match the filter, or null if the filter is not bounded by since.
+     */
+    static EventStoreKey upperBound(NostrFilter filter) {
+        Instant since = filter.getSince();
+        if (since == null) return null;
+        return new EventStoreKey(since.getEpochSecond(), MAX_ID);
+    }
+
+    @Override
+    public int compareTo(EventStoreKey o) {
+        int c = Long.compare(o.createdAt, createdAt);
+        if (c != 0) return c;
+        return id.compareTo(o.id);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) return true;
+        if (!(obj instanceof EventStoreKey)) return false;
+        EventStoreKey k = (EventStoreKey) obj;
+        return k.createdAt == createdAt && k.id.equals(id);
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+}
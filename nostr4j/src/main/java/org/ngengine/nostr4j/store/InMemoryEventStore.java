@@ -31,27 +31,28 @@
 
 package org.ngengine.nostr4j.store;
 
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import org.ngengine.nostr4j.NostrFilter;
 import org.ngengine.nostr4j.event.SignedNostrEvent;
 
+/**
+ * An unbounded in-memory event store.
+ * <p>
+ * Events are kept in a concurrent skip list ordered newest first. Writes are lock-free and reads iterate a
+ * weakly consistent view, so readers never block writers (or each other). Filters bounded by since/until
+ * only visit the matching time range.
+ * </p>
+ */
 public class InMemoryEventStore implements EventStore {
 
-    // TODO: consider replacing with non-blocking data structures
-    private final PriorityQueue<SignedNostrEvent> eventQueue = new PriorityQueue<>((e1, e2) -> {
-        Instant createdAt1 = e1.getCreatedAt();
-        Instant createdAt2 = e2.getCreatedAt();
-        return createdAt2.compareTo(createdAt1);
-    });
+    private final ConcurrentSkipListMap<EventStoreKey, SignedNostrEvent> events = new ConcurrentSkipListMap<>();
 
     @Override
     public void addEvent(SignedNostrEvent event) {
-        synchronized (eventQueue) {
-            eventQueue.offer(event);
-        }
+        events.putIfAbsent(EventStoreKey.of(event), event);
     }
 
     @Override
@@ -60,16 +61,37 @@ public class InMemoryEventStore implements EventStore {
             results = new ArrayList<>();
         }
         for (NostrFilter filter : filters) {
+            Integer limit = filter.getLimit();
             int count = 0;
-            synchronized (eventQueue) {
-                for (SignedNostrEvent event : eventQueue) {
-                    if (filter.matches(event, count)) {
-                        results.add(event);
-                        count++;
-                    }
+            for (SignedNostrEvent event : range(events, filter).values()) {
+                if (limit != null && count >= limit) break;
+                if (filter.matches(event, count)) {
+                    results.add(event);
+                    count++;
                 }
             }
         }
         return results;
     }
+
+    /**
+     * Number of events in the store.
+     */
+    public int size() {
+        return events.size();
+    }
+
+    static <V> ConcurrentNavigableMap<EventStoreKey, V> range(ConcurrentSkipListMap<EventStoreKey, V> map, NostrFilter filter) {
+        EventStoreKey from = EventStoreKey.lowerBound(filter);
+        EventStoreKey to = EventStoreKey.upperBound(filter);
+        if (from != null && to != null) {
+            if (from.compareTo(to) > 0) return map.subMap(from, false, from, false);
+            return map.subMap(from, true, to, true);
+        } else if (from != null) {
+            return map.tailMap(from, true);
+        } else if (to != null) {
+            return map.headMap(to, true);
+        }
+        return map;
+    }
 }
@@ -32,32 +32,32 @@
 package org.ngengine.nostr4j.store;
 
 import java.lang.ref.WeakReference;
-import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
 import org.ngengine.nostr4j.NostrFilter;
 import org.ngengine.nostr4j.event.SignedNostrEvent;
 
+/**
+ * An in-memory event store that only holds weak references to its events.
+ * <p>
+ * Same ordering and concurrency guarantees as {@link InMemoryEventStore}: writes are lock-free and reads
+ * never block writers. Cleared references are pruned lazily by readers.
+ * </p>
+ */
 public class WeakInMemoryEventStore implements EventStore {
 
-    // TODO: consider replacing with non-blocking data structures
-    private final PriorityQueue<WeakReference<SignedNostrEvent>> eventQueue = new PriorityQueue<>((we1, we2) -> {
-        SignedNostrEvent e1 = we1.get();
-        SignedNostrEvent e2 = we2.get();
-        if (e1 == null || e2 == null) {
-            return e1 == null ? 1 : -1; // Nulls are considered less than non-nulls
-        }
-        Instant createdAt1 = e1.getCreatedAt();
-        Instant createdAt2 = e2.getCreatedAt();
-        return createdAt2.compareTo(createdAt1);
-    });
+    private final ConcurrentSkipListMap<EventStoreKey, WeakReference<SignedNostrEvent>> events = new ConcurrentSkipListMap<>();
 
     @Override
     public void addEvent(SignedNostrEvent event) {
-        synchronized (eventQueue) {
-            eventQueue.offer(new WeakReference<SignedNostrEvent>(event));
+        EventStoreKey key = EventStoreKey.of(event);
+        WeakReference<SignedNostrEvent> ref = new WeakReference<>(event);
+        WeakReference<SignedNostrEvent> old = events.putIfAbsent(key, ref);
+        if (old != null && old.get() == null) {
+            // the previous instance was collected, replace it with the new one
+            events.replace(key, old, ref);
         }
     }
 
@@ -67,20 +67,20 @@ public class WeakInMemoryEventStore implements EventStore {
             results = new ArrayList<>();
         }
         for (NostrFilter filter : filters) {
+            Integer limit = filter.getLimit();
             int count = 0;
-            synchronized (eventQueue) {
-                Iterator<WeakReference<SignedNostrEvent>> iterator = eventQueue.iterator();
-                while (iterator.hasNext()) {
-                    WeakReference<SignedNostrEvent> weakRef = iterator.next();
-                    SignedNostrEvent event = weakRef.get();
-                    if (event == null) {
-                        iterator.remove(); // Clean up null references
-                        continue;
-                    }
-                    if (filter.matches(event, count)) {
-                        results.add(event);
-                        count++;
-                    }
+            for (Map.Entry<EventStoreKey, WeakReference<SignedNostrEvent>> entry : InMemoryEventStore
+                .range(events, filter)
+                .entrySet()) {
+                if (limit != null && count >= limit) break;
+                SignedNostrEvent event = entry.getValue().get();
+                if (event == null) {
+                    events.remove(entry.getKey(), entry.getValue()); // Clean up null references
+                    continue;
+                }
+                if (filter.matches(event, count)) {
+                    results.add(event);
+                    count++;
                 }
             }
         }
@@ -0,0 +1,197 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.utils;
+
+/**
+ * Table driven bech32 codec for the fixed size payloads used by NIP-19 (keys and event ids).
+ * <p>
+ * Unlike the generic bech32 library it works directly on byte arrays and chars, without
+ * intermediate buffers.
+ * </p>
+ */
+public final class Bech32Codec {
+
+    private static final char[] CHARSET = "qpzry9x8gf2tvdw0s3jn54khce6mua7l".toCharArray();
+    private static final byte[] CHARSET_REV = new byte[128];
+    private static final int[] GENERATOR = { 0x3b6a57b2, 0x26508e6d, 0x1ea119fa, 0x3d4233dd, 0x2a1462b3 };
+
+    static {
+        for (int i = 0; i < CHARSET_REV.length; i++) {
+            CHARSET_REV[i] = -1;
+        }
+        for (int i = 0; i < CHARSET.length; i++) {
+            CHARSET_REV[CHARSET[i]] = (byte) i;
+            CHARSET_REV[Character.toUpperCase(CHARSET[i])] = (byte) i;
+        }
+    }
+
+    private Bech32Codec() {}
+
+    private static int polymodStep(int chk, int v) {
+        int b = chk >>> 25;
+        chk = ((chk & 0x1ffffff) << 5) ^ v;
+        for (int i = 0; i < 5; i++) {
+            if (((b >>> i) & 1) != 0) {
+                chk ^= GENERATOR[i];
+            }
+        }
+        return chk;
+    }
+
+    private static int hrpPolymod(CharSequence hrp) {
+        int chk = 1;
+        int len = hrp.length();
+        for (int i = 0; i < len; i++) {
+            chk = polymodStep(chk, Character.toLowerCase(hrp.charAt(i)) >>> 5);
+        }
+        chk = polymodStep(chk, 0);
+        for (int i = 0; i < len; i++) {
+            chk = polymodStep(chk, Character.toLowerCase(hrp.charAt(i)) & 31);
+        }
+        return chk;
+    }
+
+    /**
+     * Encodes len bytes of data starting at off with the given human readable part.
+     *
+     * @param hrp the lowercase human readable part (eg. npub)
+     * @param data the payload
+     * @param off offset of the payload in data
+     * @param len length of the payload
+     * @return the bech32 string
+     */
+    public static String encode(String hrp, byte[] data, int off, int len) {
+        int words = (len * 8 + 4) / 5;
+        int hrpLen = hrp.length();
+        char[] out = new char[hrpLen + 1 + words + 6];
+        hrp.getChars(0, hrpLen, out, 0);
+        out[hrpLen] = '1';
+        int p = hrpLen + 1;
+
+        int chk = hrpPolymod(hrp);
+        int acc = 0;
+        int bits = 0;
+        for (int i = 0; i < len; i++) {
+            acc = (acc << 8) | (data[off + i] & 0xff);
+            bits += 8;
+            while (bits >= 5) {
+                bits -= 5;
+                int v = (acc >>> bits) & 31;
+                chk = polymodStep(chk, v);
+                out[p++] = CHARSET[v];
+            }
+        }
+        if (bits > 0) {
+            int v = (acc << (5 - bits)) & 31;
+            chk = polymodStep(chk, v);
+            out[p++] = CHARSET[v];
+        }
+        for (int i = 0; i < 6; i++) {
+            chk = polymodStep(chk, 0);
+        }
+        chk ^= 1;
+        for (int i = 0; i < 6; i++) {
+            out[p++] = CHARSET[(chk >>> (5 * (5 - i))) & 31];
+        }
+        return new String(out);
+    }
+
+    /**
+     * Decodes a bech32 string with the expected human readable part into dst.
+     *
+     * @param hrp the expected lowercase human readable part (eg. npub)
+     * @param bech32 the bech32 string
+     * @param dst the destination array
+     * @param off offset in dst
+     * @param len exact expected payload length
+     * @throws IllegalArgumentException if the string is not a valid bech32 string for the given hrp and
+     *     payload length
+     */
+    public static void decode(String hrp, CharSequence bech32, byte[] dst, int off, int len) {
+        int hrpLen = hrp.length();
+        int words = (len * 8 + 4) / 5;
+        if (bech32.length() != hrpLen + 1 + words + 6) {
+            throw new IllegalArgumentException("Invalid bech32 length");
+        }
+        if (bech32.charAt(hrpLen) != '1') {
+            throw new IllegalArgumentException("Invalid bech32 separator");
+        }
+        boolean lower = false;
+        boolean upper = false;
+        for (int i = 0; i < hrpLen; i++) {
+            char c = bech32.charAt(i);
+            if (Character.toLowerCase(c) != hrp.charAt(i)) {
+                throw new IllegalArgumentException("Invalid bech32 prefix, expected " + hrp);
+            }
+            if (c >= 'a' && c <= 'z') {
+                lower = true;
+            } else if (c >= 'A' && c <= 'Z') {
+                upper = true;
+            }
+        }
+
+        int chk = hrpPolymod(hrp);
+        int acc = 0;
+        int bits = 0;
+        int p = off;
+        int end = bech32.length();
+        for (int i = hrpLen + 1; i < end; i++) {
+            char c = bech32.charAt(i);
+            int v = c < 128 ? CHARSET_REV[c] : -1;
+            if (v < 0) {
+                throw new IllegalArgumentException("Invalid bech32 character");
+            }
+            if (c >= 'a' && c <= 'z') {
+                lower = true;
+            } else if (c >= 'A' && c <= 'Z') {
+                upper = true;
+            }
+            chk = polymodStep(chk, v);
+            if (i < end - 6) {
+                acc = (acc << 5) | v;
+                bits += 5;
+                if (bits >= 8) {
+                    bits -= 8;
+                    dst[p++] = (byte) (acc >>> bits);
+                }
+            }
+        }
+        if (lower && upper) {
+            throw new IllegalArgumentException("Mixed case bech32 string");
+        }
+        if (chk != 1) {
+            throw new IllegalArgumentException("Invalid bech32 checksum");
+        }
+        if (bits >= 5 || (acc & ((1 << bits) - 1)) != 0) {
+            throw new IllegalArgumentException("Invalid bech32 padding");
+        }
+    }
+}
@@ -0,0 +1,350 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.ngengine.platform.AsyncExecutor;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEPlatform;
+
+/**
+ * Sized pool for the CPU bound crypto work of the library (NIP-44, NIP-04, NIP-49, signature
+ * verification).
+ * <p>
+ * Tasks are queued by {@link Priority} and pulled by whichever worker is free, so a worker never
+ * idles while another one has a backlog. Queued interactive tasks always run before normal and bulk
+ * ones, and when the pool has more than one worker, non interactive tasks can never occupy all of
+ * them: a large backfill can't stall an RPC queued behind it.
+ * </p>
+ * <p>
+ * Workers are platform executors, created lazily up to the pool size.
+ * </p>
+ * thread-safe
+ */
+public final class CryptoExecutor {
+
+    private static final Logger logger = Logger.getLogger(CryptoExecutor.class.getName());
+
+    public enum Priority {
+        /** Latency sensitive single operations: RPCs, payments, direct messages, realtime data */
+        INTERACTIVE,
+        /** Background work that should still make steady progress */
+        NORMAL,
+        /** Large batches, eg. inbox backfills */
+        BULK,
+    }
+
+    /**
+     * A task working on the index range [from, to) of a batch.
+     */
+    public interface RangeTask {
+        void run(int from, int to) throws Exception;
+    }
+
+    // more chunks than workers, so that a worker that is done early can pick up more work
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private static volatile CryptoExecutor defaultExecutor;
+
+    private final int size;
+    private final int maxBackgroundWorkers;
+    private final Queue<Runnable>[] queues;
+    private final AtomicInteger[] queueDepths;
+    private final Queue<AsyncExecutor> idleWorkers;
+    private final AtomicInteger runningWorkers = new AtomicInteger();
+    private final AtomicInteger backgroundRunning = new AtomicInteger();
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Returns the executor shared by the library, created on first use with
+     * {@link #defaultSize()} workers.
+     */
+    public static CryptoExecutor getDefault() {
+        CryptoExecutor executor = defaultExecutor;
+        if (executor == null) {
+            synchronized (CryptoExecutor.class) {
+                executor = defaultExecutor;
+                if (executor == null) {
+                    executor = new CryptoExecutor(defaultSize());
+                    defaultExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Replace the executor shared by the library.
+     * The previous executor is not closed, tasks already queued on it will still complete.
+     *
+     * @return the previous executor, or null if none was created yet
+     */
+    public static CryptoExecutor setDefault(CryptoExecutor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        synchronized (CryptoExecutor.class) {
+            CryptoExecutor previous = defaultExecutor;
+            defaultExecutor = executor;
+            return previous;
+        }
+    }
+
+    /**
+     * The default pool size: one worker per core, at least two so that interactive work always has
+     * a free worker.
+     */
+    public static int defaultSize() {
+        return Math.max(2, Runtime.getRuntime().availableProcessors());
+    }
+
+    @SuppressWarnings("unchecked")
+    public CryptoExecutor(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be >= 1");
+        }
+        this.size = size;
+        this.maxBackgroundWorkers = size > 1 ? size - 1 : 1;
+        Priority[] priorities = Priority.values();
+        this.queues = new Queue[priorities.length];
+        this.queueDepths = new AtomicInteger[priorities.length];
+        for (int i = 0; i < priorities.length; i++) {
+            this.queues[i] = NGEPlatform.get().newConcurrentQueue(Runnable.class);
+            this.queueDepths[i] = new AtomicInteger();
+        }
+        this.idleWorkers = NGEPlatform.get().newConcurrentQueue(AsyncExecutor.class);
+    }
+
+    /**
+     * Run a task on the pool.
+     *
+     * @param priority the priority class of the task
+     * @param task the task
+     * @return an async task completed with the result of the task
+     */
+    public <T> AsyncTask<T> run(Priority priority, Callable<T> task) {
+        if (closed.get()) {
+            return AsyncTask.failed(new IllegalStateException("CryptoExecutor is closed"));
+        }
+        return NGEPlatform
+            .get()
+            .wrapPromise((res, rej) -> {
+                int index = priority.ordinal();
+                queueDepths[index].incrementAndGet();
+                queues[index].add(() -> {
+                    try {
+                        res.accept(task.call());
+                    } catch (Throwable e) {
+                        rej.accept(e);
+                    }
+                });
+                schedule();
+            });
+    }
+
+    /**
+     * Split a batch of {@code count} items in chunks of at least {@code minChunkSize} items and run
+     * them in parallel.
+     *
+     * @param priority the priority class of the chunks
+     * @param count the number of items in the batch
+     * @param minChunkSize the minimum number of items worth a chunk of its own
+     * @param task the task to run on every chunk
+     * @return an async task completed when all the chunks are done, or failed with the first error
+     */
+    public AsyncTask<List<Void>> runChunked(Priority priority, int count, int minChunkSize, RangeTask task) {
+        if (count == 0) {
+            return AsyncTask.completed(new ArrayList<>());
+        }
+        int chunks = Math.max(1, Math.min(size * CHUNKS_PER_WORKER, (count + minChunkSize - 1) / minChunkSize));
+        int chunk = Math.max(1, (count + chunks - 1) / chunks);
+        List<AsyncTask<Void>> tasks = new ArrayList<>(chunks);
+        for (int from = 0; from < count; from += chunk) {
+            int start = from;
+            int end = Math.min(count, from + chunk);
+            tasks.add(
+                run(priority, () -> {
+                    task.run(start, end);
+                    return null;
+                })
+            );
+        }
+        return AsyncTask.all(tasks);
+    }
+
+    /**
+     * Returns the number of tasks waiting in the given priority class.
+     */
+    public int getQueueDepth(Priority priority) {
+        return queueDepths[priority.ordinal()].get();
+    }
+
+    /**
+     * Returns the number of tasks waiting in all the priority classes.
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (AtomicInteger d : queueDepths) {
+            depth += d.get();
+        }
+        return depth;
+    }
+
+    public int getActiveWorkers() {
+        return runningWorkers.get();
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks.get();
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Stop accepting new tasks and release the workers once the queues are drained.
+     */
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        while (hasRunnableTask()) {
+            int running = runningWorkers.get();
+            if (running >= size) {
+                return;
+            }
+            if (runningWorkers.compareAndSet(running, running + 1)) {
+                AsyncExecutor worker = idleWorkers.poll();
+                if (worker == null) {
+                    worker = NGEPlatform.get().newAsyncExecutor(CryptoExecutor.class);
+                }
+                AsyncExecutor self = worker;
+                worker.run(() -> {
+                    drain(self);
+                    return null;
+                });
+                return;
+            }
+        }
+        if (closed.get() && runningWorkers.get() == 0) {
+            AsyncExecutor worker;
+            while ((worker = idleWorkers.poll()) != null) {
+                worker.close();
+            }
+        }
+    }
+
+    private void drain(AsyncExecutor worker) {
+        try {
+            Runnable task;
+            while ((task = poll()) != null) {
+                task.run();
+                completedTasks.incrementAndGet();
+            }
+        } catch (Throwable e) {
+            logger.log(Level.WARNING, "Unexpected error in crypto worker", e);
+        } finally {
+            idleWorkers.add(worker);
+            runningWorkers.decrementAndGet();
+            // a task might have been queued while this worker was stopping
+            schedule();
+        }
+    }
+
+    private Runnable poll() {
+        Runnable task = poll(Priority.INTERACTIVE.ordinal());
+        if (task != null) {
+            return task;
+        }
+        for (int i = Priority.INTERACTIVE.ordinal() + 1; i < queues.length; i++) {
+            while (!queues[i].isEmpty()) {
+                int running = backgroundRunning.get();
+                if (running >= maxBackgroundWorkers) {
+                    // leave this worker free for interactive work
+                    return null;
+                }
+                if (!backgroundRunning.compareAndSet(running, running + 1)) {
+                    continue;
+                }
+                task = poll(i);
+                if (task == null) {
+                    backgroundRunning.decrementAndGet();
+                    continue;
+                }
+                Runnable background = task;
+                return () -> {
+                    try {
+                        background.run();
+                    } finally {
+                        backgroundRunning.decrementAndGet();
+                    }
+                };
+            }
+        }
+        return null;
+    }
+
+    private Runnable poll(int index) {
+        Runnable task = queues[index].poll();
+        if (task != null) {
+            queueDepths[index].decrementAndGet();
+        }
+        return task;
+    }
+
+    private boolean hasRunnableTask() {
+        if (!queues[Priority.INTERACTIVE.ordinal()].isEmpty()) {
+            return true;
+        }
+        if (backgroundRunning.get() >= maxBackgroundWorkers) {
+            return false;
+        }
+        for (int i = Priority.INTERACTIVE.ordinal() + 1; i < queues.length; i++) {
+            if (!queues[i].isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Table driven hex codec.
+ * <p>
+ * Decoding writes into a caller provided array and never allocates, encoding allocates only the
+ * resulting string.
+ * </p>
+ */
+public final class HexCodec {
+
+    private static final char[] ENCODE = "0123456789abcdef".toCharArray();
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        for (int i = 0; i < DECODE.length; i++) {
+            DECODE[i] = -1;
+        }
+        for (int i = 0; i < 10; i++) {
+            DECODE['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            DECODE['a' + i] = (byte) (10 + i);
+            DECODE['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private HexCodec() {}
+
+    /**
+     * Encodes len bytes of src starting at off as a lowercase hex string.
+     */
+    public static String encode(byte[] src, int off, int len) {
+        char[] out = new char[len * 2];
+        for (int i = 0; i < len; i++) {
+            int v = src[off + i] & 0xff;
+            out[i * 2] = ENCODE[v >>> 4];
+            out[i * 2 + 1] = ENCODE[v & 0x0f];
+        }
+        return new String(out);
+    }
+
+    /**
+     * Encodes the remaining bytes of the buffer as a lowercase hex string, without changing its position.
+     */
+    public static String encode(ByteBuffer src) {
+        int pos = src.position();
+        int len = src.remaining();
+        char[] out = new char[len * 2];
+        for (int i = 0; i < len; i++) {
+            int v = src.get(pos + i) & 0xff;
+            out[i * 2] = ENCODE[v >>> 4];
+            out[i * 2 + 1] = ENCODE[v & 0x0f];
+        }
+        return new String(out);
+    }
+
+    /**
+     * Decodes the hex string into dst starting at off.
+     *
+     * @param hex the hex string, its length must be even
+     * @param dst the destination array, must have room for {@code hex.length() / 2} bytes
+     * @param off the offset in dst
+     * @return true if the string was valid hex, false otherwise (dst content is then undefined)
+     */
+    public static boolean decode(CharSequence hex, byte[] dst, int off) {
+        int len = hex.length();
+        if ((len & 1) != 0) {
+            return false;
+        }
+        for (int i = 0; i < len; i += 2) {
+            char c1 = hex.charAt(i);
+            char c2 = hex.charAt(i + 1);
+            if (c1 >= 128 || c2 >= 128) {
+                return false;
+            }
+            int hi = DECODE[c1];
+            int lo = DECODE[c2];
+            if ((hi | lo) < 0) {
+                return false;
+            }
+            dst[off + i / 2] = (byte) ((hi << 4) | lo);
+        }
+        return true;
+    }
+}
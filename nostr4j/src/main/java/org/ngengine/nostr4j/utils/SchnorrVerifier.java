@@ -0,0 +1,258 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.utils;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.platform.NGEUtils;
+
+/**
+ * BIP-340 signature verifier that keeps a verification context for the most recently used public keys.
+ * <p>
+ * Most of the events verified by a client or a TURN room are signed by a handful of keys. The context
+ * of a key holds its native x-only buffer, ready to be handed to the platform, and the result of lifting
+ * the key to a curve point, so invalid keys are rejected without calling the platform. It also remembers
+ * the latest signatures verified for the key, so the same event received from several relays is
+ * verified only once. Contexts are kept in a bounded LRU.
+ * </p>
+ * thread-safe
+ */
+public final class SchnorrVerifier {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_SIGNATURES_PER_KEY = 64;
+
+    // secp256k1 field prime
+    private static final BigInteger P = new BigInteger(
+        "fffffffffffffffffffffffffffffffffffffffffffffffffffffffefffffc2f",
+        16
+    );
+    private static final BigInteger SQRT_EXPONENT = P.add(BigInteger.ONE).shiftRight(2);
+    private static final BigInteger SEVEN = BigInteger.valueOf(7);
+
+    private static volatile SchnorrVerifier defaultVerifier = new SchnorrVerifier();
+
+    private static final class KeyContext {
+
+        final ByteBuffer key;
+        final boolean onCurve;
+        final LinkedHashMap<String, String> verified;
+
+        KeyContext(ByteBuffer key, boolean onCurve, int signatures) {
+            this.key = key;
+            this.onCurve = onCurve;
+            this.verified =
+                new LinkedHashMap<String, String>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                        return size() > signatures;
+                    }
+                };
+        }
+    }
+
+    private final LinkedHashMap<NostrPublicKey, KeyContext> contexts = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final int signaturesPerKey;
+    private int capacity;
+
+    public static SchnorrVerifier getDefault() {
+        return defaultVerifier;
+    }
+
+    /**
+     * Replace the verifier used by {@link org.ngengine.nostr4j.event.SignedNostrEvent#verify()}.
+     * @return the previous default verifier
+     */
+    public static SchnorrVerifier setDefault(SchnorrVerifier verifier) {
+        if (verifier == null) {
+            throw new IllegalArgumentException("verifier cannot be null");
+        }
+        SchnorrVerifier old = defaultVerifier;
+        defaultVerifier = verifier;
+        return old;
+    }
+
+    public SchnorrVerifier() {
+        this(DEFAULT_CAPACITY, DEFAULT_SIGNATURES_PER_KEY);
+    }
+
+    /**
+     * @param capacity maximum number of keys with a cached context, 0 disables the cache
+     * @param signaturesPerKey how many verified signatures are remembered for every key, 0 disables it
+     */
+    public SchnorrVerifier(int capacity, int signaturesPerKey) {
+        if (signaturesPerKey < 0) {
+            throw new IllegalArgumentException("signaturesPerKey must be >= 0");
+        }
+        this.signaturesPerKey = signaturesPerKey;
+        setCapacity(capacity);
+    }
+
+    /**
+     * Set the maximum number of keys with a cached context.
+     * Shrinking the capacity evicts the least recently used keys.
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be >= 0");
+        }
+        synchronized (contexts) {
+            this.capacity = capacity;
+            trim();
+        }
+    }
+
+    public int getCapacity() {
+        synchronized (contexts) {
+            return capacity;
+        }
+    }
+
+    /**
+     * Verify a BIP-340 signature.
+     * @param id the hex encoded 32 bytes message, usually the event id
+     * @param signature the hex encoded 64 bytes signature
+     * @param pubkey the signer public key
+     * @return true if the signature is valid
+     */
+    public boolean verify(String id, String signature, NostrPublicKey pubkey) throws Exception {
+        if (signature == null || signature.length() != 128) {
+            return false;
+        }
+        KeyContext ctx = getContext(pubkey);
+        if (!ctx.onCurve) {
+            return false;
+        }
+        synchronized (ctx) {
+            if (signature.equals(ctx.verified.get(id))) {
+                return true;
+            }
+        }
+        boolean valid = NGEUtils.getPlatform().schnorrVerify(id, signature, ctx.key.duplicate());
+        if (valid && signaturesPerKey > 0) {
+            synchronized (ctx) {
+                ctx.verified.put(id, signature);
+            }
+        }
+        return valid;
+    }
+
+    private KeyContext getContext(NostrPublicKey pubkey) {
+        synchronized (contexts) {
+            KeyContext ctx = contexts.get(pubkey);
+            if (ctx != null) {
+                hits.incrementAndGet();
+                return ctx;
+            }
+        }
+        misses.incrementAndGet();
+        // computed outside of the lock, two threads might lift the same key concurrently, that's fine
+        ByteBuffer key = pubkey.asReadOnlyBuffer();
+        KeyContext ctx = new KeyContext(key, isOnCurve(key), signaturesPerKey);
+        synchronized (contexts) {
+            if (capacity > 0) {
+                contexts.put(pubkey, ctx);
+                trim();
+            }
+        }
+        return ctx;
+    }
+
+    /**
+     * BIP-340 lift_x: true if x is a field element and x^3 + 7 has a square root modulo p.
+     */
+    static boolean isOnCurve(ByteBuffer xOnly) {
+        if (xOnly.remaining() != 32) return false;
+        byte[] raw = new byte[32];
+        xOnly.duplicate().get(raw);
+        BigInteger x = new BigInteger(1, raw);
+        if (x.compareTo(P) >= 0) return false;
+        BigInteger c = x.modPow(BigInteger.valueOf(3), P).add(SEVEN).mod(P);
+        BigInteger y = c.modPow(SQRT_EXPONENT, P);
+        return y.multiply(y).mod(P).equals(c);
+    }
+
+    /**
+     * Drop the cached context of a key.
+     */
+    public void invalidate(NostrPublicKey pubkey) {
+        synchronized (contexts) {
+            contexts.remove(pubkey);
+        }
+    }
+
+    public void clear() {
+        synchronized (contexts) {
+            contexts.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (contexts) {
+            return contexts.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public void resetMetrics() {
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+    }
+
+    private void trim() {
+        Iterator<KeyContext> it = contexts.values().iterator();
+        while (contexts.size() > capacity && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.utils;
+
+/**
+ * Minimal portable SHA-256 block function.
+ * <p>
+ * This exists for hot loops that hash many messages sharing the same prefix (eg. proof of work
+ * mining, HMAC with a fixed key): the prefix can be compressed once and its intermediate state
+ * (midstate) reused, which the one-shot platform hash can't do. Everything else should use the
+ * platform sha256.
+ * </p>
+ */
+public final class Sha256 {
+
+    public static final int BLOCK_SIZE = 64;
+
+    private static final int[] IV = {
+        0x6a09e667,
+        0xbb67ae85,
+        0x3c6ef372,
+        0xa54ff53a,
+        0x510e527f,
+        0x9b05688c,
+        0x1f83d9ab,
+        0x5be0cd19,
+    };
+
+    private static final int[] K = {
+        0x428a2f98,
+        0x71374491,
+        0xb5c0fbcf,
+        0xe9b5dba5,
+        0x3956c25b,
+        0x59f111f1,
+        0x923f82a4,
+        0xab1c5ed5,
+        0xd807aa98,
+        0x12835b01,
+        0x243185be,
+        0x550c7dc3,
+        0x72be5d74,
+        0x80deb1fe,
+        0x9bdc06a7,
+        0xc19bf174,
+        0xe49b69c1,
+        0xefbe4786,
+        0x0fc19dc6,
+        0x240ca1cc,
+        0x2de92c6f,
+        0x4a7484aa,
+        0x5cb0a9dc,
+        0x76f988da,
+        0x983e5152,
+        0xa831c66d,
+        0xb00327c8,
+        0xbf597fc7,
+        0xc6e00bf3,
+        0xd5a79147,
+        0x06ca6351,
+        0x14292967,
+        0x27b70a85,
+        0x2e1b2138,
+        0x4d2c6dfc,
+        0x53380d13,
+        0x650a7354,
+        0x766a0abb,
+        0x81c2c92e,
+        0x92722c85,
+        0xa2bfe8a1,
+        0xa81a664b,
+        0xc24b8b70,
+        0xc76c51a3,
+        0xd192e819,
+        0xd6990624,
+        0xf40e3585,
+        0x106aa070,
+        0x19a4c116,
+        0x1e376c08,
+        0x2748774c,
+        0x34b0bcb5,
+        0x391c0cb3,
+        0x4ed8aa4a,
+        0x5b9cca4f,
+        0x682e6ff3,
+        0x748f82ee,
+        0x78a5636f,
+        0x84c87814,
+        0x8cc70208,
+        0x90befffa,
+        0xa4506ceb,
+        0xbef9a3f7,
+        0xc67178f2,
+    };
+
+    private Sha256() {}
+
+    /**
+     * Returns a new state initialized with the SHA-256 initial hash value.
+     */
+    public static int[] newState() {
+        return IV.clone();
+    }
+
+    /**
+     * Returns the size of the padded message for a message of the given length.
+     */
+    public static int paddedLength(int messageLength) {
+        return ((messageLength + 8) / BLOCK_SIZE + 1) * BLOCK_SIZE;
+    }
+
+    /**
+     * Writes the SHA-256 padding for a message of {@code totalLength} bytes into {@code buf}, the
+     * last message byte being at {@code end - 1}. The buffer must have room up to the next block
+     * boundary of the padded message (see {@link #paddedLength(int)}).
+     *
+     * @param buf the buffer holding the tail of the message
+     * @param end the offset right after the last message byte in buf
+     * @param totalLength the length of the whole message, including bytes that are not in buf
+     * @return the offset right after the padding
+     */
+    public static int pad(byte[] buf, int end, long totalLength) {
+        int rem = (int) (totalLength % BLOCK_SIZE);
+        int padded = end + paddedLength(rem) - rem;
+        buf[end] = (byte) 0x80;
+        for (int i = end + 1; i < padded - 8; i++) {
+            buf[i] = 0;
+        }
+        long bits = totalLength * 8;
+        for (int i = 0; i < 8; i++) {
+            buf[padded - 1 - i] = (byte) (bits >>> (8 * i));
+        }
+        return padded;
+    }
+
+    /**
+     * Compresses {@code blocks} consecutive 64 bytes blocks into the state.
+     *
+     * @param state the 8 words state, updated in place
+     * @param data the input
+     * @param off offset of the first block
+     * @param blocks number of blocks
+     * @param w a 64 ints scratch array
+     */
+    public static void compress(int[] state, byte[] data, int off, int blocks, int[] w) {
+        for (int b = 0; b < blocks; b++, off += BLOCK_SIZE) {
+            for (int i = 0; i < 16; i++) {
+                int p = off + i * 4;
+                w[i] = (data[p] << 24) | ((data[p + 1] & 0xff) << 16) | ((data[p + 2] & 0xff) << 8) | (data[p + 3] & 0xff);
+            }
+            for (int i = 16; i < 64; i++) {
+                int x = w[i - 15];
+                int y = w[i - 2];
+                int s0 = Integer.rotateRight(x, 7) ^ Integer.rotateRight(x, 18) ^ (x >>> 3);
+                int s1 = Integer.rotateRight(y, 17) ^ Integer.rotateRight(y, 19) ^ (y >>> 10);
+                w[i] = w[i - 16] + s0 + w[i - 7] + s1;
+            }
+
+            int a = state[0];
+            int bb = state[1];
+            int c = state[2];
+            int d = state[3];
+            int e = state[4];
+            int f = state[5];
+            int g = state[6];
+            int h = state[7];
+
+            for (int i = 0; i < 64; i++) {
+                int s1 = Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25);
+                int ch = (e & f) ^ (~e & g);
+                int t1 = h + s1 + ch + K[i] + w[i];
+                int s0 = Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22);
+                int maj = (a & bb) ^ (a & c) ^ (bb & c);
+                int t2 = s0 + maj;
+                h = g;
+                g = f;
+                f = e;
+                e = d + t1;
+                d = c;
+                c = bb;
+                bb = a;
+                a = t1 + t2;
+            }
+
+            state[0] += a;
+            state[1] += bb;
+            state[2] += c;
+            state[3] += d;
+            state[4] += e;
+            state[5] += f;
+            state[6] += g;
+            state[7] += h;
+        }
+    }
+
+    /**
+     * Counts the leading zero bits of the digest held in the given state.
+     */
+    public static int countLeadingZeroBits(int[] state) {
+        int count = 0;
+        for (int i = 0; i < 8; i++) {
+            int v = state[i];
+            if (v != 0) {
+                return count + Integer.numberOfLeadingZeros(v);
+            }
+            count += 32;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the digest held in the given state as big endian bytes.
+     */
+    public static byte[] toBytes(int[] state) {
+        byte[] out = new byte[32];
+        toBytes(state, out, 0);
+        return out;
+    }
+
+    /**
+     * Writes the digest held in the given state as big endian bytes into {@code out} at {@code off}.
+     */
+    public static void toBytes(int[] state, byte[] out, int off) {
+        for (int i = 0; i < 8; i++) {
+            out[off + i * 4] = (byte) (state[i] >>> 24);
+            out[off + i * 4 + 1] = (byte) (state[i] >>> 16);
+            out[off + i * 4 + 2] = (byte) (state[i] >>> 8);
+            out[off + i * 4 + 3] = (byte) state[i];
+        }
+    }
+}
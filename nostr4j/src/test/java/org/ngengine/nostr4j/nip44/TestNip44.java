@@ -40,6 +40,8 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.ngengine.nostr4j.keypair.NostrPrivateKey;
@@ -228,6 +230,177 @@ public class TestNip44 {
         assertArrayEquals(plaintext, decrypted);
     }
 
+    @Test
+    public void testCodecReusesScratchAcrossVectors() throws Exception {
+        JsonArray vectors = testVectors.getAsJsonObject("valid").getAsJsonArray("encrypt_decrypt");
+        Nip44Codec codec = new Nip44Codec();
+        StringBuilder base64 = new StringBuilder();
+        byte[] out = new byte[70000];
+
+        for (JsonElement element : vectors) {
+            JsonObject vector = element.getAsJsonObject();
+            byte[] conversationKey = hexToBytes(vector.get("conversation_key").getAsString());
+            byte[] nonce = hexToBytes(vector.get("nonce").getAsString());
+            String plaintext = vector.get("plaintext").getAsString();
+            String expectedPayload = vector.get("payload").getAsString();
+
+            base64.setLength(0);
+            codec.encryptBase64(plaintext, conversationKey, nonce, base64);
+            assertEquals(expectedPayload, base64.toString());
+            assertEquals(plaintext, codec.decryptBase64(expectedPayload, conversationKey));
+
+            // binary payload written at an offset of a caller provided buffer
+            byte[] plaintextBytes = plaintext.getBytes(StandardCharsets.UTF_8);
+            int written = codec.encrypt(plaintextBytes, 0, plaintextBytes.length, conversationKey, nonce, out, 3);
+            assertEquals(Nip44Codec.encryptedLength(plaintextBytes.length), written);
+            byte[] expected = Nip44.encryptSyncBinary(plaintextBytes, conversationKey, nonce);
+            assertArrayEquals(expected, Arrays.copyOfRange(out, 3, 3 + written));
+
+            byte[] decrypted = new byte[Nip44Codec.maxDecryptedLength(written)];
+            int decryptedLength = codec.decrypt(out, 3, written, conversationKey, decrypted, 0);
+            assertArrayEquals(plaintextBytes, Arrays.copyOf(decrypted, decryptedLength));
+        }
+    }
+
+    @Test
+    public void testCodecRejectsTamperedPayload() {
+        Nip44Codec codec = new Nip44Codec();
+        byte[] conversationKey = new byte[32];
+        byte[] payload = codec.encrypt("tamper".getBytes(StandardCharsets.UTF_8), conversationKey, null);
+        payload[40] ^= 1;
+        try {
+            codec.decrypt(payload, conversationKey);
+            fail("Expected tampered payload to be rejected");
+        } catch (SecurityException e) {
+            assertEquals("invalid MAC - message authentication failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCodecWipeLeavesNoKeyMaterial() {
+        Nip44Codec codec = new Nip44Codec();
+        byte[] conversationKey = new byte[32];
+        byte[] nonce = new byte[32];
+        for (int i = 0; i < 32; i++) {
+            conversationKey[i] = (byte) (i + 1);
+            nonce[i] = (byte) (0xff - i);
+        }
+        String plaintext = "secret message";
+
+        String payload = codec.encryptBase64(plaintext, conversationKey, nonce);
+        assertEquals(plaintext, codec.decryptBase64(payload, conversationKey));
+        assertFalse(codec.isWiped());
+        codec.wipe();
+        assertTrue(codec.isWiped());
+
+        // also when the payload is rejected after the keys were derived
+        byte[] binary = codec.encrypt(plaintext.getBytes(StandardCharsets.UTF_8), conversationKey, nonce);
+        binary[40] ^= 1;
+        assertThrows(SecurityException.class, () -> codec.decrypt(binary, conversationKey));
+        codec.wipe();
+        assertTrue(codec.isWiped());
+    }
+
+    @Test
+    public void testCodecMatchesPlatformOnRandomInputs() {
+        Random random = new Random(44);
+        Nip44Codec codec = new Nip44Codec();
+        for (int i = 0; i < 200; i++) {
+            byte[] conversationKey = randomBytes(random, 32);
+            byte[] nonce = randomBytes(random, 32);
+            // mostly short messages, where the padding changes often, and some up to the maximum size
+            int length = i % 10 == 0 ? 1 + random.nextInt(0xFFFF) : 1 + random.nextInt(1024);
+            byte[] plaintext = randomBytes(random, length);
+
+            byte[] expected = Nip44.encryptSyncBinary(plaintext, conversationKey, nonce);
+            assertArrayEquals(expected, codec.encrypt(plaintext, conversationKey, nonce));
+            assertArrayEquals(plaintext, codec.decrypt(expected, conversationKey));
+
+            // payloads with random nonces must be readable by the platform implementation
+            byte[] encrypted = codec.encrypt(plaintext, conversationKey, null);
+            assertArrayEquals(plaintext, Nip44.decryptSyncBinary(encrypted, conversationKey));
+        }
+    }
+
+    @Test
+    public void testCodecMatchesPlatformOnRandomStrings() {
+        Random random = new Random(4444);
+        Nip44Codec codec = new Nip44Codec();
+        for (int i = 0; i < 100; i++) {
+            byte[] conversationKey = randomBytes(random, 32);
+            byte[] nonce = randomBytes(random, 32);
+            StringBuilder sb = new StringBuilder();
+            int length = 1 + random.nextInt(300);
+            while (sb.length() < length) {
+                // mix ascii, multi-byte chars and surrogate pairs
+                switch (random.nextInt(3)) {
+                    case 0:
+                        sb.append((char) (' ' + random.nextInt(95)));
+                        break;
+                    case 1:
+                        sb.append((char) (0x00a0 + random.nextInt(0x2000)));
+                        break;
+                    default:
+                        sb.appendCodePoint(0x1f300 + random.nextInt(0x300));
+                        break;
+                }
+            }
+            String plaintext = sb.toString();
+
+            String expected = Nip44.encryptSync(plaintext, conversationKey, nonce);
+            assertEquals(expected, codec.encryptBase64(plaintext, conversationKey, nonce));
+            assertEquals(plaintext, codec.decryptBase64(expected, conversationKey));
+            assertEquals(plaintext, Nip44.decryptSync(codec.encryptBase64(plaintext, conversationKey, null), conversationKey));
+        }
+    }
+
+    @Test
+    public void testCodecRejectsInvalidPayloadsLikePlatform() {
+        Random random = new Random(404);
+        Nip44Codec codec = new Nip44Codec();
+        for (int i = 0; i < 100; i++) {
+            byte[] conversationKey = randomBytes(random, 32);
+            byte[] payload = Nip44.encryptSyncBinary(randomBytes(random, 1 + random.nextInt(512)), conversationKey, null);
+
+            // a flipped bit in the nonce, ciphertext or mac
+            byte[] tampered = payload.clone();
+            tampered[1 + random.nextInt(payload.length - 1)] ^= (byte) (1 << random.nextInt(8));
+            assertSameRejection(SecurityException.class, codec, tampered, conversationKey);
+
+            // a wrong conversation key
+            assertSameRejection(SecurityException.class, codec, payload, randomBytes(random, 32));
+
+            // a truncated payload, either too short to be parsed or with the mac cut off
+            byte[] truncated = Arrays.copyOf(payload, random.nextInt(payload.length));
+            Class<? extends Exception> expected = truncated.length < 66
+                ? IllegalArgumentException.class
+                : SecurityException.class;
+            assertSameRejection(expected, codec, truncated, conversationKey);
+
+            String base64 = Nip44.encryptSync("truncated " + i, conversationKey);
+            String truncatedBase64 = base64.substring(0, base64.length() - 4 * (1 + random.nextInt(3)));
+            assertThrows(RuntimeException.class, () -> Nip44.decryptSync(truncatedBase64, conversationKey));
+            assertThrows(RuntimeException.class, () -> codec.decryptBase64(truncatedBase64, conversationKey));
+        }
+    }
+
+    private static void assertSameRejection(
+        Class<? extends Exception> expected,
+        Nip44Codec codec,
+        byte[] payload,
+        byte[] conversationKey
+    ) {
+        Exception platformError = assertThrows(expected, () -> Nip44.decryptSyncBinary(payload, conversationKey));
+        Exception codecError = assertThrows(expected, () -> codec.decrypt(payload, conversationKey));
+        assertEquals(platformError.getMessage(), codecError.getMessage());
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
     @Test
     public void testEncryptBinaryRejectsOversizedPlaintextImmediately() {
         byte[] conversationKey = new byte[32];
@@ -295,4 +468,41 @@ public class TestNip44 {
         }
         return result.toString();
     }
+
+    @Test
+    public void testConversationKeyCache() throws Exception {
+        NostrPrivateKey local = NostrPrivateKey.fromHex("0000000000000000000000000000000000000000000000000000000000000001");
+        NostrPublicKey peer1 = NostrPrivateKey
+            .fromHex("0000000000000000000000000000000000000000000000000000000000000002")
+            .getPublicKey();
+        NostrPublicKey peer2 = NostrPrivateKey
+            .fromHex("0000000000000000000000000000000000000000000000000000000000000003")
+            .getPublicKey();
+        NostrPublicKey peer3 = NostrPrivateKey
+            .fromHex("0000000000000000000000000000000000000000000000000000000000000004")
+            .getPublicKey();
+
+        Nip44ConversationKeyCache cache = new Nip44ConversationKeyCache(2);
+        byte[] key1 = cache.get(local, peer1);
+        assertArrayEquals(Nip44.computeConversationKey(local, peer1), key1);
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // callers get copies
+        key1[0] ^= 1;
+        assertArrayEquals(Nip44.computeConversationKey(local, peer1), cache.get(local, peer1));
+        assertEquals(1, cache.getHits());
+
+        cache.get(local, peer2);
+        cache.get(local, peer1);
+        cache.get(local, peer3); // evicts peer2, the least recently used
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.getIfPresent(local, peer2));
+        assertNotNull(cache.getIfPresent(local, peer1));
+
+        cache.invalidate(local);
+        assertEquals(0, cache.size());
+        assertNull(cache.getIfPresent(local, peer1));
+    }
 }
@@ -0,0 +1,140 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.nip46;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.ngengine.nostr4j.keypair.NostrKeyPair;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.signer.NostrNIP46Signer;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEPlatform;
+
+public class TestNip46SignerCache {
+
+    private static final String PUBKEY = "528cf6cfa16ea0d25d8aa6e98063264c5ece212e637442f02ebfbc5531910dc7";
+
+    private static class CountingSigner extends NostrNIP46Signer {
+
+        final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+        CountingSigner() {
+            super(new Nip46AppMetadata(), new NostrKeyPair());
+        }
+
+        @Override
+        public AsyncTask<String> sendRPC(String method, Object params, Duration timeout) {
+            calls.computeIfAbsent(method, m -> new AtomicInteger()).incrementAndGet();
+            return NGEPlatform
+                .get()
+                .wrapPromise((res, rej) -> {
+                    switch (method) {
+                        case "get_public_key":
+                            res.accept(PUBKEY);
+                            break;
+                        case "get_relays":
+                            res.accept("{\"wss://relay.one\":{\"read\":true,\"write\":true}}");
+                            break;
+                        default:
+                            rej.accept(new Exception("unsupported " + method));
+                    }
+                });
+        }
+
+        int count(String method) {
+            AtomicInteger c = calls.get(method);
+            return c == null ? 0 : c.get();
+        }
+    }
+
+    @Test
+    public void testMetadataIsCached() throws Exception {
+        CountingSigner signer = new CountingSigner();
+        List<AsyncTask<NostrPublicKey>> lookups = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lookups.add(signer.getPublicKey());
+        }
+        for (AsyncTask<NostrPublicKey> lookup : lookups) {
+            assertEquals(PUBKEY, lookup.await().asHex());
+        }
+        assertEquals(1, signer.count("get_public_key"));
+
+        assertEquals(List.of("wss://relay.one"), signer.getRelays().await());
+        assertEquals(List.of("wss://relay.one"), signer.getRelays().await());
+        assertEquals(1, signer.count("get_relays"));
+
+        signer.invalidateCache();
+        signer.getRelays().await();
+        assertEquals(2, signer.count("get_relays"));
+    }
+
+    @Test
+    public void testPublicKeyDoesNotExpire() throws Exception {
+        CountingSigner signer = new CountingSigner();
+        signer.setMetadataCacheTtl(Duration.ZERO);
+        assertEquals(PUBKEY, signer.getPublicKey().await().asHex());
+        signer.getRelays().await();
+        signer.invalidateCache();
+
+        assertEquals(PUBKEY, signer.getPublicKey().await().asHex());
+        signer.getRelays().await();
+        assertEquals(1, signer.count("get_public_key"));
+        assertEquals(2, signer.count("get_relays"));
+    }
+
+    @Test
+    public void testFailuresAreNotCached() throws Exception {
+        CountingSigner signer = new CountingSigner();
+        for (int i = 0; i < 2; i++) {
+            try {
+                signer.getSupportedMethods().await();
+                fail("Expected failure");
+            } catch (Exception e) {
+                // expected
+            }
+        }
+        assertEquals(2, signer.count("describe"));
+    }
+
+    @Test
+    public void testIsAvailableDoesNotSendRequests() throws Exception {
+        CountingSigner signer = new CountingSigner();
+        assertFalse(signer.isAvailable().await());
+        assertTrue(signer.calls.isEmpty());
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.nip46;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.listeners.sub.NostrSubEventListener;
+
+public class TestNip46Transport {
+
+    private static final NostrPublicKey CLIENT_A = NostrPublicKey.fromHex(
+        "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef"
+    );
+    private static final NostrPublicKey CLIENT_B = NostrPublicKey.fromHex(
+        "528cf6cfa16ea0d25d8aa6e98063264c5ece212e637442f02ebfbc5531910dc7"
+    );
+
+    private static SignedNostrEvent response(String id, NostrPublicKey to) {
+        return new SignedNostrEvent(
+            id,
+            CLIENT_B,
+            24133,
+            "encrypted",
+            Instant.now(),
+            "sig",
+            List.of(List.of("p", to.asHex()))
+        );
+    }
+
+    @Test
+    public void testTransportIsSharedPerRelaySet() {
+        Nip46Transport a = Nip46Transport.acquire(Arrays.asList("wss://relay.one", "wss://relay.two"));
+        Nip46Transport b = Nip46Transport.acquire(Arrays.asList("wss://relay.two", "wss://relay.one", "wss://relay.one"));
+        Nip46Transport c = Nip46Transport.acquire(Arrays.asList("wss://relay.one"));
+        try {
+            assertSame(a, b);
+            assertNotSame(a, c);
+
+            a.release();
+            assertFalse(b.isClosed());
+        } finally {
+            b.release();
+            c.release();
+        }
+        assertTrue(a.isClosed());
+        assertTrue(c.isClosed());
+
+        Nip46Transport d = Nip46Transport.acquire(Arrays.asList("wss://relay.one", "wss://relay.two"));
+        try {
+            assertNotSame(a, d);
+            assertFalse(d.isClosed());
+        } finally {
+            d.release();
+        }
+    }
+
+    @Test
+    public void testRoutesByPTagAndDeduplicates() throws Exception {
+        Nip46Transport transport = Nip46Transport.acquire(new ArrayList<>());
+        try {
+            List<String> receivedA = new ArrayList<>();
+            List<String> receivedB = new ArrayList<>();
+            NostrSubEventListener listenerA = (sub, event, stored) -> receivedA.add(event.getId());
+            NostrSubEventListener listenerB = (sub, event, stored) -> receivedB.add(event.getId());
+
+            transport.register(CLIENT_A, listenerA).await();
+            transport.register(CLIENT_B, listenerB).await();
+            assertEquals(2, transport.getRegisteredKeys());
+
+            transport.onSubEvent(null, response("e1", CLIENT_A), false);
+            transport.onSubEvent(null, response("e2", CLIENT_B), false);
+            // delivered twice while two subscriptions overlap
+            transport.onSubEvent(null, response("e1", CLIENT_A), false);
+
+            assertEquals(List.of("e1"), receivedA);
+            assertEquals(List.of("e2"), receivedB);
+
+            transport.unregister(CLIENT_A, listenerA);
+            assertEquals(1, transport.getRegisteredKeys());
+            transport.onSubEvent(null, response("e3", CLIENT_A), false);
+            assertEquals(List.of("e1"), receivedA);
+        } finally {
+            transport.release();
+        }
+    }
+}
@@ -34,9 +34,17 @@ import static org.junit.Assert.*;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import org.ngengine.bech32.Bech32;
 import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.nostr4j.utils.CryptoExecutor;
+import org.ngengine.nostr4j.utils.CryptoExecutor.Priority;
+import org.ngengine.platform.AsyncTask;
 
 public class TestNip49 {
 
@@ -123,4 +131,115 @@ public class TestNip49 {
             assertEquals("Unsupported NIP-49 logn: " + logn, failure.getCause().getMessage());
         }
     }
+
+    @Test
+    public void serviceDecryptsBatchWithinBudget() throws Exception {
+        long budget = Nip49.getApproximatedMemoryRequirement(16);
+        Nip49Service service = new Nip49Service(budget);
+        service.setStoreKeys(true);
+        String other = Nip49.encryptSync(NostrPrivateKey.generate(), "nostr");
+
+        List<int[]> progress = new CopyOnWriteArrayList<>();
+        List<String> ncryptsecs = List.of(OFFICIAL_NCRYPTSEC, other, OFFICIAL_NCRYPTSEC);
+        Nip49Job<List<NostrPrivateKey>> job = service.decryptAll(
+            ncryptsecs,
+            "nostr",
+            (completed, total) -> progress.add(new int[] { completed, total })
+        );
+        List<NostrPrivateKey> keys = job.await();
+
+        assertEquals(3, keys.size());
+        assertEquals(OFFICIAL_PRIVATE_KEY, keys.get(0).asHex());
+        assertEquals(OFFICIAL_PRIVATE_KEY, keys.get(2).asHex());
+        assertEquals(3, progress.size());
+        assertEquals(3, progress.get(2)[0]);
+        assertEquals(3, progress.get(2)[1]);
+        assertEquals(0, service.getReservedMemory());
+
+        Nip49KeyVault vault = service.getVault();
+        assertEquals(2, vault.size());
+        assertEquals(OFFICIAL_PRIVATE_KEY, vault.get(OFFICIAL_NCRYPTSEC).asHex());
+        assertEquals(keys.get(1), vault.get(other));
+        assertTrue(vault.remove(other));
+        assertNull(vault.get(other));
+        vault.clear();
+        assertEquals(0, vault.size());
+    }
+
+    @Test
+    public void serviceRunsJobsOverBudgetAlone() throws Exception {
+        // smaller than any job, like the default budget on a small heap
+        Nip49Service service = new Nip49Service(1024 * 1024);
+        NostrPrivateKey privateKey = NostrPrivateKey.fromHex(OFFICIAL_PRIVATE_KEY);
+        Nip49Job<String> encrypted = service.encrypt(privateKey, "nostr");
+        Nip49Job<NostrPrivateKey> decrypted = service.decrypt(OFFICIAL_NCRYPTSEC, "nostr");
+        // the second job waits for the first one to release its memory
+        assertTrue(service.getReservedMemory() <= Nip49.getApproximatedMemoryRequirement(16));
+
+        assertEquals(privateKey, Nip49.decryptSync(encrypted.await(), "nostr"));
+        assertEquals(OFFICIAL_PRIVATE_KEY, decrypted.await().asHex());
+        assertEquals(0, service.getReservedMemory());
+        assertEquals(0, service.getQueueSize());
+    }
+
+    @Test
+    public void serviceRunsScryptBehindVerification() throws Exception {
+        CryptoExecutor executor = new CryptoExecutor(2);
+        CryptoExecutor previous = CryptoExecutor.setDefault(executor);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Nip49Service service = new Nip49Service(Nip49.getApproximatedMemoryRequirement(16));
+            // keep the only background worker busy
+            AsyncTask<Boolean> busy = executor.run(Priority.NORMAL, () -> release.await(10, TimeUnit.SECONDS));
+            Nip49Job<NostrPrivateKey> job = service.decrypt(OFFICIAL_NCRYPTSEC, "nostr");
+            long deadline = System.currentTimeMillis() + 1000;
+            while (executor.getQueueDepth(Priority.BULK) == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            // scrypt waits in the bulk queue, verifications at normal priority go first
+            assertEquals(1, executor.getQueueDepth(Priority.BULK));
+            assertEquals(0, executor.getQueueDepth(Priority.NORMAL));
+
+            release.countDown();
+            assertTrue(busy.await());
+            assertEquals(OFFICIAL_PRIVATE_KEY, job.await().asHex());
+        } finally {
+            release.countDown();
+            if (previous != null) CryptoExecutor.setDefault(previous);
+            executor.close();
+        }
+    }
+
+    @Test
+    public void serviceStoresKeysOnlyWhenEnabled() throws Exception {
+        Nip49Service service = new Nip49Service(Nip49.getApproximatedMemoryRequirement(16));
+        assertFalse(service.isStoreKeys());
+        assertEquals(OFFICIAL_PRIVATE_KEY, service.decrypt(OFFICIAL_NCRYPTSEC, "nostr").await().asHex());
+        assertEquals(0, service.getVault().size());
+
+        service.setStoreKeys(true);
+        Nip49Job<NostrPrivateKey> stored = service.decrypt(OFFICIAL_NCRYPTSEC, "nostr");
+        assertEquals(OFFICIAL_PRIVATE_KEY, stored.await().asHex());
+        assertEquals(OFFICIAL_PRIVATE_KEY, service.getVault().get(OFFICIAL_NCRYPTSEC).asHex());
+
+        // a stored key doesn't skip the password check, scrypt runs again
+        Nip49Job<NostrPrivateKey> again = service.decrypt(OFFICIAL_NCRYPTSEC, "nostr");
+        assertEquals(Nip49.getApproximatedMemoryRequirement(16), again.getMemoryRequirement());
+        assertEquals(OFFICIAL_PRIVATE_KEY, again.await().asHex());
+        assertThrows(Nip49FailedException.class, () -> service.decrypt(OFFICIAL_NCRYPTSEC, "bad").await());
+        service.getVault().clear();
+    }
+
+    @Test
+    public void serviceCancelsJobs() throws Exception {
+        Nip49Service service = new Nip49Service(Nip49.getApproximatedMemoryRequirement(16));
+        Nip49Job<NostrPrivateKey> first = service.decrypt(OFFICIAL_NCRYPTSEC, "nostr");
+        Nip49Job<NostrPrivateKey> second = service.decrypt(OFFICIAL_NCRYPTSEC, "nostr");
+        second.cancel();
+
+        assertEquals(OFFICIAL_PRIVATE_KEY, first.await().asHex());
+        assertThrows(CancellationException.class, () -> second.await());
+        assertEquals(0, service.getQueueSize());
+    }
 }
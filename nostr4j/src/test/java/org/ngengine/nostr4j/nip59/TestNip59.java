@@ -0,0 +1,125 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.nip59;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.UnsignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.signer.NostrKeyPairSigner;
+
+public class TestNip59 {
+
+    private static UnsignedNostrEvent message(String content) {
+        return new UnsignedNostrEvent()
+            .withKind(14)
+            .withContent(content)
+            .createdAt(Instant.ofEpochSecond(1700000000L))
+            .withTag("p", "528cf6cfa16ea0d25d8aa6e98063264c5ece212e637442f02ebfbc5531910dc7");
+    }
+
+    @Test
+    public void testWrapUnwrap() throws Exception {
+        NostrKeyPairSigner alice = NostrKeyPairSigner.generate();
+        NostrKeyPairSigner bob = NostrKeyPairSigner.generate();
+        NostrPublicKey alicePubkey = alice.getPublicKey().await();
+        NostrPublicKey bobPubkey = bob.getPublicKey().await();
+
+        SignedNostrEvent wrap = Nip59.wrap(message("hello bob"), alice, bobPubkey).await();
+        assertEquals(Nip59.KIND_GIFT_WRAP, wrap.getKind());
+        assertEquals(bobPubkey.asHex(), wrap.getFirstTagFirstValue("p"));
+        assertNotEquals(alicePubkey, wrap.getPubkey());
+        assertTrue(wrap.verify());
+        assertFalse(wrap.getCreatedAt().isAfter(Instant.now()));
+
+        Nip59Rumor rumor = Nip59.unwrap(wrap, bob).await();
+        assertEquals("hello bob", rumor.getContent());
+        assertEquals(14, rumor.getKind());
+        assertEquals(alicePubkey, rumor.getAuthor());
+        assertEquals(Nip59Rumor.create(message("hello bob"), alicePubkey).getId(), rumor.getId());
+    }
+
+    @Test
+    public void testRumorIdKeepsTagOrder() throws Exception {
+        NostrKeyPairSigner alice = NostrKeyPairSigner.generate();
+        NostrKeyPairSigner bob = NostrKeyPairSigner.generate();
+        Nip59Rumor sent = Nip59Rumor.create(message("tags").withTag("e", "abc"), alice.getPublicKey().await());
+
+        SignedNostrEvent seal = Nip59.seal(sent, alice, bob.getPublicKey().await()).await();
+        SignedNostrEvent wrap = Nip59.giftWrap(seal, bob.getPublicKey().await()).await();
+        Nip59Rumor received = Nip59.unwrap(wrap, bob).await();
+        assertEquals(sent.getId(), received.getId());
+        assertEquals(sent.getTagRows(), received.getTagRows());
+    }
+
+    @Test
+    public void testUnwrapAllReportsFailuresAndDuplicates() throws Exception {
+        NostrKeyPairSigner alice = NostrKeyPairSigner.generate();
+        NostrKeyPairSigner bob = NostrKeyPairSigner.generate();
+        NostrKeyPairSigner eve = NostrKeyPairSigner.generate();
+        NostrPublicKey bobPubkey = bob.getPublicKey().await();
+
+        List<SignedNostrEvent> wraps = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            wraps.add(Nip59.wrap(message("message " + i), i % 2 == 0 ? alice : eve, bobPubkey).await());
+        }
+        // the same rumor wrapped again
+        wraps.add(Nip59.wrap(message("message 0"), alice, bobPubkey).await());
+        // not for bob
+        wraps.add(Nip59.wrap(message("for eve"), alice, eve.getPublicKey().await()).await());
+        // eve pretending to be alice
+        Nip59Rumor forged = Nip59Rumor.create(message("forged"), alice.getPublicKey().await());
+        wraps.add(Nip59.giftWrap(Nip59.seal(forged, eve, bobPubkey).await(), bobPubkey).await());
+
+        Nip59Unwrapper unwrapper = new Nip59Unwrapper(bob);
+        List<Nip59UnwrapResult> results = unwrapper.unwrapAll(wraps).await();
+        assertEquals(wraps.size(), results.size());
+        for (int i = 0; i < 40; i++) {
+            Nip59UnwrapResult result = results.get(i);
+            assertTrue(result.isSuccess());
+            assertFalse(result.isDuplicate());
+            assertSame(wraps.get(i), result.getGiftWrap());
+            assertEquals("message " + i, result.getRumor().getContent());
+        }
+        assertTrue(results.get(40).isSuccess());
+        assertTrue(results.get(40).isDuplicate());
+        assertFalse(results.get(41).isSuccess());
+        assertFalse(results.get(42).isSuccess());
+
+        // unwrapping the same wraps again only yields duplicates
+        assertTrue(unwrapper.unwrap(wraps.get(1)).await().isDuplicate());
+    }
+}
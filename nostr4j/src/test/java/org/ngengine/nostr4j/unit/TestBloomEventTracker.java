@@ -0,0 +1,111 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.tracker.BloomEventTracker;
+import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+
+public class TestBloomEventTracker {
+
+    private final NostrPublicKey pubkey = NostrPrivateKey.generate().getPublicKey();
+
+    private SignedNostrEvent createEvent(long timestampSeconds, String id) {
+        return new SignedNostrEvent(
+            id,
+            pubkey,
+            0,
+            "",
+            Instant.ofEpochSecond(timestampSeconds),
+            "",
+            (List<List<String>>) new ArrayList<List<String>>()
+        );
+    }
+
+    @Test
+    public void testNoFalseNegatives() {
+        BloomEventTracker tracker = new BloomEventTracker(10_000, 0.001, 1, TimeUnit.HOURS, 16);
+        long now = System.currentTimeMillis() / 1000;
+        for (int i = 0; i < 5_000; i++) {
+            tracker.seen(createEvent(now, "event" + i));
+        }
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(tracker.seen(createEvent(now, "event" + i)));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRateWithinTarget() {
+        double target = 0.01;
+        BloomEventTracker tracker = new BloomEventTracker(10_000, target, 1, TimeUnit.HOURS, 16);
+        long now = System.currentTimeMillis() / 1000;
+        int falsePositives = 0;
+        // same timestamp, so the exact set can't answer and every lookup goes through the filters
+        for (int i = 0; i < 10_000; i++) {
+            if (tracker.seen(createEvent(now, "event" + i))) falsePositives++;
+        }
+        assertTrue("false positives: " + falsePositives, falsePositives <= 10_000 * target);
+    }
+
+    @Test
+    public void testNewestEventsAreExact() {
+        BloomEventTracker tracker = new BloomEventTracker(100, 0.5, 1, TimeUnit.HOURS, 16);
+        long now = System.currentTimeMillis() / 1000;
+        // a tiny, saturated filter would report almost everything as seen, but newer events are exact
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(tracker.seen(createEvent(now - 1_000 + i, "event" + i)));
+        }
+    }
+
+    @Test
+    public void testOutOfOrderEvictedEventIsStillSeen() {
+        BloomEventTracker tracker = new BloomEventTracker(10_000, 0.000001, 1, TimeUnit.HOURS, 2);
+        long now = System.currentTimeMillis() / 1000;
+        assertFalse(tracker.seen(createEvent(now - 100, "a")));
+        // older than a, keeps the exact set cut off low
+        assertFalse(tracker.seen(createEvent(now - 150, "b")));
+        // evicts a, the oldest inserted event
+        assertFalse(tracker.seen(createEvent(now, "c")));
+
+        // a is newer than the oldest retained event but was evicted, the filters must still know it
+        assertTrue(tracker.seen(createEvent(now - 100, "a")));
+        assertTrue(tracker.seen(createEvent(now - 150, "b")));
+        assertTrue(tracker.seen(createEvent(now, "c")));
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.ngengine.nostr4j.event.CompactNostrEvent;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+
+public class TestCompactNostrEvent {
+
+    private static final String ID = "a1b2c3d4e5f60718293a4b5c6d7e8f90a1b2c3d4e5f60718293a4b5c6d7e8f90";
+    private static final String SIG =
+        "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef" +
+        "fedcba9876543210fedcba9876543210fedcba9876543210fedcba9876543210";
+
+    private SignedNostrEvent createEvent(NostrPublicKey pubkey) {
+        List<List<String>> tags = Arrays.asList(
+            Arrays.asList("e", "event1", "wss://relay.example"),
+            Arrays.asList("p", "pubkey1"),
+            Arrays.asList("e", "event2"),
+            Arrays.asList("t")
+        );
+        return new SignedNostrEvent(ID, pubkey, 1, "hello", Instant.ofEpochSecond(1700000000L), SIG, tags);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        NostrPublicKey pubkey = NostrPrivateKey.generate().getPublicKey();
+        SignedNostrEvent event = createEvent(pubkey);
+        CompactNostrEvent compact = event.toCompact();
+
+        assertEquals(ID, compact.getId());
+        assertEquals(SIG, compact.getSignature());
+        assertEquals(pubkey.asHex(), compact.getPubkey().asHex());
+        assertEquals(event.getCreatedAt(), compact.getCreatedAt());
+        assertEquals(1, compact.getKind());
+        assertEquals("hello", compact.getContent());
+        assertEquals(event.getTagRows(), compact.getTagRows());
+
+        SignedNostrEvent inflated = compact.toSignedEvent();
+        assertEquals(event, inflated);
+        assertEquals(event.getTagRows(), inflated.getTagRows());
+        assertEquals(event.getSignature(), inflated.getSignature());
+    }
+
+    @Test
+    public void testTagAccess() {
+        CompactNostrEvent compact = createEvent(NostrPrivateKey.generate().getPublicKey()).toCompact();
+
+        assertTrue(compact.hasTag("e"));
+        assertTrue(compact.hasTag("t"));
+        assertFalse(compact.hasTag("d"));
+        assertEquals(2, compact.getTag("e").size());
+        assertEquals("event1", compact.getFirstTagFirstValue("e"));
+        assertEquals("wss://relay.example", compact.getFirstTagSecondValue("e"));
+        assertEquals("event2", compact.getTag("e").get(1).get(0));
+        assertEquals("pubkey1", compact.getFirstTagFirstValue("p"));
+        assertEquals(0, compact.getFirstTag("t").size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNonHexIds() {
+        NostrPublicKey pubkey = NostrPrivateKey.generate().getPublicKey();
+        new SignedNostrEvent("event1", pubkey, 1, "", Instant.now(), SIG, Arrays.asList()).toCompact();
+    }
+}
@@ -0,0 +1,273 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.tracker.ConcurrentEventTracker;
+import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+
+public class TestConcurrentEventTracker {
+
+    // Test constants
+    private static final int MAX_EVENTS = 50;
+    private static final int MIN_EVENTS = 10;
+    private static final long WINDOW_SECONDS = 10;
+    private static final long WINDOW_MARGIN_SECONDS = 5;
+    private static final int THREADS = 8;
+
+    private TestableEventTracker tracker;
+    private long currentTimeSeconds;
+
+    // Subclass for testing time-dependent behavior
+    private static class TestableEventTracker extends ConcurrentEventTracker {
+
+        private volatile long mockTime = System.currentTimeMillis();
+
+        public TestableEventTracker(int maxTrackedEvents, int minTrackedEvents) {
+            super(
+                maxTrackedEvents,
+                minTrackedEvents,
+                WINDOW_SECONDS,
+                TimeUnit.SECONDS,
+                WINDOW_MARGIN_SECONDS,
+                TimeUnit.SECONDS
+            );
+        }
+
+        public void setMockTime(long timeMillis) {
+            mockTime = timeMillis;
+        }
+
+        public long getCutOffTimestampS() {
+            return cutOffS;
+        }
+
+        public int count() {
+            return super.count();
+        }
+
+        public int indexedCount() {
+            return super.indexedCount();
+        }
+
+        @Override
+        protected long currentTimeSeconds() {
+            return mockTime / 1000;
+        }
+
+        @Override
+        public void update() {
+            super.update();
+        }
+    }
+
+    private NostrPublicKey pubkey;
+
+    /**
+     * Creates a real SignedNostrEvent with specified timestamp and event ID
+     */
+    private SignedNostrEvent createEvent(long timestampSeconds, String id) {
+        try {
+            if (pubkey == null) {
+                pubkey = NostrPrivateKey.generate().getPublicKey();
+            }
+            return new SignedNostrEvent(
+                id,
+                pubkey,
+                0,
+                "",
+                Instant.ofEpochSecond(timestampSeconds),
+                "",
+                (List<List<String>>) new ArrayList<List<String>>()
+            );
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to create event", e);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        tracker = new TestableEventTracker(MAX_EVENTS, MIN_EVENTS);
+        currentTimeSeconds = System.currentTimeMillis() / 1000;
+        tracker.setMockTime(currentTimeSeconds * 1000);
+    }
+
+    // ------ Basic Event Tracking Tests ------
+
+    @Test
+    public void testDuplicateEventShouldBeMarkedAsSeen() {
+        SignedNostrEvent event = createEvent(currentTimeSeconds, "event1");
+
+        assertFalse("First occurrence should not be marked as seen", tracker.seen(event));
+        assertTrue("Duplicate should be marked as seen", tracker.seen(event));
+        assertEquals("Event count should still be 1", 1, tracker.count());
+    }
+
+    @Test
+    public void testDifferentEventsShouldBeUnique() {
+        assertFalse("First event should not be seen", tracker.seen(createEvent(currentTimeSeconds, "event1")));
+        assertFalse("Second event should not be seen", tracker.seen(createEvent(currentTimeSeconds + 1, "event2")));
+        assertEquals("Event count should be 2", 2, tracker.count());
+    }
+
+    @Test
+    public void testShouldEnforceMaximumLimit() {
+        for (int i = 0; i < MAX_EVENTS + 10; i++) {
+            tracker.seen(createEvent(currentTimeSeconds + i, "event" + i));
+        }
+
+        assertEquals("Should trim to maximum event limit", MAX_EVENTS, tracker.count());
+        assertEquals("Hash index should match the retained window", tracker.count(), tracker.indexedCount());
+
+        // the trimmed event is below the cut off
+        assertTrue("Oldest event should be marked as seen (trimmed)", tracker.seen(createEvent(currentTimeSeconds, "event0")));
+    }
+
+    // ------ Time Window Behavior Tests ------
+
+    @Test
+    public void testShouldExpireEventsPastTheCutOff() {
+        for (int i = 0; i < MIN_EVENTS + 5; i++) {
+            tracker.seen(createEvent(currentTimeSeconds, "old" + i));
+        }
+
+        long newTimeS = currentTimeSeconds + WINDOW_SECONDS + WINDOW_MARGIN_SECONDS;
+        tracker.setMockTime(newTimeS * 1000);
+        tracker.update();
+
+        long cutOff = tracker.getCutOffTimestampS();
+        assertEquals("invalid cutoff", newTimeS - (WINDOW_SECONDS - WINDOW_MARGIN_SECONDS), cutOff);
+        assertEquals("Should expire down to the minimum", MIN_EVENTS, tracker.count());
+        assertEquals("Hash index should match the retained window", tracker.count(), tracker.indexedCount());
+
+        // an event older than the cut off is reported as seen even if it was never tracked
+        assertTrue("Event below the cut off should be seen", tracker.seen(createEvent(cutOff - 1, "never")));
+        assertEquals("Event below the cut off should not be tracked", MIN_EVENTS, tracker.count());
+
+        assertFalse("New event should not be seen", tracker.seen(createEvent(newTimeS, "new")));
+    }
+
+    @Test
+    public void testShouldRespectMinimumEvents() {
+        for (int i = 0; i < MIN_EVENTS - 1; i++) {
+            tracker.seen(createEvent(currentTimeSeconds, "old" + i));
+        }
+
+        tracker.setMockTime((currentTimeSeconds + WINDOW_SECONDS + 10) * 1000);
+        tracker.update();
+
+        assertEquals("Should not remove events below minimum", MIN_EVENTS - 1, tracker.count());
+    }
+
+    // ------ Concurrency Tests ------
+
+    @Test
+    public void testConcurrentInsertOfSameIdIsUnseenOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < 200; round++) {
+                SignedNostrEvent event = createEvent(currentTimeSeconds + round, "event" + round);
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger unseen = new AtomicInteger();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(
+                        executor.submit(() -> {
+                            start.await();
+                            if (!tracker.seen(event)) {
+                                unseen.incrementAndGet();
+                            }
+                            return null;
+                        })
+                    );
+                }
+                start.countDown();
+                for (Future<?> f : futures) {
+                    f.get(5, TimeUnit.SECONDS);
+                }
+                assertEquals("Exactly one thread should see the event as new", 1, unseen.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals("Hash index should match the retained window", tracker.count(), tracker.indexedCount());
+    }
+
+    @Test
+    public void testConcurrentInsertWhileTrimming() throws Exception {
+        final int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger unseen = new AtomicInteger();
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(
+                    executor.submit(() -> {
+                        start.await();
+                        // every thread submits the same ids, in the same order, while the window slides
+                        for (int i = 0; i < perThread; i++) {
+                            if (!tracker.seen(createEvent(currentTimeSeconds + i, "event" + i))) {
+                                unseen.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    })
+                );
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // trimming can only make a late copy look seen, never look new again
+        assertEquals("Every id should be reported as new exactly once", perThread, unseen.get());
+        assertTrue("Should trim to maximum event limit", tracker.count() <= MAX_EVENTS);
+        assertEquals("Hash index should match the retained window", tracker.count(), tracker.indexedCount());
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.ngengine.nostr4j.utils.CryptoExecutor;
+import org.ngengine.nostr4j.utils.CryptoExecutor.Priority;
+import org.ngengine.platform.AsyncTask;
+
+public class TestCryptoExecutor {
+
+    @Test
+    public void testInteractiveRunsWhileBulkBacklogIsBlocked() throws Exception {
+        CryptoExecutor executor = new CryptoExecutor(2);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            List<AsyncTask<Integer>> bulk = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                int value = i;
+                bulk.add(
+                    executor.run(Priority.BULK, () -> {
+                        release.await(10, TimeUnit.SECONDS);
+                        return value;
+                    })
+                );
+            }
+
+            // one worker is busy with bulk work, the other one is kept free for interactive work
+            assertEquals(Integer.valueOf(42), executor.run(Priority.INTERACTIVE, () -> 42).await());
+            assertTrue(executor.getQueueDepth(Priority.BULK) > 0);
+
+            release.countDown();
+            int sum = 0;
+            for (AsyncTask<Integer> task : bulk) {
+                sum += task.await();
+            }
+            assertEquals(45, sum);
+            assertEquals(0, executor.getQueueDepth());
+        } finally {
+            release.countDown();
+            executor.close();
+        }
+    }
+
+    @Test
+    public void testFailuresArePropagated() throws Exception {
+        CryptoExecutor executor = new CryptoExecutor(1);
+        try {
+            executor
+                .run(Priority.NORMAL, () -> {
+                    throw new IllegalStateException("boom");
+                })
+                .await();
+            fail("Expected the task failure to be propagated");
+        } catch (Exception e) {
+            Throwable cause = e instanceof IllegalStateException ? e : e.getCause();
+            assertTrue(cause instanceof IllegalStateException);
+            assertEquals("boom", cause.getMessage());
+        } finally {
+            executor.close();
+        }
+    }
+}
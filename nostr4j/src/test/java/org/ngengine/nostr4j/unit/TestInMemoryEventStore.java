@@ -0,0 +1,152 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import org.ngengine.nostr4j.NostrFilter;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.store.InMemoryEventStore;
+
+public class TestInMemoryEventStore {
+
+    private final NostrPublicKey pubkey = NostrPrivateKey.generate().getPublicKey();
+
+    private SignedNostrEvent createEvent(long timestampSeconds, String id) {
+        return new SignedNostrEvent(
+            id,
+            pubkey,
+            1,
+            "",
+            Instant.ofEpochSecond(timestampSeconds),
+            "",
+            (List<List<String>>) new ArrayList<List<String>>()
+        );
+    }
+
+    @Test
+    public void testNewestFirstWithLimit() {
+        InMemoryEventStore store = new InMemoryEventStore();
+        store.addEvent(createEvent(100, "a"));
+        store.addEvent(createEvent(300, "c"));
+        store.addEvent(createEvent(200, "b"));
+        store.addEvent(createEvent(300, "d"));
+        store.addEvent(createEvent(300, "c")); // duplicate
+
+        assertEquals(4, store.size());
+
+        List<SignedNostrEvent> all = store.getEvents(Arrays.asList(new NostrFilter()));
+        assertEquals(4, all.size());
+        assertEquals("c", all.get(0).getId());
+        assertEquals("d", all.get(1).getId());
+        assertEquals("b", all.get(2).getId());
+        assertEquals("a", all.get(3).getId());
+
+        List<SignedNostrEvent> limited = store.getEvents(Arrays.asList(new NostrFilter().limit(2)));
+        assertEquals(2, limited.size());
+        assertEquals(300, limited.get(1).getCreatedAt().getEpochSecond());
+    }
+
+    @Test
+    public void testTimeRange() {
+        InMemoryEventStore store = new InMemoryEventStore();
+        for (int i = 0; i < 10; i++) {
+            store.addEvent(createEvent(100 + i, "e" + i));
+        }
+
+        List<SignedNostrEvent> range = store.getEvents(
+            Arrays.asList(new NostrFilter().since(Instant.ofEpochSecond(103)).until(Instant.ofEpochSecond(106)))
+        );
+        assertEquals(4, range.size());
+        assertEquals("e6", range.get(0).getId());
+        assertEquals("e3", range.get(3).getId());
+
+        List<SignedNostrEvent> empty = store.getEvents(
+            Arrays.asList(new NostrFilter().since(Instant.ofEpochSecond(106)).until(Instant.ofEpochSecond(103)))
+        );
+        assertTrue(empty.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentReadsAndWrites() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore();
+        int writers = 4;
+        int perWriter = 2000;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            final int writer = w;
+            threads.add(
+                new Thread(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < perWriter; i++) {
+                            store.addEvent(createEvent(i, "w" + writer + "-" + i));
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                })
+            );
+        }
+        threads.add(
+            new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 200; i++) {
+                        List<SignedNostrEvent> events = store.getEvents(Arrays.asList(new NostrFilter().limit(50)));
+                        for (int j = 1; j < events.size(); j++) {
+                            assertFalse(events.get(j).getCreatedAt().isAfter(events.get(j - 1).getCreatedAt()));
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            })
+        );
+        for (Thread t : threads) t.start();
+        start.countDown();
+        for (Thread t : threads) t.join();
+
+        assertNull(failure.get());
+        assertEquals(writers * perWriter, store.size());
+    }
+}
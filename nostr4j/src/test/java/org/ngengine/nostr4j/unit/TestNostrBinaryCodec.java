@@ -0,0 +1,99 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import org.junit.Test;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.SignedNostrEvent.ReceivedSignedNostrEvent;
+import org.ngengine.nostr4j.event.UnsignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrKeyPair;
+import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.nostr4j.proto.NostrBinaryCodec;
+import org.ngengine.nostr4j.proto.NostrMessage;
+import org.ngengine.nostr4j.signer.NostrKeyPairSigner;
+
+public class TestNostrBinaryCodec {
+
+    private static SignedNostrEvent signedEvent() throws Exception {
+        NostrKeyPairSigner signer = new NostrKeyPairSigner(
+            new NostrKeyPair(NostrPrivateKey.fromBech32("nsec1v92q43n3ywpmp2p9nuaqmrrsa095rfys28p0rejn47vcqvktytxqaezlcl"))
+        );
+        UnsignedNostrEvent event = new UnsignedNostrEvent()
+            .withKind(1)
+            .withContent("binary \u00e9v\u00e9nement \ud83d\ude00")
+            .withTag("p", "f115b2e070b81abed59186904bca89415edc8aee806087c0fe4cbf7997d98ca9", "wss://relay", "mention")
+            .withTag("t", "nostr")
+            .createdAt(Instant.ofEpochSecond(1742147457));
+        return signer.sign(event).await();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        SignedNostrEvent event = signedEvent();
+        ByteBuffer frame = NostrBinaryCodec.encodeEvent(event);
+        assertTrue(NostrBinaryCodec.isEventFrame(frame));
+
+        SignedNostrEvent decoded = NostrBinaryCodec.decodeEvent(frame);
+        assertFalse(decoded instanceof ReceivedSignedNostrEvent);
+        assertEquals(event.getId(), decoded.getId());
+        assertEquals(event.getSignature(), decoded.getSignature());
+        assertEquals(event.getPubkey(), decoded.getPubkey());
+        assertEquals(event.getContent(), decoded.getContent());
+        assertEquals(event.getTagRows(), decoded.getTagRows());
+        assertEquals(event.getCreatedAt(), decoded.getCreatedAt());
+        assertEquals(NostrMessage.toJSON(event), NostrMessage.toJSON(decoded));
+        assertTrue(decoded.verify());
+    }
+
+    @Test
+    public void testSubscriptionEvent() throws Exception {
+        SignedNostrEvent event = signedEvent();
+        ByteBuffer frame = NostrBinaryCodec.encodeEvent("sub-1", event);
+        SignedNostrEvent decoded = NostrBinaryCodec.decodeEvent(frame);
+        assertTrue(decoded instanceof ReceivedSignedNostrEvent);
+        assertEquals("sub-1", ((ReceivedSignedNostrEvent) decoded).getSubId());
+        assertEquals(event, decoded);
+        assertEquals(0, frame.position());
+    }
+
+    @Test
+    public void testMalformedFrames() throws Exception {
+        ByteBuffer frame = NostrBinaryCodec.encodeEvent(signedEvent());
+        ByteBuffer truncated = frame.duplicate();
+        truncated.limit(frame.limit() - 3);
+        assertThrows(IllegalArgumentException.class, () -> NostrBinaryCodec.decodeEvent(truncated));
+        assertFalse(NostrBinaryCodec.isEventFrame(ByteBuffer.wrap(new byte[] { '[', '"' })));
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.UnsignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.nip44.Nip44;
+import org.ngengine.nostr4j.signer.NostrDecryptRequest;
+import org.ngengine.nostr4j.signer.NostrDecryptResult;
+import org.ngengine.nostr4j.signer.NostrKeyPairSigner;
+import org.ngengine.nostr4j.signer.NostrSigner;
+import org.ngengine.platform.AsyncTask;
+
+public class TestNostrDecryptAll {
+
+    @Test
+    public void testDecryptAllKeepsOrderAndReportsErrorsPerItem() throws Exception {
+        NostrKeyPairSigner receiver = NostrKeyPairSigner.generate();
+        NostrKeyPairSigner alice = NostrKeyPairSigner.generate();
+        NostrKeyPairSigner bob = NostrKeyPairSigner.generate();
+        NostrPublicKey receiverKey = receiver.getPublicKey().await();
+        NostrPublicKey aliceKey = alice.getPublicKey().await();
+        NostrPublicKey bobKey = bob.getPublicKey().await();
+
+        int count = 100;
+        int corrupted = 37;
+        List<NostrDecryptRequest> requests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String message = "message " + i;
+            if (i % 3 == 0) {
+                String payload = bob.encrypt(message, receiverKey, NostrSigner.EncryptAlgo.NIP04).await();
+                requests.add(new NostrDecryptRequest(payload, bobKey, NostrSigner.EncryptAlgo.NIP04));
+            } else {
+                String payload = alice.encrypt(message, receiverKey).await();
+                if (i == corrupted) {
+                    payload = payload.substring(0, payload.length() - 8) + "AAAAAAA=";
+                }
+                requests.add(new NostrDecryptRequest(payload, aliceKey));
+            }
+        }
+
+        List<NostrDecryptResult> results = receiver.decryptAll(requests).await();
+        assertEquals(count, results.size());
+        for (int i = 0; i < count; i++) {
+            NostrDecryptResult result = results.get(i);
+            assertSame(requests.get(i), result.getRequest());
+            if (i == corrupted) {
+                assertFalse(result.isSuccess());
+                assertNotNull(result.getError());
+                assertNull(result.getPlaintext());
+            } else {
+                assertTrue("item " + i + " failed: " + result.getError(), result.isSuccess());
+                assertEquals("message " + i, result.getPlaintext());
+            }
+        }
+    }
+
+    @Test
+    public void testDecryptAllDoesNotFillTheConversationKeyCache() throws Exception {
+        NostrKeyPairSigner receiver = NostrKeyPairSigner.generate();
+        NostrKeyPairSigner sender = NostrKeyPairSigner.generate();
+        NostrPublicKey receiverKey = receiver.getPublicKey().await();
+        NostrPublicKey senderKey = sender.getPublicKey().await();
+
+        List<NostrDecryptRequest> requests = new ArrayList<>();
+        requests.add(new NostrDecryptRequest(sender.encrypt("backfill", receiverKey).await(), senderKey));
+        List<NostrDecryptResult> results = receiver.decryptAll(requests).await();
+
+        assertEquals("backfill", results.get(0).getPlaintext());
+        NostrPrivateKey receiverPrivateKey = receiver.getKeyPair().getPrivateKey();
+        assertNull(Nip44.getConversationKeyCache().getIfPresent(receiverPrivateKey, senderKey));
+    }
+
+    @Test
+    public void testDefaultDecryptAllMatchesSigner() throws Exception {
+        NostrKeyPairSigner receiver = NostrKeyPairSigner.generate();
+        NostrKeyPairSigner sender = NostrKeyPairSigner.generate();
+        NostrPublicKey receiverKey = receiver.getPublicKey().await();
+        NostrPublicKey senderKey = sender.getPublicKey().await();
+
+        // route through the default interface implementation
+        NostrSigner delegating = new NostrSigner() {
+            @Override
+            public AsyncTask<SignedNostrEvent> sign(UnsignedNostrEvent event) {
+                return receiver.sign(event);
+            }
+
+            @Override
+            public AsyncTask<String> encrypt(String message, NostrPublicKey publicKey, EncryptAlgo algo) {
+                return receiver.encrypt(message, publicKey, algo);
+            }
+
+            @Override
+            public AsyncTask<String> decrypt(String message, NostrPublicKey publicKey, EncryptAlgo algo) {
+                return receiver.decrypt(message, publicKey, algo);
+            }
+
+            @Override
+            public AsyncTask<NostrPublicKey> getPublicKey() {
+                return receiver.getPublicKey();
+            }
+
+            @Override
+            public AsyncTask<NostrSigner> close() {
+                return receiver.close();
+            }
+        };
+
+        List<NostrDecryptRequest> requests = new ArrayList<>();
+        requests.add(new NostrDecryptRequest(sender.encrypt("first", receiverKey).await(), senderKey));
+        requests.add(new NostrDecryptRequest("not a payload", senderKey));
+        requests.add(new NostrDecryptRequest(sender.encrypt("third", receiverKey).await(), senderKey));
+
+        List<NostrDecryptResult> results = delegating.decryptAll(requests).await();
+        assertEquals("first", results.get(0).getPlaintext());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("third", results.get(2).getPlaintext());
+    }
+}
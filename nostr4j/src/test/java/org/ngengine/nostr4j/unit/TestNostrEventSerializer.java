@@ -0,0 +1,103 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import org.junit.Test;
+import org.ngengine.nostr4j.event.NostrEventSerializer;
+import org.ngengine.nostr4j.event.UnsignedNostrEvent;
+import org.ngengine.platform.NGEUtils;
+
+public class TestNostrEventSerializer {
+
+    private static final String PUBKEY = "79be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798";
+
+    @Test
+    public void testCanonicalJSON() {
+        UnsignedNostrEvent event = new UnsignedNostrEvent()
+            .withKind(1)
+            .withContent("test123")
+            .withTag("a", "1")
+            .withTag("b", "1", "2", "3")
+            .createdAt(Instant.ofEpochSecond(1742147457));
+        assertEquals(
+            "[0,\"" + PUBKEY + "\",1742147457,1,[[\"a\",\"1\"],[\"b\",\"1\",\"2\",\"3\"]],\"test123\"]",
+            NostrEventSerializer.toCanonicalJSON(PUBKEY, event)
+        );
+    }
+
+    @Test
+    public void testNoTags() {
+        UnsignedNostrEvent event = new UnsignedNostrEvent().withKind(0).withContent("").createdAt(Instant.ofEpochSecond(0));
+        assertEquals("[0,\"" + PUBKEY + "\",0,0,[],\"\"]", NostrEventSerializer.toCanonicalJSON(PUBKEY, event));
+    }
+
+    @Test
+    public void testEscaping() {
+        UnsignedNostrEvent event = new UnsignedNostrEvent()
+            .withKind(1)
+            .withContent("q\"b\\n\nr\rt\tb\bf\fc\u0001/<>")
+            .createdAt(Instant.ofEpochSecond(1));
+        assertEquals(
+            "[0,\"" + PUBKEY + "\",1,1,[],\"q\\\"b\\\\n\\nr\\rt\\tb\\bf\\fc\\u0001/<>\"]",
+            NostrEventSerializer.toCanonicalJSON(PUBKEY, event)
+        );
+    }
+
+    @Test
+    public void testUnicode() {
+        String content = "caf\u00e9 \u20ac \ud83d\ude00";
+        UnsignedNostrEvent event = new UnsignedNostrEvent()
+            .withKind(1)
+            .withContent(content)
+            .withTag("t", "\u00fcber")
+            .createdAt(Instant.ofEpochSecond(1742147457));
+        String expected = "[0,\"" + PUBKEY + "\",1742147457,1,[[\"t\",\"\u00fcber\"]],\"" + content + "\"]";
+        assertEquals(expected, NostrEventSerializer.toCanonicalJSON(PUBKEY, event));
+        assertEquals(NGEUtils.getPlatform().sha256(expected), NostrEventSerializer.computeEventId(PUBKEY, event));
+    }
+
+    @Test
+    public void testLargeContent() {
+        char[] chars = new char[300_000];
+        Arrays.fill(chars, '\u00e9');
+        String content = new String(chars);
+        UnsignedNostrEvent event = new UnsignedNostrEvent().withKind(1).withContent(content).createdAt(Instant.ofEpochSecond(5));
+        String expected = "[0,\"" + PUBKEY + "\",5,1,[],\"" + content + "\"]";
+        assertEquals(NGEUtils.getPlatform().sha256(expected), NostrEventSerializer.computeEventId(PUBKEY, event));
+        // the thread local buffer is reset after a large event
+        UnsignedNostrEvent small = new UnsignedNostrEvent().withKind(1).withContent("x").createdAt(Instant.ofEpochSecond(5));
+        assertEquals("[0,\"" + PUBKEY + "\",5,1,[],\"x\"]", NostrEventSerializer.toCanonicalJSON(PUBKEY, small));
+    }
+}
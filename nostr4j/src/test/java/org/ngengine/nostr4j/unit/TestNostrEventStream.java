@@ -0,0 +1,294 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ngengine.nostr4j.NostrFilter;
+import org.ngengine.nostr4j.NostrPool;
+import org.ngengine.nostr4j.NostrRelay;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.pool.NostrEventStream;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEPlatform;
+import org.ngengine.platform.jvm.JVMAsyncPlatform;
+import org.ngengine.platform.transport.WebsocketTransport;
+import org.ngengine.platform.transport.WebsocketTransportListener;
+
+public class TestNostrEventStream {
+
+    private static final String PUBKEY = "528cf6cfa16ea0d25d8aa6e98063264c5ece212e637442f02ebfbc5531910dc7";
+
+    private NGEPlatform previousPlatform;
+    private TestPlatform testPlatform;
+
+    @Before
+    public void setUp() throws Exception {
+        previousPlatform = getInstalledPlatform();
+        testPlatform = new TestPlatform();
+        installPlatform(testPlatform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (previousPlatform != null) {
+            installPlatform(previousPlatform);
+        }
+    }
+
+    @Test
+    public void testResumesEachRelayFromItsOwnPosition() throws Exception {
+        NostrRelay relayA = new NostrRelay("wss://stream-a.test");
+        RecordingWebsocketTransport transportA = testPlatform.getLastTransport();
+        NostrRelay relayB = new NostrRelay("wss://stream-b.test");
+        RecordingWebsocketTransport transportB = testPlatform.getLastTransport();
+        relayA.setVerifyEvents(false);
+        relayB.setVerifyEvents(false);
+
+        NostrPool pool = new NostrPool();
+        pool.addRelay(relayA).await();
+        pool.addRelay(relayB).await();
+
+        NostrEventStream stream = pool.stream(Arrays.asList(new NostrFilter().withKind(1)), 4, false);
+        try {
+            String subA = awaitRequest(transportA, 1);
+            String subB = awaitRequest(transportB, 1);
+
+            // relay b is far ahead of relay a when the buffer fills up
+            transportB.receive(event(subB, 1, 200));
+            transportA.receive(event(subA, 2, 100));
+            transportA.receive(event(subA, 3, 99));
+            transportA.receive(event(subA, 4, 98));
+            awaitCondition(() -> countSent(transportA, "CLOSE") == 1, 1_000, "stream was not paused");
+            awaitCondition(() -> countSent(transportB, "CLOSE") == 1, 1_000, "stream was not paused");
+
+            assertNotNull(stream.poll());
+            assertNotNull(stream.poll());
+
+            // every relay resumes from the oldest event it delivered, not from the oldest overall
+            String resumedA = awaitRequest(transportA, 2);
+            String resumedB = awaitRequest(transportB, 2);
+            assertEquals(98L, getUntil(transportA));
+            assertEquals(200L, getUntil(transportB));
+
+            transportB.receive(event(resumedB, 5, 150));
+            transportA.receive(eose(resumedA));
+            transportB.receive(eose(resumedB));
+
+            List<String> rest = new ArrayList<>();
+            while (stream.hasNext()) {
+                rest.add(stream.next().getId());
+            }
+            assertEquals(3, rest.size());
+            assertTrue(rest.contains(eventId(5)));
+            assertTrue(stream.isEnded());
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static String eventId(int n) {
+        StringBuilder sb = new StringBuilder(Integer.toHexString(n));
+        while (sb.length() < 64) sb.insert(0, '0');
+        return sb.toString();
+    }
+
+    private static String event(String subId, int n, long createdAt) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("id", eventId(n));
+        event.put("pubkey", PUBKEY);
+        event.put("kind", 1);
+        event.put("content", "");
+        event.put("created_at", createdAt);
+        event.put("sig", eventId(0) + eventId(0));
+        event.put("tags", new ArrayList<>());
+        return NGEPlatform.get().toJSON(Arrays.asList("EVENT", subId, event));
+    }
+
+    private static String eose(String subId) {
+        return NGEPlatform.get().toJSON(Arrays.asList("EOSE", subId));
+    }
+
+    private static int countSent(RecordingWebsocketTransport transport, String type) {
+        int n = 0;
+        for (String message : transport.getSentMessages()) {
+            if (type.equals(parse(message).get(0))) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Waits for the nth REQ sent to the transport and returns its subscription id.
+     */
+    private static String awaitRequest(RecordingWebsocketTransport transport, int nth) throws Exception {
+        awaitCondition(() -> countSent(transport, "REQ") >= nth, 1_000, "subscription was not sent");
+        List<Object> req = lastRequest(transport);
+        return (String) req.get(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long getUntil(RecordingWebsocketTransport transport) {
+        Map<String, Object> filter = (Map<String, Object>) lastRequest(transport).get(2);
+        return ((Number) filter.get("until")).longValue();
+    }
+
+    private static List<Object> lastRequest(RecordingWebsocketTransport transport) {
+        List<Object> last = null;
+        for (String message : transport.getSentMessages()) {
+            List<Object> data = parse(message);
+            if ("REQ".equals(data.get(0))) last = data;
+        }
+        return last;
+    }
+
+    private static List<Object> parse(String message) {
+        return NGEPlatform.get().fromJSON(message, List.class);
+    }
+
+    private static NGEPlatform getInstalledPlatform() throws Exception {
+        Field field = NGEPlatform.class.getDeclaredField("platform");
+        field.setAccessible(true);
+        return (NGEPlatform) field.get(null);
+    }
+
+    private static void installPlatform(NGEPlatform platform) throws Exception {
+        Field field = NGEPlatform.class.getDeclaredField("platform");
+        field.setAccessible(true);
+        field.set(null, platform);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition, long timeoutMs, String message) throws Exception {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError(message);
+    }
+
+    private static final class TestPlatform extends JVMAsyncPlatform {
+
+        private volatile RecordingWebsocketTransport lastTransport;
+
+        public RecordingWebsocketTransport getLastTransport() {
+            return lastTransport;
+        }
+
+        @Override
+        public WebsocketTransport newTransport() {
+            lastTransport = new RecordingWebsocketTransport();
+            return lastTransport;
+        }
+    }
+
+    private static final class RecordingWebsocketTransport implements WebsocketTransport {
+
+        private final List<WebsocketTransportListener> listeners = new CopyOnWriteArrayList<WebsocketTransportListener>();
+        private final List<String> sentMessages = new CopyOnWriteArrayList<String>();
+        private volatile boolean connected;
+
+        @Override
+        public AsyncTask<Void> close(String reason) {
+            connected = false;
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionClosedByClient(reason);
+            }
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> connect(String url) {
+            connected = true;
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionOpen();
+            }
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> send(String message) {
+            sentMessages.add(message);
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> sendBinary(ByteBuffer payload) {
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public void addListener(WebsocketTransportListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void removeListener(WebsocketTransportListener listener) {
+            listeners.remove(listener);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        public void receive(String message) {
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionMessage(message);
+            }
+        }
+
+        public List<String> getSentMessages() {
+            return sentMessages;
+        }
+
+        @Override
+        public void setMaxMessageSize(int maxMessageSize) {}
+
+        @Override
+        public int getMaxMessageSize() {
+            return 1024 * 1024 * 10;
+        }
+    }
+}
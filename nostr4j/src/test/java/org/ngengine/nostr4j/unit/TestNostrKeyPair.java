@@ -203,4 +203,18 @@ public class TestNostrKeyPair {
         }
         return s.trim();
     }
+
+    @Test
+    public void testPublicKeyInterning() {
+        String pubhex = "f115b2e070b81abed59186904bca89415edc8aee806087c0fe4cbf7997d98ca9";
+        NostrPublicKey a = NostrPublicKey.fromHex(pubhex);
+        NostrPublicKey b = NostrPublicKey.fromHex(pubhex.toUpperCase());
+        NostrPublicKey c = NostrPublicKey.fromBech32(a.asBech32());
+        assertSame(a, b);
+        assertSame(a, c);
+
+        NostrPublicKey cloned = a.clone();
+        assertNotSame(a, cloned);
+        assertEquals(a, cloned);
+    }
 }
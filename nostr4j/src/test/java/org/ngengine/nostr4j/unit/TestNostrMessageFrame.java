@@ -0,0 +1,225 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ngengine.nostr4j.NostrPool;
+import org.ngengine.nostr4j.NostrRelay;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.UnsignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrKeyPair;
+import org.ngengine.nostr4j.proto.NostrMessage;
+import org.ngengine.nostr4j.proto.NostrMessageFrame;
+import org.ngengine.nostr4j.signer.NostrKeyPairSigner;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEPlatform;
+import org.ngengine.platform.jvm.JVMAsyncPlatform;
+import org.ngengine.platform.transport.WebsocketTransport;
+import org.ngengine.platform.transport.WebsocketTransportListener;
+
+public class TestNostrMessageFrame {
+
+    private NGEPlatform previousPlatform;
+    private TestPlatform testPlatform;
+    private NostrKeyPairSigner signer;
+
+    @Before
+    public void setUp() throws Exception {
+        previousPlatform = getInstalledPlatform();
+        testPlatform = new TestPlatform();
+        installPlatform(testPlatform);
+        signer = new NostrKeyPairSigner(new NostrKeyPair());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (previousPlatform != null) {
+            installPlatform(previousPlatform);
+        }
+    }
+
+    @Test
+    public void testFrameIsBuiltOncePerMessage() throws Exception {
+        SignedNostrEvent event = event("hello");
+        NostrMessageFrame frame = NostrMessage.toFrame(event);
+        assertSame(frame, NostrMessage.toFrame(event));
+        assertEquals(NostrMessage.toJSON(event), frame.getText());
+    }
+
+    @Test
+    public void testByteLengthCountsUtf8() throws Exception {
+        assertEquals(0, new NostrMessageFrame("").getByteLength());
+        assertEquals(5, new NostrMessageFrame("hello").getByteLength());
+        assertEquals(2, new NostrMessageFrame("é").getByteLength());
+        assertEquals(3, new NostrMessageFrame("€").getByteLength());
+        // a surrogate pair is a single 4 bytes code point
+        assertEquals(4, new NostrMessageFrame("🌍").getByteLength());
+
+        SignedNostrEvent event = event("café 日本 🌍");
+        NostrMessageFrame frame = NostrMessage.toFrame(event);
+        assertEquals(frame.getText().getBytes(StandardCharsets.UTF_8).length, frame.getByteLength());
+    }
+
+    @Test
+    public void testRelaysShareTheFrameText() throws Exception {
+        NostrPool pool = new NostrPool();
+        pool.addRelay(new NostrRelay("wss://a.test")).await();
+        RecordingWebsocketTransport a = testPlatform.getLastTransport();
+        pool.addRelay(new NostrRelay("wss://b.test")).await();
+        RecordingWebsocketTransport b = testPlatform.getLastTransport();
+
+        SignedNostrEvent event = event("shared");
+        pool.publish(event);
+        awaitCondition(() -> a.getSentMessages().size() == 1 && b.getSentMessages().size() == 1, 1_000, "not sent");
+
+        // both relays write the very same serialized string
+        String text = NostrMessage.toFrame(event).getText();
+        assertSame(text, a.getSentMessages().get(0));
+        assertSame(text, b.getSentMessages().get(0));
+    }
+
+    private SignedNostrEvent event(String content) throws Exception {
+        UnsignedNostrEvent event = new UnsignedNostrEvent().withKind(1).withContent(content).createdAt(Instant.now());
+        return signer.sign(event).await();
+    }
+
+    private static void awaitCondition(BooleanSupplier condition, long timeoutMs, String message) throws Exception {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError(message);
+    }
+
+    private static NGEPlatform getInstalledPlatform() throws Exception {
+        Field field = NGEPlatform.class.getDeclaredField("platform");
+        field.setAccessible(true);
+        return (NGEPlatform) field.get(null);
+    }
+
+    private static void installPlatform(NGEPlatform platform) throws Exception {
+        Field field = NGEPlatform.class.getDeclaredField("platform");
+        field.setAccessible(true);
+        field.set(null, platform);
+    }
+
+    private static final class TestPlatform extends JVMAsyncPlatform {
+
+        private volatile RecordingWebsocketTransport lastTransport;
+
+        public RecordingWebsocketTransport getLastTransport() {
+            return lastTransport;
+        }
+
+        @Override
+        public WebsocketTransport newTransport() {
+            lastTransport = new RecordingWebsocketTransport();
+            return lastTransport;
+        }
+    }
+
+    private static final class RecordingWebsocketTransport implements WebsocketTransport {
+
+        private final List<WebsocketTransportListener> listeners = new CopyOnWriteArrayList<WebsocketTransportListener>();
+        private final List<String> sentMessages = new CopyOnWriteArrayList<String>();
+        private volatile boolean connected;
+
+        @Override
+        public AsyncTask<Void> close(String reason) {
+            connected = false;
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionClosedByClient(reason);
+            }
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> connect(String url) {
+            connected = true;
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionOpen();
+            }
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> send(String message) {
+            sentMessages.add(message);
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> sendBinary(ByteBuffer payload) {
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public void addListener(WebsocketTransportListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void removeListener(WebsocketTransportListener listener) {
+            listeners.remove(listener);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        public List<String> getSentMessages() {
+            return sentMessages;
+        }
+
+        @Override
+        public void setMaxMessageSize(int maxMessageSize) {}
+
+        @Override
+        public int getMaxMessageSize() {
+            return 1024 * 1024 * 10;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ngengine.nostr4j.NostrFilter;
+import org.ngengine.nostr4j.NostrPool;
+import org.ngengine.nostr4j.NostrRelay;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.UnsignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrKeyPair;
+import org.ngengine.nostr4j.pool.NostrPaginator;
+import org.ngengine.nostr4j.signer.NostrKeyPairSigner;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEPlatform;
+import org.ngengine.platform.jvm.JVMAsyncPlatform;
+import org.ngengine.platform.transport.WebsocketTransport;
+import org.ngengine.platform.transport.WebsocketTransportListener;
+
+public class TestNostrPaginator {
+
+    private NGEPlatform previousPlatform;
+    private TestPlatform testPlatform;
+    private NostrKeyPairSigner signer;
+    private NostrPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        previousPlatform = getInstalledPlatform();
+        testPlatform = new TestPlatform();
+        installPlatform(testPlatform);
+        signer = new NostrKeyPairSigner(new NostrKeyPair());
+        pool = new NostrPool();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (previousPlatform != null) {
+            installPlatform(previousPlatform);
+        }
+    }
+
+    @Test
+    public void testMergesRelaysNewestFirst() throws Exception {
+        SignedNostrEvent shared = event("shared", 70);
+        RelayTransport a = addRelay("wss://a.test", event("a100", 100), event("a90", 90), shared, event("a60", 60));
+        RelayTransport b = addRelay("wss://b.test", event("b95", 95), shared, event("b50", 50));
+
+        NostrPaginator paginator = pool.paginate(Arrays.asList(new NostrFilter().withKind(1)), 2, Duration.ofSeconds(5));
+        List<List<SignedNostrEvent>> pages = readAll(paginator);
+        List<SignedNostrEvent> events = flatten(pages);
+
+        // every event once, the duplicate across relays included, newest first
+        assertEquals(Arrays.asList(100L, 95L, 90L, 70L, 60L, 50L), timestamps(events));
+        assertEquals(6, new HashSet<>(ids(events)).size());
+        assertFalse(paginator.hasMore());
+
+        // each relay is asked again from the oldest event it returned
+        assertNull(a.getUntils().get(0));
+        assertTrue(a.getUntils().contains(90L));
+        assertNull(b.getUntils().get(0));
+        assertTrue(b.getUntils().contains(70L));
+    }
+
+    @Test
+    public void testWatermarkHoldsBackEventsOfFasterRelays() throws Exception {
+        addRelay("wss://a.test", event("a100", 100), event("a90", 90), event("a80", 80));
+        addRelay("wss://b.test", event("b95", 95), event("b50", 50));
+
+        NostrPaginator paginator = pool.paginate(Arrays.asList(new NostrFilter().withKind(1)), 1, Duration.ofSeconds(5));
+        List<List<SignedNostrEvent>> pages = readAll(paginator);
+
+        // a page never contains an event older than what a slower relay might still send
+        long previous = Long.MAX_VALUE;
+        for (List<SignedNostrEvent> page : pages) {
+            for (SignedNostrEvent e : page) {
+                assertTrue(e.getCreatedAt().getEpochSecond() < previous);
+                previous = e.getCreatedAt().getEpochSecond();
+            }
+        }
+        assertEquals(Arrays.asList(100L, 95L, 90L, 80L, 50L), timestamps(flatten(pages)));
+        assertEquals(Arrays.asList(100L), timestamps(pages.get(0)));
+    }
+
+    @Test
+    public void testStepsBackWhenBoundarySecondIsFull() throws Exception {
+        SignedNostrEvent x = event("x", 100);
+        SignedNostrEvent y = event("y", 100);
+        SignedNostrEvent z = event("z", 100);
+        RelayTransport a = addRelay("wss://a.test", x, y, z, event("older", 90));
+
+        NostrPaginator paginator = pool.paginate(Arrays.asList(new NostrFilter().withKind(1)), 2, Duration.ofSeconds(5));
+        List<SignedNostrEvent> events = flatten(readAll(paginator));
+
+        // the relay keeps answering with the same two events at 100, the paginator moves past that second
+        assertEquals(Arrays.asList(null, 100L, 99L, 90L), a.getUntils().subList(0, 4));
+        assertEquals(3, events.size());
+        assertEquals(90L, events.get(2).getCreatedAt().getEpochSecond());
+    }
+
+    @Test
+    public void testSeenIdsArePruned() throws Exception {
+        SignedNostrEvent[] history = new SignedNostrEvent[20];
+        for (int i = 0; i < history.length; i++) {
+            history[i] = event("e" + i, 1000 - i);
+        }
+        addRelay("wss://a.test", history);
+
+        NostrPaginator paginator = pool.paginate(Arrays.asList(new NostrFilter().withKind(1)), 4, Duration.ofSeconds(5));
+        int read = 0;
+        while (paginator.hasMore()) {
+            read += paginator.next().await().size();
+            // only the boundary second needs to be remembered, not the whole walk
+            assertTrue(countSeen(paginator) <= 4);
+        }
+        assertEquals(history.length, read);
+        assertEquals(0, countSeen(paginator));
+        paginator.close();
+    }
+
+    private RelayTransport addRelay(String url, SignedNostrEvent... events) throws Exception {
+        NostrRelay relay = new NostrRelay(url);
+        RelayTransport transport = testPlatform.getLastTransport();
+        transport.setEvents(Arrays.asList(events));
+        pool.addRelay(relay).await();
+        return transport;
+    }
+
+    private SignedNostrEvent event(String content, long createdAt) throws Exception {
+        UnsignedNostrEvent event = new UnsignedNostrEvent()
+            .withKind(1)
+            .withContent(content)
+            .createdAt(Instant.ofEpochSecond(createdAt));
+        return signer.sign(event).await();
+    }
+
+    private static List<List<SignedNostrEvent>> readAll(NostrPaginator paginator) throws Exception {
+        List<List<SignedNostrEvent>> pages = new ArrayList<>();
+        while (paginator.hasMore()) {
+            List<SignedNostrEvent> page = paginator.next().await();
+            if (!page.isEmpty()) pages.add(page);
+        }
+        paginator.close();
+        return pages;
+    }
+
+    private static List<SignedNostrEvent> flatten(List<List<SignedNostrEvent>> pages) {
+        List<SignedNostrEvent> out = new ArrayList<>();
+        for (List<SignedNostrEvent> page : pages) {
+            out.addAll(page);
+        }
+        return out;
+    }
+
+    private static List<Long> timestamps(List<SignedNostrEvent> events) {
+        List<Long> out = new ArrayList<>();
+        for (SignedNostrEvent e : events) {
+            out.add(e.getCreatedAt().getEpochSecond());
+        }
+        return out;
+    }
+
+    private static List<String> ids(List<SignedNostrEvent> events) {
+        List<String> out = new ArrayList<>();
+        for (SignedNostrEvent e : events) {
+            out.add(e.getId());
+        }
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int countSeen(NostrPaginator paginator) throws Exception {
+        Field field = NostrPaginator.class.getDeclaredField("seen");
+        field.setAccessible(true);
+        synchronized (paginator) {
+            int n = 0;
+            for (Set<String> ids : ((TreeMap<Instant, Set<String>>) field.get(paginator)).values()) {
+                n += ids.size();
+            }
+            return n;
+        }
+    }
+
+    private static String relayEvent(String subId, SignedNostrEvent event) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", event.getId());
+        map.put("pubkey", event.getPubkey().asHex());
+        map.put("kind", event.getKind());
+        map.put("content", event.getContent());
+        map.put("created_at", event.getCreatedAt().getEpochSecond());
+        map.put("sig", event.getSignature());
+        map.put("tags", new ArrayList<>());
+        return NGEPlatform.get().toJSON(Arrays.asList("EVENT", subId, map));
+    }
+
+    private static NGEPlatform getInstalledPlatform() throws Exception {
+        Field field = NGEPlatform.class.getDeclaredField("platform");
+        field.setAccessible(true);
+        return (NGEPlatform) field.get(null);
+    }
+
+    private static void installPlatform(NGEPlatform platform) throws Exception {
+        Field field = NGEPlatform.class.getDeclaredField("platform");
+        field.setAccessible(true);
+        field.set(null, platform);
+    }
+
+    private static final class TestPlatform extends JVMAsyncPlatform {
+
+        private volatile RelayTransport lastTransport;
+
+        public RelayTransport getLastTransport() {
+            return lastTransport;
+        }
+
+        @Override
+        public WebsocketTransport newTransport() {
+            lastTransport = new RelayTransport();
+            return lastTransport;
+        }
+    }
+
+    /**
+     * Answers every REQ with the stored events at or before its until, newest first, up to its limit.
+     */
+    private static final class RelayTransport implements WebsocketTransport {
+
+        private final List<WebsocketTransportListener> listeners = new CopyOnWriteArrayList<WebsocketTransportListener>();
+        private final List<Long> untils = new CopyOnWriteArrayList<Long>();
+        private volatile List<SignedNostrEvent> events = new ArrayList<>();
+        private volatile boolean connected;
+
+        public void setEvents(List<SignedNostrEvent> events) {
+            List<SignedNostrEvent> sorted = new ArrayList<>(events);
+            sorted.sort(
+                Comparator
+                    .comparing((SignedNostrEvent e) -> e.getCreatedAt())
+                    .reversed()
+                    .thenComparing(e -> e.getContent())
+            );
+            this.events = sorted;
+        }
+
+        public List<Long> getUntils() {
+            return untils;
+        }
+
+        @Override
+        public AsyncTask<Void> close(String reason) {
+            connected = false;
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionClosedByClient(reason);
+            }
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> connect(String url) {
+            connected = true;
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionOpen();
+            }
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public AsyncTask<Void> send(String message) {
+            List<Object> data = NGEPlatform.get().fromJSON(message, List.class);
+            if (!"REQ".equals(data.get(0))) {
+                return AsyncTask.completed(null);
+            }
+            String subId = (String) data.get(1);
+            Map<String, Object> filter = (Map<String, Object>) data.get(2);
+            Number until = (Number) filter.get("until");
+            Number limit = (Number) filter.get("limit");
+            untils.add(until != null ? until.longValue() : null);
+
+            List<String> replies = new ArrayList<>();
+            for (SignedNostrEvent e : events) {
+                if (limit != null && replies.size() >= limit.intValue()) break;
+                if (until != null && e.getCreatedAt().getEpochSecond() > until.longValue()) continue;
+                replies.add(relayEvent(subId, e));
+            }
+            replies.add(NGEPlatform.get().toJSON(Arrays.asList("EOSE", subId)));
+            Thread t = new Thread(() -> {
+                for (String reply : replies) {
+                    for (WebsocketTransportListener listener : listeners) {
+                        listener.onConnectionMessage(reply);
+                    }
+                }
+            });
+            t.setDaemon(true);
+            t.start();
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> sendBinary(ByteBuffer payload) {
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public void addListener(WebsocketTransportListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void removeListener(WebsocketTransportListener listener) {
+            listeners.remove(listener);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public void setMaxMessageSize(int maxMessageSize) {}
+
+        @Override
+        public int getMaxMessageSize() {
+            return 1024 * 1024 * 10;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ngengine.nostr4j.NostrFilter;
+import org.ngengine.nostr4j.NostrPool;
+import org.ngengine.nostr4j.NostrRelay;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.UnsignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrKeyPair;
+import org.ngengine.nostr4j.pool.fetchpolicy.NostrAllEOSEPoolFetchPolicy;
+import org.ngengine.nostr4j.signer.NostrKeyPairSigner;
+import org.ngengine.nostr4j.store.InMemoryEventStore;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEPlatform;
+import org.ngengine.platform.jvm.JVMAsyncPlatform;
+import org.ngengine.platform.transport.WebsocketTransport;
+import org.ngengine.platform.transport.WebsocketTransportListener;
+
+public class TestNostrPoolEventStore {
+
+    private NGEPlatform previousPlatform;
+    private TestPlatform testPlatform;
+    private NostrKeyPairSigner signer;
+    private NostrPool pool;
+    private RecordingWebsocketTransport transport;
+    private InMemoryEventStore store;
+    private long now;
+
+    @Before
+    public void setUp() throws Exception {
+        previousPlatform = getInstalledPlatform();
+        testPlatform = new TestPlatform();
+        installPlatform(testPlatform);
+
+        signer = new NostrKeyPairSigner(new NostrKeyPair());
+        NostrRelay relay = new NostrRelay("wss://store.test");
+        transport = testPlatform.getLastTransport();
+        pool = new NostrPool();
+        pool.addRelay(relay).await();
+        store = new InMemoryEventStore();
+        pool.setEventStore(store);
+        now = Instant.now().getEpochSecond();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (previousPlatform != null) {
+            installPlatform(previousPlatform);
+        }
+    }
+
+    @Test
+    public void testFetchServedByStore() throws Exception {
+        SignedNostrEvent cached = event("cached", now - 100);
+        store.addEvent(cached);
+
+        List<SignedNostrEvent> events = pool.fetch(new NostrFilter().withKind(1), 1, Duration.ofSeconds(5)).await();
+        assertEquals(1, events.size());
+        assertEquals(cached.getId(), events.get(0).getId());
+
+        // the relays are never asked and the subscription is dropped
+        Thread.sleep(100);
+        assertEquals(0, countSent(transport, "REQ"));
+        assertTrue(getSubscriptions(pool).isEmpty());
+    }
+
+    @Test
+    public void testFetchMergesStoreAndRelay() throws Exception {
+        NostrFilter filter = new NostrFilter().withKind(1).since(Instant.ofEpochSecond(now - 1000));
+        SignedNostrEvent first = event("first", now - 500);
+        SignedNostrEvent second = event("second", now - 400);
+
+        AsyncTask<List<SignedNostrEvent>> fetch = pool.fetch(Arrays.asList(filter), NostrAllEOSEPoolFetchPolicy.get());
+        String subId = awaitRequest(transport, 1);
+        assertEquals(now - 1000, getSince(transport));
+        transport.receive(relayEvent(subId, first));
+        transport.receive(relayEvent(subId, second));
+        transport.receive(eose(subId));
+        assertEquals(2, fetch.await().size());
+        // received events are written through
+        assertEquals(2, store.size());
+
+        // the store now covers the filter, only newer events are asked to the relays
+        SignedNostrEvent third = event("third", now);
+        fetch = pool.fetch(Arrays.asList(filter), NostrAllEOSEPoolFetchPolicy.get());
+        subId = awaitRequest(transport, 2);
+        assertTrue(getSince(transport) >= now);
+        transport.receive(relayEvent(subId, third));
+        transport.receive(eose(subId));
+
+        List<SignedNostrEvent> events = fetch.await();
+        assertEquals(3, events.size());
+        assertEquals(third.getId(), events.get(0).getId());
+        assertEquals(second.getId(), events.get(1).getId());
+        assertEquals(first.getId(), events.get(2).getId());
+    }
+
+    @Test
+    public void testSparseStoreDoesNotNarrowFilters() throws Exception {
+        NostrFilter filter = new NostrFilter().withKind(1).since(Instant.ofEpochSecond(now - 1000));
+        SignedNostrEvent older = event("older", now - 500);
+        SignedNostrEvent newer = event("newer", now - 400);
+
+        // a limited fetch only stores the newest match
+        AsyncTask<List<SignedNostrEvent>> fetch = pool.fetch(
+            Arrays.asList(filter.clone().limit(1)),
+            NostrAllEOSEPoolFetchPolicy.get()
+        );
+        String subId = awaitRequest(transport, 1);
+        transport.receive(relayEvent(subId, newer));
+        transport.receive(eose(subId));
+        assertEquals(1, fetch.await().size());
+
+        // and a published event is stored too, without any relay query
+        SignedNostrEvent published = event("published", now - 300);
+        pool.publish(published);
+        assertEquals(2, store.size());
+
+        fetch = pool.fetch(Arrays.asList(filter), NostrAllEOSEPoolFetchPolicy.get());
+        subId = awaitRequest(transport, 2);
+        // the relays are still asked for the whole range
+        assertEquals(now - 1000, getSince(transport));
+        transport.receive(relayEvent(subId, older));
+        transport.receive(relayEvent(subId, newer));
+        transport.receive(eose(subId));
+
+        List<SignedNostrEvent> events = fetch.await();
+        assertEquals(3, events.size());
+        assertEquals(published.getId(), events.get(0).getId());
+        assertEquals(newer.getId(), events.get(1).getId());
+        assertEquals(older.getId(), events.get(2).getId());
+    }
+
+    private SignedNostrEvent event(String content, long createdAt) throws Exception {
+        UnsignedNostrEvent event = new UnsignedNostrEvent()
+            .withKind(1)
+            .withContent(content)
+            .createdAt(Instant.ofEpochSecond(createdAt));
+        return signer.sign(event).await();
+    }
+
+    private static String relayEvent(String subId, SignedNostrEvent event) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", event.getId());
+        map.put("pubkey", event.getPubkey().asHex());
+        map.put("kind", event.getKind());
+        map.put("content", event.getContent());
+        map.put("created_at", event.getCreatedAt().getEpochSecond());
+        map.put("sig", event.getSignature());
+        map.put("tags", new ArrayList<>());
+        return NGEPlatform.get().toJSON(Arrays.asList("EVENT", subId, map));
+    }
+
+    private static String eose(String subId) {
+        return NGEPlatform.get().toJSON(Arrays.asList("EOSE", subId));
+    }
+
+    private static int countSent(RecordingWebsocketTransport transport, String type) {
+        int n = 0;
+        for (String message : transport.getSentMessages()) {
+            if (type.equals(parse(message).get(0))) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Waits for the nth REQ sent to the transport and returns its subscription id.
+     */
+    private static String awaitRequest(RecordingWebsocketTransport transport, int nth) throws Exception {
+        awaitCondition(() -> countSent(transport, "REQ") >= nth, 1_000, "subscription was not sent");
+        return (String) lastRequest(transport).get(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long getSince(RecordingWebsocketTransport transport) {
+        Map<String, Object> filter = (Map<String, Object>) lastRequest(transport).get(2);
+        return ((Number) filter.get("since")).longValue();
+    }
+
+    private static List<Object> lastRequest(RecordingWebsocketTransport transport) {
+        List<Object> last = null;
+        for (String message : transport.getSentMessages()) {
+            List<Object> data = parse(message);
+            if ("REQ".equals(data.get(0))) last = data;
+        }
+        return last;
+    }
+
+    private static List<Object> parse(String message) {
+        return NGEPlatform.get().fromJSON(message, List.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ?> getSubscriptions(NostrPool pool) throws Exception {
+        Field field = NostrPool.class.getDeclaredField("subscriptions");
+        field.setAccessible(true);
+        return (Map<String, ?>) field.get(pool);
+    }
+
+    private static NGEPlatform getInstalledPlatform() throws Exception {
+        Field field = NGEPlatform.class.getDeclaredField("platform");
+        field.setAccessible(true);
+        return (NGEPlatform) field.get(null);
+    }
+
+    private static void installPlatform(NGEPlatform platform) throws Exception {
+        Field field = NGEPlatform.class.getDeclaredField("platform");
+        field.setAccessible(true);
+        field.set(null, platform);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition, long timeoutMs, String message) throws Exception {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError(message);
+    }
+
+    private static final class TestPlatform extends JVMAsyncPlatform {
+
+        private volatile RecordingWebsocketTransport lastTransport;
+
+        public RecordingWebsocketTransport getLastTransport() {
+            return lastTransport;
+        }
+
+        @Override
+        public WebsocketTransport newTransport() {
+            lastTransport = new RecordingWebsocketTransport();
+            return lastTransport;
+        }
+    }
+
+    private static final class RecordingWebsocketTransport implements WebsocketTransport {
+
+        private final List<WebsocketTransportListener> listeners = new CopyOnWriteArrayList<WebsocketTransportListener>();
+        private final List<String> sentMessages = new CopyOnWriteArrayList<String>();
+        private volatile boolean connected;
+
+        @Override
+        public AsyncTask<Void> close(String reason) {
+            connected = false;
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionClosedByClient(reason);
+            }
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> connect(String url) {
+            connected = true;
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionOpen();
+            }
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> send(String message) {
+            sentMessages.add(message);
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> sendBinary(ByteBuffer payload) {
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public void addListener(WebsocketTransportListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void removeListener(WebsocketTransportListener listener) {
+            listeners.remove(listener);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        public void receive(String message) {
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionMessage(message);
+            }
+        }
+
+        public List<String> getSentMessages() {
+            return sentMessages;
+        }
+
+        @Override
+        public void setMaxMessageSize(int maxMessageSize) {}
+
+        @Override
+        public int getMaxMessageSize() {
+            return 1024 * 1024 * 10;
+        }
+    }
+}
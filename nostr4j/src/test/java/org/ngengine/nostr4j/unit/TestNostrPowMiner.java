@@ -0,0 +1,110 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.ngengine.nostr4j.event.NostrPowMiner;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.UnsignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrKeyPair;
+import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.nostr4j.signer.NostrKeyPairSigner;
+import org.ngengine.nostr4j.signer.NostrSigner;
+import org.ngengine.nostr4j.utils.Sha256;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEUtils;
+
+public class TestNostrPowMiner {
+
+    private static final String NSEC = "nsec1v92q43n3ywpmp2p9nuaqmrrsa095rfys28p0rejn47vcqvktytxqaezlcl";
+
+    @Test
+    public void testSha256Midstate() {
+        Random random = new Random(42);
+        for (int len = 0; len < 300; len += 7) {
+            byte[] msg = new byte[len];
+            random.nextBytes(msg);
+            int prefixBlocks = (len / 2) / Sha256.BLOCK_SIZE;
+            int aligned = prefixBlocks * Sha256.BLOCK_SIZE;
+            int[] state = Sha256.newState();
+            int[] w = new int[64];
+            Sha256.compress(state, msg, 0, prefixBlocks, w);
+
+            byte[] tail = new byte[Sha256.paddedLength(len) - aligned];
+            System.arraycopy(msg, aligned, tail, 0, len - aligned);
+            Sha256.pad(tail, len - aligned, len);
+            Sha256.compress(state, tail, 0, tail.length / Sha256.BLOCK_SIZE, w);
+
+            assertArrayEquals(NGEUtils.getPlatform().sha256(msg), Sha256.toBytes(state));
+        }
+    }
+
+    @Test
+    public void testPowSign() throws Exception {
+        NostrSigner signer = new NostrKeyPairSigner(new NostrKeyPair(NostrPrivateKey.fromBech32(NSEC)));
+        UnsignedNostrEvent event = new UnsignedNostrEvent().withKind(1).withContent("test123").withTag("t", "pow");
+        SignedNostrEvent signed = signer.powSign(event, 12).await();
+        assertTrue(signed.verify());
+        assertTrue(signed.checkPow(12));
+        assertEquals("12", signed.getFirstTag("nonce").get(1));
+        assertEquals("pow", signed.getFirstTag("t").get(0));
+    }
+
+    @Test
+    public void testPowSignWithMiner() throws Exception {
+        AtomicInteger best = new AtomicInteger();
+        NostrPowMiner miner = new NostrPowMiner(2).setProgressListener((h, b) -> best.set(b));
+        NostrSigner signer = new NostrKeyPairSigner(new NostrKeyPair(NostrPrivateKey.fromBech32(NSEC)));
+        SignedNostrEvent signed = signer.powSign(new UnsignedNostrEvent().withKind(1), 18, miner).await();
+        assertTrue(signed.checkPow(18));
+        assertTrue(best.get() < 18);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        NostrPowMiner miner = new NostrPowMiner(2);
+        NostrKeyPair keyPair = new NostrKeyPair(NostrPrivateKey.fromBech32(NSEC));
+        AsyncTask<UnsignedNostrEvent> task = miner.mine(keyPair.getPublicKey(), new UnsignedNostrEvent().withKind(1), 64);
+        Thread.sleep(100);
+        miner.cancel();
+        try {
+            task.await();
+            fail("Expected cancellation");
+        } catch (Exception e) {
+            assertTrue(e instanceof CancellationException || e.getCause() instanceof CancellationException);
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ngengine.nostr4j.NostrRelay;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.listeners.NostrRelayComponent;
+import org.ngengine.nostr4j.proto.NostrBinaryCodec;
+import org.ngengine.nostr4j.proto.NostrMessage;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEPlatform;
+import org.ngengine.platform.jvm.JVMAsyncPlatform;
+import org.ngengine.platform.transport.WebsocketTransport;
+import org.ngengine.platform.transport.WebsocketTransportListener;
+
+public class TestNostrRelayBinaryFrames {
+
+    private static final String TEST_RELAY_URL = "wss://binary-frames.test";
+    private static final String PUBKEY = "528cf6cfa16ea0d25d8aa6e98063264c5ece212e637442f02ebfbc5531910dc7";
+
+    private NGEPlatform previousPlatform;
+    private TestPlatform testPlatform;
+
+    @Before
+    public void setUp() throws Exception {
+        previousPlatform = getInstalledPlatform();
+        testPlatform = new TestPlatform();
+        installPlatform(testPlatform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (previousPlatform != null) {
+            installPlatform(previousPlatform);
+        }
+    }
+
+    @Test
+    public void testDisablingKeepsAcceptingBinaryFramesUntilReconnect() throws Exception {
+        NostrRelay relay = new NostrRelay(TEST_RELAY_URL);
+        RecordingWebsocketTransport transport = testPlatform.getLastTransport();
+        List<NostrMessage> received = new CopyOnWriteArrayList<NostrMessage>();
+        relay.addComponent(new RecordingComponent(received));
+        relay.setVerifyEvents(false);
+        relay.setBinaryFrames(true);
+
+        relay.connect().await();
+        awaitCondition(() -> countSent(transport, NostrBinaryCodec.NEGOTIATION_PREFIX) == 1, 1_000, "binary frames not asked");
+        String accept = NGEPlatform.get().toJSON(Arrays.asList(NostrBinaryCodec.NEGOTIATION_PREFIX, NostrBinaryCodec.PROTOCOL));
+        transport.receive(accept);
+        awaitCondition(relay::isBinaryNegotiated, 1_000, "binary frames not negotiated");
+
+        relay.setBinaryFrames(false);
+        assertTrue(relay.isBinaryNegotiated());
+
+        // the relay doesn't know about the change and keeps sending binary frames
+        transport.receiveBinary(NostrBinaryCodec.encodeEvent("sub", event(1)));
+        awaitCondition(() -> received.size() == 1, 1_000, "binary event was dropped");
+        assertEquals(eventId(1), ((SignedNostrEvent) received.get(0)).getId());
+
+        // outgoing events switch back to JSON right away
+        relay.sendMessage(event(2));
+        awaitCondition(() -> countSent(transport, "EVENT") == 1, 1_000, "event was not sent as JSON");
+        assertEquals(0, transport.getSentBinaryCount());
+
+        // the next connection doesn't negotiate binary frames anymore
+        relay.disconnect("test").await();
+        relay.connect().await();
+        assertFalse(relay.isBinaryNegotiated());
+        assertEquals(1, countSent(transport, NostrBinaryCodec.NEGOTIATION_PREFIX));
+        transport.receiveBinary(NostrBinaryCodec.encodeEvent("sub", event(3)));
+        Thread.sleep(100);
+        assertEquals(1, received.size());
+    }
+
+    private static SignedNostrEvent event(int n) {
+        return new SignedNostrEvent(
+            eventId(n),
+            NostrPublicKey.fromHex(PUBKEY),
+            1,
+            "",
+            Instant.ofEpochSecond(1742147457),
+            eventId(0) + eventId(0),
+            new ArrayList<List<String>>()
+        );
+    }
+
+    private static String eventId(int n) {
+        StringBuilder sb = new StringBuilder(Integer.toHexString(n));
+        while (sb.length() < 64) sb.insert(0, '0');
+        return sb.toString();
+    }
+
+    private static int countSent(RecordingWebsocketTransport transport, String type) {
+        int n = 0;
+        for (String message : transport.getSentMessages()) {
+            if (type.equals(NGEPlatform.get().fromJSON(message, List.class).get(0))) n++;
+        }
+        return n;
+    }
+
+    private static NGEPlatform getInstalledPlatform() throws Exception {
+        Field field = NGEPlatform.class.getDeclaredField("platform");
+        field.setAccessible(true);
+        return (NGEPlatform) field.get(null);
+    }
+
+    private static void installPlatform(NGEPlatform platform) throws Exception {
+        Field field = NGEPlatform.class.getDeclaredField("platform");
+        field.setAccessible(true);
+        field.set(null, platform);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition, long timeoutMs, String message) throws Exception {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError(message);
+    }
+
+    private static final class RecordingComponent implements NostrRelayComponent {
+
+        private final List<NostrMessage> received;
+
+        RecordingComponent(List<NostrMessage> received) {
+            this.received = received;
+        }
+
+        @Override
+        public boolean onRelayMessage(NostrRelay relay, NostrMessage message) {
+            if (message instanceof SignedNostrEvent) {
+                received.add(message);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean onRelayConnectRequest(NostrRelay relay) {
+            return true;
+        }
+
+        @Override
+        public boolean onRelayConnect(NostrRelay relay) {
+            return true;
+        }
+
+        @Override
+        public boolean onRelayError(NostrRelay relay, Throwable error) {
+            return true;
+        }
+
+        @Override
+        public boolean onRelayDisconnect(NostrRelay relay, String reason, boolean byClient) {
+            return true;
+        }
+
+        @Override
+        public boolean onRelayBeforeSend(NostrRelay relay, NostrMessage message) {
+            return true;
+        }
+
+        @Override
+        public boolean onRelaySend(NostrRelay relay, NostrMessage message) {
+            return true;
+        }
+
+        @Override
+        public boolean onRelayAfterSend(NostrRelay relay, NostrMessage message) {
+            return true;
+        }
+
+        @Override
+        public boolean onRelayDisconnectRequest(NostrRelay relay, String reason) {
+            return true;
+        }
+    }
+
+    private static final class TestPlatform extends JVMAsyncPlatform {
+
+        private volatile RecordingWebsocketTransport lastTransport;
+
+        public RecordingWebsocketTransport getLastTransport() {
+            return lastTransport;
+        }
+
+        @Override
+        public WebsocketTransport newTransport() {
+            lastTransport = new RecordingWebsocketTransport();
+            return lastTransport;
+        }
+    }
+
+    private static final class RecordingWebsocketTransport implements WebsocketTransport {
+
+        private final List<WebsocketTransportListener> listeners = new CopyOnWriteArrayList<WebsocketTransportListener>();
+        private final List<String> sentMessages = new CopyOnWriteArrayList<String>();
+        private volatile int sentBinaryCount;
+        private volatile boolean connected;
+
+        @Override
+        public AsyncTask<Void> close(String reason) {
+            connected = false;
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionClosedByClient(reason);
+            }
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> connect(String url) {
+            connected = true;
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionOpen();
+            }
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> send(String message) {
+            sentMessages.add(message);
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> sendBinary(ByteBuffer payload) {
+            sentBinaryCount++;
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public void addListener(WebsocketTransportListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void removeListener(WebsocketTransportListener listener) {
+            listeners.remove(listener);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        public void receive(String message) {
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionMessage(message);
+            }
+        }
+
+        public void receiveBinary(ByteBuffer message) {
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionBinaryMessage(message);
+            }
+        }
+
+        public List<String> getSentMessages() {
+            return sentMessages;
+        }
+
+        public int getSentBinaryCount() {
+            return sentBinaryCount;
+        }
+
+        @Override
+        public void setMaxMessageSize(int maxMessageSize) {}
+
+        @Override
+        public int getMaxMessageSize() {
+            return 1024 * 1024 * 10;
+        }
+    }
+}
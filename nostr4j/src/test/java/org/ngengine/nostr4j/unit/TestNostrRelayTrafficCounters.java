@@ -0,0 +1,303 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ngengine.nostr4j.NostrRelay;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.proto.NostrBinaryCodec;
+import org.ngengine.platform.AsyncTask;
+import org.ngengine.platform.NGEPlatform;
+import org.ngengine.platform.jvm.JVMAsyncPlatform;
+import org.ngengine.platform.transport.WebsocketTransport;
+import org.ngengine.platform.transport.WebsocketTransportListener;
+
+public class TestNostrRelayTrafficCounters {
+
+    private static final String TEST_RELAY_URL = "wss://traffic-counters.test";
+    private static final String PUBKEY = "528cf6cfa16ea0d25d8aa6e98063264c5ece212e637442f02ebfbc5531910dc7";
+    private static final String MULTI_BYTE = "café 日本 🌍 €";
+
+    private NGEPlatform previousPlatform;
+    private TestPlatform testPlatform;
+
+    @Before
+    public void setUp() throws Exception {
+        previousPlatform = getInstalledPlatform();
+        testPlatform = new TestPlatform();
+        installPlatform(testPlatform);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (previousPlatform != null) {
+            installPlatform(previousPlatform);
+        }
+    }
+
+    @Test
+    public void testTextFramesAreCountedInUtf8Bytes() throws Exception {
+        NostrRelay relay = new NostrRelay(TEST_RELAY_URL);
+        RecordingWebsocketTransport transport = testPlatform.getLastTransport();
+        relay.setVerifyEvents(false);
+        relay.connect().await();
+
+        relay.sendMessage(event(1, MULTI_BYTE));
+        relay.sendMessage(event(2, "ascii only"));
+        awaitCondition(() -> transport.getSentMessages().size() == 2, 1_000, "events were not sent");
+        assertEquals(utf8Length(transport.getSentMessages()), relay.getBytesSent());
+        assertEquals(2, relay.getMessagesSent());
+        // the multi-byte content is counted in bytes, not in chars
+        assertTrue(relay.getBytesSent() > charLength(transport.getSentMessages()));
+
+        List<String> received = Arrays.asList(
+            relayEvent(event(3, MULTI_BYTE)),
+            NGEPlatform.get().toJSON(Arrays.asList("NOTICE", "ünïcödé ✓ 🚀"))
+        );
+        for (String message : received) {
+            transport.receive(message);
+        }
+        assertEquals(utf8Length(received), relay.getBytesReceived());
+        assertEquals(2, relay.getMessagesReceived());
+
+        relay.resetTrafficCounters();
+        assertEquals(0, relay.getBytesSent());
+        assertEquals(0, relay.getBytesReceived());
+        assertEquals(0, relay.getMessagesSent());
+        assertEquals(0, relay.getMessagesReceived());
+    }
+
+    @Test
+    public void testBinaryFramesAreCountedByPayloadSize() throws Exception {
+        NostrRelay relay = new NostrRelay(TEST_RELAY_URL);
+        RecordingWebsocketTransport transport = testPlatform.getLastTransport();
+        relay.setVerifyEvents(false);
+        relay.setBinaryFrames(true);
+        relay.connect().await();
+
+        String accept = NGEPlatform.get().toJSON(Arrays.asList(NostrBinaryCodec.NEGOTIATION_PREFIX, NostrBinaryCodec.PROTOCOL));
+        transport.receive(accept);
+        awaitCondition(relay::isBinaryNegotiated, 1_000, "binary frames not negotiated");
+        relay.resetTrafficCounters();
+
+        relay.sendMessage(event(1, MULTI_BYTE));
+        awaitCondition(() -> transport.getSentBinarySizes().size() == 1, 1_000, "event was not sent as binary");
+        assertEquals((long) transport.getSentBinarySizes().get(0), relay.getBytesSent());
+        assertEquals(1, relay.getMessagesSent());
+
+        ByteBuffer frame = NostrBinaryCodec.encodeEvent("sub", event(2, MULTI_BYTE));
+        int size = frame.remaining();
+        transport.receiveBinary(frame);
+        assertEquals(size, relay.getBytesReceived());
+        assertEquals(1, relay.getMessagesReceived());
+    }
+
+    private static long utf8Length(List<String> messages) {
+        long n = 0;
+        for (String message : messages) {
+            n += message.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return n;
+    }
+
+    private static long charLength(List<String> messages) {
+        long n = 0;
+        for (String message : messages) {
+            n += message.length();
+        }
+        return n;
+    }
+
+    private static SignedNostrEvent event(int n, String content) {
+        return new SignedNostrEvent(
+            eventId(n),
+            NostrPublicKey.fromHex(PUBKEY),
+            1,
+            content,
+            Instant.ofEpochSecond(1742147457),
+            eventId(0) + eventId(0),
+            new ArrayList<List<String>>()
+        );
+    }
+
+    private static String relayEvent(SignedNostrEvent event) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", event.getId());
+        map.put("pubkey", event.getPubkey().asHex());
+        map.put("kind", event.getKind());
+        map.put("content", event.getContent());
+        map.put("created_at", event.getCreatedAt().getEpochSecond());
+        map.put("sig", event.getSignature());
+        map.put("tags", new ArrayList<>());
+        return NGEPlatform.get().toJSON(Arrays.asList("EVENT", "sub", map));
+    }
+
+    private static String eventId(int n) {
+        StringBuilder sb = new StringBuilder(Integer.toHexString(n));
+        while (sb.length() < 64) sb.insert(0, '0');
+        return sb.toString();
+    }
+
+    private static NGEPlatform getInstalledPlatform() throws Exception {
+        Field field = NGEPlatform.class.getDeclaredField("platform");
+        field.setAccessible(true);
+        return (NGEPlatform) field.get(null);
+    }
+
+    private static void installPlatform(NGEPlatform platform) throws Exception {
+        Field field = NGEPlatform.class.getDeclaredField("platform");
+        field.setAccessible(true);
+        field.set(null, platform);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition, long timeoutMs, String message) throws Exception {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError(message);
+    }
+
+    private static final class TestPlatform extends JVMAsyncPlatform {
+
+        private volatile RecordingWebsocketTransport lastTransport;
+
+        public RecordingWebsocketTransport getLastTransport() {
+            return lastTransport;
+        }
+
+        @Override
+        public WebsocketTransport newTransport() {
+            lastTransport = new RecordingWebsocketTransport();
+            return lastTransport;
+        }
+    }
+
+    private static final class RecordingWebsocketTransport implements WebsocketTransport {
+
+        private final List<WebsocketTransportListener> listeners = new CopyOnWriteArrayList<WebsocketTransportListener>();
+        private final List<String> sentMessages = new CopyOnWriteArrayList<String>();
+        private final List<Integer> sentBinarySizes = new CopyOnWriteArrayList<Integer>();
+        private volatile boolean connected;
+
+        @Override
+        public AsyncTask<Void> close(String reason) {
+            connected = false;
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionClosedByClient(reason);
+            }
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> connect(String url) {
+            connected = true;
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionOpen();
+            }
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> send(String message) {
+            sentMessages.add(message);
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public AsyncTask<Void> sendBinary(ByteBuffer payload) {
+            sentBinarySizes.add(payload.remaining());
+            return AsyncTask.completed(null);
+        }
+
+        @Override
+        public void addListener(WebsocketTransportListener listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void removeListener(WebsocketTransportListener listener) {
+            listeners.remove(listener);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        public void receive(String message) {
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionMessage(message);
+            }
+        }
+
+        public void receiveBinary(ByteBuffer message) {
+            for (WebsocketTransportListener listener : listeners) {
+                listener.onConnectionBinaryMessage(message);
+            }
+        }
+
+        public List<String> getSentMessages() {
+            return sentMessages;
+        }
+
+        public List<Integer> getSentBinarySizes() {
+            return sentBinarySizes;
+        }
+
+        @Override
+        public void setMaxMessageSize(int maxMessageSize) {}
+
+        @Override
+        public int getMaxMessageSize() {
+            return 1024 * 1024 * 10;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.UnsignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.signer.NostrKeyPairSigner;
+
+public class TestNostrSignAll {
+
+    @Test
+    public void testSignAllKeepsOrder() throws Exception {
+        NostrKeyPairSigner signer = NostrKeyPairSigner.generate();
+        NostrPublicKey pubkey = signer.getPublicKey().await();
+        Instant createdAt = Instant.ofEpochSecond(1700000000L);
+
+        List<UnsignedNostrEvent> events = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            events.add(new UnsignedNostrEvent().withKind(1).withContent("event " + i).createdAt(createdAt));
+        }
+
+        List<SignedNostrEvent> signed = signer.signAll(events).await();
+        assertEquals(events.size(), signed.size());
+        for (int i = 0; i < events.size(); i++) {
+            SignedNostrEvent event = signed.get(i);
+            assertEquals("event " + i, event.getContent());
+            assertEquals(pubkey, event.getPubkey());
+            assertTrue(event.verify());
+            assertEquals(signer.sign(events.get(i)).await().getId(), event.getId());
+        }
+    }
+
+    @Test
+    public void testSignAllEmpty() throws Exception {
+        assertTrue(NostrKeyPairSigner.generate().signAll(new ArrayList<>()).await().isEmpty());
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.tracker.RingBufferEventTracker;
+import org.ngengine.nostr4j.keypair.NostrPrivateKey;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+
+public class TestRingBufferEventTracker {
+
+    private final NostrPublicKey pubkey = NostrPrivateKey.generate().getPublicKey();
+
+    private SignedNostrEvent createEvent(long timestampSeconds, String id) {
+        return new SignedNostrEvent(
+            id,
+            pubkey,
+            0,
+            "",
+            Instant.ofEpochSecond(timestampSeconds),
+            "",
+            (List<List<String>>) new ArrayList<List<String>>()
+        );
+    }
+
+    private static String hexId(long n) {
+        String suffix = Long.toHexString(n * 0x9e3779b97f4a7c15L);
+        StringBuilder sb = new StringBuilder();
+        for (int i = suffix.length(); i < 64; i++) sb.append('0');
+        return sb.append(suffix).toString();
+    }
+
+    @Test
+    public void testDetectsDuplicatesWithHexIds() {
+        RingBufferEventTracker tracker = new RingBufferEventTracker(64, 1, TimeUnit.HOURS, 0, TimeUnit.HOURS);
+        long now = System.currentTimeMillis() / 1000;
+        for (int i = 0; i < 64; i++) {
+            assertFalse(tracker.seen(createEvent(now, hexId(i))));
+        }
+        for (int i = 0; i < 64; i++) {
+            assertTrue(tracker.seen(createEvent(now, hexId(i))));
+        }
+    }
+
+    @Test
+    public void testDetectsDuplicatesWithFallbackIds() {
+        RingBufferEventTracker tracker = new RingBufferEventTracker(64, 1, TimeUnit.HOURS, 0, TimeUnit.HOURS);
+        long now = System.currentTimeMillis() / 1000;
+        assertFalse(tracker.seen(createEvent(now, "event1")));
+        assertFalse(tracker.seen(createEvent(now, "event2")));
+        assertTrue(tracker.seen(createEvent(now, "event1")));
+        assertTrue(tracker.seen(createEvent(now, "event2")));
+    }
+
+    @Test
+    public void testEvictionMovesCutOff() {
+        RingBufferEventTracker tracker = new RingBufferEventTracker(4, 1, TimeUnit.HOURS, 0, TimeUnit.HOURS);
+        long now = System.currentTimeMillis() / 1000;
+        for (int i = 0; i < 8; i++) {
+            assertFalse(tracker.seen(createEvent(now - 100 + i, hexId(i))));
+        }
+        // evicted events are older than the cut off
+        assertTrue(tracker.seen(createEvent(now - 100, hexId(0))));
+        assertTrue(tracker.seen(createEvent(now - 100, hexId(1000))));
+        // retained events are still tracked by id
+        assertTrue(tracker.seen(createEvent(now - 93, hexId(7))));
+        assertFalse(tracker.seen(createEvent(now - 93, hexId(1001))));
+    }
+
+    @Test
+    public void testEvictionKeepsOlderUnseenEvents() {
+        RingBufferEventTracker tracker = new RingBufferEventTracker(4, 1, TimeUnit.HOURS, 0, TimeUnit.HOURS);
+        long now = System.currentTimeMillis() / 1000;
+        // interleave new events with older ones past capacity
+        for (int i = 0; i < 16; i++) {
+            long createdAt = i % 2 == 0 ? now - 100 + i : now - 1000 + i;
+            assertFalse(tracker.seen(createEvent(createdAt, hexId(i))));
+        }
+        // an old event that was never delivered must not be dropped because a newer one was evicted
+        assertFalse(tracker.seen(createEvent(now - 988, hexId(2000))));
+        assertTrue(tracker.seen(createEvent(now - 988, hexId(2000))));
+        // retained events are still tracked by id
+        assertTrue(tracker.seen(createEvent(now - 987, hexId(13))));
+        // the cut off still moves up to the oldest retained event
+        assertTrue(tracker.seen(createEvent(now - 2000, hexId(2001))));
+    }
+
+    @Test
+    public void testExpiresOutsideWindow() {
+        RingBufferEventTracker tracker = new RingBufferEventTracker(64, 10, TimeUnit.SECONDS, 5, TimeUnit.SECONDS);
+        long now = System.currentTimeMillis() / 1000;
+        assertFalse(tracker.seen(createEvent(now, "recent")));
+        assertTrue(tracker.seen(createEvent(now - 60, "old")));
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * BSD 3-Clause License
+ *
+ * Copyright (c) 2025, Riccardo Balbo
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+ * FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+ * DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+ * CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.ngengine.nostr4j.unit;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import org.junit.Test;
+import org.ngengine.nostr4j.event.SignedNostrEvent;
+import org.ngengine.nostr4j.event.UnsignedNostrEvent;
+import org.ngengine.nostr4j.keypair.NostrPublicKey;
+import org.ngengine.nostr4j.signer.NostrKeyPairSigner;
+import org.ngengine.nostr4j.utils.SchnorrVerifier;
+
+public class TestSchnorrVerifier {
+
+    private static SignedNostrEvent signed(NostrKeyPairSigner signer, String content) throws Exception {
+        return signer
+            .sign(new UnsignedNostrEvent().withKind(1).withContent(content).createdAt(Instant.ofEpochSecond(1700000000L)))
+            .await();
+    }
+
+    @Test
+    public void testContextsAreReused() throws Exception {
+        SchnorrVerifier verifier = new SchnorrVerifier(16, 8);
+        NostrKeyPairSigner signer = NostrKeyPairSigner.generate();
+        for (int i = 0; i < 10; i++) {
+            SignedNostrEvent event = signed(signer, "event " + i);
+            assertTrue(verifier.verify(event.getId(), event.getSignature(), event.getPubkey()));
+        }
+        assertEquals(1, verifier.size());
+        assertEquals(1, verifier.getMisses());
+        assertEquals(9, verifier.getHits());
+    }
+
+    @Test
+    public void testRejectsBadSignatures() throws Exception {
+        SchnorrVerifier verifier = new SchnorrVerifier();
+        NostrKeyPairSigner signer = NostrKeyPairSigner.generate();
+        SignedNostrEvent event = signed(signer, "hello");
+        SignedNostrEvent other = signed(signer, "world");
+
+        assertTrue(verifier.verify(event.getId(), event.getSignature(), event.getPubkey()));
+        // a remembered signature must not validate a different message
+        assertFalse(verifier.verify(other.getId(), event.getSignature(), event.getPubkey()));
+        assertFalse(verifier.verify(event.getId(), other.getSignature(), event.getPubkey()));
+        assertFalse(verifier.verify(event.getId(), "00", event.getPubkey()));
+        assertTrue(verifier.verify(event.getId(), event.getSignature(), event.getPubkey()));
+    }
+
+    @Test
+    public void testRejectsKeysOffTheCurve() throws Exception {
+        SchnorrVerifier verifier = new SchnorrVerifier();
+        SignedNostrEvent event = signed(NostrKeyPairSigner.generate(), "hello");
+        // the field prime itself is not a valid x coordinate
+        NostrPublicKey invalid = NostrPublicKey.fromHex("fffffffffffffffffffffffffffffffffffffffffffffffffffffffefffffc2f");
+        assertFalse(verifier.verify(event.getId(), event.getSignature(), invalid));
+    }
+
+    @Test
+    public void testLruEviction() throws Exception {
+        SchnorrVerifier verifier = new SchnorrVerifier(2, 0);
+        for (int i = 0; i < 4; i++) {
+            SignedNostrEvent event = signed(NostrKeyPairSigner.generate(), "event " + i);
+            assertTrue(event.verify(verifier));
+        }
+        assertEquals(2, verifier.size());
+        assertEquals(2, verifier.getEvictions());
+    }
+}
@@ -33,7 +33,13 @@ package org.ngengine.nostr4j.unit;
 import static org.junit.Assert.*;
 
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
 import org.junit.Test;
+import org.ngengine.nostr4j.utils.Bech32Codec;
+import org.ngengine.nostr4j.utils.HexCodec;
+import org.ngengine.nostr4j.utils.Utf8;
 import org.ngengine.platform.NGEUtils;
 
 public class TestUtils {
@@ -49,4 +55,64 @@ public class TestUtils {
         byte derivedBytes[] = NGEUtils.hexToBytes(hex).array();
         assertArrayEquals(bytes, derivedBytes);
     }
+
+    @Test
+    public void testHexCodec() {
+        byte bytes[] = { 0x01, (byte) 0xab, 0x7f, (byte) 0x80, 0x00, (byte) 0xff };
+        assertEquals("01ab7f8000ff", HexCodec.encode(bytes, 0, bytes.length));
+        assertEquals("ab7f", HexCodec.encode(ByteBuffer.wrap(bytes, 1, 2)));
+
+        byte decoded[] = new byte[bytes.length];
+        assertTrue(HexCodec.decode("01AB7f8000Ff", decoded, 0));
+        assertArrayEquals(bytes, decoded);
+        assertFalse(HexCodec.decode("0g", decoded, 0));
+        assertFalse(HexCodec.decode("012", decoded, 0));
+    }
+
+    @Test
+    public void testBech32Codec() {
+        String hex = "3bf0c63fcb93463407af97a5e5ee64fa883d107ef9e558472c4eb9aaaefa459d";
+        String npub = "npub180cvv07tjdrrgpa0j7j7tmnyl2yr6yr7l8j4s3evf6u64th6gkwsyjh6w6";
+        byte raw[] = NGEUtils.hexToByteArray(hex);
+        assertEquals(npub, Bech32Codec.encode("npub", raw, 0, raw.length));
+
+        byte decoded[] = new byte[32];
+        Bech32Codec.decode("npub", npub, decoded, 0, 32);
+        assertArrayEquals(raw, decoded);
+
+        Bech32Codec.decode("npub", npub.toUpperCase(), decoded, 0, 32);
+        assertArrayEquals(raw, decoded);
+
+        String badChecksum = npub.substring(0, npub.length() - 1) + "7";
+        assertThrows(IllegalArgumentException.class, () -> Bech32Codec.decode("npub", badChecksum, decoded, 0, 32));
+        assertThrows(IllegalArgumentException.class, () -> Bech32Codec.decode("nsec", npub, decoded, 0, 32));
+    }
+
+    @Test
+    public void testUtf8MatchesJdkEncoding() {
+        String[] samples = { "", "hello", "é", "€", "🌍", "café 日本 🌍", "\ud83c", "a\udf0db", "\udf0d\ud83c" };
+        for (String sample : samples) {
+            assertUtf8(sample);
+        }
+
+        // random mix of 1 to 4 bytes code points and unpaired surrogates
+        Random random = new Random(42);
+        char[] pool = { 'a', '~', '\u00e9', '\u07ff', '\u0800', '\u20ac', '\uffff', '\ud83c', '\udf0d' };
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder sb = new StringBuilder();
+            int len = random.nextInt(32);
+            for (int j = 0; j < len; j++) {
+                sb.append(pool[random.nextInt(pool.length)]);
+            }
+            assertUtf8(sb.toString());
+        }
+    }
+
+    private static void assertUtf8(String s) {
+        byte expected[] = s.getBytes(StandardCharsets.UTF_8);
+        assertEquals(s, expected.length, Utf8.length(s));
+        byte encoded[] = new byte[expected.length + 2];
+        assertEquals(expected.length + 1, Utf8.encode(s, encoded, 1));
+        assertArrayEquals(expected, Arrays.copyOfRange(encoded, 1, expected.length + 1));
+    }
 }